@@ -3,22 +3,18 @@ package Grid;
 /**
  * This is the Cell class. This will be used in order to construct the Grid.
  * Each Cell has its own unique properties which will help for each of the different searches.
+ * The Cells of a Grid are views on top of its PackedGrid, so reading or changing them reads or changes the packed array.
  */
 public class Cell {
     // Global variables
     private int x,y;                 // these two values represent the (x,y) coordinates of the current cell
-    private int type;                // this value represents the type of the variable
-    private int highwayDir;          // this value indicates what direction the highway flows
+    private int type;                // this value represents the type of the variable (only used when the cell is not part of a PackedGrid)
+    private int highwayDir;          // this value indicates what direction the highway flows (only used when the cell is not part of a PackedGrid)
+    private final PackedGrid store;  // the packed grid that holds the type and highway of this cell (null for a standalone cell)
+    private final int index;         // index of this cell in the packed grid
     
-	private float gCost;        // distance from the starting Cell to the current Cell
-    private float hCost;        // distance from the current cell to the end/goal Cell
-    private float fCost;        // fCost + hCost
-	
-	public Cell parent;         // this is the parent of the Cell, this will be used to keep track of the shortest path
-    public boolean visited;     // know if the Cell has been visited or not
-    public boolean hasBeenExplored;     // know if the cell has been explored in sequential search 
-    
-    public int index = 0;
+    // the costs, parent and explored flags of a search are kept in a SearchContext and not in the Cell,
+    // so a Cell is only read while a search is running
 
 
     /**
@@ -33,17 +29,28 @@ public class Cell {
         this.y = y;
         this.type = type;
         this.highwayDir = highwayDir;
-        this.gCost = Integer.MAX_VALUE;
-        this.hCost = 0;
-        this.parent = null;
-        this.visited = false;
-        this.hasBeenExplored = false;
+        this.store = null;
+        this.index = -1;
+    } // ends the Cell() constructor
+
+
+    /**
+     * This is the constructor for a Cell that is a view on a cell of a PackedGrid.
+     * @param store the packed grid that holds the cell
+     * @param x is the x-coordinate for this Cell
+     * @param y is the y-coordinate for this Cell
+     */
+    Cell(PackedGrid store, int x, int y) {
+        this.x = x;
+        this.y = y;
+        this.store = store;
+        this.index = store.getIndex(x, y);
     } // ends the Cell() constructor
 
 
     /**
      * This method will return the location of the cell on the grid.
-     * The x value is between [0,119] and y value is between [0,159].
+     * The x value is between [0,height-1] and y value is between [0,width-1] (120x160 for the default grid).
      * @return  int array with indexes 0 and 1 corresponding to the x and y coordinates respectively.
      */
     public int[] getLocation() {
@@ -62,7 +69,7 @@ public class Cell {
      * @return an int that represents the type of the cell
      */
     public int getType() {
-        return this.type;
+        return (this.store != null) ? this.store.getType(this.index) : this.type;
     } // ends the getType() method
 
     
@@ -71,7 +78,11 @@ public class Cell {
      * @param type is the new type of the Cell to change to
      */
     public void changeType(int type) {
-        this.type = type;
+        if (this.store != null) {
+            this.store.setType(this.index, type);
+        } else {
+            this.type = type;
+        }
     } // ends the changeType() method
 
     /**
@@ -81,7 +92,8 @@ public class Cell {
      * @return a boolean that tells if the Cell has a highway
      */
     public boolean hasHighway() {
-        if (type == 3 || type == 4 || highwayDir != 0) {
+        int type = getType();
+        if (type == 3 || type == 4 || getHighwayDir() != 0) {
             return true;
         } else {
             return false;
@@ -99,16 +111,21 @@ public class Cell {
      * @return 0 if there is no highay or [1,4] which represents the direction of the highway
      */
     public int getHighwayDir() {
-        return this.highwayDir;
+        return (this.store != null) ? this.store.getHighwayDir(this.index) : this.highwayDir;
     } // ends the getHighwayDir() method
 
 
     /**
      * This method will change the direction of the highway in the Cell.
+     * A Cell of a grid only keeps the direction if it is a highway (type 3 or 4), otherwise it is quietly dropped.
      * @param dir is the new direction of the Cell
      */
     public void changeHighwayDir(int dir) {
-        this.highwayDir = dir;
+        if (this.store != null) {
+            this.store.setHighwayDir(this.index, dir);
+        } else {
+            this.highwayDir = dir;
+        }
     } // ends the changeHighDir() method
     
 
@@ -120,6 +137,11 @@ public class Cell {
     	return this.x == cell.x && this.y == cell.y;
     }
 
+    public int hashCode() {
+        // must match equals(), so copies of a cell hash to the same place as the cell on the grid
+        return 31 * this.x + this.y;
+    }
+
     // ******************** GETTER & SETTER METHODS ************************* //
     
     public int getX() {
@@ -130,28 +152,4 @@ public class Cell {
     	return this.y;
     }
 
-    public void setfCost(float f) {
-        this.fCost = f;
-    }
-    
-	public float getfCost() {
-		return this.gCost + this.hCost;
-	}
-	
-	public float getgCost() {
-		return this.gCost;
-	}
-	
-	public float gethCost() {
-		return this.hCost;
-	}
-	
-	public void setgCost(float g) {
-		this.gCost = g;
-	}
-	
-	public void sethCost(float h) {
-		this.hCost = h;
-    }
-
 } // ends the Cell class
@@ -1,10 +1,18 @@
 package Grid;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.Random;
 
@@ -14,14 +22,16 @@ import java.util.Random;
  */
 public class Grid {
     /* Global varibales*/
-    private final int HEIGHT = 120;     // height of the grid
-    private final int WIDTH = 160;      // width of the grid
+    private static final int DEFAULT_HEIGHT = 120;  // height of the grid made by Grid()
+    private static final int DEFAULT_WIDTH = 160;   // width of the grid made by Grid()
+    private static final int DEFAULT_AREA = DEFAULT_HEIGHT * DEFAULT_WIDTH;     // area that the numbers below are made for
+    private static final int MAX_CELLS = Integer.MAX_VALUE / 8;    // the searches index the 8 edges of every cell with an int
 
-    private final int NUMBER_HARD_CELL_CENTERS = 8; // the total number of hard cell centers
+    private final int NUMBER_HARD_CELL_CENTERS = 8; // the total number of hard cell centers on a grid of the default area
     private final int HARD_CELL_AREA = 31;          // the total square area the hard cell centers cover
     private final float HARD_CELL_PROB = 0.5f;      // the probability a cell in the hard area can become a hard cell
 
-    private final int NUMBER_OF_HIGHWAYS = 4;               // total number of highways to create
+    private final int NUMBER_OF_HIGHWAYS = 4;               // total number of highways to create on a grid with the default border length
     private final int NUMBER_OF_HIGHWAY_TRIES = 5;          // total number of tries to make highways before restarting the algorithm
     private final int STANDARD_HIGHWAY_PATH = 20;           // length of cells turned into a highway of the same direction before turning
     private final int MIN_HIGHWAY_LENGTH = 100;             // minimum length of the highway
@@ -29,11 +39,21 @@ public class Grid {
 
     private final float BLOCKED_CELL_PER = 0.2f;            // the percentage of the probability that will be made up of blocked cells
 
-    private final int MIN_DIST_BETWEEN_START_AND_END = 100; // the minimum distance between the start and end points
-    private final int CHOICE_REGION_AREA = 20;              // size of the area that the start or end cell can be placed from a random border 
-
-    private Cell[][] grid;                                                      // main grid
-    private int[][] hardCellCenters = new int[NUMBER_HARD_CELL_CENTERS][2];     // array of all the hard cell centers
+    private final int MIN_DIST_BETWEEN_START_AND_END = 100; // the minimum distance between the start and end points on a grid of the default size
+    private final int CHOICE_REGION_AREA = 20;              // size of the area that the start or end cell can be placed from a random border (default size)
+
+    private static final int BINARY_MAGIC = 0x54504647;     // "TPFG", first 4 bytes of a binary grid file
+    private static final int BINARY_VERSION = 1;            // version of the binary grid format written by saveBinaryGrid()
+    private static final int COMPRESSED_VERSION = 2;        // version of the binary grid format written by saveCompressedGrid()
+
+    private PackedGrid packed;                                                  // main grid, 4 bits of type and highway per cell
+    private volatile Cell[][] grid;                                             // Cell views on the packed grid, only made when getGrid() is called
+    private int[][] hardCellCenters;                                            // array of all the hard cell centers
+    private int numberOfHighways;           // highways to create on this grid, NUMBER_OF_HIGHWAYS scaled by the border length
+    private int highwayTries;               // tries to make each highway before restarting, NUMBER_OF_HIGHWAY_TRIES scaled like the number of highways
+    private int minHighwayLength;           // minimum length of a highway on this grid (shorter on grids smaller than the default)
+    private int minDistBetweenStartAndEnd;  // minimum distance between the start and end points on this grid
+    private int choiceRegionArea;           // size of the area the start or end cell can be placed in on this grid
     private Random rand = new Random();                                         // randomizer
     public int[][] startCell = new int[1][2];                                   // location of the startCell
     public int[][] endCell = new int[1][2];                                     // location of the endCell
@@ -44,27 +64,47 @@ public class Grid {
      * This will initialize the grid will unblocked cells. 
      */
     public Grid() {
-        this.grid = new Cell[HEIGHT][WIDTH];
         // create initial grid of unblocked cells
-        for (int i = 0 ; i < HEIGHT ; ++i) {            
-            for (int j = 0 ; j < WIDTH ; ++j) {
-                this.grid[i][j] = new Cell(i,j,1,0);
-            }
-        }
+        this(DEFAULT_HEIGHT, DEFAULT_WIDTH);
     } // ends the Grid() constructor
     
 
 
 
-    //other constructor to test smaller size grids
-    public Grid(int x, int y) {
-    	this.grid = new Cell[x][y];
-    	for(int i = 0; i < x; i++) {
-    		for(int j = 0; j < y; j++) {
-    			this.grid[i][j] = new Cell(i, j, 1, 0);
-    		}
-    	}
-    }
+    /**
+     * This is the Grid constructor for a grid of any size.
+     * This will initialize the grid with unblocked cells, and the number of hard areas and highways and the distance
+     * between the start and end cells are scaled to the size of the grid when it is generated.
+     * @param height the height of the grid (number of rows / x values)
+     * @param width the width of the grid (number of columns / y values)
+     */
+    public Grid(int height, int width) {
+        checkSize(height, width);
+    	this.packed = new PackedGrid(height, width);
+        // a grid to generate gets at least one hard area, however small it is
+        sizeToGrid(Math.max(1, NUMBER_HARD_CELL_CENTERS * (long) height * width / DEFAULT_AREA));
+    } // ends the Grid() constructor
+
+
+
+
+    /**
+     * This method will scale the generation settings to the size of the packed grid.
+     * The hard areas are spread by area, the highways start and end on the border so they follow its length, and the
+     * start and end distances follow the smaller side and the diagonal. A grid of the default size gets the defaults.
+     * @param hardCenters the number of hard cell centers to keep room for (a grid read from a file keeps its own, even 0)
+     */
+    private void sizeToGrid(long hardCenters) {
+        int height = this.packed.getHeight();
+        int width = this.packed.getWidth();
+        this.hardCellCenters = new int[(int) hardCenters][2];
+        this.numberOfHighways = Math.round(NUMBER_OF_HIGHWAYS * (height + width) / (float) (DEFAULT_HEIGHT + DEFAULT_WIDTH));
+        this.highwayTries = Math.max(NUMBER_OF_HIGHWAY_TRIES, NUMBER_OF_HIGHWAY_TRIES * this.numberOfHighways / NUMBER_OF_HIGHWAYS);
+        this.minHighwayLength = Math.min(MIN_HIGHWAY_LENGTH, MIN_HIGHWAY_LENGTH * (height + width) / (DEFAULT_HEIGHT + DEFAULT_WIDTH));
+        this.minDistBetweenStartAndEnd = (int) (MIN_DIST_BETWEEN_START_AND_END * Math.sqrt((double) height * height + (double) width * width)
+                / Math.sqrt(DEFAULT_HEIGHT * DEFAULT_HEIGHT + DEFAULT_WIDTH * DEFAULT_WIDTH));
+        this.choiceRegionArea = Math.max(1, CHOICE_REGION_AREA * Math.min(height, width) / Math.min(DEFAULT_HEIGHT, DEFAULT_WIDTH));
+    } // ends the sizeToGrid() method
     
 
 
@@ -89,10 +129,12 @@ public class Grid {
      * This method will be used in order to set all the hard to traverse cells in the grid.
      */
     private void setHardCells() {
-        for (int i = 0 ; i < NUMBER_HARD_CELL_CENTERS ; ++i) {
+        int height = this.packed.getHeight();
+        int width = this.packed.getWidth();
+        for (int i = 0 ; i < hardCellCenters.length ; ++i) {
             // get random (x,y)
-            int xCenter = rand.nextInt(WIDTH);  // random value between [0, 160)
-            int yCenter = rand.nextInt(HEIGHT); // random value between [0, 120)
+            int xCenter = rand.nextInt(width);  // random value between [0, width)
+            int yCenter = rand.nextInt(height); // random value between [0, height)
 
             hardCellCenters[i][0] = xCenter;
             hardCellCenters[i][1] = yCenter;
@@ -106,15 +148,15 @@ public class Grid {
             // make sure that all values are within range
             if (left_border < 0) { left_border = 0; }
             if (top_border < 0) { top_border = 0; }
-            if (right_border >= WIDTH) { right_border = (WIDTH - 1); }
-            if (bottom_border >= HEIGHT) { bottom_border = (HEIGHT - 1); }
+            if (right_border >= width) { right_border = (width - 1); }
+            if (bottom_border >= height) { bottom_border = (height - 1); }
 
             // go through the area and fill in the hard cells based on the probability
             for (int j = left_border; j <= right_border ; ++j) {
                 for(int k = top_border; k <= bottom_border ; ++k) {
                     float curProb = (rand.nextInt(10)+1)/10f;   // get probability from [0.1 , 1.0]
                     if (curProb >= HARD_CELL_PROB) {
-                        this.grid[k][j].changeType(2);
+                        this.packed.setType(k, j, 2);
                     }
                 }
             }
@@ -130,12 +172,12 @@ public class Grid {
      * @return true if the highways have been created and false otherwise
      */
     private boolean setHighways() {
-        for (int i = 0 ; i < NUMBER_OF_HIGHWAYS ; ++i) {
+        for (int i = 0 ; i < numberOfHighways ; ++i) {
             int curTry = 1;
-            while (curTry <= NUMBER_OF_HIGHWAY_TRIES && !createHighway()) {  // will continue to try to make highways until the max number of tries
+            while (curTry <= highwayTries && !createHighway()) {  // will continue to try to make highways until the max number of tries
                 ++curTry;
             }
-            if (curTry > NUMBER_OF_HIGHWAY_TRIES) { // highway creation was unsuccessful and must start over again from the top
+            if (curTry > highwayTries) { // highway creation was unsuccessful and must start over again from the top
                 return false;
             }
         }
@@ -162,9 +204,9 @@ public class Grid {
         int dir = 0;
         if (curX == 0) { // Top Border
             dir = 3;
-        } else if (curY == 159) { // Right Border
+        } else if (curY == this.packed.getWidth() - 1) { // Right Border
             dir = 4;
-        } else if (curX == 119) { // Bottom Border
+        } else if (curX == this.packed.getHeight() - 1) { // Bottom Border
             dir = 1;
         } else { // Left Border
             dir = 2;
@@ -177,12 +219,12 @@ public class Grid {
         while (true) {
             for (int i = 1; i <= STANDARD_HIGHWAY_PATH ; ++i) {
                 if (isValidCell(curX, curY)) {
-                    if (this.grid[curX][curY].hasHighway()) {
+                    if (this.packed.hasHighway(curX, curY)) {
                         resetCurrentHighway(list);
                         return false;
                     }
                 } else {
-                    if (highwayLen >= MIN_HIGHWAY_LENGTH) {
+                    if (highwayLen >= minHighwayLength) {
                         return true;
                     } else {
                         resetCurrentHighway(list);
@@ -191,12 +233,12 @@ public class Grid {
                 }
                 
                 if (i < STANDARD_HIGHWAY_PATH) {
-                    this.grid[curX][curY].changeHighwayDir(dir);
-                    if (this.grid[curX][curY].getType() == 1) {
-                        this.grid[curX][curY].changeType(3);
-                    } else if (this.grid[curX][curY].getType() == 2) {
-                        this.grid[curX][curY].changeType(4);
+                    if (this.packed.getType(curX, curY) == 1) {
+                        this.packed.setType(curX, curY, 3);
+                    } else if (this.packed.getType(curX, curY) == 2) {
+                        this.packed.setType(curX, curY, 4);
                     } else {}
+                    this.packed.setHighwayDir(curX, curY, dir);   // only a highway cell can have a direction
                     ++highwayLen;
                     int[] arr = new int[2];
                     arr[0] = curX;
@@ -247,13 +289,7 @@ public class Grid {
      * @return  true if the (x,y) coordinate is valid / in-bounds else returns false
      */
     private boolean isValidCell(int x, int y) {
-        if ((x < 0) || (x > 119)) {
-            return false;
-        }
-        if ((y < 0) || (y > 159)) {
-            return false;
-        }
-        return true;
+        return this.packed.isValidCell(x, y);
     } // ends the isValidCell() method
 
 
@@ -266,12 +302,12 @@ public class Grid {
      */
     private void resetCurrentHighway(LinkedList<int[]> list) {
         for (int[] arr : list) {
-            if (this.grid[arr[0]][arr[1]].getType() == 3) {
-                this.grid[arr[0]][arr[1]].changeType(1);
-                this.grid[arr[0]][arr[1]].changeHighwayDir(0);
-            } else if (this.grid[arr[0]][arr[1]].getType() == 4){
-                this.grid[arr[0]][arr[1]].changeType(2);
-                this.grid[arr[0]][arr[1]].changeHighwayDir(0);
+            if (this.packed.getType(arr[0], arr[1]) == 3) {
+                this.packed.setType(arr[0], arr[1], 1);
+                this.packed.setHighwayDir(arr[0], arr[1], 0);
+            } else if (this.packed.getType(arr[0], arr[1]) == 4){
+                this.packed.setType(arr[0], arr[1], 2);
+                this.packed.setHighwayDir(arr[0], arr[1], 0);
             } else {}
         }
     } // ends the resetCurrentHighway() method
@@ -284,15 +320,15 @@ public class Grid {
      * This method will be called in order to reset all the highways on the grid.
      */
     private void resetAllHighways() {
-        for (int i = 0; i < HEIGHT ; ++i) {
-            for (int j = 0 ; j < WIDTH ; ++j) {
-                if (this.grid[i][j].getType() == 3) {
-                    this.grid[i][j].changeType(1);
-                    this.grid[i][j].changeHighwayDir(0);
+        for (int i = 0; i < this.packed.getHeight() ; ++i) {
+            for (int j = 0 ; j < this.packed.getWidth() ; ++j) {
+                if (this.packed.getType(i, j) == 3) {
+                    this.packed.setType(i, j, 1);
+                    this.packed.setHighwayDir(i, j, 0);
                 }
-                if (this.grid[i][j].getType() == 4) {
-                    this.grid[i][j].changeType(2);
-                    this.grid[i][j].changeHighwayDir(0);
+                if (this.packed.getType(i, j) == 4) {
+                    this.packed.setType(i, j, 2);
+                    this.packed.setHighwayDir(i, j, 0);
                 }
             }
         }
@@ -307,15 +343,17 @@ public class Grid {
      * @return an int[2] array which will be the starting point for the highway.
      */
     private int[] getBoundaryPoint() {
+        int height = this.packed.getHeight();
+        int width = this.packed.getWidth();
         int randBound = rand.nextInt(4) + 1; // [1,4]
         int [] point = new int[2];
         if (randBound == 1) {  // Top Border
             point[0] = 0; 
-            point[1] = rand.nextInt(WIDTH); // [0,159];
+            point[1] = rand.nextInt(width); // [0,width-1];
             int num = 0;
-            while (this.grid[point[0]][point[1]].hasHighway()) { // Vailidation that chosen random point is not existing highway.
+            while (this.packed.hasHighway(point[0], point[1])) { // Vailidation that chosen random point is not existing highway.
 				point[0] = 0; 
-                point[1] = rand.nextInt(WIDTH); // [0,159];
+                point[1] = rand.nextInt(width); // [0,width-1];
                 ++num;
                 if (num == 30) { // In the case that the border is taken over by a highway and this goes into an infinite loop.
                     point[0] = -1; 
@@ -325,12 +363,12 @@ public class Grid {
 			}
 			return point;
         } else if (randBound == 2) { // Right Border
-            point[0] = rand.nextInt(HEIGHT); // [0,119]
-            point[1] = WIDTH-1; 
+            point[0] = rand.nextInt(height); // [0,height-1]
+            point[1] = width-1; 
             int num = 0;
-			while (this.grid[point[0]][point[1]].hasHighway()) { // Vailidation that chosen random point is not existing highway.
-                point[0] = rand.nextInt(HEIGHT); // [0,119]
-                point[1] = WIDTH-1;
+			while (this.packed.hasHighway(point[0], point[1])) { // Vailidation that chosen random point is not existing highway.
+                point[0] = rand.nextInt(height); // [0,height-1]
+                point[1] = width-1;
                 ++num;
                 if (num == 30) { // In the case that the border is taken over by a highway and this goes into an infinite loop.
                     point[0] = -1; 
@@ -340,12 +378,12 @@ public class Grid {
             }
 			return point;
         } else if (randBound == 3) {  // Bottom Border
-            point[0] = HEIGHT-1;
-            point[1] = rand.nextInt(WIDTH); // [0,159]
+            point[0] = height-1;
+            point[1] = rand.nextInt(width); // [0,width-1]
             int num = 0;
-			while (this.grid[point[0]][point[1]].hasHighway()) { // Vailidation that chosen random point is not existing highway.
-                point[0] = HEIGHT-1;
-                point[1] = rand.nextInt(WIDTH); // [0,159]
+			while (this.packed.hasHighway(point[0], point[1])) { // Vailidation that chosen random point is not existing highway.
+                point[0] = height-1;
+                point[1] = rand.nextInt(width); // [0,width-1]
                 ++num;
                 if (num == 30) { // In the case that the border is taken over by a highway and this goes into an infinite loop.
                     point[0] = -1; 
@@ -355,11 +393,11 @@ public class Grid {
             }
 			return point;
         } else {  // Left Border
-            point[0] = rand.nextInt(HEIGHT); // [0,119]
+            point[0] = rand.nextInt(height); // [0,height-1]
             point[1] = 0; 
             int num = 0;
-			while (this.grid[point[0]][point[1]].hasHighway()) { // Vailidation that chosen random point is not existing highway.
-                point[0] = rand.nextInt(HEIGHT); // [0,119]
+			while (this.packed.hasHighway(point[0], point[1])) { // Vailidation that chosen random point is not existing highway.
+                point[0] = rand.nextInt(height); // [0,height-1]
                 point[1] = 0; 
                 ++num;
                 if (num == 30) { // In the case that the border is taken over by a highway and this goes into an infinite loop.
@@ -380,13 +418,15 @@ public class Grid {
      * This method will add blocked cells to 20% of the entire grid.
      */
     private void setBlockedCells() {
-        int numBlocked = (int)(WIDTH*HEIGHT*BLOCKED_CELL_PER);
+        int height = this.packed.getHeight();
+        int width = this.packed.getWidth();
+        int numBlocked = (int)((long) width * height * BLOCKED_CELL_PER);
         int i = 0;
         while (i < numBlocked) {
-            int x = rand.nextInt(120); // [0,119]
-            int y = rand.nextInt(160); // [0,159]
-            if (!this.grid[x][y].hasHighway()) {    // cannot block highways
-                this.grid[x][y].changeType(0);
+            int x = rand.nextInt(height); // [0,height-1]
+            int y = rand.nextInt(width);  // [0,width-1]
+            if (!this.packed.hasHighway(x, y)) {    // cannot block highways
+                this.packed.setType(x, y, 0);
                 ++i;
             }
         }
@@ -399,71 +439,73 @@ public class Grid {
      * This method will set the start and end cells in the grid.
      */
     public void setStartAndEnd() {
+        int height = this.packed.getHeight();
+        int width = this.packed.getWidth();
         int dist = 0;
         int x1 , y1, x2, y2;
         x1 = y1 = x2 = y2 = 0;
-        while (dist < MIN_DIST_BETWEEN_START_AND_END) {
+        while (dist < minDistBetweenStartAndEnd) {
             // get coordinate for the start cell
             int dir = rand.nextInt(4) + 1; 
             if (dir == 1) { // top border
-                x1 = rand.nextInt(CHOICE_REGION_AREA);      // [0,19]
-                y1 = rand.nextInt(WIDTH);                   // [0,159]
-                while (this.grid[x1][y1].getType() == 0) {  // if the choice is blocked, try another random location
-                    x1 = rand.nextInt(CHOICE_REGION_AREA);  // [0,19]
-                    y1 = rand.nextInt(WIDTH);               // [0,159]
+                x1 = rand.nextInt(choiceRegionArea);      // [0,choice-1]
+                y1 = rand.nextInt(width);                   // [0,width-1]
+                while (this.packed.getType(x1, y1) == 0) {  // if the choice is blocked, try another random location
+                    x1 = rand.nextInt(choiceRegionArea);  // [0,choice-1]
+                    y1 = rand.nextInt(width);               // [0,width-1]
                 }
             } else if (dir == 2) { // right border
-                x1 = rand.nextInt(HEIGHT);                                  // [0,119]
-                y1 = (WIDTH - 1) - rand.nextInt(CHOICE_REGION_AREA);        // [140,159]
-                while (this.grid[x1][y1].getType() == 0) {                  // if the choice is blocked, try another random location
-                    x1 = rand.nextInt(120);                                 // [0,119]
-                    y1 = (WIDTH - 1) - rand.nextInt(CHOICE_REGION_AREA);    // [140,159]
+                x1 = rand.nextInt(height);                                  // [0,height-1]
+                y1 = (width - 1) - rand.nextInt(choiceRegionArea);        // [width-choice,width-1]
+                while (this.packed.getType(x1, y1) == 0) {                  // if the choice is blocked, try another random location
+                    x1 = rand.nextInt(height);                                 // [0,height-1]
+                    y1 = (width - 1) - rand.nextInt(choiceRegionArea);    // [width-choice,width-1]
                 }
             } else if (dir == 3) { // bottom border
-                x1 = (HEIGHT - 1) - rand.nextInt(CHOICE_REGION_AREA);       // [100,119]
-                y1 = rand.nextInt(WIDTH);                                   // [0,159]
-                while (this.grid[x1][y1].getType() == 0) {                  // if the choice is blocked, try another random location
-                    x1 = (HEIGHT - 1) - rand.nextInt(CHOICE_REGION_AREA);   // [100,119]
-                    y1 = rand.nextInt(WIDTH);                               // [0,159]
+                x1 = (height - 1) - rand.nextInt(choiceRegionArea);       // [height-choice,height-1]
+                y1 = rand.nextInt(width);                                   // [0,width-1]
+                while (this.packed.getType(x1, y1) == 0) {                  // if the choice is blocked, try another random location
+                    x1 = (height - 1) - rand.nextInt(choiceRegionArea);   // [height-choice,height-1]
+                    y1 = rand.nextInt(width);                               // [0,width-1]
                 }
             } else { // left border
-                x1 = rand.nextInt(HEIGHT);                  // [0,119]
-                y1 = rand.nextInt(CHOICE_REGION_AREA);      // [0,19]
-                while (this.grid[x1][y1].getType() == 0) {  // if the choice is blocked, try another random location
-                    x1 = rand.nextInt(HEIGHT);              // [0,119]
-                    y1 = rand.nextInt(CHOICE_REGION_AREA);  // [0,19]
+                x1 = rand.nextInt(height);                  // [0,height-1]
+                y1 = rand.nextInt(choiceRegionArea);      // [0,choice-1]
+                while (this.packed.getType(x1, y1) == 0) {  // if the choice is blocked, try another random location
+                    x1 = rand.nextInt(height);              // [0,height-1]
+                    y1 = rand.nextInt(choiceRegionArea);  // [0,choice-1]
                 }
             }
 
             // get coordinate for the end cell
             dir = rand.nextInt(4) + 1; 
             if (dir == 1) { // top border
-                x2 = rand.nextInt(CHOICE_REGION_AREA);      // [0,19]
-                y2 = rand.nextInt(WIDTH);                   // [0,159]
-                while (this.grid[x2][y2].getType() == 0) {  // if the choice is blocked, try another random location
-                    x2 = rand.nextInt(CHOICE_REGION_AREA);  // [0,19]
-                    y2 = rand.nextInt(WIDTH);               // [0,159]
+                x2 = rand.nextInt(choiceRegionArea);      // [0,choice-1]
+                y2 = rand.nextInt(width);                   // [0,width-1]
+                while (this.packed.getType(x2, y2) == 0) {  // if the choice is blocked, try another random location
+                    x2 = rand.nextInt(choiceRegionArea);  // [0,choice-1]
+                    y2 = rand.nextInt(width);               // [0,width-1]
                 }
             } else if (dir == 2) { // right border
-                x2 = rand.nextInt(HEIGHT);                                  // [0,119]
-                y2 = (WIDTH - 1) - rand.nextInt(CHOICE_REGION_AREA);        // [140,159]
-                while (this.grid[x2][y2].getType() == 0) {                  // if the choice is blocked, try another random location
-                    x2 = rand.nextInt(120);                                 // [0,119]
-                    y2 = (WIDTH - 1) - rand.nextInt(CHOICE_REGION_AREA);    // [140,159]
+                x2 = rand.nextInt(height);                                  // [0,height-1]
+                y2 = (width - 1) - rand.nextInt(choiceRegionArea);        // [width-choice,width-1]
+                while (this.packed.getType(x2, y2) == 0) {                  // if the choice is blocked, try another random location
+                    x2 = rand.nextInt(height);                                 // [0,height-1]
+                    y2 = (width - 1) - rand.nextInt(choiceRegionArea);    // [width-choice,width-1]
                 }
             } else if (dir == 3) { // bottom border
-                x2 = (HEIGHT - 1) - rand.nextInt(CHOICE_REGION_AREA);       // [100,119]
-                y2 = rand.nextInt(WIDTH);                                   // [0,159]
-                while (this.grid[x2][y2].getType() == 0) {                  // if the choice is blocked, try another random location
-                    x2 = (HEIGHT - 1) - rand.nextInt(CHOICE_REGION_AREA);   // [100,119]
-                    y2 = rand.nextInt(WIDTH);                               // [0,159]
+                x2 = (height - 1) - rand.nextInt(choiceRegionArea);       // [height-choice,height-1]
+                y2 = rand.nextInt(width);                                   // [0,width-1]
+                while (this.packed.getType(x2, y2) == 0) {                  // if the choice is blocked, try another random location
+                    x2 = (height - 1) - rand.nextInt(choiceRegionArea);   // [height-choice,height-1]
+                    y2 = rand.nextInt(width);                               // [0,width-1]
                 }
             } else { // left border
-                x2 = rand.nextInt(HEIGHT);                  // [0,119]
-                y2 = rand.nextInt(CHOICE_REGION_AREA);      // [0,19]
-                while (this.grid[x2][y2].getType() == 0) {  // if the choice is blocked, try another random location
-                    x2 = rand.nextInt(HEIGHT);              // [0,119]
-                    y2 = rand.nextInt(CHOICE_REGION_AREA);  // [0,19]
+                x2 = rand.nextInt(height);                  // [0,height-1]
+                y2 = rand.nextInt(choiceRegionArea);      // [0,choice-1]
+                while (this.packed.getType(x2, y2) == 0) {  // if the choice is blocked, try another random location
+                    x2 = rand.nextInt(height);              // [0,height-1]
+                    y2 = rand.nextInt(choiceRegionArea);  // [0,choice-1]
                 }
             }
             // get distance between start and end cells
@@ -496,13 +538,80 @@ public class Grid {
 
     /**
      * This method will return the grid.
+     * The Cells are views on the packed grid and are only made the first time this is called.
      * @return the Cell grid
      */
     public Cell[][] getGrid() {
-        return this.grid;
+        Cell[][] cells = this.grid;
+        if (cells == null) {
+            synchronized (this) {
+                cells = this.grid;
+                if (cells == null) {
+                    cells = new Cell[packed.getHeight()][packed.getWidth()];
+                    for (int i = 0 ; i < cells.length ; ++i) {
+                        for (int j = 0 ; j < cells[i].length ; ++j) {
+                            cells[i][j] = new Cell(packed, i, j);
+                        }
+                    }
+                    this.grid = cells;
+                }
+            }
+        }
+        return cells;
     } // ends the getGrid() method
 
 
+    /**
+     * This method will return the Cell at a location.
+     * If getGrid() has not made the Cell views yet, this makes a view for this one cell only (Cells are equal when
+     * they are at the same location), so a large grid never has to make a Cell for every location.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the Cell
+     */
+    public Cell getCell(int x, int y) {
+        Cell[][] cells = this.grid;
+        return (cells != null) ? cells[x][y] : new Cell(this.packed, x, y);
+    } // ends the getCell() method
+
+
+    /**
+     * This method will return the packed grid that holds the type and highway of every cell.
+     * @return the packed grid
+     */
+    public PackedGrid getPackedGrid() {
+        return this.packed;
+    } // ends the getPackedGrid() method
+
+
+    /**
+     * This method will return a snapshot of the terrain as it is now (see PackedGrid.snapshot()).
+     * A search reading the snapshot is not touched by the edits made to the grid after it was taken.
+     * @return the snapshot of the current version of the grid
+     */
+    public GridSnapshot snapshot() {
+        return this.packed.snapshot();
+    } // ends the snapshot() method
+
+
+    /**
+     * This method will return the height of the grid.
+     * @return the number of rows
+     */
+    public int getHeight() {
+        return this.packed.getHeight();
+    } // ends the getHeight() method
+
+
+    /**
+     * This method will return the width of the grid.
+     * @return the number of columns
+     */
+    public int getWidth() {
+        return this.packed.getWidth();
+    } // ends the getWidth() method
+
+
 
 
     /**
@@ -537,15 +646,15 @@ public class Grid {
      */
     public void printGrid() {
         System.out.println("Grid:");
-        for (int i = 0 ; i < this.grid.length ; ++i) {
-            for (int j = 0 ; j < this.grid[i].length ; ++j) {
-                Cell cur = this.grid[i][j];
-                if (cur.getType() == 3) {
+        for (int i = 0 ; i < this.packed.getHeight() ; ++i) {
+            for (int j = 0 ; j < this.packed.getWidth() ; ++j) {
+                int type = this.packed.getType(i, j);
+                if (type == 3) {
                     System.out.print("a");
-                } else if (cur.getType() == 4) {
+                } else if (type == 4) {
                     System.out.print("b");
                 } else {
-                    System.out.print(cur.getType());
+                    System.out.print(type);
                 }
             }
             System.out.println();
@@ -560,7 +669,7 @@ public class Grid {
      */
     public void printHardCenters() {
         System.out.println("Hard-Cell Centers:");
-        for (int i = 0 ; i < NUMBER_HARD_CELL_CENTERS ; ++i) {
+        for (int i = 0 ; i < hardCellCenters.length ; ++i) {
             System.out.println("(" + hardCellCenters[i][0] + " , " + hardCellCenters[i][1] + ")");
         }
     } // ends that printHardCenters() method
@@ -570,6 +679,8 @@ public class Grid {
 
     /**
      * This method will save the contents of the grid to a txt file in the main directory.
+     * The first lines are the start and end cells and the hard centers ("x,y"), then one line per row of the grid,
+     * so the size of the grid is the number and the length of the rows.
      * @param file is the file pointer to the txt file to save the grid contents to
      */
     public void saveGrid(File file) {
@@ -580,23 +691,24 @@ public class Grid {
             writer.println(this.endCell[0][0] + "," + this.endCell[0][1]);
 
             // write in the hard centers
-            for (int i = 0 ; i < NUMBER_HARD_CELL_CENTERS ; ++i) {
+            for (int i = 0 ; i < this.hardCellCenters.length ; ++i) {
                 writer.println(this.hardCellCenters[i][0] + "," + this.hardCellCenters[i][1]);
             }
 
             // write in the grid
-            for (int i = 0 ; i < HEIGHT ; ++i) {
-                for (int j = 0 ; j < WIDTH ; ++j) {
-                    Cell cur = this.grid[i][j];
-                    if (cur.getType() == 3) {
-                        writer.print("a");
-                    } else if (cur.getType() == 4) {
-                        writer.print("b");
+            char[] row = new char[this.packed.getWidth()];
+            for (int i = 0 ; i < this.packed.getHeight() ; ++i) {
+                for (int j = 0 ; j < row.length ; ++j) {
+                    int type = this.packed.getType(i, j);
+                    if (type == 3) {
+                        row[j] = 'a';
+                    } else if (type == 4) {
+                        row[j] = 'b';
                     } else {
-                        writer.print(cur.getType());
+                        row[j] = (char) ('0' + type);
                     }
                 }
-                writer.println();
+                writer.println(row);
             }
 
             writer.close();
@@ -610,59 +722,264 @@ public class Grid {
     
     /**
      * This method will import a new Grid from a txt file.
+     * The grid takes the size of the one in the file (the number and the length of its rows).
      * @param file is the file pointer to the txt file with all the Grid contents to import from
      */
     public void importGrid(File file) {
-        try {
-            FileReader fileToRead = new FileReader(file);
-            BufferedReader reader = new BufferedReader(fileToRead);
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            // the first lines are the start and end cells + hard centers
+            LinkedList<int[]> coords = new LinkedList<>();
             String line = reader.readLine();
-            int linesRead = 1;
-            while (line != null) {
-                if (linesRead <= NUMBER_HARD_CELL_CENTERS + 2) { // first 10 lines are the start and end cells + hard centers
-                    String[] coords = line.split(",");
-                    int x = Integer.parseInt(coords[0]);
-                    int y = Integer.parseInt(coords[1]);
-
-                    if (linesRead == 1) {
-                        this.startCell[0][0] = x;
-                        this.startCell[0][1] = y;
-                        ++linesRead;
-                    } else if (linesRead == 2) {
-                        this.endCell[0][0] = x;
-                        this.endCell[0][1] = y;
-                        ++linesRead;
-                    } else {
-                        this.hardCellCenters[linesRead - 3][0] = x;
-                        this.hardCellCenters[linesRead - 3][1] = y;
-                        ++linesRead;
+            while (line != null && line.indexOf(',') != -1) {
+                String[] parts = line.split(",");
+                coords.add(new int[] {Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim())});
+                line = reader.readLine();
+            }
+            if (coords.size() < 2 || line == null || line.isEmpty()) {
+                throw new IOException("the file has no start and end cells or no grid");
+            }
+
+            // get the grid contents, one row per line
+            int width = line.length();
+            int height = 0;
+            byte[] cells = new byte[width * 64];
+            while (line != null && !line.isEmpty()) {
+                if (line.length() != width) {
+                    throw new IOException("row " + height + " has " + line.length() + " cells instead of " + width);
+                }
+                if ((long) (height + 1) * width > cells.length) {
+                    cells = Arrays.copyOf(cells, (int) Math.min(MAX_CELLS, 2L * cells.length));
+                    if ((long) (height + 1) * width > cells.length) {
+                        throw new IOException("the grid is too big");
                     }
-                } else { // get the grid contents
-                    for (int i = 0 ; i < HEIGHT ; ++i) {
-                        for (int j = 0 ; j < WIDTH ; ++j) {
-                            Cell cur = this.grid[i][j];
-                            if (line.charAt(j) == '0') {
-                                cur.changeType(0);
-                            } else if (line.charAt(j) == '1') {
-                                cur.changeType(1);
-                            } else if (line.charAt(j) == '2') {
-                                cur.changeType(2);
-                            } else if (line.charAt(j) == 'a') {
-                                cur.changeType(3);
-                            } else {
-                                cur.changeType(4);
-                            }
-                        }
-                        line = reader.readLine();
+                }
+                int offset = height * width;
+                for (int j = 0 ; j < width ; ++j) {
+                    char c = line.charAt(j);
+                    if (c == '0') {
+                        cells[offset + j] = 0;
+                    } else if (c == '1') {
+                        cells[offset + j] = 1;
+                    } else if (c == '2') {
+                        cells[offset + j] = 2;
+                    } else if (c == 'a') {
+                        cells[offset + j] = 3;
+                    } else {
+                        cells[offset + j] = 4;
                     }
                 }
+                ++height;
                 line = reader.readLine();
             } // ends the while loop
-            reader.close();
-            fileToRead.close();
-        } catch (IOException e) {
-            System.out.println("Error importing grid.");
+
+            loadCells(coords.size() - 2, height, width, ByteBuffer.wrap(cells, 0, height * width));
+            int[] start = coords.removeFirst();
+            int[] end = coords.removeFirst();
+            this.startCell[0][0] = start[0];
+            this.startCell[0][1] = start[1];
+            this.endCell[0][0] = end[0];
+            this.endCell[0][1] = end[1];
+            int i = 0;
+            for (int[] center : coords) {
+                this.hardCellCenters[i++] = center;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error importing grid: " + e.getMessage());
         }
     } // ends the importGrid() method
+
+
+
+
+    /**
+     * This method will save the contents of the grid to a binary file.
+     * The file is a header of ints (big-endian) followed by one byte per cell, row by row:
+     * magic "TPFG", format version, height, width, start x and y, end x and y, the number of hard centers and their x
+     * and y, then height * width bytes with the type in the low 3 bits and the highway direction in the next 3 bits,
+     * so loading it is a single pass over the mapped file with no parsing.
+     * @param file is the file pointer to the binary file to save the grid contents to
+     */
+    public void saveBinaryGrid(File file) {
+        ByteBuffer header = binaryHeader(BINARY_VERSION);
+        ByteBuffer body = ByteBuffer.allocate(Math.min(this.packed.size(), 1 << 20));
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            for (int i = 0 ; i < this.packed.size() ; i += body.capacity()) {
+                body.clear();
+                int length = Math.min(body.capacity(), this.packed.size() - i);
+                this.packed.getBytes(i, body.array(), 0, length);
+                body.limit(length);
+                while (body.hasRemaining()) {
+                    channel.write(body);
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Error saving the grid.");
+        }
+    } // ends the saveBinaryGrid() method
+
+
+
+
+    /**
+     * This method will save the contents of the grid to a compressed binary file.
+     * The header is the same as the one of saveBinaryGrid() (with format version 2), and the cells follow as the rows
+     * compressed by TerrainCodec (runs of the same terrain, or of the changes from the row above).
+     * The file is much smaller than the one of saveBinaryGrid(), it keeps the highway directions too.
+     * @param file is the file pointer to the binary file to save the grid contents to
+     */
+    public void saveCompressedGrid(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            ByteBuffer header = binaryHeader(COMPRESSED_VERSION);
+            out.write(header.array(), 0, header.limit());
+            TerrainCodec.encode(this.packed, out);
+            out.flush();
+        } catch (IOException e) {
+            System.out.println("Error saving the grid.");
+        }
+    } // ends the saveCompressedGrid() method
+
+
+
+
+    /**
+     * This method will make the header of a binary grid file.
+     * @param version the format version of the file
+     * @return the header, ready to be written
+     */
+    private ByteBuffer binaryHeader(int version) {
+        ByteBuffer header = ByteBuffer.allocate(4 * (9 + 2 * this.hardCellCenters.length));
+        header.putInt(BINARY_MAGIC).putInt(version);
+        header.putInt(this.packed.getHeight()).putInt(this.packed.getWidth());
+        header.putInt(this.startCell[0][0]).putInt(this.startCell[0][1]);
+        header.putInt(this.endCell[0][0]).putInt(this.endCell[0][1]);
+        header.putInt(this.hardCellCenters.length);
+        for (int i = 0 ; i < this.hardCellCenters.length ; ++i) {
+            header.putInt(this.hardCellCenters[i][0]).putInt(this.hardCellCenters[i][1]);
+        }
+        header.flip();
+        return header;
+    } // ends the binaryHeader() method
+
+
+
+
+    /**
+     * This method will import a new Grid from a binary file written by saveBinaryGrid() or saveCompressedGrid().
+     * The file is memory-mapped, and the cells of a binary file are read straight from the mapping into the packed
+     * grid (a new one only when the size changes), with no copy in between.
+     * The grid takes the size of the one in the file.
+     * @param file is the file pointer to the binary file with all the Grid contents to import from
+     */
+    public void importBinaryGrid(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.remaining() < 4 * 9 || map.getInt() != BINARY_MAGIC) {
+                throw new IOException("not a binary grid file");
+            }
+            int version = map.getInt();
+            if (version != BINARY_VERSION && version != COMPRESSED_VERSION) {
+                throw new IOException("unknown binary grid version " + version);
+            }
+            int height = map.getInt();
+            int width = map.getInt();
+            int startX = map.getInt();
+            int startY = map.getInt();
+            int endX = map.getInt();
+            int endY = map.getInt();
+            int centers = map.getInt();
+            long body = (version == BINARY_VERSION) ? (long) height * width : height;  // smallest size of the cells
+            if (height <= 0 || width <= 0 || centers < 0 || map.remaining() < 8L * centers + body) {
+                throw new IOException("binary grid file is truncated");
+            }
+            int[][] hardCenters = new int[centers][2];
+            for (int i = 0 ; i < centers ; ++i) {
+                hardCenters[i][0] = map.getInt();
+                hardCenters[i][1] = map.getInt();
+            }
+            if (version == BINARY_VERSION) {
+                loadCells(centers, height, width, map);
+            } else {
+                checkSize(height, width);
+                setCells(centers, TerrainCodec.decode(map, height, width));
+            }
+            this.startCell[0][0] = startX;
+            this.startCell[0][1] = startY;
+            this.endCell[0][0] = endX;
+            this.endCell[0][1] = endY;
+            for (int i = 0 ; i < centers ; ++i) {
+                this.hardCellCenters[i] = hardCenters[i];
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Error importing grid: " + e.getMessage());
+        }
+    } // ends the importBinaryGrid() method
+
+
+
+
+    /**
+     * This method will check that a grid of a size can be made.
+     * @param height the height of the grid
+     * @param width the width of the grid
+     */
+    private static void checkSize(int height, int width) {
+        if (height <= 0 || width <= 0 || (long) height * width > MAX_CELLS) {
+            throw new IllegalArgumentException("invalid grid size " + height + "x" + width);
+        }
+    } // ends the checkSize() method
+
+
+
+
+    /**
+     * This method will replace every cell of the grid with the ones of a buffer of cell bytes (one byte per cell, row
+     * by row), taking a new size if it has to.
+     * The bytes go straight into the packed grid that is already there when the size stays the same (see setCells()),
+     * otherwise straight into the new one.
+     * @param hardCenters the number of hard cell centers of the new grid
+     * @param height the height of the new grid
+     * @param width the width of the new grid
+     * @param cells the buffer with the cell bytes
+     */
+    private void loadCells(int hardCenters, int height, int width, ByteBuffer cells) {
+        checkSize(height, width);
+        if (height != this.packed.getHeight() || width != this.packed.getWidth()) {
+            PackedGrid read = new PackedGrid(height, width);
+            read.load(cells);
+            this.packed = read;
+            this.grid = null;
+        } else {
+            this.packed.load(cells);
+        }
+        sizeToGrid(hardCenters);
+    } // ends the loadCells() method
+
+
+
+
+    /**
+     * This method will replace every cell of the grid, taking a new size if it has to.
+     * When the size stays the same the cells are loaded into the packed grid that is already there, so its listeners
+     * are told about the cells that change. Otherwise the new packed grid takes its place (with new Cell views), and
+     * anything built for the old one (like the searches and the cost models) keeps working on the old one.
+     * @param hardCenters the number of hard cell centers of the new grid
+     * @param cells the new cells
+     */
+    private void setCells(int hardCenters, PackedGrid cells) {
+        if (cells.getHeight() != this.packed.getHeight() || cells.getWidth() != this.packed.getWidth()) {
+            this.packed = cells;
+            this.grid = null;
+        } else {
+            this.packed.load(cells);
+        }
+        sizeToGrid(hardCenters);
+    } // ends the setCells() method
     
 } // ends the Grid class
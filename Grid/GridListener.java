@@ -0,0 +1,17 @@
+package Grid;
+
+/**
+ * This is the Grid Listener interface.
+ * Anything that keeps data built from the terrain of a PackedGrid (like the edge cost tables of the searches)
+ * can implement this in order to be told when a cell changes, so it only has to rebuild that part.
+ */
+public interface GridListener {
+
+    /**
+     * This method is called after the type or the highway direction of a cell has changed.
+     * @param grid the packed grid that changed
+     * @param index the index of the cell that changed
+     */
+    void cellChanged(PackedGrid grid, int index);
+
+} // ends the GridListener interface
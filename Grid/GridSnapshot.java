@@ -0,0 +1,158 @@
+package Grid;
+
+import java.lang.ref.WeakReference;
+
+/**
+ * This is the Grid Snapshot class, the terrain of a PackedGrid as it was at one version (see PackedGrid.snapshot()).
+ * A snapshot never changes, so a search can read it while other threads keep editing the grid, and its version (the
+ * version of the grid when it was taken) can be used by caches as the key of anything built from it.
+ *
+ * The rows are copied on write: a snapshot keeps the 4 bit codes of every row in its own array (two cells per byte,
+ * the even cell in the low half), and the next snapshot only copies the rows that were edited in between and shares
+ * all the others, so taking a snapshot after a few edits costs a few rows and not the whole map.
+ */
+public class GridSnapshot implements Terrain {
+    // Global variables
+    private final int height;       // height of the grid (number of rows / x values)
+    private final int width;        // width of the grid (number of columns / y values)
+    private final long version;     // version of the grid the snapshot was taken at
+    final byte[][] rows;            // codes of every row, shared with the other snapshots and never written to
+    private final WeakReference<GridSnapshot> previous;    // snapshot taken before this one (null => first one)
+
+
+    /**
+     * This is the constructor of the GridSnapshot class, only the PackedGrid makes them.
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @param version the version of the grid
+     * @param rows the codes of every row, they must never be written to again
+     * @param previous the snapshot taken before this one (null => first one)
+     */
+    GridSnapshot(int height, int width, long version, byte[][] rows, GridSnapshot previous) {
+        this.height = height;
+        this.width = width;
+        this.version = version;
+        this.rows = rows;
+        this.previous = (previous == null) ? null : new WeakReference<>(previous);
+    } // ends the GridSnapshot() constructor
+
+
+    @Override
+    public int getHeight() {
+        return this.height;
+    } // ends the getHeight() method
+
+
+    @Override
+    public int getWidth() {
+        return this.width;
+    } // ends the getWidth() method
+
+
+    @Override
+    public int size() {
+        return this.height * this.width;
+    } // ends the size() method
+
+
+    /**
+     * This method will return the version of the grid the snapshot was taken at.
+     * The versions of the snapshots of a grid only go up, and two snapshots with the same version hold the same cells.
+     * @return the version
+     */
+    @Override
+    public long getVersion() {
+        return this.version;
+    } // ends the getVersion() method
+
+
+    /**
+     * This method will check if a set of coordinates is inside the grid.
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return true if the (x,y) coordinate is in-bounds and false otherwise
+     */
+    public boolean isValidCell(int x, int y) {
+        return x >= 0 && x < this.height && y >= 0 && y < this.width;
+    } // ends the isValidCell() method
+
+
+    /**
+     * This method will return the code of a cell (see PackedGrid.typeOf() and PackedGrid.highwayDirOf()).
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the 4 bit code of the cell
+     */
+    public int getCode(int x, int y) {
+        return (this.rows[x][y >> 1] >> ((y & 1) << 2)) & 0x0F;
+    } // ends the getCode() method
+
+
+    @Override
+    public int getType(int index) {
+        return getType(index / this.width, index % this.width);
+    } // ends the getType() method
+
+
+    /**
+     * This method will return the type of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the type of the cell
+     */
+    public int getType(int x, int y) {
+        return PackedGrid.typeOf(getCode(x, y));
+    } // ends the getType() method
+
+
+    @Override
+    public int getHighwayDir(int index) {
+        return getHighwayDir(index / this.width, index % this.width);
+    } // ends the getHighwayDir() method
+
+
+    /**
+     * This method will return the highway direction of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the highway direction of the cell
+     */
+    public int getHighwayDir(int x, int y) {
+        return PackedGrid.highwayDirOf(getCode(x, y));
+    } // ends the getHighwayDir() method
+
+
+    /**
+     * This method will return a standalone Cell with the type and highway of a cell of the snapshot.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the Cell, it is not a view so changing it does not change anything
+     */
+    public Cell getCell(int x, int y) {
+        int code = getCode(x, y);
+        return new Cell(x, y, PackedGrid.typeOf(code), PackedGrid.highwayDirOf(code));
+    } // ends the getCell() method
+
+
+    /**
+     * This method will return the snapshot of the same grid taken right before this one, if it is still in memory.
+     * Anything built from that snapshot can be brought up to this one by only redoing the rows that are not shared.
+     * @return the previous snapshot, or null if there is none
+     */
+    public GridSnapshot getPrevious() {
+        return (this.previous == null) ? null : this.previous.get();
+    } // ends the getPrevious() method
+
+
+    /**
+     * This method will check if a row of this snapshot is the same array as the row of another snapshot, which means
+     * that it has not been edited between the two.
+     * @param other the other snapshot (of the same grid)
+     * @param x the row
+     * @return true if the row is shared and false if it was copied because it was edited
+     */
+    public boolean sharesRow(GridSnapshot other, int x) {
+        return this.rows[x] == other.rows[x];
+    } // ends the sharesRow() method
+
+} // ends the GridSnapshot class
@@ -0,0 +1,516 @@
+package Grid;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * This is the Packed Grid class.
+ * This holds the terrain of the whole map in one array addressed by a linear cell index (x * width + y).
+ * A cell only has 13 different terrains (types 0-2 without a highway, and types 3 and 4 without a direction or with
+ * one of the 4 directions), so each cell is a 4 bit code and two cells share a byte (the even cell in the low half).
+ * The map costs half a byte per cell instead of one Cell object per cell.
+ * The searches read this array through getType(), the Cell objects of Grid.getGrid() are only views on top of it.
+ *
+ * The binary grid files and the tiles of a TiledGrid keep one byte per cell (the type in the low 3 bits and the
+ * highway direction in the next 3 bits), load() and getBytes() convert from and to that layout.
+ *
+ * The edits are made under the lock of the grid, and a search that runs while other threads edit the grid should read
+ * a snapshot() of it instead of the grid itself (see GridSnapshot): the snapshot keeps the version it was taken at,
+ * and taking one only copies the rows that were edited since the last one.
+ */
+public class PackedGrid implements Terrain {
+    // Global variables
+    public static final int TYPE_MASK = 0x07;       // bits of a cell byte that hold the type of the cell
+    public static final int HIGHWAY_SHIFT = 3;      // the highway direction is stored right above the type
+    public static final int HIGHWAY_MASK = 0x07;    // bits (after the shift) that hold the highway direction
+    public static final int BITS_PER_CELL = 4;      // bits of the code of a cell in the packed array
+    public static final int CODES = 13;             // number of different codes
+
+    // type and highway direction of every code: 0-4 are the types without a direction, 5-8 are type 3 going North,
+    // East, South and West, and 9-12 are type 4 going the same ways
+    private static final byte[] TYPE_OF = {0, 1, 2, 3, 4, 3, 3, 3, 3, 4, 4, 4, 4, 0, 0, 0};
+    private static final byte[] DIR_OF = {0, 0, 0, 0, 0, 1, 2, 3, 4, 1, 2, 3, 4, 0, 0, 0};
+
+    private final int height;       // height of the grid (number of rows / x values)
+    private final int width;        // width of the grid (number of columns / y values)
+    private final int size;         // number of cells
+    private final byte[] cells;     // code of every cell, two cells per byte
+    private volatile long version;  // goes up by one every time a cell changes (only written under the lock)
+    private GridSnapshot latest;    // last snapshot taken (null => none yet)
+    private boolean[] dirtyRows;    // rows edited since the last snapshot (null => no snapshot yet)
+
+    private final List<GridListener> listeners = new CopyOnWriteArrayList<>();  // told about every cell that changes
+
+
+    /**
+     * This is the constructor of the PackedGrid class.
+     * Every cell starts as an unblocked cell without a highway.
+     * @param height the height of the grid
+     * @param width the width of the grid
+     */
+    public PackedGrid(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.size = height * width;
+        this.cells = new byte[(this.size + 1) / 2];
+        Arrays.fill(this.cells, (byte) 0x11);
+    } // ends the PackedGrid() constructor
+
+
+    /**
+     * This method will return the height of the grid.
+     * @return the number of rows
+     */
+    @Override
+    public int getHeight() {
+        return this.height;
+    } // ends the getHeight() method
+
+
+    /**
+     * This method will return the width of the grid.
+     * @return the number of columns
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    } // ends the getWidth() method
+
+
+    /**
+     * This method will return the total number of cells in the grid.
+     * @return height * width
+     */
+    @Override
+    public int size() {
+        return this.size;
+    } // ends the size() method
+
+
+    /**
+     * This method will return the index of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the index of the cell (x * width + y)
+     */
+    public int getIndex(int x, int y) {
+        return x * this.width + y;
+    } // ends the getIndex() method
+
+
+    /**
+     * This method will return the x-coordinate of a cell index.
+     * @param index the index of the cell
+     * @return the x-coordinate
+     */
+    public int getX(int index) {
+        return index / this.width;
+    } // ends the getX() method
+
+
+    /**
+     * This method will return the y-coordinate of a cell index.
+     * @param index the index of the cell
+     * @return the y-coordinate
+     */
+    public int getY(int index) {
+        return index % this.width;
+    } // ends the getY() method
+
+
+    /**
+     * This method will check if a set of coordinates is inside the grid.
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return true if the (x,y) coordinate is in-bounds and false otherwise
+     */
+    public boolean isValidCell(int x, int y) {
+        return x >= 0 && x < this.height && y >= 0 && y < this.width;
+    } // ends the isValidCell() method
+
+
+    /**
+     * This method will return the type of a cell (see Cell.getType() for the values).
+     * @param index the index of the cell
+     * @return the type of the cell
+     */
+    @Override
+    public int getType(int index) {
+        return TYPE_OF[getCode(index)];
+    } // ends the getType() method
+
+
+    /**
+     * This method will return the type of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the type of the cell
+     */
+    public int getType(int x, int y) {
+        return getType(getIndex(x, y));
+    } // ends the getType() method
+
+
+    /**
+     * This method will change the type of a cell.
+     * @param index the index of the cell
+     * @param type the new type of the cell
+     */
+    public void setType(int index, int type) {
+        if (type < 0 || type > 4) {
+            throw new IllegalArgumentException("invalid cell type " + type);
+        }
+        int dir = (type == 3 || type == 4) ? getHighwayDir(index) : 0;  // a cell that is not a highway loses its direction
+        setCode(index, codeOf(type, dir));
+    } // ends the setType() method
+
+
+    /**
+     * This method will change the type of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @param type the new type of the cell
+     */
+    public void setType(int x, int y, int type) {
+        setType(getIndex(x, y), type);
+    } // ends the setType() method
+
+
+    /**
+     * This method will return the highway direction of a cell (see Cell.getHighwayDir() for the values).
+     * @param index the index of the cell
+     * @return the highway direction of the cell
+     */
+    @Override
+    public int getHighwayDir(int index) {
+        return DIR_OF[getCode(index)];
+    } // ends the getHighwayDir() method
+
+
+    /**
+     * This method will change the highway direction of a cell.
+     * Only the highway cells (type 3 or 4) can keep a direction, so the type has to be set first. On any other cell,
+     * and for a direction that is not 1-4, the cell is left with no direction (like the cell bytes of the files).
+     * @param index the index of the cell
+     * @param dir the new highway direction (0 => none)
+     */
+    public void setHighwayDir(int index, int dir) {
+        setCode(index, codeOf(getType(index), dir));
+    } // ends the setHighwayDir() method
+
+
+    /**
+     * This method will change the highway direction of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @param dir the new highway direction
+     */
+    public void setHighwayDir(int x, int y, int dir) {
+        setHighwayDir(getIndex(x, y), dir);
+    } // ends the setHighwayDir() method
+
+
+    /**
+     * This method will check if a cell has a highway.
+     * @param index the index of the cell
+     * @return true if the cell has a highway and false otherwise
+     */
+    public boolean hasHighway(int index) {
+        int type = getType(index);
+        return type == 3 || type == 4;
+    } // ends the hasHighway() method
+
+
+    /**
+     * This method will check if a cell has a highway.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return true if the cell has a highway and false otherwise
+     */
+    public boolean hasHighway(int x, int y) {
+        return hasHighway(getIndex(x, y));
+    } // ends the hasHighway() method
+
+
+    /**
+     * This method will add a listener that is told every time a cell changes.
+     * @param listener the listener to add
+     */
+    public void addListener(GridListener listener) {
+        this.listeners.add(listener);
+    } // ends the addListener() method
+
+
+    /**
+     * This method will remove a listener that was added with addListener().
+     * @param listener the listener to remove
+     */
+    public void removeListener(GridListener listener) {
+        this.listeners.remove(listener);
+    } // ends the removeListener() method
+
+
+    /**
+     * This method will return the version of the grid, which goes up every time a cell changes.
+     * Anything built from the terrain can keep the version it was built for and compare it to see if it is stale.
+     * @return the version of the grid
+     */
+    @Override
+    public long getVersion() {
+        return this.version;
+    } // ends the getVersion() method
+
+
+    /**
+     * This method will return the version of the grid once the edit being made (if any) is done.
+     * The listeners are told about an edit while the lock is held, so by then they are up to date with the version,
+     * which getVersion() does not promise: it goes up before the listeners (like the CostModel) are told.
+     * @return the version of the grid
+     */
+    public synchronized long getSettledVersion() {
+        return this.version;
+    } // ends the getSettledVersion() method
+
+
+    /**
+     * This method will tell all the listeners that a cell has changed.
+     * It is called with the lock still held, so the listeners are told about the edits one at a time and in the order
+     * they were made, and what they read from the grid is the version the edit made (a listener may still take a
+     * snapshot, the lock is the same). A listener must not wait for another thread that edits the grid.
+     * @param index the index of the cell that changed
+     */
+    private void fireCellChanged(int index) {
+        if (this.listeners.isEmpty()) {
+            return;
+        }
+        for (GridListener listener : this.listeners) {
+            listener.cellChanged(this, index);
+        }
+    } // ends the fireCellChanged() method
+
+
+    /**
+     * This method will return the code of a cell (see TYPE_OF and DIR_OF for what they are).
+     * @param index the index of the cell
+     * @return the 4 bit code of the cell
+     */
+    public int getCode(int index) {
+        return (this.cells[index >> 1] >> ((index & 1) << 2)) & 0x0F;
+    } // ends the getCode() method
+
+
+    /**
+     * This method will change the code of a cell.
+     * @param index the index of the cell
+     * @param code the new code of the cell
+     */
+    void setCode(int index, int code) {
+        int shift = (index & 1) << 2;
+        synchronized (this) {
+            int b = this.cells[index >> 1];
+            if (((b >> shift) & 0x0F) == code) {
+                return;
+            }
+            this.cells[index >> 1] = (byte) ((b & ~(0x0F << shift)) | (code << shift));
+            this.version++;
+            if (this.dirtyRows != null) {
+                this.dirtyRows[index / this.width] = true;
+            }
+            fireCellChanged(index);
+        }
+    } // ends the setCode() method
+
+
+    /**
+     * This method will write the codes of a run of cells without telling the listeners, for filling a new grid.
+     * @param index the index of the first cell
+     * @param codes the codes to write
+     * @param length the number of cells
+     */
+    synchronized void putCodes(int index, int[] codes, int length) {
+        for (int i = 0 ; i < length ; ++i) {
+            int c = index + i;
+            int shift = (c & 1) << 2;
+            this.cells[c >> 1] = (byte) ((this.cells[c >> 1] & ~(0x0F << shift)) | (codes[i] << shift));
+        }
+        this.version++;
+        if (this.dirtyRows != null && length > 0) {
+            Arrays.fill(this.dirtyRows, index / this.width, (index + length - 1) / this.width + 1, true);
+        }
+    } // ends the putCodes() method
+
+
+    /**
+     * This method will return the code of a type and highway direction.
+     * @param type the type of the cell
+     * @param dir the highway direction of the cell (only kept for the types 3 and 4)
+     * @return the code
+     */
+    public static int codeOf(int type, int dir) {
+        if ((type != 3 && type != 4) || dir < 1 || dir > 4) {
+            return type;
+        }
+        return 5 + (type - 3) * 4 + (dir - 1);
+    } // ends the codeOf() method
+
+
+    /**
+     * This method will return the code of a cell byte (the layout of the binary files and the tiles).
+     * A direction on a cell that is not a highway is dropped, and a type that is not 0-4 is read as blocked.
+     * @param b the cell byte
+     * @return the code
+     */
+    static int codeOf(byte b) {
+        int type = b & TYPE_MASK;
+        return (type > 4) ? 0 : codeOf(type, (b >> HIGHWAY_SHIFT) & HIGHWAY_MASK);
+    } // ends the codeOf() method
+
+
+    /**
+     * This method will return the type of a code.
+     * @param code the code of a cell
+     * @return the type of the cell
+     */
+    public static int typeOf(int code) {
+        return TYPE_OF[code];
+    } // ends the typeOf() method
+
+
+    /**
+     * This method will return the highway direction of a code.
+     * @param code the code of a cell
+     * @return the highway direction of the cell
+     */
+    public static int highwayDirOf(int code) {
+        return DIR_OF[code];
+    } // ends the highwayDirOf() method
+
+
+    /**
+     * This method will replace every cell with the ones read from a buffer of cell bytes (one byte per cell).
+     * A direction on a cell that is not a highway is dropped, and a type that is not 0-4 is read as blocked.
+     * Without listeners the cells are written in one go, otherwise only the cells that change are told about to the listeners.
+     * @param src the buffer holding height * width cell bytes, its position is moved past them
+     */
+    public void load(ByteBuffer src) {
+        if (src.remaining() < this.size) {
+            throw new IllegalArgumentException("expected " + this.size + " cells but only " + src.remaining() + " are left");
+        }
+        if (!this.listeners.isEmpty()) {
+            for (int i = 0 ; i < this.size ; ++i) {
+                setCode(i, codeOf(src.get()));
+            }
+            return;
+        }
+        synchronized (this) {
+            for (int i = 0 ; i < this.size ; ++i) {
+                int shift = (i & 1) << 2;
+                this.cells[i >> 1] = (byte) ((this.cells[i >> 1] & ~(0x0F << shift)) | (codeOf(src.get()) << shift));
+            }
+            this.version++;
+            markAllDirty();
+        }
+    } // ends the load() method
+
+
+    /**
+     * This method will replace every cell with the ones of another packed grid of the same size.
+     * Without listeners the packed array is copied in one go, otherwise only the cells that change are written and
+     * told about.
+     * @param src the packed grid to copy
+     */
+    public void load(PackedGrid src) {
+        if (src.height != this.height || src.width != this.width) {
+            throw new IllegalArgumentException("expected a " + this.height + "x" + this.width + " grid but got "
+                    + src.height + "x" + src.width);
+        }
+        if (this.listeners.isEmpty()) {
+            synchronized (this) {
+                System.arraycopy(src.cells, 0, this.cells, 0, this.cells.length);
+                this.version++;
+                markAllDirty();
+            }
+            return;
+        }
+        for (int i = 0 ; i < this.size ; ++i) {
+            setCode(i, src.getCode(i));
+        }
+    } // ends the load() method
+
+
+    /**
+     * This method will return a snapshot of the grid as it is now, which never changes after.
+     * When nothing has changed since the last snapshot the same one is returned, otherwise the new one copies the rows
+     * that were edited since then and shares the others with it. The edits wait for the copying, but the searches
+     * reading the snapshots never wait for anything.
+     * @return the snapshot of the current version
+     */
+    public synchronized GridSnapshot snapshot() {
+        if (this.latest != null && this.latest.getVersion() == this.version) {
+            return this.latest;
+        }
+        byte[][] rows = (this.latest == null) ? new byte[this.height][] : this.latest.rows.clone();
+        for (int x = 0 ; x < this.height ; ++x) {
+            if (this.latest == null || this.dirtyRows[x]) {
+                rows[x] = copyRow(x);
+            }
+        }
+        if (this.dirtyRows == null) {
+            this.dirtyRows = new boolean[this.height];
+        } else {
+            Arrays.fill(this.dirtyRows, false);
+        }
+        this.latest = new GridSnapshot(this.height, this.width, this.version, rows, this.latest);
+        return this.latest;
+    } // ends the snapshot() method
+
+
+    /**
+     * This method will copy the codes of a row into an array of its own (the even cell of the row in the low half).
+     * @param x the row
+     * @return the codes of the row
+     */
+    private byte[] copyRow(int x) {
+        byte[] row = new byte[(this.width + 1) / 2];
+        int base = x * this.width;
+        if ((base & 1) == 0) {  // the row starts on a byte
+            System.arraycopy(this.cells, base >> 1, row, 0, this.width >> 1);
+            if ((this.width & 1) != 0) {
+                row[row.length - 1] = (byte) getCode(base + this.width - 1);
+            }
+            return row;
+        }
+        for (int y = 0 ; y < this.width ; ++y) {
+            row[y >> 1] |= (byte) (getCode(base + y) << ((y & 1) << 2));
+        }
+        return row;
+    } // ends the copyRow() method
+
+
+    /**
+     * This method will mark every row as edited since the last snapshot, after a bulk write.
+     */
+    private void markAllDirty() {
+        if (this.dirtyRows != null) {
+            Arrays.fill(this.dirtyRows, true);
+        }
+    } // ends the markAllDirty() method
+
+
+    /**
+     * This method will write cells as cell bytes (one byte per cell, the layout of the binary files and the tiles).
+     * @param index the index of the first cell
+     * @param dst the array to write the bytes to
+     * @param offset where the first byte goes in the array
+     * @param length the number of cells
+     */
+    public void getBytes(int index, byte[] dst, int offset, int length) {
+        for (int i = 0 ; i < length ; ++i) {
+            int code = getCode(index + i);
+            dst[offset + i] = (byte) (TYPE_OF[code] | (DIR_OF[code] << HIGHWAY_SHIFT));
+        }
+    } // ends the getBytes() method
+
+} // ends the PackedGrid class
@@ -0,0 +1,49 @@
+package Grid;
+
+/**
+ * This is the Terrain interface.
+ * It is the terrain of a whole map read by a linear cell index (x * width + y), either the live PackedGrid that the
+ * edits go to or a GridSnapshot of it that never changes. Anything that is built from the terrain (like the edge
+ * costs of the searches) can be built from either one.
+ */
+public interface Terrain {
+
+    /**
+     * This method will return the height of the grid.
+     * @return the number of rows
+     */
+    int getHeight();
+
+    /**
+     * This method will return the width of the grid.
+     * @return the number of columns
+     */
+    int getWidth();
+
+    /**
+     * This method will return the total number of cells in the grid.
+     * @return height * width
+     */
+    int size();
+
+    /**
+     * This method will return the type of a cell (see Cell.getType() for the values).
+     * @param index the index of the cell
+     * @return the type of the cell
+     */
+    int getType(int index);
+
+    /**
+     * This method will return the highway direction of a cell (see Cell.getHighwayDir() for the values).
+     * @param index the index of the cell
+     * @return the highway direction of the cell
+     */
+    int getHighwayDir(int index);
+
+    /**
+     * This method will return the version of the terrain, which goes up every time a cell of the grid changes.
+     * @return the version
+     */
+    long getVersion();
+
+} // ends the Terrain interface
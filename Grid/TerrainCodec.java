@@ -0,0 +1,221 @@
+package Grid;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * This is the Terrain Codec class, it compresses the cell codes of a PackedGrid for the files.
+ * Every row is written in whichever of 3 ways is the smallest, after a byte that says which one it is:
+ * RAW is the 4 bit codes, two cells per byte (the even cell in the low half), like the PackedGrid.
+ * RUNS is the row as runs of the same code. Each run is a byte with the code in the high half and the length in the
+ * low half, and when the low half is 0 the length follows as a varint (7 bits per byte, low bits first).
+ * DELTA is the runs of the codes xor the codes of the row above, so a row that is the same as the one above except
+ * where a highway or a hard area starts or ends is only a few runs.
+ * The highways, hard areas and the unblocked cells around them are long runs, so most maps come out much smaller
+ * than the half a byte per cell of RAW, and no row is more than one byte bigger than RAW.
+ */
+public class TerrainCodec {
+    // Global variables
+    public static final int RAW = 0;        // the row is the packed codes
+    public static final int RUNS = 1;       // the row is runs of codes
+    public static final int DELTA = 2;      // the row is runs of the codes xor the row above
+
+
+    /**
+     * This method will write the compressed codes of every cell of a grid, row by row.
+     * @param grid the grid to write
+     * @param out the stream to write to
+     * @throws IOException if the stream cannot be written
+     */
+    public static void encode(PackedGrid grid, OutputStream out) throws IOException {
+        int width = grid.getWidth();
+        int[] row = new int[width];
+        int[] above = new int[width];
+        int[] delta = new int[width];
+        byte[] buf = new byte[1 + (width + 1) / 2];     // nothing bigger than RAW is written
+        for (int x = 0 ; x < grid.getHeight() ; ++x) {
+            int base = x * width;
+            for (int y = 0 ; y < width ; ++y) {
+                row[y] = grid.getCode(base + y);
+                delta[y] = row[y] ^ above[y];
+            }
+            int rawSize = (width + 1) / 2;
+            int runsSize = runsSize(row);
+            int deltaSize = (x == 0) ? Integer.MAX_VALUE : runsSize(delta);
+            int length;
+            if (deltaSize <= runsSize && deltaSize < rawSize) {
+                buf[0] = DELTA;
+                length = writeRuns(delta, buf, 1);
+            } else if (runsSize < rawSize) {
+                buf[0] = RUNS;
+                length = writeRuns(row, buf, 1);
+            } else {
+                buf[0] = RAW;
+                Arrays.fill(buf, 1, buf.length, (byte) 0);
+                for (int y = 0 ; y < width ; ++y) {
+                    buf[1 + (y >> 1)] |= (byte) (row[y] << ((y & 1) << 2));
+                }
+                length = 1 + rawSize;
+            }
+            out.write(buf, 0, length);
+            int[] swap = above;
+            above = row;
+            row = swap;
+        }
+    } // ends the encode() method
+
+
+    /**
+     * This method will read the compressed codes of every cell of a grid written by encode().
+     * @param src the buffer to read from, its position is moved past the grid
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @return a new packed grid with the cells
+     * @throws IllegalArgumentException if the data is not a valid compressed grid of that size
+     */
+    public static PackedGrid decode(ByteBuffer src, int height, int width) {
+        PackedGrid grid = new PackedGrid(height, width);
+        int[] row = new int[width];
+        try {
+            for (int x = 0 ; x < height ; ++x) {
+                int mode = src.get();
+                if (mode == RAW) {
+                    for (int y = 0 ; y < width ; y += 2) {
+                        int b = src.get();
+                        row[y] = b & 0x0F;
+                        if (y + 1 < width) {
+                            row[y + 1] = (b >> 4) & 0x0F;
+                        }
+                    }
+                } else if (mode == RUNS || (mode == DELTA && x > 0)) {
+                    int y = 0;
+                    while (y < width) {
+                        int b = src.get() & 0xFF;
+                        int code = b >>> 4;
+                        int run = (b & 0x0F) != 0 ? (b & 0x0F) : readVarint(src);
+                        if (run <= 0 || run > width - y) {
+                            throw new IllegalArgumentException("run of " + run + " cells goes past the end of row " + x);
+                        }
+                        if (mode == RUNS) {
+                            Arrays.fill(row, y, y + run, code);
+                            y += run;
+                        } else {
+                            for (int end = y + run ; y < end ; ++y) {
+                                row[y] ^= code;
+                            }
+                        }
+                    }
+                } else {
+                    throw new IllegalArgumentException("unknown row mode " + mode + " in row " + x);
+                }
+                for (int y = 0 ; y < width ; ++y) {
+                    if (row[y] >= PackedGrid.CODES) {
+                        throw new IllegalArgumentException("invalid cell code " + row[y] + " in row " + x);
+                    }
+                }
+                grid.putCodes(x * width, row, width);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("compressed grid is truncated");
+        }
+        return grid;
+    } // ends the decode() method
+
+
+    /**
+     * This method will count the bytes the runs of a row take.
+     * @param codes the codes of the row
+     * @return the number of bytes
+     */
+    private static int runsSize(int[] codes) {
+        int size = 0;
+        int y = 0;
+        while (y < codes.length) {
+            int run = runLength(codes, y);
+            size += (run < 16) ? 1 : 1 + varintSize(run);
+            y += run;
+        }
+        return size;
+    } // ends the runsSize() method
+
+
+    /**
+     * This method will write the runs of a row.
+     * @param codes the codes of the row
+     * @param buf the array to write to
+     * @param pos where the first byte goes
+     * @return the position after the last byte
+     */
+    private static int writeRuns(int[] codes, byte[] buf, int pos) {
+        int y = 0;
+        while (y < codes.length) {
+            int run = runLength(codes, y);
+            if (run < 16) {
+                buf[pos++] = (byte) ((codes[y] << 4) | run);
+            } else {
+                buf[pos++] = (byte) (codes[y] << 4);
+                for (int v = run ; ; v >>>= 7) {
+                    if (v < 0x80) {
+                        buf[pos++] = (byte) v;
+                        break;
+                    }
+                    buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+                }
+            }
+            y += run;
+        }
+        return pos;
+    } // ends the writeRuns() method
+
+
+    /**
+     * This method will find the length of the run that starts at a cell.
+     * @param codes the codes of the row
+     * @param y the first cell of the run
+     * @return the number of cells with the same code from y on
+     */
+    private static int runLength(int[] codes, int y) {
+        int end = y + 1;
+        while (end < codes.length && codes[end] == codes[y]) {
+            ++end;
+        }
+        return end - y;
+    } // ends the runLength() method
+
+
+    /**
+     * This method will count the bytes of a varint.
+     * @param v the value (not negative)
+     * @return the number of bytes
+     */
+    private static int varintSize(int v) {
+        int size = 1;
+        while (v >= 0x80) {
+            v >>>= 7;
+            ++size;
+        }
+        return size;
+    } // ends the varintSize() method
+
+
+    /**
+     * This method will read a varint.
+     * @param src the buffer to read from
+     * @return the value
+     */
+    private static int readVarint(ByteBuffer src) {
+        int value = 0;
+        for (int shift = 0 ; shift < 32 ; shift += 7) {
+            int b = src.get();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint is too long");
+    } // ends the readVarint() method
+
+} // ends the TerrainCodec class
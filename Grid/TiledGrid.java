@@ -0,0 +1,598 @@
+package Grid;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is the Tiled Grid class.
+ * It holds the terrain of a map that is too big for the heap in a file, cut into square tiles of tileSize x tileSize
+ * cells. The file is memory-mapped and a tile is only copied into the heap the first time a cell in it is read, and
+ * at most maxResidentTiles tiles are kept there: when one more is needed the least recently used tile is dropped
+ * (and written back to the file first if it was changed). The cells are one byte each, like the binary grid files
+ * (type in the low 3 bits, highway direction in the next 3).
+ *
+ * The file is a header of ints (big-endian): magic "TPFT", format version, height, width, tile size, start x and y,
+ * end x and y, padded to HEADER_BYTES; then the tiles row by row, each one tileSize * tileSize bytes row by row. The
+ * cells of the last row and column of tiles that are past the edge of the grid are blocked.
+ *
+ * A TiledGrid is not thread-safe (the last tile used is kept for the next read), a file can be opened once per thread
+ * instead.
+ *
+ * ex. TiledGrid.save(grid, file, 64);
+ *     try (TiledGrid tiles = TiledGrid.open(file, 256, false)) { ... }
+ */
+public class TiledGrid implements Closeable {
+    // Global variables
+    public static final int DEFAULT_TILE_SIZE = 64;         // 64 x 64 cells = 4 KB, one page per tile
+    public static final int HEADER_BYTES = 64;              // room for the header, the tiles start right after it
+    private static final int MAGIC = 0x54504654;            // "TPFT", first 4 bytes of a tiled grid file
+    private static final int VERSION = 1;                   // version of the tiled grid format
+    private static final long CHUNK_BYTES = 1L << 30;       // most bytes of the file mapped by one MappedByteBuffer
+
+    private final FileChannel channel;  // the file the tiles are stored in
+    private final boolean writable;     // true if cells can be changed (and written back to the file)
+    private final int height;           // height of the grid (number of rows / x values)
+    private final int width;            // width of the grid (number of columns / y values)
+    private final int tileSize;         // cells on a side of a tile (a power of 2)
+    private final int tileShift;        // log2(tileSize), x >> tileShift is the row of tiles
+    private final int tileMask;         // tileSize - 1, x & tileMask is the row inside the tile
+    private final int tilesAcross;      // number of tiles in a row of tiles
+    private final int tileBytes;        // tileSize * tileSize
+    private final int tiles;            // number of tiles in the file
+    private final int tilesPerChunk;    // number of tiles in one mapped chunk of the file
+    private final MappedByteBuffer[] chunks;    // mapped chunks of the file, only mapped when a tile in them is needed
+    private final int maxResidentTiles;         // most tiles kept in the heap at once
+    private final LinkedHashMap<Integer, Tile> resident;   // tile id => tile, least recently used first
+    private final int[][] startCell = new int[1][2];    // location of the startCell
+    private final int[][] endCell = new int[1][2];      // location of the endCell
+
+    private int lastId = -1;    // id of the last tile used, read again without a look in the map
+    private Tile last;          // the last tile used
+
+    private long hits;          // number of tile look-ups that found the tile in the heap
+    private long misses;        // number of tile look-ups that had to page the tile in from the file
+    private long evictions;     // number of tiles dropped to stay under maxResidentTiles
+    private long writeBacks;    // number of changed tiles written back to the file
+
+
+    /**
+     * This is the Tile class, the cells of one tile and whether they were changed.
+     */
+    private static class Tile {
+        final byte[] cells;
+        boolean dirty;
+
+        Tile(byte[] cells) {
+            this.cells = cells;
+        } // ends the Tile() constructor
+    } // ends the Tile class
+
+
+    /**
+     * This is the constructor of the TiledGrid class, it reads the header of an open file.
+     * @param channel the file
+     * @param writable true if the cells can be changed
+     * @param maxResidentTiles the most tiles kept in the heap at once
+     * @throws IOException if the file is not a tiled grid file
+     */
+    private TiledGrid(FileChannel channel, boolean writable, int maxResidentTiles) throws IOException {
+        if (maxResidentTiles < 1) {
+            throw new IllegalArgumentException("maxResidentTiles must be at least 1: " + maxResidentTiles);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                break;
+            }
+        }
+        header.flip();
+        if (header.remaining() < HEADER_BYTES || header.getInt() != MAGIC) {
+            throw new IOException("not a tiled grid file");
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("unknown tiled grid version " + version);
+        }
+        this.channel = channel;
+        this.writable = writable;
+        this.height = header.getInt();
+        this.width = header.getInt();
+        this.tileSize = header.getInt();
+        this.startCell[0][0] = header.getInt();
+        this.startCell[0][1] = header.getInt();
+        this.endCell[0][0] = header.getInt();
+        this.endCell[0][1] = header.getInt();
+        if (this.height <= 0 || this.width <= 0 || this.tileSize <= 0 || Integer.bitCount(this.tileSize) != 1
+                || (long) this.tileSize * this.tileSize > CHUNK_BYTES) {
+            throw new IOException("bad tiled grid header " + this.height + "x" + this.width + " tiles of " + this.tileSize);
+        }
+        this.tileShift = Integer.numberOfTrailingZeros(this.tileSize);
+        this.tileMask = this.tileSize - 1;
+        this.tilesAcross = (this.width + this.tileMask) >>> this.tileShift;
+        long tiles = (long) this.tilesAcross * ((this.height + this.tileMask) >>> this.tileShift);
+        this.tileBytes = this.tileSize * this.tileSize;
+        if (tiles > Integer.MAX_VALUE || channel.size() < HEADER_BYTES + tiles * this.tileBytes) {
+            throw new IOException("tiled grid file is truncated");
+        }
+        this.tiles = (int) tiles;
+        this.tilesPerChunk = (int) (CHUNK_BYTES / this.tileBytes);
+        this.chunks = new MappedByteBuffer[(this.tiles + this.tilesPerChunk - 1) / this.tilesPerChunk];
+        this.maxResidentTiles = maxResidentTiles;
+        this.resident = new LinkedHashMap<>(16, 0.75f, true);
+    } // ends the TiledGrid() constructor
+
+
+    /**
+     * This method will open a tiled grid file.
+     * @param file the file written by save() or create()
+     * @param maxResidentTiles the most tiles kept in the heap at once
+     * @param writable true to be able to change the cells (they are written back to the file)
+     * @return the tiled grid, to be closed when done
+     * @throws IOException if the file cannot be read or is not a tiled grid file
+     */
+    public static TiledGrid open(File file, int maxResidentTiles, boolean writable) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        try {
+            return new TiledGrid(channel, writable, maxResidentTiles);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    } // ends the open() method
+
+
+    /**
+     * This method will make a new tiled grid file where every cell is unblocked, and open it to be changed.
+     * The cells are written tile by tile, so the grid never has to fit in the heap.
+     * @param file the file to write
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @param tileSize the cells on a side of a tile (a power of 2)
+     * @param maxResidentTiles the most tiles kept in the heap at once
+     * @return the tiled grid, to be closed when done
+     * @throws IOException if the file cannot be written
+     */
+    public static TiledGrid create(File file, int height, int width, int tileSize, int maxResidentTiles) throws IOException {
+        write(file, height, width, tileSize, new int[2], new int[2], null);
+        return open(file, maxResidentTiles, true);
+    } // ends the create() method
+
+
+    /**
+     * This method will save a grid to a tiled grid file.
+     * @param grid the grid to save
+     * @param file the file to write
+     * @param tileSize the cells on a side of a tile (a power of 2)
+     * @throws IOException if the file cannot be written
+     */
+    public static void save(Grid grid, File file, int tileSize) throws IOException {
+        write(file, grid.getHeight(), grid.getWidth(), tileSize, grid.getStartCell()[0], grid.getEndCell()[0],
+                grid.getPackedGrid());
+    } // ends the save() method
+
+
+    /**
+     * This method will write a tiled grid file.
+     * @param file the file to write
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @param tileSize the cells on a side of a tile (a power of 2)
+     * @param start the start cell (x,y)
+     * @param end the end cell (x,y)
+     * @param source the cells to write (null => every cell is unblocked)
+     * @throws IOException if the file cannot be written
+     */
+    private static void write(File file, int height, int width, int tileSize, int[] start, int[] end,
+            PackedGrid source) throws IOException {
+        if (height <= 0 || width <= 0 || tileSize <= 0 || Integer.bitCount(tileSize) != 1) {
+            throw new IllegalArgumentException("invalid tiled grid " + height + "x" + width + " tiles of " + tileSize);
+        }
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(height).putInt(width).putInt(tileSize);
+        header.putInt(start[0]).putInt(start[1]).putInt(end[0]).putInt(end[1]);
+        header.position(0);
+
+        try (FileChannel out = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            ByteBuffer tile = ByteBuffer.allocate(tileSize * tileSize);
+            byte[] cells = tile.array();
+            for (int tx = 0 ; tx < height ; tx += tileSize) {
+                for (int ty = 0 ; ty < width ; ty += tileSize) {
+                    Arrays.fill(cells, (byte) 0);   // the cells past the edge of the grid are blocked
+                    int rows = Math.min(tileSize, height - tx);
+                    int cols = Math.min(tileSize, width - ty);
+                    for (int i = 0 ; i < rows ; ++i) {
+                        if (source == null) {
+                            Arrays.fill(cells, i * tileSize, i * tileSize + cols, (byte) 1);
+                        } else {
+                            source.getBytes((tx + i) * width + ty, cells, i * tileSize, cols);
+                        }
+                    }
+                    tile.clear();
+                    while (tile.hasRemaining()) {
+                        out.write(tile);
+                    }
+                }
+            }
+        }
+    } // ends the write() method
+
+
+    /**
+     * This method will return the height of the grid.
+     * @return the number of rows
+     */
+    public int getHeight() {
+        return this.height;
+    } // ends the getHeight() method
+
+
+    /**
+     * This method will return the width of the grid.
+     * @return the number of columns
+     */
+    public int getWidth() {
+        return this.width;
+    } // ends the getWidth() method
+
+
+    /**
+     * This method will return the number of cells on a side of a tile.
+     * @return the tile size
+     */
+    public int getTileSize() {
+        return this.tileSize;
+    } // ends the getTileSize() method
+
+
+    /**
+     * This method will return the start Cell of the grid.
+     * @return the start Cell int double array [1][2]
+     */
+    public int[][] getStartCell() {
+        return this.startCell;
+    } // ends the getStartCell() method
+
+
+    /**
+     * This method will return the end Cell (goal) of the grid.
+     * @return the end Cell int double array [1][2]
+     */
+    public int[][] getEndCell() {
+        return this.endCell;
+    } // ends the getEndCell() method
+
+
+    /**
+     * This method will check if a set of coordinates is inside the grid.
+     * @param x the x-coordinate
+     * @param y the y-coordinate
+     * @return true if the (x,y) coordinate is in-bounds and false otherwise
+     */
+    public boolean isValidCell(int x, int y) {
+        return x >= 0 && x < this.height && y >= 0 && y < this.width;
+    } // ends the isValidCell() method
+
+
+    /**
+     * This method will return the type of a cell (see Cell.getType() for the values).
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the type of the cell
+     */
+    public int getType(int x, int y) {
+        return tileOf(x, y).cells[offsetOf(x, y)] & PackedGrid.TYPE_MASK;
+    } // ends the getType() method
+
+
+    /**
+     * This method will return the highway direction of a cell (see Cell.getHighwayDir() for the values).
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the highway direction of the cell
+     */
+    public int getHighwayDir(int x, int y) {
+        return (tileOf(x, y).cells[offsetOf(x, y)] >> PackedGrid.HIGHWAY_SHIFT) & PackedGrid.HIGHWAY_MASK;
+    } // ends the getHighwayDir() method
+
+
+    /**
+     * This method will change the type of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @param type the new type of the cell
+     */
+    public void setType(int x, int y, int type) {
+        Tile tile = writableTileOf(x, y);
+        int offset = offsetOf(x, y);
+        tile.cells[offset] = (byte) ((tile.cells[offset] & ~PackedGrid.TYPE_MASK) | (type & PackedGrid.TYPE_MASK));
+    } // ends the setType() method
+
+
+    /**
+     * This method will change the highway direction of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @param dir the new highway direction
+     */
+    public void setHighwayDir(int x, int y, int dir) {
+        Tile tile = writableTileOf(x, y);
+        int offset = offsetOf(x, y);
+        tile.cells[offset] = (byte) ((tile.cells[offset] & PackedGrid.TYPE_MASK)
+                | ((dir & PackedGrid.HIGHWAY_MASK) << PackedGrid.HIGHWAY_SHIFT));
+    } // ends the setHighwayDir() method
+
+
+    /**
+     * This method will change the start and end cells stored in the file.
+     * @param startX the x-coordinate of the start cell
+     * @param startY the y-coordinate of the start cell
+     * @param endX the x-coordinate of the end cell
+     * @param endY the y-coordinate of the end cell
+     * @throws IOException if the header cannot be written
+     */
+    public void setStartAndEnd(int startX, int startY, int endX, int endY) throws IOException {
+        checkWritable();
+        ByteBuffer cells = ByteBuffer.allocate(16);
+        cells.putInt(startX).putInt(startY).putInt(endX).putInt(endY);
+        cells.flip();
+        while (cells.hasRemaining()) {
+            this.channel.write(cells, 20 + cells.position());
+        }
+        this.startCell[0][0] = startX;
+        this.startCell[0][1] = startY;
+        this.endCell[0][0] = endX;
+        this.endCell[0][1] = endY;
+    } // ends the setStartAndEnd() method
+
+
+    /**
+     * This method will find the place of a cell inside its tile.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the offset of the cell in the cells of its tile
+     */
+    private int offsetOf(int x, int y) {
+        return ((x & this.tileMask) << this.tileShift) | (y & this.tileMask);
+    } // ends the offsetOf() method
+
+
+    /**
+     * This method will return the tile of a cell, paging it in from the file if it is not in the heap.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the tile
+     */
+    private Tile tileOf(int x, int y) {
+        if (!isValidCell(x, y)) {
+            throw new IndexOutOfBoundsException("(" + x + "," + y + ") is outside the " + this.height + "x" + this.width + " grid");
+        }
+        int id = (x >>> this.tileShift) * this.tilesAcross + (y >>> this.tileShift);
+        if (id == this.lastId) {
+            this.hits++;
+            return this.last;
+        }
+        Tile tile = this.resident.get(id);
+        if (tile != null) {
+            this.hits++;
+        } else {
+            this.misses++;
+            tile = pageIn(id);
+            this.resident.put(id, tile);
+            if (this.resident.size() > this.maxResidentTiles) {
+                Iterator<Map.Entry<Integer, Tile>> eldest = this.resident.entrySet().iterator();
+                Map.Entry<Integer, Tile> entry = eldest.next();
+                writeBack(entry.getKey(), entry.getValue());
+                eldest.remove();
+                this.evictions++;
+            }
+        }
+        this.lastId = id;
+        this.last = tile;
+        return tile;
+    } // ends the tileOf() method
+
+
+    /**
+     * This method will return the tile of a cell that is about to be changed.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the tile, marked as changed
+     */
+    private Tile writableTileOf(int x, int y) {
+        checkWritable();
+        Tile tile = tileOf(x, y);
+        tile.dirty = true;
+        return tile;
+    } // ends the writableTileOf() method
+
+
+    /**
+     * This method will copy a tile from the mapped file into the heap.
+     * @param id the id of the tile
+     * @return the tile
+     */
+    private Tile pageIn(int id) {
+        byte[] cells = new byte[this.tileBytes];
+        ByteBuffer src = chunkOf(id).duplicate();
+        src.position((id % this.tilesPerChunk) * this.tileBytes);
+        src.get(cells);
+        return new Tile(cells);
+    } // ends the pageIn() method
+
+
+    /**
+     * This method will copy a changed tile back into the mapped file.
+     * @param id the id of the tile
+     * @param tile the tile
+     */
+    private void writeBack(int id, Tile tile) {
+        if (!tile.dirty) {
+            return;
+        }
+        ByteBuffer dst = chunkOf(id).duplicate();
+        dst.position((id % this.tilesPerChunk) * this.tileBytes);
+        dst.put(tile.cells);
+        tile.dirty = false;
+        this.writeBacks++;
+    } // ends the writeBack() method
+
+
+    /**
+     * This method will return the mapped chunk of the file that holds a tile, mapping it the first time.
+     * @param id the id of the tile
+     * @return the mapped chunk
+     */
+    private MappedByteBuffer chunkOf(int id) {
+        int c = id / this.tilesPerChunk;
+        MappedByteBuffer chunk = this.chunks[c];
+        if (chunk == null) {
+            long from = HEADER_BYTES + (long) c * this.tilesPerChunk * this.tileBytes;
+            long size = (long) Math.min(this.tilesPerChunk, this.tiles - c * this.tilesPerChunk) * this.tileBytes;
+            try {
+                chunk = this.channel.map(this.writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, from, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException("could not map tile " + id, e);
+            }
+            this.chunks[c] = chunk;
+        }
+        return chunk;
+    } // ends the chunkOf() method
+
+
+    /**
+     * This method will make sure the cells can be changed.
+     */
+    private void checkWritable() {
+        if (!this.writable) {
+            throw new UnsupportedOperationException("the tiled grid was opened read-only");
+        }
+    } // ends the checkWritable() method
+
+
+    /**
+     * This method will write every changed tile back to the file and force the file to the disk.
+     * @throws IOException if the file cannot be written
+     */
+    public void flush() throws IOException {
+        if (!this.writable) {
+            return;
+        }
+        for (Map.Entry<Integer, Tile> entry : this.resident.entrySet()) {
+            writeBack(entry.getKey(), entry.getValue());
+        }
+        for (MappedByteBuffer chunk : this.chunks) {
+            if (chunk != null) {
+                chunk.force();
+            }
+        }
+    } // ends the flush() method
+
+
+    /**
+     * This method will write every changed tile back to the file and close it.
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            this.resident.clear();
+            this.last = null;
+            this.lastId = -1;
+            this.channel.close();
+        }
+    } // ends the close() method
+
+
+    /**
+     * This method will return the number of tiles in the heap.
+     * @return the number of resident tiles
+     */
+    public int getResidentTiles() {
+        return this.resident.size();
+    } // ends the getResidentTiles() method
+
+
+    /**
+     * This method will return the most tiles kept in the heap at once.
+     * @return the limit on the resident tiles
+     */
+    public int getMaxResidentTiles() {
+        return this.maxResidentTiles;
+    } // ends the getMaxResidentTiles() method
+
+
+    /**
+     * This method will return the number of cell reads and writes whose tile was in the heap.
+     * @return the number of tile hits
+     */
+    public long getHits() {
+        return this.hits;
+    } // ends the getHits() method
+
+
+    /**
+     * This method will return the number of cell reads and writes that had to page their tile in from the file.
+     * @return the number of tile misses
+     */
+    public long getMisses() {
+        return this.misses;
+    } // ends the getMisses() method
+
+
+    /**
+     * This method will return the number of tiles dropped to stay under the limit on resident tiles.
+     * @return the number of evictions
+     */
+    public long getEvictions() {
+        return this.evictions;
+    } // ends the getEvictions() method
+
+
+    /**
+     * This method will return the number of changed tiles written back to the file.
+     * @return the number of write-backs
+     */
+    public long getWriteBacks() {
+        return this.writeBacks;
+    } // ends the getWriteBacks() method
+
+
+    /**
+     * This method will return the share of the cell reads and writes whose tile was in the heap.
+     * @return hits / (hits + misses), or 0 if no cell has been read
+     */
+    public double getHitRate() {
+        long total = this.hits + this.misses;
+        return (total == 0) ? 0 : (double) this.hits / total;
+    } // ends the getHitRate() method
+
+
+    /**
+     * This method will set the tile counters back to 0.
+     */
+    public void resetCounters() {
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+        this.writeBacks = 0;
+    } // ends the resetCounters() method
+
+} // ends the TiledGrid class
@@ -1,7 +1,6 @@
 package Heuristic;
 
 import Grid.Grid;
-import Grid.Cell;
 
 /**
  * This is the Chebyshev Distance Heuristic class.
@@ -19,20 +18,32 @@ public class Chebyshev extends Heuristic {
      * @param grid the grid
      */
     public Chebyshev(Grid grid) {
+        this(grid, grid.getEndCell()[0][0], grid.getEndCell()[0][1]);
+    } // ends the Chebyshev() constructor
+
+
+    /**
+     * This is the constructor of the Chebyshev() class for a goal other than the end cell of the grid.
+     * @param grid the grid
+     * @param end_x the x-coordinate of the goal
+     * @param end_y the y-coordinate of the goal
+     */
+    public Chebyshev(Grid grid, int end_x, int end_y) {
         super(grid);
-        this.end_x = grid.getEndCell()[0][0];
-        this.end_y = grid.getEndCell()[0][1];
+        this.end_x = end_x;
+        this.end_y = end_y;
     } // ends the Chebyshev() constructor
 
 
     /**
      * This method will get the Chebyshev heurisitc for a node.
-     * @param cell the current cell
+     * @param x the x-coordinate of the current cell
+     * @param y the y-coordinate of the current cell
      * @return a float value that will be used as a heurisitic (represents distance to goal) found using the Chebyshev
      */
-    public float getHeuristic(Cell cell) {
-        float dx = Math.abs(cell.getX() - end_x);
-		float dy = Math.abs(cell.getY() - end_y);
+    public float getHeuristic(int x, int y) {
+        float dx = Math.abs(x - end_x);
+		float dy = Math.abs(y - end_y);
         return (float) Math.max(dx, dy);
     }
 } // ends the Chebyshev() class
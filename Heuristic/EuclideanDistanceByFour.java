@@ -1,7 +1,6 @@
 package Heuristic;
 
 import Grid.Grid;
-import Grid.Cell;
 
 /**
  * This is the (Euclidean Distance / 4) Heuristic Class.
@@ -18,18 +17,30 @@ public class EuclideanDistanceByFour extends Heuristic{
      * @param grid the grid
      */
     public EuclideanDistanceByFour(Grid grid) {
+        this(grid, grid.getEndCell()[0][0], grid.getEndCell()[0][1]);
+    } // ends the EuclideanDistanceByFour() constructor
+
+
+    /**
+     * This is the constructor of the EuclideanDistanceByFour() class for a goal other than the end cell of the grid.
+     * @param grid the grid
+     * @param end_x the x-coordinate of the goal
+     * @param end_y the y-coordinate of the goal
+     */
+    public EuclideanDistanceByFour(Grid grid, int end_x, int end_y) {
         super(grid);
-        this.end_x = grid.getEndCell()[0][0];
-        this.end_y = grid.getEndCell()[0][1];
+        this.end_x = end_x;
+        this.end_y = end_y;
     } // ends the EuclideanDistanceByFour() constructor
 
 
     /**
      * This method will get the (Euclidean Distance / 4) heurisitc for a node.
-     * @param cell the current cell
+     * @param x the x-coordinate of the current cell
+     * @param y the y-coordinate of the current cell
      * @return a float value that will be used as a heurisitic (represents distance to goal) found using the (Euclidean Distance/4)
      */
-    public float getHeuristic(Cell cell) {
-        return (float)((0.25)*((Math.sqrt(((end_x-cell.getX())*(end_x-cell.getX())) + ((end_y-cell.getY())*(end_y-cell.getY()))))));
+    public float getHeuristic(int x, int y) {
+        return (float)((0.25)*((Math.sqrt(((end_x-x)*(end_x-x)) + ((end_y-y)*(end_y-y))))));
     }
 } // ends the EuclideanDistanceByFour() class
\ No newline at end of file
@@ -25,5 +25,16 @@ public abstract class Heuristic {
      * @param cell the current cell being looked at
      * @return a float value that will be used as a heurisitic (represents distance to goal)
      */
-    public abstract float getHeuristic(Cell cell);
+    public float getHeuristic(Cell cell) {
+        return getHeuristic(cell.getX(), cell.getY());
+    } // ends the getHeuristic() method
+
+    /**
+     * This method will get the heurisitc for a node from its coordinates.
+     * The searches use this one so they do not need a Cell object for every node.
+     * @param x the x-coordinate of the current node
+     * @param y the y-coordinate of the current node
+     * @return a float value that will be used as a heurisitic (represents distance to goal)
+     */
+    public abstract float getHeuristic(int x, int y);
 } // ends the Heuristic() class
@@ -0,0 +1,22 @@
+package Heuristic;
+
+import Grid.Grid;
+
+/**
+ * This is the Heuristic Factory interface.
+ * It makes a heuristic for a given goal, for the searches that run many queries on the same grid (like BatchSearch)
+ * and cannot use the end cell stored in the grid.
+ * The constructors of the heuristics that take a goal can be used directly, ex. ManhattanDistanceByFour::new.
+ */
+public interface HeuristicFactory {
+
+    /**
+     * This method will make a heuristic towards a goal.
+     * @param grid the grid
+     * @param end_x the x-coordinate of the goal
+     * @param end_y the y-coordinate of the goal
+     * @return the heuristic
+     */
+    Heuristic create(Grid grid, int end_x, int end_y);
+
+} // ends the HeuristicFactory interface
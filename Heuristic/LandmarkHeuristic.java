@@ -0,0 +1,81 @@
+package Heuristic;
+
+import Grid.Grid;
+
+/**
+ * This is the Landmark (ALT) Heuristic Class.
+ * It uses the exact distances to a few landmark cells (see LandmarkTable) and the triangle inequality:
+ * for any landmark L, dist(n, goal) >= |dist(n, L) - dist(goal, L)|, and the heuristic is the largest of these bounds.
+ * The move costs are symmetric (the cost charts are the same both ways), so the distance to a landmark is also the
+ * distance from it and both sides of the bound hold.
+ * Unlike the geometric heuristics it follows the actual terrain, so it stays admissible and consistent without
+ * having to be divided by 4 for the highways.
+ */
+public class LandmarkHeuristic extends Heuristic {
+    // Global Variables
+    private final int width;            // width of the grid, used to turn (x,y) into a cell index
+    private final float[][] distances;  // distance from every cell to each landmark
+    private final float[] goalDist;     // distance from the goal to each landmark
+
+    /**
+     * This is the constructor of the LandmarkHeuristic() class.
+     * It uses the shared landmark table of the grid.
+     * @param grid the grid
+     */
+    public LandmarkHeuristic(Grid grid) {
+        this(grid, grid.getEndCell()[0][0], grid.getEndCell()[0][1]);
+    } // ends the LandmarkHeuristic() constructor
+
+
+    /**
+     * This is the constructor of the LandmarkHeuristic() class for a goal other than the end cell of the grid.
+     * @param grid the grid
+     * @param end_x the x-coordinate of the goal
+     * @param end_y the y-coordinate of the goal
+     */
+    public LandmarkHeuristic(Grid grid, int end_x, int end_y) {
+        this(grid, LandmarkTable.of(grid), end_x, end_y);
+    } // ends the LandmarkHeuristic() constructor
+
+
+    /**
+     * This is the constructor of the LandmarkHeuristic() class with a given landmark table.
+     * @param grid the grid
+     * @param table the landmark table of the grid, it is rebuilt first if the grid has changed
+     * @param end_x the x-coordinate of the goal
+     * @param end_y the y-coordinate of the goal
+     */
+    public LandmarkHeuristic(Grid grid, LandmarkTable table, int end_x, int end_y) {
+        super(grid);
+        table.refresh();
+        this.width = table.getWidth();
+        this.distances = table.getDistances();
+
+        // the distances of the goal are the same for the whole query, so look them up once
+        int goal = end_x * this.width + end_y;
+        this.goalDist = new float[this.distances.length];
+        for (int k = 0 ; k < this.distances.length ; ++k) {
+            this.goalDist[k] = this.distances[k][goal];
+        }
+    } // ends the LandmarkHeuristic() constructor
+
+
+    /**
+     * This method will get the landmark heurisitc for a node.
+     * @param x the x-coordinate of the current cell
+     * @param y the y-coordinate of the current cell
+     * @return a float value that will be used as a heurisitic (represents distance to goal) found using the landmarks
+     */
+    public float getHeuristic(int x, int y) {
+        int index = x * this.width + y;
+        float best = 0f;
+        for (int k = 0 ; k < this.goalDist.length ; ++k) {
+            float toLandmark = this.distances[k][index];
+            if (toLandmark == Float.POSITIVE_INFINITY || this.goalDist[k] == Float.POSITIVE_INFINITY) {
+                continue; // the landmark is not reachable from one of the two cells, no bound from it
+            }
+            best = Math.max(best, Math.abs(toLandmark - this.goalDist[k]));
+        }
+        return best;
+    } // ends the getHeuristic() method
+} // ends the LandmarkHeuristic() class
@@ -0,0 +1,212 @@
+package Heuristic;
+
+import Grid.Grid;
+import Grid.GridListener;
+import Grid.PackedGrid;
+import SearchAlgos.DistanceField;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This is the Landmark Table class.
+ * This holds the exact distance from every cell of a grid to a small set of landmark cells, which is what the
+ * LandmarkHeuristic uses to get its lower bounds.
+ * The landmarks are picked far apart from each other (each new one is the cell that is furthest from the ones already
+ * picked) and the distances come from a reverse Dijkstra over the compiled edge costs (see DistanceField).
+ * The tables do not depend on the start or the goal, so there is one table per grid shared by every query on it
+ * (see LandmarkTable.of()). When a cell of the grid changes the table is marked as stale and is rebuilt the next time
+ * a heuristic is made from it.
+ * The table only keeps a weak reference to its grid, so the shared table of a grid does not keep the grid (the key of
+ * the table in TABLES) from being collected.
+ */
+public class LandmarkTable implements GridListener {
+    // Global variables
+    public static final int DEFAULT_LANDMARKS = 8;      // number of landmarks used by LandmarkTable.of()
+
+    private static final Map<PackedGrid, LandmarkTable> TABLES = new WeakHashMap<>();   // one table per grid
+
+    private final WeakReference<PackedGrid> grid;   // the grid the distances are for
+    private final int count;            // number of landmarks asked for
+    private final int height;           // height of the grid
+    private final int width;            // width of the grid
+
+    private volatile int[] landmarks;       // index of every landmark cell
+    private volatile float[][] distances;   // distances[k][index] = cost of the best path from the cell to landmark k (+infinity => unreachable)
+    private volatile boolean stale;         // true when a cell has changed since the tables were built
+
+
+    /**
+     * This is the constructor of the LandmarkTable class.
+     * It picks the landmarks and builds the distance tables right away.
+     * @param grid the packed grid
+     * @param count the number of landmarks to use
+     */
+    public LandmarkTable(PackedGrid grid, int count) {
+        this.grid = new WeakReference<>(grid);
+        this.count = count;
+        this.height = grid.getHeight();
+        this.width = grid.getWidth();
+        build(grid);
+        grid.addListener(this);
+    } // ends the LandmarkTable() constructor
+
+
+    /**
+     * This method will return the landmark table of a grid, building it the first time it is asked for.
+     * @param grid the grid
+     * @return the shared landmark table of the grid
+     */
+    public static LandmarkTable of(Grid grid) {
+        return of(grid.getPackedGrid());
+    } // ends the of() method
+
+
+    /**
+     * This method will return the landmark table of a packed grid, building it the first time it is asked for.
+     * @param grid the packed grid
+     * @return the shared landmark table of the grid
+     */
+    public static synchronized LandmarkTable of(PackedGrid grid) {
+        LandmarkTable table = TABLES.get(grid);
+        if (table == null) {
+            table = new LandmarkTable(grid, DEFAULT_LANDMARKS);
+            TABLES.put(grid, table);
+        }
+        return table;
+    } // ends the of() method
+
+
+    /**
+     * This method will rebuild the tables if the grid has changed since they were built.
+     */
+    public synchronized void refresh() {
+        PackedGrid current = this.grid.get();
+        if (this.stale && current != null) {
+            build(current);
+        }
+    } // ends the refresh() method
+
+
+    /**
+     * This method will pick the landmarks and compute the distance from every cell to each of them.
+     * @param grid the packed grid the distances are for
+     */
+    private synchronized void build(PackedGrid grid) {
+        this.stale = false;
+
+        // start from any open cell, the first landmark is the cell furthest from it
+        int seed = -1;
+        for (int index = 0 ; index < grid.size() && seed == -1 ; ++index) {
+            if (grid.getType(index) != 0) {
+                seed = index;
+            }
+        }
+        if (seed == -1) { // every cell is blocked
+            this.landmarks = new int[0];
+            this.distances = new float[0][];
+            return;
+        }
+
+        float[] closest = new DistanceField(grid, seed).getDistances();   // distance to the closest landmark so far
+        int[] picked = new int[this.count];
+        float[][] tables = new float[this.count][];
+        int k = 0;
+        while (k < this.count) {
+            int next = furthest(closest);
+            if (next == -1) { // every reachable cell is already a landmark
+                break;
+            }
+            picked[k] = next;
+            tables[k] = new DistanceField(grid, next).getDistances();
+            if (k == 0) {
+                closest = tables[0].clone();
+            } else {
+                for (int index = 0 ; index < closest.length ; ++index) {
+                    closest[index] = Math.min(closest[index], tables[k][index]);
+                }
+            }
+            k++;
+        }
+        this.landmarks = Arrays.copyOf(picked, k);
+        this.distances = Arrays.copyOf(tables, k);
+    } // ends the build() method
+
+
+    /**
+     * This method will find the reachable cell with the largest distance.
+     * @param dist the distance of every cell
+     * @return the index of the cell, or -1 if the largest distance is 0
+     */
+    private static int furthest(float[] dist) {
+        int best = -1;
+        float bestDist = 0f;
+        for (int index = 0 ; index < dist.length ; ++index) {
+            if (dist[index] > bestDist && dist[index] != Float.POSITIVE_INFINITY) {
+                bestDist = dist[index];
+                best = index;
+            }
+        }
+        return best;
+    } // ends the furthest() method
+
+
+    /**
+     * This method is called by the grid when a cell changes, the tables are rebuilt on the next refresh().
+     * @param grid the packed grid that changed
+     * @param index the index of the cell that changed
+     */
+    @Override
+    public void cellChanged(PackedGrid grid, int index) {
+        this.stale = true;
+    } // ends the cellChanged() method
+
+
+    /**
+     * This method will return the index of every landmark.
+     * @return the landmark cell indices (x * width + y)
+     */
+    public int[] getLandmarks() {
+        return this.landmarks.clone();
+    } // ends the getLandmarks() method
+
+
+    /**
+     * This method will return the distance tables, distances[k][index] is the cost from the cell to landmark k.
+     * They must not be changed by the caller.
+     * @return the distance tables
+     */
+    public float[][] getDistances() {
+        return this.distances;
+    } // ends the getDistances() method
+
+
+    /**
+     * This method will check if the grid has changed since the tables were built.
+     * @return true if the tables need a refresh() and false otherwise
+     */
+    public boolean isStale() {
+        return this.stale;
+    } // ends the isStale() method
+
+
+    /**
+     * This method will return the width of the grid the tables were built for.
+     * @return the number of columns
+     */
+    public int getWidth() {
+        return this.width;
+    } // ends the getWidth() method
+
+
+    /**
+     * This method will return the height of the grid the tables were built for.
+     * @return the number of rows
+     */
+    public int getHeight() {
+        return this.height;
+    } // ends the getHeight() method
+
+} // ends the LandmarkTable class
@@ -1,7 +1,6 @@
 package Heuristic;
 
 import Grid.Grid;
-import Grid.Cell;
 
 /**
  * This is the Manhattan Distance Heuristic Class.
@@ -18,18 +17,30 @@ public class ManhattanDistance extends Heuristic {
      * @param grid the grid
      */
     public ManhattanDistance(Grid grid) {
+        this(grid, grid.getEndCell()[0][0], grid.getEndCell()[0][1]);
+    } // ends the ManhattanDistance() constructor
+
+
+    /**
+     * This is the constructor of the ManhattanDistance() class for a goal other than the end cell of the grid.
+     * @param grid the grid
+     * @param end_x the x-coordinate of the goal
+     * @param end_y the y-coordinate of the goal
+     */
+    public ManhattanDistance(Grid grid, int end_x, int end_y) {
         super(grid);
-        this.end_x = grid.getEndCell()[0][0];
-        this.end_y = grid.getEndCell()[0][1];
+        this.end_x = end_x;
+        this.end_y = end_y;
     } // ends the ManhattanDistance() constructor
 
 
     /**
      * This method will get the Manhattan Distance heurisitc for a node.
-     * @param cell the current cell
+     * @param x the x-coordinate of the current cell
+     * @param y the y-coordinate of the current cell
      * @return a float value that will be used as a heurisitic (represents distance to goal) found using the Manhattan Distance
      */
-    public float getHeuristic(Cell cell) {
-        return (float) Math.abs(cell.getX()-end_x) + Math.abs(cell.getY()-end_y);
+    public float getHeuristic(int x, int y) {
+        return (float) Math.abs(x-end_x) + Math.abs(y-end_y);
     }
 } // ends the ManhattanDistance() class
@@ -1,6 +1,5 @@
 package SearchAlgos;
 
-import Grid.Cell;
 import Grid.Grid;
 import Heuristic.Heuristic;
 
@@ -25,7 +24,13 @@ public class AStarSearch extends AbstractSearch{
 
 
 	@Override
-	public float getHCost(Cell cell) {
-        return h.getHeuristic(cell);
+	public float getHCost(int x, int y) {
+        return h.getHeuristic(x, y);
     } // ends the getHCost() method
+
+
+    @Override
+    String cacheKey() {
+        return baseCacheKey() + cacheKeyOf(h);
+    } // ends the cacheKey() method
 } // ends the AStarSearch class
@@ -2,12 +2,12 @@ package SearchAlgos;
 
 import Grid.Grid;
 import Grid.Cell;
+import Grid.GridSnapshot;
+import Grid.PackedGrid;
+import Heuristic.Heuristic;
 
-import java.util.Comparator;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.Set;
 
 /**
@@ -17,70 +17,43 @@ public abstract class AbstractSearch {
 
     // Global variables
     List<Cell> path;            // shortest path
-    Set<Cell> exploredCells;    // list of explored Cells
-    PriorityQueue<Cell> fringe; // heap that holds cells to be looked at
+    CellBitmap exploredCells;   // bitmap of the explored Cells
+    SearchContext context;      // per-query state (costs, parents, fringe), the grid itself is never written to
    
-    Cell[][] grid;              // main grid we are working with 
+    Grid source;                // main grid we are working with, only used to hand out Cells for the results
+    PackedGrid terrain;         // packed grid of the source when the search was made, the snapshots are taken of it
+    CostModel costs;            // compiled edge costs of the grid (or of the snapshot of this run), shared by every search on it
+    float[] weights;            // costs.getWeights(), read directly by the search (weights[index * 8 + direction])
+    float[][] weightRows;       // costs.getWeightRows() when the run reads a snapshot (null => the weights are read)
+    int height;                 // height of the grid
+    int width;                  // width of the grid, used to turn (x,y) into a cell index
     int[][] start;              // start Cell
     int[][] end;                // end Cell
+    int nodesExpanded;          // number of cells taken off the fringe by the last run
+    boolean verbose = true;     // print the number of nodes looked through (and NO PATH FOUND) after every run
+    boolean fixedPoint;         // search with the fixed-point edge costs and a bucket queue instead of floats and a heap
+    SearchBudget budget = SearchBudget.UNLIMITED;   // limits on the expansions, time and cancellation of every run
+    SearchStatus status;        // how the last run of the base search ended (null => derived from the path)
+    List<Cell> partialPath;     // best partial path of the last run, when it was stopped early (null => none)
+    boolean isolated;           // every run reads a snapshot of the grid taken when it starts, not the live grid
+    GridSnapshot snapshot;      // snapshot read by the last run (null => the live grid)
     
-    /**
-     * Row 0 is Cell A and Column 0 is Cell B;
-     * 
-     * Use these charts to find out the gCost from Cell A to Cell B;
-     * 
-     * How to read:
-     *  Column/Row 0 = normal
-     *  Column/Row 1 = hard to traverse
-     *  Column/Row 2 = blocked
-     *  Column/Row 3 = normal highway
-     *  Column/Row 4 = hard highway
-     *  
-     */
-    // 
-    final float[][] HORIZONAL_VERTICAL_COST = 
-    {
-			{ 1f    ,    1.5f  ,   -1f  ,   1f     ,   1.50f  },
-			{ 1.5f  ,    2f    ,   -1f  ,   1.5f   ,   2f     },
-			{ -1f   ,    -1f   ,   -1f  ,   -1f    ,   -1f    },
-			{ 1f    ,    1.50f ,   -1f  ,   0.25f  ,   0.375f },
-			{ 1.5f  ,    2f    ,   -1f  ,   0.375f ,   0.5f   }
-	};
-    
-    
-    final float NormToNormDiag = (float) Math.sqrt(2.0);
-	final float NormToHardDiag = ((float) Math.sqrt(2.0) + (float) Math.sqrt(8.0))/2;
-	final float HardToHardDiag = (float) Math.sqrt(8.0);
-	
-    final float[][] DIAGONAL_COSTS = 
-    {
-			{ NormToNormDiag   ,   NormToHardDiag   ,    -1f   ,      NormToNormDiag      ,       NormToHardDiag      },
-			{ NormToHardDiag   ,   HardToHardDiag   , 	 -1f   ,      NormToHardDiag      ,       HardToHardDiag      },
-			{     -1f          ,        -1f         ,    -1f   ,           -1f            , 		   -1f            },
-			{ NormToNormDiag   ,   NormToHardDiag   , 	 -1f   ,    NormToNormDiag/4.0f   ,     NormToHardDiag/4.0f   },
-			{ NormToHardDiag   ,   HardToHardDiag   , 	 -1f   ,    NormToHardDiag/4.0f   ,     HardToHardDiag/4.0f   }
-	};
-
-
     /**
      * This is the constructor the AbstractSearch Class.
      * @param curGrid is the grid to be searched
      */
     public AbstractSearch(Grid curGrid) {
-        this.grid = curGrid.getGrid();
-        this.start = curGrid.getStartCell();
-        this.end = curGrid.getEndCell();
+        this.source = curGrid;
+        this.terrain = curGrid.getPackedGrid();
+        this.costs = CostModel.of(this.terrain);
+        this.weights = this.costs.getWeights();
+        this.height = curGrid.getHeight();
+        this.width = curGrid.getWidth();
+        // copy the start and end so a later setStartAndEnd() on the shared grid does not change this query
+        this.start = new int[][] {{curGrid.getStartCell()[0][0], curGrid.getStartCell()[0][1]}};
+        this.end = new int[][] {{curGrid.getEndCell()[0][0], curGrid.getEndCell()[0][1]}};
 
         this.path = new LinkedList<>();
-        this.exploredCells = new HashSet<>();
-        this.fringe = new PriorityQueue<>(new Comparator<Cell>(){
-            // -#   -> one < two
-            // 0    -> one == two
-            // +#   -> one > two 
-            public int compare(Cell one, Cell two) {
-                return Float.compare(one.getfCost(), two.getfCost());
-            }
-        });
 
     } // ends the AbstractSearch() constructor
 
@@ -92,6 +65,16 @@ public abstract class AbstractSearch {
      * @return the hCost
      */
     public float getHCost(Cell cell) {
+        return getHCost(cell.getX(), cell.getY());
+    } // ends the getHCost() method
+
+    /**
+     * This method is used to find the HCost for a specific location, this is the one the searches override.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the hCost
+     */
+    public float getHCost(int x, int y) {
         return 0f;
     } // ends the getHCost() method
 
@@ -103,12 +86,25 @@ public abstract class AbstractSearch {
         return path;
     }
 
+    /**
+     * This method will return a bitmap of all the Cells that have been explored by the algorithm.
+     * @return the bitmap of explored cells
+     */
+    public CellBitmap getExploredCells() {
+        if (exploredCells == null) {
+            // copy it, the bitmap of the context is cleared by the next run
+            exploredCells = (context != null) ? new CellBitmap(context.getExplored()) : new CellBitmap(height, width);
+        }
+        return exploredCells;
+    }
+
     /**
      * This method will return a Set of all the Cells that have been explored by the algorithm.
+     * This is only here for older callers, getExploredCells() is much cheaper to check.
      * @return the set of explored cells
      */
-    public Set<Cell> getExploredCells() {
-        return exploredCells;
+    public Set<Cell> getExploredCellSet() {
+        return getExploredCells().asSet(source);
     }
 
 
@@ -120,16 +116,18 @@ public abstract class AbstractSearch {
      * @return the gCost between the two cells
      */
     public float getGCost(Cell cur , Cell next) {
-        if ((cur.getX() == next.getX()) && (cur.getY() == next.getY())) { // same cell
-            return 0f;
-        } else if (((cur.getX() == next.getX()) && (Math.abs(cur.getY() - next.getY()) == 1)) 
-        || ((Math.abs(cur.getX() - next.getX()) == 1) && (cur.getY() == next.getY()))) { // horizontal or vertical neighbor
-            return costHorVert(cur, next);
-        } else if ((Math.abs(cur.getX() - next.getX()) == 1) && (Math.abs(cur.getY() - next.getY()) == 1)) { // diagonal neighbor
-            return costDiag(cur, next);
-        } else {
-            return -1f;
-        }
+        return getGCost(getIndex(cur), getIndex(next));
+    } // ends the getGCost() method
+
+
+    /**
+     * This method will be used in order to get the gCost between two neighboring cells using their indices.
+     * @param cur the index of the current cell
+     * @param next the index of the neighboring cell
+     * @return the gCost between the two cells
+     */
+    public float getGCost(int cur , int next) {
+        return costs.getCost(cur, next);
     } // ends the getGCost() method
 
 
@@ -140,37 +138,7 @@ public abstract class AbstractSearch {
      * @return the gCost
      */
     public float costHorVert(Cell from, Cell to) {
-        int type_from = from.getType();
-        int type_to = to.getType();
-
-        // need to get the type of the cell and match the gCost chart type
-        // this idea to make a chart was an after throught that came in order to optimize and not use code to calculate all the costs at every iteration
-
-        if (type_from == 0) { // blocked
-            type_from = 2;
-        } else if (type_from == 1) { // easy
-            type_from = 0;
-        } else if (type_from == 2) { // hard
-            type_from = 1;
-        } else if (type_from == 3) { // easy highway
-            type_from = 3;
-        } else { // hard highway
-            type_from = 4;
-        }
-
-        if (type_to == 0) { // blocked
-            type_to = 2;
-        } else if (type_to == 1) { // easy
-            type_to = 0;
-        } else if (type_to == 2) { // hard
-            type_to = 1;
-        } else if (type_to == 3) { // easy highway
-            type_to = 3;
-        } else { // hard highway
-            type_to = 4;
-        }
-
-        return HORIZONAL_VERTICAL_COST[type_from][type_to];
+        return CostModel.costHorVert(from.getType(), to.getType());
     } // ends the costHorVert() method
 
 
@@ -181,112 +149,372 @@ public abstract class AbstractSearch {
      * @return the gCost
      */
     public float costDiag(Cell from, Cell to) {
-        int type_from = from.getType();
-        int type_to = to.getType();
-
-        // need to get the type of the cell and match the gCost chart type
-        // this idea to make a chart was an after throught that came in order to optimize and not use code to calculate all the costs at every iteration
-
-        if (type_from == 0) { // blocked
-            type_from = 2;
-        } else if (type_from == 1) { // easy
-            type_from = 0;
-        } else if (type_from == 2) { // hard
-            type_from = 1;
-        } else if (type_from == 3) { // easy highway
-            type_from = 3;
-        } else { // hard highway
-            type_from = 4;
-        }
+        return CostModel.costDiag(from.getType(), to.getType());
+    }// ends the costDiag() method 
 
-        if (type_to == 0) { // blocked
-            type_to = 2;
-        } else if (type_to == 1) { // easy
-            type_to = 0;
-        } else if (type_to == 2) { // hard
-            type_to = 1;
-        } else if (type_to == 3) { // easy highway
-            type_to = 3;
-        } else { // hard highway
-            type_to = 4;
+
+
+    /**
+     * The main method that runs the base A* algorithm. 
+     * The first run makes a SearchContext for this search and later runs reuse it.
+     */
+    public void run() {
+        if (this.context == null) {
+            this.context = new SearchContext(this.height, this.width);
         }
+        run(this.context);
+    } // ends the run() method
 
-        return DIAGONAL_COSTS[type_from][type_to];
-    }// ends the costDiag() method 
 
+    /**
+     * This method runs the base A* algorithm using a given SearchContext.
+     * Callers that do many queries (one thread each) can keep one context per thread and pass it in here.
+     * @param ctx the context to hold the state of this query, it will be reset first
+     */
+    public void run(SearchContext ctx) {
+        pinSnapshot();
+        runPinned(ctx);
+    } // ends the run() method
 
 
     /**
-     * The main method that runs the base A* algorithm. 
+     * This method runs the base A* algorithm on the terrain that is already pinned for this run (see pinSnapshot()).
+     * Subclasses that pin the snapshot themselves before deciding how to run call this instead of run(), so a run
+     * only ever reads one version of the grid.
+     * @param ctx the context to hold the state of this query, it will be reset first
      */
-    public void run() {        
+    void runPinned(SearchContext ctx) {
+        if (fixedPoint) {
+            runFixedPoint(ctx);
+            return;
+        }
+        this.context = ctx;
+        this.exploredCells = null;
+        this.status = null;
+        this.partialPath = null;
+        ctx.reset();
+
         // get the start and end
-        Cell cStart = grid[start[0][0]][start[0][1]];
-		Cell cTarget = grid[end[0][0]][end[0][1]];
+        int startIndex = start[0][0] * width + start[0][1];
+		int targetIndex = end[0][0] * width + end[0][1];
         
+        int[] offsets = ctx.offsets;
+
         // add the start to the fringe
-        addToFringe(cStart, null, getGCost(cStart,cStart), getHCost(cStart)); // parent = null
-        //System.out.println(cStart.getfCost() + " = " + cStart.getgCost() + " + " + cStart.gethCost());
+        addToFringe(startIndex, -1, getGCost(startIndex, startIndex), getHCost(start[0][0], start[0][1])); // parent = -1
         // some info about how many cells the algo has to go through to get from start to end
-        int numNodesSearched = 0;
-		while(fringe.size() > 0) {
-            numNodesSearched++;
+        nodesExpanded = 0;
+        int best = startIndex;  // expanded cell with the smallest hCost (then largest gCost), the end of the best partial path
+		while(ctx.fringe.size() > 0) {
+            SearchStatus stop = budget.check(nodesExpanded);
+            if (stop != null) {
+                stopEarly(stop, startIndex, best);
+                return;
+            }
+            nodesExpanded++;
             // take the head of the queue (should be minimum fcost by defualt becuase of the heap/priority queue)
-            Cell curr = fringe.poll();
-            curr.visited = true;
-            exploredCells.add(curr);
+            int curr = ctx.fringe.poll();
+            ctx.close(curr);
+            // the ties go to the cell furthest from the start, so Uniform-Cost Search (hCost of 0) still makes headway
+            if (ctx.hCost[curr] < ctx.hCost[best] || (ctx.hCost[curr] == ctx.hCost[best] && ctx.gCost[curr] > ctx.gCost[best])) {
+                best = curr;
+            }
 
             // check if it is the goal Cell
-			if(curr.getX() == cTarget.getX() && curr.getY() == cTarget.getY()){
-                path = getShortestPath(cStart, cTarget);
-                System.out.println("Number of Nodes Looked Through: " + numNodesSearched);
+			if(curr == targetIndex){
+                status = SearchStatus.FOUND;
+                path = getShortestPath(startIndex, targetIndex);
+                report("Number of Nodes Looked Through: " + nodesExpanded);
 				return;
 			}
             
             // get neighbors and check if has been visited or not
-			List<Cell> neighbors = getNeighbors(curr);
-			for(Cell c : neighbors) {
-				if(c.getType() == 0) {
+            float[] edgeCosts = edgesOf(curr);
+            int edges = edgeOffset(curr);
+			for(int d = 0; d < CostModel.DIRECTIONS; d++) {
+                float edgeCost = edgeCosts[edges + d];
+				if(edgeCost < 0) { // blocked or off the grid
                     continue;
                 }	
+                int c = curr + offsets[d];
 
                 // find the new total gCost from current cell to the neighbor
-                float gCostCurrToNeighbor = curr.getgCost() + getGCost(curr, c);
-                if (!exploredCells.contains(c)) {
-                    if (!fringe.contains(c)) { // not explored yet and isn't on the fringe
-                        addToFringe(c, curr, gCostCurrToNeighbor, getHCost(c));
-                    } else {
-                        // already on the fringe, but if the neighbor seems to be a better/cheap path going through this current cell, 
-                        // replace the gCost of this neightbor and update the fringe with it
-                        if (gCostCurrToNeighbor < c.getgCost()) {
-                            addToFringe(c, curr, gCostCurrToNeighbor, getHCost(c)); // will do the update (remove and insert with new info) if necessary
-                        }
-                    } 
+                float gCostCurrToNeighbor = ctx.gCost[curr] + edgeCost;
+                if (ctx.inFringe(c)) {
+                    // already on the fringe, but if the neighbor seems to be a better/cheap path going through this current cell, 
+                    // replace the gCost of this neightbor and update the fringe with it
+                    if (gCostCurrToNeighbor < ctx.gCost[c]) {
+                        addToFringe(c, curr, gCostCurrToNeighbor, ctx.hCost[c]); // decrease-key, the hCost of the cell does not change
+                    }
+                } else if (!ctx.isGenerated(c)) { // not explored yet and isn't on the fringe
+                    addToFringe(c, curr, gCostCurrToNeighbor, getHCost(c / width, c % width));
                 }
             }
         } // ends the while loop
 
         // if the algorithm gets here, that means that there is no route from the start to the goal
-        System.out.println("NO PATH FOUND");
+        report("NO PATH FOUND");
+        status = SearchStatus.EXHAUSTED;
         path = null;
+    } // ends the runPinned() method
+
+
+    /**
+     * This method runs the base A* algorithm with the fixed-point edge costs of the CostModel.
+     * The costs are integers so there is no float drift and the cells with the same fCost really are tied, and the
+     * fringe is a bucket queue (see fixedPointQueue()) instead of a heap.
+     * The hCost of a cell is rounded down to the fixed-point units.
+     * @param ctx the context to hold the state of this query, it will be reset first
+     */
+    void runFixedPoint(SearchContext ctx) {
+        this.context = ctx;
+        this.exploredCells = null;
+        this.status = null;
+        this.partialPath = null;
+        ctx.reset();
+
+        int startIndex = start[0][0] * width + start[0][1];
+        int targetIndex = end[0][0] * width + end[0][1];
+        int[] offsets = ctx.offsets;
+        int[] fixed = costs.getFixedWeights();
+        int[][] fixedRows = costs.getFixedWeightRows();    // the run reads a snapshot (null => the fixed weights are read)
+        int[] g = ctx.getFixedGCosts();
+        FixedPointQueue fringe = fixedPointQueue(ctx);
+
+        float h = getHCost(start[0][0], start[0][1]);
+        ctx.openFixed(startIndex, -1, 0, h);
+        fringe.update(startIndex, (int) (h * CostModel.FIXED_SCALE));
+        nodesExpanded = 0;
+        int best = startIndex;  // expanded cell with the smallest hCost (then largest gCost), the end of the best partial path
+        while (!fringe.isEmpty()) {
+            SearchStatus stop = budget.check(nodesExpanded);
+            if (stop != null) {
+                stopEarly(stop, startIndex, best);
+                return;
+            }
+            nodesExpanded++;
+            int curr = fringe.poll();
+            ctx.close(curr);
+            if (ctx.hCost[curr] < ctx.hCost[best] || (ctx.hCost[curr] == ctx.hCost[best] && g[curr] > g[best])) {
+                best = curr;
+            }
+
+            if (curr == targetIndex) {
+                status = SearchStatus.FOUND;
+                path = getShortestPath(startIndex, targetIndex);
+                report("Number of Nodes Looked Through: " + nodesExpanded);
+                return;
+            }
+
+            int[] edgeCosts = (fixedRows == null) ? fixed : fixedRows[curr / width];
+            int edges = edgeOffset(curr);
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                int edgeCost = edgeCosts[edges + d];
+                if (edgeCost < 0) { // blocked or off the grid
+                    continue;
+                }
+                int c = curr + offsets[d];
+                int gNext = g[curr] + edgeCost;
+                if (fringe.contains(c)) {
+                    if (gNext < g[c]) { // decrease-key, the hCost of the cell does not change
+                        int key = fringe.getKey(c) - g[c] + gNext;
+                        ctx.openFixed(c, curr, gNext, ctx.hCost[c]);
+                        fringe.update(c, key);
+                    }
+                } else if (!ctx.isGenerated(c)) {
+                    h = getHCost(c / width, c % width);
+                    ctx.openFixed(c, curr, gNext, h);
+                    fringe.update(c, gNext + (int) (h * CostModel.FIXED_SCALE));
+                }
+            }
+        } // ends the while loop
+
+        report("NO PATH FOUND");
+        status = SearchStatus.EXHAUSTED;
+        path = null;
+    } // ends the runFixedPoint() method
+
+
+    /**
+     * This method will end a run that was stopped by its budget, keeping the best partial path.
+     * @param stop the status to end with
+     * @param startIndex the index of the start cell
+     * @param best the expanded cell with the smallest hCost, and of those the largest gCost
+     */
+    void stopEarly(SearchStatus stop, int startIndex, int best) {
+        status = stop;
+        path = null;
+        partialPath = getShortestPath(startIndex, best);
+        report(stop + " after " + nodesExpanded + " nodes");
+    } // ends the stopEarly() method
+
+
+    /**
+     * This method runs the search with a budget and returns how it ended.
+     * The budget is only used for this run, the budget set before (see setBudget()) is put back afterwards, since a
+     * deadline of SearchBudget.ofMillis() would otherwise stop every later run at once.
+     * @param budget the limits of the run
+     * @return the result of the run
+     */
+    public SearchResult run(SearchBudget budget) {
+        SearchBudget previous = this.budget;
+        setBudget(budget);
+        try {
+            run();
+        } finally {
+            this.budget = previous;
+        }
+        return getResult();
     } // ends the run() method
 
 
+    /**
+     * This method will set the limits on the expansions, time and cancellation of every run.
+     * Only the base search loop checks the budget (Uniform-Cost Search, A* and Weighted A*).
+     * @param budget the budget (null => no limits)
+     */
+    public void setBudget(SearchBudget budget) {
+        this.budget = (budget == null) ? SearchBudget.UNLIMITED : budget;
+    } // ends the setBudget() method
+
+
+    /**
+     * This method will return how the last run ended.
+     * @return the status
+     */
+    public SearchStatus getStatus() {
+        if (status != null) {
+            return status;
+        }
+        return (path != null) ? SearchStatus.FOUND : SearchStatus.EXHAUSTED;
+    } // ends the getStatus() method
+
+
+    /**
+     * This method will return the best partial path of the last run, if it was stopped by its budget.
+     * It goes from the start to the expanded cell with the smallest hCost, and of those the one with the largest gCost,
+     * so for Uniform-Cost Search (hCost of 0) it goes to the expanded cell that is furthest from the start.
+     * @return the partial path, or null if the run was not stopped early
+     */
+    public List<Cell> getPartialPath() {
+        return partialPath;
+    } // ends the getPartialPath() method
+
+
+    /**
+     * This method will return the result of the last run.
+     * @return the status, the path (or best partial path), its cost and the number of nodes expanded
+     */
+    public SearchResult getResult() {
+        List<Cell> found = (path != null) ? path : partialPath;
+        float cost = -1f;
+        if (found instanceof Path) { // the partial paths are always Paths
+            cost = ((Path) found).getCost();
+        } else if (found != null && !found.isEmpty()) {
+            cost = getPathCost();
+        }
+        return new SearchResult(getStatus(), found, cost, nodesExpanded);
+    } // ends the getResult() method
+
+
+    /**
+     * This method will return the fringe used by the fixed-point search.
+     * It is a two-level bucket queue, which works for any heuristic.
+     * @param ctx the context of the query
+     * @return the fringe, already cleared
+     */
+    FixedPointQueue fixedPointQueue(SearchContext ctx) {
+        return ctx.getBucketQueue();
+    } // ends the fixedPointQueue() method
+
+
+    /**
+     * This method will turn the snapshot isolation on or off.
+     * With it on, every run takes a snapshot of the grid when it starts (see Grid.snapshot()) and reads the edge costs
+     * of that snapshot only, so the edits made by other threads while it runs do not change what it sees, and the next
+     * run picks up the latest version. The path costs are the costs on the snapshot.
+     * With it off (the default), the search reads the live edge costs of the grid, which is faster when nothing edits
+     * the grid while searching.
+     * D* Lite and Hierarchical Search keep their own structures in step with the live grid, so they always read it.
+     * @param isolated true to run every search on a snapshot and false to run it on the live grid
+     */
+    public void setSnapshotIsolation(boolean isolated) {
+        this.isolated = isolated;
+        if (!isolated) {
+            this.snapshot = null;
+            this.costs = CostModel.of(this.terrain);
+            this.weights = this.costs.getWeights();
+            this.weightRows = null;
+        }
+    } // ends the setSnapshotIsolation() method
+
+
+    /**
+     * This method will return the snapshot the last run read, with the version of the grid it ran on.
+     * @return the snapshot, or null if the search reads the live grid
+     */
+    public GridSnapshot getSnapshot() {
+        return this.snapshot;
+    } // ends the getSnapshot() method
+
+
+    /**
+     * This method will take the snapshot that a run starting now reads, if the search has snapshot isolation.
+     * It is called at the start of every run, before anything reads the edge costs.
+     */
+    void pinSnapshot() {
+        if (!this.isolated) {
+            return;
+        }
+        this.snapshot = this.terrain.snapshot();
+        this.costs = CostModel.of(this.snapshot);
+        this.weights = null;
+        this.weightRows = this.costs.getWeightRows();
+    } // ends the pinSnapshot() method
+
+
+    /**
+     * This method will return the array that holds the costs of the edges going out of a cell (see edgeOffset()).
+     * It is the weights of the grid, or the row of the cell when the run reads a snapshot.
+     * @param index the index of the cell
+     * @return the array of edge costs
+     */
+    float[] edgesOf(int index) {
+        return (this.weightRows == null) ? this.weights : this.weightRows[index / this.width];
+    } // ends the edgesOf() method
+
+
+    /**
+     * This method will return where the cost of the first edge out of a cell is in the array of edgesOf().
+     * @param index the index of the cell
+     * @return the position of the edge of direction 0, the edge of direction d comes d after it
+     */
+    int edgeOffset(int index) {
+        return ((this.weightRows == null) ? index : index % this.width) * CostModel.DIRECTIONS;
+    } // ends the edgeOffset() method
+
+
+    /**
+     * This method will turn the fixed-point mode on or off.
+     * In fixed-point mode the search adds up integer edge costs (see CostModel.getFixedWeights()) and keeps its fringe
+     * in a bucket queue, so it has no float drift and the queue operations are O(1) amortized.
+     * Only the base search loop uses it (Uniform-Cost Search, A* and Weighted A*).
+     * @param fixedPoint true to use the fixed-point costs and false to use the float costs
+     */
+    public void setFixedPoint(boolean fixedPoint) {
+        this.fixedPoint = fixedPoint;
+    } // ends the setFixedPoint() method
+
+
     /**
      * This method is used in order to obtain the shortest path that has been built by the algorithm.
-     * @param start the starting Cell
-     * @param target the ending Cell
-     * @param path the list that will take the contents of the path
+     * @param start the index of the starting Cell
+     * @param target the index of the ending Cell
      * @return the path that was generated
      */
-    public List<Cell> getShortestPath(Cell start, Cell target){
-        List<Cell> finalPath = new LinkedList<>();
-        Cell ptr = target;
-		while(ptr != null) { // will go backwards in the path to start whose parent would be null
-			finalPath.add(0,ptr);
-			ptr = ptr.parent;
-		}
-		return finalPath;
+    public List<Cell> getShortestPath(int start, int target){
+        // will go backwards in the path to start whose parent would be -1
+        return Path.fromParents(source, context.parent, target, costs);
 	} // ends the getShortestPath() method
     
     
@@ -294,51 +522,122 @@ public abstract class AbstractSearch {
     // method used to add new cells to the fringe
     /**
      * This method will be used to add new Cells to the fringe for the algorithm.
-     * @param cur the current cell
-     * @param parent the parent of the cell
+     * @param cur the index of the current cell
+     * @param parent the index of the parent of the cell (-1 => no parent)
      * @param gcost the gCost of the cell
      * @param hcost the hCost of the cell
      */
-    public void addToFringe(Cell cur , Cell parent , float gcost , float hcost) {
-        cur.setgCost(gcost);
-        cur.sethCost(hcost);
-        cur.setfCost(cur.getgCost() + cur.gethCost());
-        cur.parent = parent;
-        cur.visited = true;
+    public void addToFringe(int cur , int parent , float gcost , float hcost) {
+        // inserts the cell or moves it to its new place in the heap
+        context.open(cur, parent, gcost, hcost);
+    } // ends the addToFringe() method 
+
 
-        if (fringe.contains(cur)){
-            fringe.remove(cur);
+    /**
+     * This method will get the index of a Cell, which is the key used by the fringe.
+     * @param c the cell
+     * @return the index of the cell (x * width + y)
+     */
+    public int getIndex(Cell c) {
+        return c.getX() * width + c.getY();
+    } // ends the getIndex() method
+
+
+    /**
+     * This method will get the Cell that matches an index from the fringe.
+     * @param index the index of the cell
+     * @return the cell at that index
+     */
+    public Cell getCell(int index) {
+        return this.source.getCell(index / width, index % width);
+    } // ends the getCell() method
+
+
+    /**
+     * This method will return the SearchContext of the last query.
+     * @return the context (null if the search has not been run yet)
+     */
+    public SearchContext getContext() {
+        return this.context;
+    } // ends the getContext() method
+
+
+    /**
+     * This method will change the start and end of the search, without touching the grid.
+     * The heuristic of the search is not changed, so it must already be made for the new end cell.
+     * @param startX the x-coordinate of the start cell
+     * @param startY the y-coordinate of the start cell
+     * @param endX the x-coordinate of the end cell
+     * @param endY the y-coordinate of the end cell
+     */
+    public void setStartAndEnd(int startX, int startY, int endX, int endY) {
+        this.start[0][0] = startX;
+        this.start[0][1] = startY;
+        this.end[0][0] = endX;
+        this.end[0][1] = endY;
+    } // ends the setStartAndEnd() method
+
+
+    /**
+     * This method will turn the messages printed after every run on or off.
+     * Searches that are run in a batch should be quiet, printing from many threads is slow.
+     * @param verbose true to print the messages and false otherwise
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    } // ends the setVerbose() method
+
+
+    /**
+     * This method will print a message about the last run, if the search is verbose.
+     * @param message the message
+     */
+    void report(String message) {
+        if (verbose) {
+            System.out.println(message);
         }
-        fringe.add(cur);
-        exploredCells.add(cur);
-        
-    } // ends the addToFringe() method 
+    } // ends the report() method
+
+
+    /**
+     * This method will describe every setting of the search that can change the path it finds, so a PathCache only
+     * answers a query with a path found by a search that was set up the same way.
+     * The searches that can be cached override it and add their heuristics and weights to baseCacheKey().
+     * @return the key, or null if the settings of the search are not known (it is then never cached)
+     */
+    String cacheKey() {
+        return null;
+    } // ends the cacheKey() method
+
+
+    /**
+     * This method will return the part of the cache key that every search has, its class and the fixed-point mode.
+     * @return the key
+     */
+    String baseCacheKey() {
+        return getClass().getName() + (this.fixedPoint ? "/fixed-point" : "");
+    } // ends the baseCacheKey() method
+
+
+    /**
+     * This method will return the part of the cache key for a heuristic.
+     * @param h the heuristic (null => none)
+     * @return the key
+     */
+    static String cacheKeyOf(Heuristic h) {
+        return (h == null) ? "/none" : "/" + h.getClass().getName();
+    } // ends the cacheKeyOf() method
+
 
-    
     /**
-     * This method will get the neighbors of the current cell.
-     * @param c is the current cell
-     * @return a list of all the neighbors of the current cell
-     */
-    public List<Cell> getNeighbors(Cell c){
-    	List<Cell> neighbors = new LinkedList<>();
-    	Set<Cell> set = new HashSet<>();    // use thid for O(1) search
-    	for(int i = -1; i <= 1; i++){
-    		for(int j = -1; j <= 1; j++){
-    			if(i == 0 && j == 0)
-    				continue;
-    			int x = c.getX() + i;
-    			int y = c.getY() + j;
-    			
-    			if(x >= 0 && x < grid.length && y >= 0 && y < grid[0].length && !set.contains(this.grid[x][y])) {
-                    neighbors.add(this.grid[x][y]);
-    				set.add(this.grid[x][y]);
-    			}
-    		}
-    	}
-    	return neighbors;
-    } // ends the getNeighbors() method
+     * This method will return the number of cells that were expanded (taken off the fringe) by the last run.
+     * @return the number of nodes expanded
+     */
+    public int getNodesExpanded() {
+        return this.nodesExpanded;
+    } // ends the getNodesExpanded() method
 
+    
     /**
      * This method will return the total cost of the shortest path obtained by the algorithm.
      * @return the cost of the path
@@ -347,6 +646,9 @@ public abstract class AbstractSearch {
         if (path == null) {
             return -1f;
         }
+        if (path instanceof Path) { // worked out when the path was made
+            return ((Path) path).getCost();
+        }
         float totalCost = 0f;
         Cell cur = path.get(0);
         for (Cell next : path) {
@@ -358,4 +660,4 @@ public abstract class AbstractSearch {
     }
 
 
-} // ends the AbstractSearch class
\ No newline at end of file
+} // ends the AbstractSearch class
@@ -0,0 +1,253 @@
+package SearchAlgos;
+
+import Grid.Cell;
+import Grid.Grid;
+import Heuristic.HeuristicFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This is the Batch Search class.
+ * It runs many start/goal queries on the same grid in parallel on a fork-join pool and returns the path, cost and
+ * stats of each one. The grid is only read: each query gets its own search object (with the start and goal of the
+ * query instead of the ones stored in the grid) and each thread reuses one SearchContext for all of its queries.
+ * The grid must not be changed while a batch is running.
+ *
+ * ex. BatchSearch.run(grid, queries, BatchSearch.aStar(EuclideanDistanceByFour::new))
+ */
+public class BatchSearch {
+
+    /**
+     * This is the Algorithm interface, it makes the search for one query.
+     * The start and goal of the query are set on the search by the batch, but a heuristic has to be made for the goal.
+     */
+    public interface Algorithm {
+
+        /**
+         * This method will make the search for a query.
+         * @param grid the grid
+         * @param query the query
+         * @return the search to run
+         */
+        AbstractSearch create(Grid grid, Query query);
+
+    } // ends the Algorithm interface
+
+
+    /**
+     * This is the Query class, one start/goal pair.
+     */
+    public static class Query {
+        private final int startX;
+        private final int startY;
+        private final int endX;
+        private final int endY;
+
+        /**
+         * This is the constructor of the Query class.
+         * @param startX the x-coordinate of the start cell
+         * @param startY the y-coordinate of the start cell
+         * @param endX the x-coordinate of the end cell
+         * @param endY the y-coordinate of the end cell
+         */
+        public Query(int startX, int startY, int endX, int endY) {
+            this.startX = startX;
+            this.startY = startY;
+            this.endX = endX;
+            this.endY = endY;
+        } // ends the Query() constructor
+
+        public int getStartX() { return startX; }
+        public int getStartY() { return startY; }
+        public int getEndX() { return endX; }
+        public int getEndY() { return endY; }
+    } // ends the Query class
+
+
+    /**
+     * This is the Result class, what one query found.
+     */
+    public static class Result {
+        private final Query query;
+        private final List<Cell> path;
+        private final float cost;
+        private final int nodesExpanded;
+        private final int nodesExplored;
+        private final long nanos;
+
+        /**
+         * This is the constructor of the Result class.
+         * @param query the query
+         * @param path the path (null => no path)
+         * @param cost the cost of the path (-1 => no path)
+         * @param nodesExpanded the number of cells taken off the fringe
+         * @param nodesExplored the number of cells put on the fringe
+         * @param nanos how long the search took in nanoseconds
+         */
+        Result(Query query, List<Cell> path, float cost, int nodesExpanded, int nodesExplored, long nanos) {
+            this.query = query;
+            this.path = path;
+            this.cost = cost;
+            this.nodesExpanded = nodesExpanded;
+            this.nodesExplored = nodesExplored;
+            this.nanos = nanos;
+        } // ends the Result() constructor
+
+        public Query getQuery() { return query; }
+        public List<Cell> getPath() { return path; }
+        public float getCost() { return cost; }
+        public int getNodesExpanded() { return nodesExpanded; }
+        public int getNodesExplored() { return nodesExplored; }
+        public long getNanos() { return nanos; }
+        public boolean isFound() { return path != null; }
+    } // ends the Result class
+
+
+    /**
+     * This method will return the algorithm for Uniform-Cost Search.
+     * @return the algorithm
+     */
+    public static Algorithm uniformCost() {
+        return (grid, query) -> new UniformCostSearch(grid);
+    } // ends the uniformCost() method
+
+
+    /**
+     * This method will return the algorithm for Uniform-Cost Search that follows the distance field of the goal,
+     * taken from a cache, so the queries that share a goal only search once.
+     * @param cache the cache of distance fields of the grid
+     * @return the algorithm
+     */
+    public static Algorithm distanceField(DistanceFieldCache cache) {
+        return (grid, query) -> {
+            UniformCostSearch search = new UniformCostSearch(grid);
+            search.setDistanceFieldCache(cache);
+            return search;
+        };
+    } // ends the distanceField() method
+
+
+    /**
+     * This method will return the algorithm for A* Search.
+     * @param heuristic makes the heuristic for the goal of each query
+     * @return the algorithm
+     */
+    public static Algorithm aStar(HeuristicFactory heuristic) {
+        return (grid, query) -> new AStarSearch(grid, heuristic.create(grid, query.getEndX(), query.getEndY()));
+    } // ends the aStar() method
+
+
+    /**
+     * This method will return the algorithm for Weighted A* Search.
+     * @param heuristic makes the heuristic for the goal of each query
+     * @param weight the weight of the heuristic
+     * @return the algorithm
+     */
+    public static Algorithm weightedAStar(HeuristicFactory heuristic, float weight) {
+        return (grid, query) -> new WeightedAStarSearch(grid, heuristic.create(grid, query.getEndX(), query.getEndY()), weight);
+    } // ends the weightedAStar() method
+
+
+    /**
+     * This method will return the algorithm for Bidirectional A* Search.
+     * @param heuristic makes the heuristics for the goal and for the start of each query
+     * @return the algorithm
+     */
+    public static Algorithm bidirectional(HeuristicFactory heuristic) {
+        return (grid, query) -> new BidirectionalAStarSearch(grid,
+                heuristic.create(grid, query.getEndX(), query.getEndY()),
+                heuristic.create(grid, query.getStartX(), query.getStartY()));
+    } // ends the bidirectional() method
+
+
+    /**
+     * This method will run all the queries in parallel on the common fork-join pool.
+     * @param grid the grid, it must not change while the batch runs
+     * @param queries the start/goal pairs
+     * @param algorithm makes the search for each query
+     * @return the result of each query, in the same order as the queries
+     */
+    public static List<Result> run(Grid grid, List<Query> queries, Algorithm algorithm) {
+        return run(grid, queries, algorithm, ForkJoinPool.commonPool());
+    } // ends the run() method
+
+
+    /**
+     * This method will run all the queries in parallel on a given fork-join pool.
+     * @param grid the grid, it must not change while the batch runs
+     * @param queries the start/goal pairs
+     * @param algorithm makes the search for each query
+     * @param pool the pool to run the queries on
+     * @return the result of each query, in the same order as the queries
+     */
+    public static List<Result> run(Grid grid, List<Query> queries, Algorithm algorithm, ForkJoinPool pool) {
+        Query[] batch = queries.toArray(new Query[0]);
+        Result[] results = new Result[batch.length];
+        ThreadLocal<SearchContext> contexts = ThreadLocal.withInitial(() -> new SearchContext(grid));
+        pool.invoke(new QueryTask(grid, batch, algorithm, contexts, results, 0, batch.length));
+        return Arrays.asList(results);
+    } // ends the run() method
+
+
+    /**
+     * This method will run one query.
+     * @param grid the grid
+     * @param query the query
+     * @param algorithm makes the search
+     * @param ctx the context of the thread
+     * @return the result of the query
+     */
+    static Result runQuery(Grid grid, Query query, Algorithm algorithm, SearchContext ctx) {
+        long begin = System.nanoTime();
+        AbstractSearch search = algorithm.create(grid, query);
+        search.setStartAndEnd(query.getStartX(), query.getStartY(), query.getEndX(), query.getEndY());
+        search.setVerbose(false);
+        search.run(ctx);
+        List<Cell> path = search.getPath();
+        float cost = (path == null) ? -1f : search.getPathCost();
+        long nanos = System.nanoTime() - begin;
+        return new Result(query, path, cost, search.getNodesExpanded(), search.getExploredCells().cardinality(), nanos);
+    } // ends the runQuery() method
+
+
+    /**
+     * This is the task that splits a range of queries in half until there is only one left to run.
+     */
+    private static class QueryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Grid grid;
+        private final Query[] queries;
+        private final Algorithm algorithm;
+        private final ThreadLocal<SearchContext> contexts;
+        private final Result[] results;
+        private final int from;
+        private final int to;
+
+        QueryTask(Grid grid, Query[] queries, Algorithm algorithm, ThreadLocal<SearchContext> contexts, Result[] results, int from, int to) {
+            this.grid = grid;
+            this.queries = queries;
+            this.algorithm = algorithm;
+            this.contexts = contexts;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        } // ends the QueryTask() constructor
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                if (to > from) {
+                    results[from] = runQuery(grid, queries[from], algorithm, contexts.get());
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new QueryTask(grid, queries, algorithm, contexts, results, from, mid),
+                      new QueryTask(grid, queries, algorithm, contexts, results, mid, to));
+        } // ends the compute() method
+    } // ends the QueryTask class
+
+} // ends the BatchSearch class
@@ -0,0 +1,228 @@
+package SearchAlgos;
+
+import Grid.Cell;
+import Grid.Grid;
+import Heuristic.Heuristic;
+
+import java.util.List;
+
+/**
+ * This is the Bidirectional A* Search Class.
+ * It runs one search forward from the start and one backward from the goal and stops once they meet on the best path.
+ *
+ * Both searches use the same (balanced) potential p(n) = (hGoal(n) - hStart(n)) / 2, the forward search adds it to the
+ * gCost and the backward search subtracts it. With consistent heuristics this is the same as running bidirectional
+ * Dijkstra on the reduced costs, so the search can stop as soon as the keys at the top of the two fringes add up to
+ * the cost of the best path found so far (mu), and that path is optimal.
+ * Without heuristics it is a plain bidirectional Uniform-Cost Search.
+ */
+public class BidirectionalAStarSearch extends AbstractSearch {
+
+    // Global variables
+    Heuristic hGoal;            // heuristic towards the end cell (null => no heuristic)
+    Heuristic hStart;           // heuristic towards the start cell (null => no heuristic)
+    SearchContext backward;     // state of the backward search, the forward one is in context
+    float bestCost;             // cost of the best path found by the last run (mu)
+    int meetIndex;              // index of the cell where the two searches met on the best path (-1 => none)
+
+
+    /**
+     * This is the constructor of the BidirectionalAStarSearch class without heuristics (bidirectional Uniform-Cost Search).
+     * @param grid the current grid
+     */
+    public BidirectionalAStarSearch(Grid grid) {
+        this(grid, null, null);
+    } // ends the BidirectionalAStarSearch() constructor
+
+
+    /**
+     * This is the constructor of the BidirectionalAStarSearch class.
+     * The two heuristics should be consistent, and of the same kind, for the path to be optimal.
+     * @param grid the current grid
+     * @param hGoal the heuristic towards the end cell of the grid
+     * @param hStart the heuristic towards the start cell of the grid (ex. new ManhattanDistanceByFour(grid, startX, startY))
+     */
+    public BidirectionalAStarSearch(Grid grid, Heuristic hGoal, Heuristic hStart) {
+        super(grid);
+        this.hGoal = hGoal;
+        this.hStart = hStart;
+        this.meetIndex = -1;
+    } // ends the BidirectionalAStarSearch() constructor
+
+
+    @Override
+    public float getHCost(int x, int y) {
+        return (hGoal == null) ? 0f : hGoal.getHeuristic(x, y);
+    } // ends the getHCost() method
+
+
+    @Override
+    String cacheKey() {
+        return baseCacheKey() + cacheKeyOf(hGoal) + cacheKeyOf(hStart);
+    } // ends the cacheKey() method
+
+
+    /**
+     * This method will get the potential of a cell that both searches use in place of the hCost.
+     * @param index the index of the cell
+     * @return the potential (hGoal - hStart) / 2 of the cell
+     */
+    private float getPotential(int index) {
+        if (hGoal == null || hStart == null) {
+            return 0f;
+        }
+        int x = index / width;
+        int y = index % width;
+        return (hGoal.getHeuristic(x, y) - hStart.getHeuristic(x, y)) / 2f;
+    } // ends the getPotential() method
+
+
+    /**
+     * This method runs the bidirectional search using a given SearchContext for the forward search.
+     * The context for the backward search is made on the first run and reused after.
+     * @param ctx the context to hold the state of the forward search, it will be reset first
+     */
+    @Override
+    public void run(SearchContext ctx) {
+        pinSnapshot();
+        this.context = ctx;
+        if (this.backward == null) {
+            this.backward = new SearchContext(this.height, this.width);
+        }
+        this.exploredCells = null;
+        ctx.reset();
+        backward.reset();
+
+        int startIndex = start[0][0] * width + start[0][1];
+        int targetIndex = end[0][0] * width + end[0][1];
+        int[] offsets = ctx.offsets;
+
+        ctx.open(startIndex, -1, 0f, getPotential(startIndex));
+        backward.open(targetIndex, -1, 0f, -getPotential(targetIndex));
+
+        bestCost = (startIndex == targetIndex) ? 0f : Float.POSITIVE_INFINITY;
+        meetIndex = (startIndex == targetIndex) ? startIndex : -1;
+        nodesExpanded = 0;
+        while (ctx.fringe.size() > 0 && backward.fringe.size() > 0) {
+            // no cell left on either fringe can be on a path cheaper than mu
+            if (ctx.fringe.peekKey() + backward.fringe.peekKey() >= bestCost) {
+                break;
+            }
+
+            // expand the side with the smaller fringe
+            boolean forward = ctx.fringe.size() <= backward.fringe.size();
+            SearchContext cur = forward ? ctx : backward;
+            SearchContext other = forward ? backward : ctx;
+
+            nodesExpanded++;
+            int curr = cur.fringe.poll();
+            cur.close(curr);
+
+            float[] edgeCosts = edgesOf(curr);
+            int edges = edgeOffset(curr);
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; d++) {
+                float edgeCost = edgeCosts[edges + d];
+                if (edgeCost < 0) { // blocked or off the grid
+                    continue;
+                }
+                int c = curr + offsets[d];
+                if (!forward) {
+                    // the backward search walks the edges the other way, so use the cost of the move from c to curr
+                    edgeCost = edgesOf(c)[edgeOffset(c) + (CostModel.DIRECTIONS - 1 - d)];
+                }
+                if (cur.isClosed(c)) {
+                    continue;
+                }
+
+                float g = cur.gCost[curr] + edgeCost;
+                if (!cur.isGenerated(c)) {
+                    cur.open(c, curr, g, forward ? getPotential(c) : -getPotential(c));
+                } else if (g < cur.gCost[c]) {
+                    cur.open(c, curr, g, cur.hCost[c]); // decrease-key, the potential of the cell does not change
+                } else {
+                    continue;
+                }
+
+                // the other search has reached this cell too, so there is a path through it
+                if (other.isGenerated(c) && g + other.gCost[c] < bestCost) {
+                    bestCost = g + other.gCost[c];
+                    meetIndex = c;
+                }
+            }
+        } // ends the while loop
+
+        if (meetIndex == -1) {
+            report("NO PATH FOUND");
+            path = null;
+            return;
+        }
+        path = getShortestPath(startIndex, targetIndex);
+        report("Number of Nodes Looked Through: " + nodesExpanded);
+    } // ends the run() method
+
+
+    /**
+     * This method is used in order to obtain the shortest path by joining the two searches where they met.
+     * @param start the index of the starting Cell
+     * @param target the index of the ending Cell
+     * @return the path that was generated
+     */
+    @Override
+    public List<Cell> getShortestPath(int start, int target) {
+        // count the cells from the meeting cell back to the start, and from it on to the goal
+        int head = 0;
+        for (int ptr = meetIndex ; ptr != -1 ; ptr = context.getParent(ptr)) {
+            head++;
+        }
+        int tail = 0;
+        for (int ptr = backward.getParent(meetIndex) ; ptr != -1 ; ptr = backward.getParent(ptr)) {
+            tail++;
+        }
+        int[] cells = new int[head + tail];
+        int i = head;
+        for (int ptr = meetIndex ; ptr != -1 ; ptr = context.getParent(ptr)) {
+            cells[--i] = ptr;
+        }
+        // the parents of the backward search point towards the goal
+        i = head;
+        for (int ptr = backward.getParent(meetIndex) ; ptr != -1 ; ptr = backward.getParent(ptr)) {
+            cells[i++] = ptr;
+        }
+        return new Path(source, cells, costs);
+    } // ends the getShortestPath() method
+
+
+    /**
+     * This method will return a bitmap of all the Cells that have been explored by either search.
+     * @return the bitmap of explored cells
+     */
+    @Override
+    public CellBitmap getExploredCells() {
+        if (exploredCells == null) {
+            exploredCells = super.getExploredCells();
+            if (backward != null) {
+                exploredCells.or(backward.getExplored());
+            }
+        }
+        return exploredCells;
+    } // ends the getExploredCells() method
+
+
+    /**
+     * This method will return the SearchContext of the backward search of the last query.
+     * @return the backward context (null if the search has not been run yet)
+     */
+    public SearchContext getBackwardContext() {
+        return this.backward;
+    } // ends the getBackwardContext() method
+
+
+    /**
+     * This method will return the cost of the best path found by the last run.
+     * @return the cost, or Float.POSITIVE_INFINITY if no path was found
+     */
+    public float getBestCost() {
+        return this.bestCost;
+    } // ends the getBestCost() method
+
+} // ends the BidirectionalAStarSearch class
@@ -0,0 +1,283 @@
+package SearchAlgos;
+
+import java.util.Arrays;
+
+/**
+ * This is the Bucket Queue class, a two-level bucket queue of cell indices with integer keys for A*.
+ * The top level has one bucket for every FIXED_SCALE keys (one unit of cost), and the bottom level has one bucket for
+ * every key of the top bucket that is being taken from. The cells are only spread over the bottom level when their
+ * top bucket comes up, so the queue only looks at the buckets between the smallest and the largest key it holds.
+ * Adding a cell and changing its key are O(1), and taking out the smallest is O(1) amortized over the scan of the
+ * buckets (the bottom level keeps a bitmap of the buckets that are not empty, so it skips 64 empty ones at a time).
+ * All the cells in a bottom bucket have the same key, and the one added last comes out first.
+ *
+ * A* takes its cells out in order of f = g + h, which only goes up when the heuristic is consistent. It does not have
+ * to be here: a key below the top bucket that is being taken from sends that bucket back up, so any keys work.
+ * The buckets are doubly linked lists through arrays indexed by the cell index.
+ */
+public class BucketQueue implements FixedPointQueue {
+    // Global variables
+    private static final int SHIFT = Integer.numberOfTrailingZeros(CostModel.FIXED_SCALE);  // keys per top bucket = 2^SHIFT
+    private static final int LOW = 1 << SHIFT;      // number of bottom buckets
+    private static final int MASK = LOW - 1;        // key & MASK => bottom bucket
+    private static final int NONE = -1;             // end of a list / not in the queue
+    private static final byte IN_TOP = 1;           // level of a cell that is in a top bucket
+    private static final byte IN_LOW = 2;           // level of a cell that is in a bottom bucket
+
+    private int[] top;              // first cell of each top bucket (NONE => empty), grows with the keys
+    private final int[] low;        // first cell of each bottom bucket (NONE => empty)
+    private final long[] lowBits;   // bit b is set when bottom bucket b is not empty
+    private final int[] next;       // next cell in the bucket of every cell
+    private final int[] prev;       // previous cell in the bucket of every cell (NONE => first)
+    private final int[] keys;       // key of every cell
+    private final byte[] level;     // level of every cell (0 => not in the queue)
+    private int active;             // top bucket spread over the bottom level (NONE => none)
+    private int topCursor;          // every top bucket below this one is empty
+    private int lowCursor;          // every bottom bucket below this one is empty
+    private int topUsed;            // every top bucket from this one up is empty
+    private int size;               // number of cells in the queue
+
+
+    /**
+     * This is the constructor of the BucketQueue class.
+     * @param capacity the total number of cell indices that can be stored (usually height * width)
+     */
+    public BucketQueue(int capacity) {
+        this.top = new int[64];
+        this.low = new int[LOW];
+        this.lowBits = new long[LOW >>> 6];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.keys = new int[capacity];
+        this.level = new byte[capacity];
+        Arrays.fill(this.top, NONE);
+        Arrays.fill(this.low, NONE);
+        this.active = NONE;
+    } // ends the BucketQueue() constructor
+
+
+    /**
+     * This method will add a cell to the queue or change its key if it is already there.
+     * @param index the cell index
+     * @param key the key of the cell (not negative)
+     */
+    @Override
+    public void update(int index, int key) {
+        if (key < 0) {
+            throw new IllegalArgumentException("key must not be negative: " + key);
+        }
+        if (this.level[index] != 0) {
+            unlink(index);
+        } else {
+            this.size++;
+        }
+        this.keys[index] = key;
+        insert(index);
+    } // ends the update() method
+
+
+    /**
+     * This method will put a cell in the bucket of its key.
+     * @param index the cell index
+     */
+    private void insert(int index) {
+        int key = this.keys[index];
+        int hi = key >>> SHIFT;
+        if (hi == this.active) {
+            linkLow(index, key & MASK);
+            return;
+        }
+        if (this.active != NONE && hi < this.active) {
+            // the key is below the bucket being taken from, send that bucket back up to the top level
+            int spread = this.active;
+            this.active = NONE;
+            for (int b = nextLow(this.lowCursor) ; b < LOW ; b = nextLow(b + 1)) {
+                int ptr = this.low[b];
+                this.low[b] = NONE;
+                while (ptr != NONE) {
+                    int following = this.next[ptr];
+                    linkTop(ptr, spread);
+                    ptr = following;
+                }
+            }
+            Arrays.fill(this.lowBits, 0L);
+        }
+        linkTop(index, hi);
+    } // ends the insert() method
+
+
+    /**
+     * This method will remove and return a cell with the smallest key.
+     * @return the cell index
+     */
+    @Override
+    public int poll() {
+        while (true) {
+            if (this.active != NONE) {
+                this.lowCursor = nextLow(this.lowCursor);
+                if (this.lowCursor < LOW) {
+                    int index = this.low[this.lowCursor];
+                    unlink(index);
+                    this.level[index] = 0;
+                    this.size--;
+                    return index;
+                }
+                this.topCursor = this.active + 1;   // the bucket was emptied when it was spread
+                this.active = NONE;
+            }
+            while (this.top[this.topCursor] == NONE) {
+                this.topCursor++;
+            }
+            // spread the first top bucket that is not empty over the bottom level
+            int hi = this.topCursor;
+            int ptr = this.top[hi];
+            this.top[hi] = NONE;
+            this.active = hi;
+            this.lowCursor = LOW;
+            while (ptr != NONE) {
+                int following = this.next[ptr];
+                linkLow(ptr, this.keys[ptr] & MASK);
+                ptr = following;
+            }
+        }
+    } // ends the poll() method
+
+
+    /**
+     * This method will find the first bottom bucket that is not empty.
+     * @param from the bucket to start from
+     * @return the bucket, or LOW if they are all empty
+     */
+    private int nextLow(int from) {
+        if (from >= LOW) {
+            return LOW;
+        }
+        int w = from >>> 6;
+        long word = this.lowBits[w] & (-1L << from);
+        while (word == 0) {
+            if (++w == this.lowBits.length) {
+                return LOW;
+            }
+            word = this.lowBits[w];
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(word);
+    } // ends the nextLow() method
+
+
+    /**
+     * This method will put a cell at the front of a top bucket, growing the top level if it has to.
+     * @param index the cell index
+     * @param hi the top bucket
+     */
+    private void linkTop(int index, int hi) {
+        if (hi >= this.top.length) {
+            int old = this.top.length;
+            this.top = Arrays.copyOf(this.top, Math.max(old * 2, hi + 1));
+            Arrays.fill(this.top, old, this.top.length, NONE);
+        }
+        int head = this.top[hi];
+        this.next[index] = head;
+        this.prev[index] = NONE;
+        if (head != NONE) {
+            this.prev[head] = index;
+        }
+        this.top[hi] = index;
+        this.level[index] = IN_TOP;
+        this.topCursor = Math.min(this.topCursor, hi);
+        this.topUsed = Math.max(this.topUsed, hi + 1);
+    } // ends the linkTop() method
+
+
+    /**
+     * This method will put a cell at the front of a bottom bucket.
+     * @param index the cell index
+     * @param b the bottom bucket
+     */
+    private void linkLow(int index, int b) {
+        int head = this.low[b];
+        this.next[index] = head;
+        this.prev[index] = NONE;
+        if (head != NONE) {
+            this.prev[head] = index;
+        }
+        this.low[b] = index;
+        this.lowBits[b >>> 6] |= 1L << b;
+        this.level[index] = IN_LOW;
+        this.lowCursor = Math.min(this.lowCursor, b);
+    } // ends the linkLow() method
+
+
+    /**
+     * This method will take a cell out of its bucket.
+     * @param index the cell index
+     */
+    private void unlink(int index) {
+        int before = this.prev[index];
+        int after = this.next[index];
+        if (before != NONE) {
+            this.next[before] = after;
+        } else if (this.level[index] == IN_LOW) {
+            int b = this.keys[index] & MASK;
+            this.low[b] = after;
+            if (after == NONE) {
+                this.lowBits[b >>> 6] &= ~(1L << b);
+            }
+        } else {
+            this.top[this.keys[index] >>> SHIFT] = after;
+        }
+        if (after != NONE) {
+            this.prev[after] = before;
+        }
+    } // ends the unlink() method
+
+
+    @Override
+    public boolean contains(int index) {
+        return this.level[index] != 0;
+    } // ends the contains() method
+
+
+    @Override
+    public int getKey(int index) {
+        return this.keys[index];
+    } // ends the getKey() method
+
+
+    @Override
+    public int size() {
+        return this.size;
+    } // ends the size() method
+
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    } // ends the isEmpty() method
+
+
+    /**
+     * This method will remove every cell from the queue.
+     */
+    @Override
+    public void clear() {
+        for (int hi = 0 ; hi < this.topUsed ; ++hi) {
+            for (int ptr = this.top[hi] ; ptr != NONE ; ptr = this.next[ptr]) {
+                this.level[ptr] = 0;
+            }
+            this.top[hi] = NONE;
+        }
+        for (int b = nextLow(0) ; b < LOW ; b = nextLow(b + 1)) {
+            for (int ptr = this.low[b] ; ptr != NONE ; ptr = this.next[ptr]) {
+                this.level[ptr] = 0;
+            }
+            this.low[b] = NONE;
+        }
+        Arrays.fill(this.lowBits, 0L);
+        this.active = NONE;
+        this.topCursor = 0;
+        this.lowCursor = LOW;
+        this.topUsed = 0;
+        this.size = 0;
+    } // ends the clear() method
+
+} // ends the BucketQueue class
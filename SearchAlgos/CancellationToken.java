@@ -0,0 +1,29 @@
+package SearchAlgos;
+
+/**
+ * This is the Cancellation Token class.
+ * It is handed to a search in its SearchBudget, and any thread can call cancel() to make the search stop at its next
+ * check. One token can be shared by many searches, so a whole batch can be stopped at once.
+ */
+public class CancellationToken {
+    // Global variables
+    private volatile boolean cancelled;     // true once cancel() has been called
+
+
+    /**
+     * This method will ask every search that uses this token to stop.
+     */
+    public void cancel() {
+        this.cancelled = true;
+    } // ends the cancel() method
+
+
+    /**
+     * This method will check if the token has been cancelled.
+     * @return true if cancel() has been called and false otherwise
+     */
+    public boolean isCancelled() {
+        return this.cancelled;
+    } // ends the isCancelled() method
+
+} // ends the CancellationToken class
@@ -0,0 +1,218 @@
+package SearchAlgos;
+
+import Grid.Cell;
+import Grid.Grid;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * This is the Cell Bitmap class.
+ * This is a set of cells stored as one bit per cell index (x * width + y) in a long array.
+ * The searches use it for their closed and explored sets, and it is what they hand out as the explored cells,
+ * so checking a cell is a shift and a mask instead of a hash lookup.
+ */
+public class CellBitmap {
+    // Global variables
+    private final int height;       // height of the grid
+    private final int width;        // width of the grid
+    private final long[] words;     // the bits, cell index i is bit (i & 63) of words[i >>> 6]
+
+
+    /**
+     * This is the constructor of the CellBitmap class, every cell starts out of the set.
+     * @param height the height of the grid
+     * @param width the width of the grid
+     */
+    public CellBitmap(int height, int width) {
+        this.height = height;
+        this.width = width;
+        this.words = new long[(height * width + 63) >>> 6];
+    } // ends the CellBitmap() constructor
+
+
+    /**
+     * This is the copy constructor of the CellBitmap class.
+     * @param other the bitmap to copy
+     */
+    public CellBitmap(CellBitmap other) {
+        this.height = other.height;
+        this.width = other.width;
+        this.words = other.words.clone();
+    } // ends the CellBitmap() constructor
+
+
+    /**
+     * This method will check if a cell index is in the set.
+     * @param index the index of the cell
+     * @return true if the cell is in the set and false otherwise
+     */
+    public boolean get(int index) {
+        return (this.words[index >>> 6] & (1L << index)) != 0;
+    } // ends the get() method
+
+
+    /**
+     * This method will check if a cell is in the set.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return true if the cell is in the set and false otherwise
+     */
+    public boolean get(int x, int y) {
+        return get(x * this.width + y);
+    } // ends the get() method
+
+
+    /**
+     * This method will check if a cell is in the set.
+     * @param cell the cell
+     * @return true if the cell is in the set and false otherwise
+     */
+    public boolean contains(Cell cell) {
+        return get(cell.getX(), cell.getY());
+    } // ends the contains() method
+
+
+    /**
+     * This method will add a cell index to the set.
+     * @param index the index of the cell
+     */
+    public void set(int index) {
+        this.words[index >>> 6] |= (1L << index);
+    } // ends the set() method
+
+
+    /**
+     * This method will remove a cell index from the set.
+     * @param index the index of the cell
+     */
+    public void clear(int index) {
+        this.words[index >>> 6] &= ~(1L << index);
+    } // ends the clear() method
+
+
+    /**
+     * This method will empty the set.
+     */
+    public void clearAll() {
+        Arrays.fill(this.words, 0L);
+    } // ends the clearAll() method
+
+
+    /**
+     * This method will add every cell of another bitmap to this one.
+     * @param other the bitmap to add (must be for a grid of the same size)
+     */
+    public void or(CellBitmap other) {
+        for (int i = 0 ; i < this.words.length ; ++i) {
+            this.words[i] |= other.words[i];
+        }
+    } // ends the or() method
+
+
+    /**
+     * This method will return the number of cells in the set.
+     * @return the number of cells
+     */
+    public int cardinality() {
+        int count = 0;
+        for (long word : this.words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    } // ends the cardinality() method
+
+
+    /**
+     * This method will find the next cell index in the set.
+     * @param from the index to start looking at (included)
+     * @return the next index in the set or -1 if there are none
+     */
+    public int nextSetBit(int from) {
+        int size = this.height * this.width;
+        if (from >= size) {
+            return -1;
+        }
+        int w = from >>> 6;
+        long word = this.words[w] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                int index = (w << 6) + Long.numberOfTrailingZeros(word);
+                return (index < size) ? index : -1;
+            }
+            if (++w == this.words.length) {
+                return -1;
+            }
+            word = this.words[w];
+        }
+    } // ends the nextSetBit() method
+
+
+    /**
+     * This method will return the height of the grid the bitmap was made for.
+     * @return the number of rows
+     */
+    public int getHeight() {
+        return this.height;
+    } // ends the getHeight() method
+
+
+    /**
+     * This method will return the width of the grid the bitmap was made for.
+     * @return the number of columns
+     */
+    public int getWidth() {
+        return this.width;
+    } // ends the getWidth() method
+
+
+    /**
+     * This method will return a Set of Cells that reads through this bitmap.
+     * This is only meant for older callers that need a Set, checking the bitmap directly is much cheaper.
+     * @param grid the grid that the Cells should come from
+     * @return a read-only Set view of the bitmap
+     */
+    public Set<Cell> asSet(Grid grid) {
+        return new AbstractSet<Cell>() {
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof Cell)) {
+                    return false;
+                }
+                Cell c = (Cell) o;
+                return c.getX() >= 0 && c.getX() < height && c.getY() >= 0 && c.getY() < width && CellBitmap.this.contains(c);
+            }
+
+            @Override
+            public int size() {
+                return cardinality();
+            }
+
+            @Override
+            public Iterator<Cell> iterator() {
+                return new Iterator<Cell>() {
+                    int next = nextSetBit(0);
+
+                    @Override
+                    public boolean hasNext() {
+                        return next != -1;
+                    }
+
+                    @Override
+                    public Cell next() {
+                        if (next == -1) {
+                            throw new NoSuchElementException();
+                        }
+                        Cell cell = grid.getCell(next / width, next % width);
+                        next = nextSetBit(next + 1);
+                        return cell;
+                    }
+                };
+            }
+        };
+    } // ends the asSet() method
+
+} // ends the CellBitmap class
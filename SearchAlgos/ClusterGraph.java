@@ -0,0 +1,550 @@
+package SearchAlgos;
+
+import Grid.Grid;
+import Grid.GridListener;
+import Grid.PackedGrid;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This is the Cluster Graph class.
+ * This is the abstract graph used by the HierarchicalSearch (HPA*).
+ * The grid is split into square clusters of clusterSize x clusterSize cells. Along the border between two clusters,
+ * every run of cells that is open on both sides is an entrance, and each entrance gives one transition (two for long
+ * entrances, one at each end) made of a cell on each side of the border.
+ * These transition cells are the nodes of the graph. The nodes of a cluster are linked by the cost of the best path
+ * between them that stays inside the cluster (intra edges), and the two cells of a transition are linked by the cost
+ * of the move across the border (inter edges). All the costs come from the CostModel.
+ *
+ * The graph listens to the grid and when a cell changes only the borders the cell is on and the clusters around it
+ * are rebuilt, on the next refresh().
+ * There is one graph per grid, shared by all the hierarchical searches on it (see ClusterGraph.of()). refresh() rebuilds
+ * the node lists and edges in place, so a search reads them while it holds the lock of the graph.
+ * The graph does not keep a reference to its grid (it reads the terrain through the CostModel), so the shared graph
+ * of a grid does not keep the grid (the key of the graph in GRAPHS) from being collected.
+ */
+public class ClusterGraph implements GridListener {
+    // Global variables
+    public static final int DEFAULT_CLUSTER_SIZE = 10;  // cluster size used by ClusterGraph.of()
+    private static final int LONG_ENTRANCE = 6;         // entrances at least this long get two transitions
+
+    private static final Map<PackedGrid, ClusterGraph> GRAPHS = new WeakHashMap<>();    // one graph per grid
+
+    final CostModel costs;      // compiled edge costs of the grid
+    final int height;           // height of the grid
+    final int width;            // width of the grid
+    final int clusterSize;      // number of rows/columns in a cluster
+    final int clustersX;        // number of clusters along x
+    final int clustersY;        // number of clusters along y
+
+    // transitions across the border below cluster (cx,cy), id cx * clustersY + cy, stored as pairs (upper cell, lower cell)
+    private final int[][] lowerBorders;
+    // transitions across the border right of cluster (cx,cy), id cx * (clustersY - 1) + cy, stored as pairs (left cell, right cell)
+    private final int[][] rightBorders;
+    private final Cluster[] clusters;   // nodes and edges of every cluster, id cx * clustersY + cy
+    private final int[] nodeSlot;       // position of every cell in the node list of its cluster (-1 => not a node)
+
+    private final boolean[] dirtyClusters;      // clusters that need their nodes and intra edges rebuilt
+    private final boolean[] dirtyLower;         // lower borders that need their transitions rebuilt
+    private final boolean[] dirtyRight;         // right borders that need their transitions rebuilt
+    private boolean dirty;                      // true when any of the above is set
+    private final LocalSearch local;            // search used to build the intra edges
+
+
+    /**
+     * This class holds the nodes of one cluster and their edges.
+     */
+    static final class Cluster {
+        int[] nodes = new int[0];           // cell index of every node
+        float[] distances = new float[0];   // distances[i * nodes.length + j] = cost from node i to node j inside the cluster
+        int[] partnerStart = new int[1];    // the partners of node i are partners[partnerStart[i] .. partnerStart[i + 1] - 1]
+        int[] partners = new int[0];        // cell on the other side of a border that a node has a transition to
+    } // ends the Cluster class
+
+
+    /**
+     * This is the constructor of the ClusterGraph class.
+     * It builds the whole graph right away and starts listening to the grid for changes.
+     * @param grid the packed grid
+     * @param clusterSize the number of rows/columns in a cluster
+     */
+    public ClusterGraph(PackedGrid grid, int clusterSize) {
+        this.costs = CostModel.of(grid);
+        this.height = grid.getHeight();
+        this.width = grid.getWidth();
+        this.clusterSize = clusterSize;
+        this.clustersX = (this.height + clusterSize - 1) / clusterSize;
+        this.clustersY = (this.width + clusterSize - 1) / clusterSize;
+
+        this.lowerBorders = new int[Math.max(0, this.clustersX - 1) * this.clustersY][];
+        this.rightBorders = new int[this.clustersX * Math.max(0, this.clustersY - 1)][];
+        this.clusters = new Cluster[this.clustersX * this.clustersY];
+        this.nodeSlot = new int[grid.size()];
+        Arrays.fill(this.nodeSlot, -1);
+        for (int c = 0 ; c < this.clusters.length ; ++c) {
+            this.clusters[c] = new Cluster();
+        }
+        this.dirtyClusters = new boolean[this.clusters.length];
+        this.dirtyLower = new boolean[this.lowerBorders.length];
+        this.dirtyRight = new boolean[this.rightBorders.length];
+        this.local = new LocalSearch(this);
+
+        Arrays.fill(this.dirtyClusters, true);
+        Arrays.fill(this.dirtyLower, true);
+        Arrays.fill(this.dirtyRight, true);
+        this.dirty = true;
+        refresh();
+        grid.addListener(this);
+    } // ends the ClusterGraph() constructor
+
+
+    /**
+     * This method will return the cluster graph of a grid, building it the first time it is asked for.
+     * @param grid the grid
+     * @return the shared cluster graph of the grid
+     */
+    public static ClusterGraph of(Grid grid) {
+        return of(grid.getPackedGrid());
+    } // ends the of() method
+
+
+    /**
+     * This method will return the cluster graph of a packed grid, building it the first time it is asked for.
+     * @param grid the packed grid
+     * @return the shared cluster graph of the grid
+     */
+    public static synchronized ClusterGraph of(PackedGrid grid) {
+        ClusterGraph graph = GRAPHS.get(grid);
+        if (graph == null) {
+            graph = new ClusterGraph(grid, DEFAULT_CLUSTER_SIZE);
+            GRAPHS.put(grid, graph);
+        }
+        return graph;
+    } // ends the of() method
+
+
+    /**
+     * This method will rebuild the borders and clusters that have been changed since the last refresh().
+     */
+    public synchronized void refresh() {
+        if (!this.dirty) {
+            return;
+        }
+        for (int b = 0 ; b < this.lowerBorders.length ; ++b) {
+            if (this.dirtyLower[b]) {
+                this.lowerBorders[b] = buildLowerBorder(b / this.clustersY, b % this.clustersY);
+                this.dirtyLower[b] = false;
+            }
+        }
+        for (int b = 0 ; b < this.rightBorders.length ; ++b) {
+            if (this.dirtyRight[b]) {
+                this.rightBorders[b] = buildRightBorder(b / (this.clustersY - 1), b % (this.clustersY - 1));
+                this.dirtyRight[b] = false;
+            }
+        }
+        for (int c = 0 ; c < this.clusters.length ; ++c) {
+            if (this.dirtyClusters[c]) {
+                buildCluster(c);
+                this.dirtyClusters[c] = false;
+            }
+        }
+        this.dirty = false;
+    } // ends the refresh() method
+
+
+    /**
+     * This method is called by the grid when a cell changes.
+     * It marks the cluster of the cell and every border the cell is on (and so the cluster on the other side) as dirty.
+     * @param grid the packed grid that changed
+     * @param index the index of the cell that changed
+     */
+    @Override
+    public synchronized void cellChanged(PackedGrid grid, int index) {
+        int x = index / this.width;
+        int y = index % this.width;
+        int cx = x / this.clusterSize;
+        int cy = y / this.clusterSize;
+        this.dirtyClusters[cx * this.clustersY + cy] = true;
+        if (x % this.clusterSize == 0 && cx > 0) {                                  // top border
+            markLower(cx - 1, cy);
+        }
+        if (x % this.clusterSize == this.clusterSize - 1 && cx < this.clustersX - 1) { // bottom border
+            markLower(cx, cy);
+        }
+        if (y % this.clusterSize == 0 && cy > 0) {                                  // left border
+            markRight(cx, cy - 1);
+        }
+        if (y % this.clusterSize == this.clusterSize - 1 && cy < this.clustersY - 1) { // right border
+            markRight(cx, cy);
+        }
+        this.dirty = true;
+    } // ends the cellChanged() method
+
+
+    /**
+     * This method will mark the border below a cluster and the two clusters next to it as dirty.
+     * @param cx the x-coordinate of the upper cluster
+     * @param cy the y-coordinate of the upper cluster
+     */
+    private void markLower(int cx, int cy) {
+        this.dirtyLower[cx * this.clustersY + cy] = true;
+        this.dirtyClusters[cx * this.clustersY + cy] = true;
+        this.dirtyClusters[(cx + 1) * this.clustersY + cy] = true;
+    } // ends the markLower() method
+
+
+    /**
+     * This method will mark the border right of a cluster and the two clusters next to it as dirty.
+     * @param cx the x-coordinate of the left cluster
+     * @param cy the y-coordinate of the left cluster
+     */
+    private void markRight(int cx, int cy) {
+        this.dirtyRight[cx * (this.clustersY - 1) + cy] = true;
+        this.dirtyClusters[cx * this.clustersY + cy] = true;
+        this.dirtyClusters[cx * this.clustersY + cy + 1] = true;
+    } // ends the markRight() method
+
+
+    /**
+     * This method will find the transitions across the border below a cluster.
+     * @param cx the x-coordinate of the upper cluster
+     * @param cy the y-coordinate of the upper cluster
+     * @return the transitions as pairs (upper cell, lower cell)
+     */
+    private int[] buildLowerBorder(int cx, int cy) {
+        int upper = (cx + 1) * this.clusterSize - 1;    // last row of the upper cluster
+        int from = cy * this.clusterSize;
+        int to = Math.min(from + this.clusterSize, this.width);
+        int[] cells = new int[to - from];
+        int[] pairs = new int[4 * (to - from)];
+        for (int y = from ; y < to ; ++y) {
+            cells[y - from] = upper * this.width + y;
+        }
+        int count = addEntrances(cells, this.width, pairs);
+        return Arrays.copyOf(pairs, count);
+    } // ends the buildLowerBorder() method
+
+
+    /**
+     * This method will find the transitions across the border right of a cluster.
+     * @param cx the x-coordinate of the left cluster
+     * @param cy the y-coordinate of the left cluster
+     * @return the transitions as pairs (left cell, right cell)
+     */
+    private int[] buildRightBorder(int cx, int cy) {
+        int left = (cy + 1) * this.clusterSize - 1;     // last column of the left cluster
+        int from = cx * this.clusterSize;
+        int to = Math.min(from + this.clusterSize, this.height);
+        int[] cells = new int[to - from];
+        int[] pairs = new int[4 * (to - from)];
+        for (int x = from ; x < to ; ++x) {
+            cells[x - from] = x * this.width + left;
+        }
+        int count = addEntrances(cells, 1, pairs);
+        return Arrays.copyOf(pairs, count);
+    } // ends the buildRightBorder() method
+
+
+    /**
+     * This method will split a border into entrances and add their transitions.
+     * @param cells the cells on the near side of the border, in order
+     * @param across the index offset from a near cell to the cell on the other side of the border
+     * @param pairs the array to write the transitions to (near cell, far cell)
+     * @return the number of ints written to pairs
+     */
+    private int addEntrances(int[] cells, int across, int[] pairs) {
+        int count = 0;
+        int runStart = -1;
+        for (int i = 0 ; i <= cells.length ; ++i) {
+            // the move across is only allowed when the cells on both sides are not blocked
+            boolean open = i < cells.length && this.costs.getCost(cells[i], cells[i] + across) >= 0;
+            if (open && runStart == -1) {
+                runStart = i;
+            } else if (!open && runStart != -1) {
+                int runEnd = i - 1;
+                if (runEnd - runStart + 1 >= LONG_ENTRANCE) {
+                    pairs[count++] = cells[runStart];
+                    pairs[count++] = cells[runStart] + across;
+                    pairs[count++] = cells[runEnd];
+                    pairs[count++] = cells[runEnd] + across;
+                } else {
+                    int mid = (runStart + runEnd) / 2;
+                    pairs[count++] = cells[mid];
+                    pairs[count++] = cells[mid] + across;
+                }
+                runStart = -1;
+            }
+        }
+        return count;
+    } // ends the addEntrances() method
+
+
+    /**
+     * This method will rebuild the node list, the transitions and the intra edges of a cluster.
+     * @param c the id of the cluster
+     */
+    private void buildCluster(int c) {
+        int cx = c / this.clustersY;
+        int cy = c % this.clustersY;
+        Cluster cluster = this.clusters[c];
+        for (int node : cluster.nodes) {
+            this.nodeSlot[node] = -1;
+        }
+
+        // collect (node, partner) pairs from the 4 borders of the cluster
+        int[] found = new int[0];
+        if (cx > 0) {
+            found = append(found, this.lowerBorders[(cx - 1) * this.clustersY + cy], true);
+        }
+        if (cx < this.clustersX - 1) {
+            found = append(found, this.lowerBorders[cx * this.clustersY + cy], false);
+        }
+        if (cy > 0) {
+            found = append(found, this.rightBorders[cx * (this.clustersY - 1) + cy - 1], true);
+        }
+        if (cy < this.clustersY - 1) {
+            found = append(found, this.rightBorders[cx * (this.clustersY - 1) + cy], false);
+        }
+
+        // give every distinct cell a slot, a corner cell can have a transition on two borders
+        int[] nodes = new int[found.length / 2];
+        int n = 0;
+        for (int i = 0 ; i < found.length ; i += 2) {
+            if (this.nodeSlot[found[i]] == -1) {
+                this.nodeSlot[found[i]] = n;
+                nodes[n++] = found[i];
+            }
+        }
+        nodes = Arrays.copyOf(nodes, n);
+        int[] partnerStart = new int[n + 1];
+        for (int i = 0 ; i < found.length ; i += 2) {
+            partnerStart[this.nodeSlot[found[i]] + 1]++;
+        }
+        for (int i = 0 ; i < n ; ++i) {
+            partnerStart[i + 1] += partnerStart[i];
+        }
+        int[] partners = new int[found.length / 2];
+        int[] fill = Arrays.copyOf(partnerStart, n);
+        for (int i = 0 ; i < found.length ; i += 2) {
+            partners[fill[this.nodeSlot[found[i]]]++] = found[i + 1];
+        }
+
+        // intra edges, the best path between every two nodes inside the cluster
+        float[] distances = new float[n * n];
+        for (int i = 0 ; i < n ; ++i) {
+            this.local.run(nodes[i]);
+            for (int j = 0 ; j < n ; ++j) {
+                distances[i * n + j] = this.local.getDistance(nodes[j]);
+            }
+        }
+
+        cluster.nodes = nodes;
+        cluster.distances = distances;
+        cluster.partnerStart = partnerStart;
+        cluster.partners = partners;
+    } // ends the buildCluster() method
+
+
+    /**
+     * This method will add the transitions of a border to a list of (node, partner) pairs.
+     * @param found the pairs found so far
+     * @param border the transitions of the border (near cell, far cell)
+     * @param far true if the cluster is on the far side of the border
+     * @return the new list of pairs
+     */
+    private static int[] append(int[] found, int[] border, boolean far) {
+        int[] result = Arrays.copyOf(found, found.length + border.length);
+        for (int i = 0 ; i < border.length ; i += 2) {
+            result[found.length + i] = far ? border[i + 1] : border[i];
+            result[found.length + i + 1] = far ? border[i] : border[i + 1];
+        }
+        return result;
+    } // ends the append() method
+
+
+    /**
+     * This method will return the id of the cluster a cell is in.
+     * @param index the index of the cell
+     * @return the id of the cluster (cx * clustersY + cy)
+     */
+    public int getClusterOf(int index) {
+        return ((index / this.width) / this.clusterSize) * this.clustersY + (index % this.width) / this.clusterSize;
+    } // ends the getClusterOf() method
+
+
+    /**
+     * This method will return the position of a cell in the node list of its cluster.
+     * The caller must hold the lock of the graph, refresh() changes the slots.
+     * @param index the index of the cell
+     * @return the position, or -1 if the cell is not a node
+     */
+    public int getNodeSlot(int index) {
+        return this.nodeSlot[index];
+    } // ends the getNodeSlot() method
+
+
+    /**
+     * This method will return a cluster.
+     * The caller must hold the lock of the graph, refresh() changes the clusters.
+     * @param c the id of the cluster
+     * @return the cluster
+     */
+    Cluster getCluster(int c) {
+        return this.clusters[c];
+    } // ends the getCluster() method
+
+
+    /**
+     * This method will return the total number of nodes in the graph.
+     * @return the number of nodes
+     */
+    public int getNodeCount() {
+        int count = 0;
+        for (Cluster cluster : this.clusters) {
+            count += cluster.nodes.length;
+        }
+        return count;
+    } // ends the getNodeCount() method
+
+
+    /**
+     * This method will return the size of the clusters.
+     * @return the number of rows/columns in a cluster
+     */
+    public int getClusterSize() {
+        return this.clusterSize;
+    } // ends the getClusterSize() method
+
+
+
+    /**
+     * This is the Local Search class.
+     * It is a Dijkstra search that never leaves the cluster of the cell it starts from. It is used to build the intra
+     * edges and by the HierarchicalSearch to link the start and goal to their clusters and to refine path segments.
+     * All its arrays are the size of one cluster.
+     */
+    static final class LocalSearch {
+        private final ClusterGraph graph;   // the graph the search is for
+        private final float[] dist;         // distance from the source to every cell of the cluster (local index)
+        private final int[] parent;         // local index of the parent of every cell (-1 => no parent)
+        private final IndexedHeap heap;     // fringe of the search
+        private final int[] offsets;        // index offset of each direction
+        private int x0, y0, x1, y1;         // bounds of the cluster of the last run, [x0,x1) x [y0,y1)
+
+
+        /**
+         * This is the constructor of the LocalSearch class.
+         * @param graph the cluster graph
+         */
+        LocalSearch(ClusterGraph graph) {
+            this.graph = graph;
+            int size = graph.clusterSize * graph.clusterSize;
+            this.dist = new float[size];
+            this.parent = new int[size];
+            this.heap = new IndexedHeap(size);
+            this.offsets = graph.costs.getOffsets();
+        } // ends the LocalSearch() constructor
+
+
+        /**
+         * This method will find the best path from a cell to every other cell of its cluster, without leaving it.
+         * @param source the index of the cell to start from
+         */
+        void run(int source) {
+            int cs = this.graph.clusterSize;
+            int w = this.graph.width;
+            float[] weights = this.graph.costs.getWeights();
+            this.x0 = ((source / w) / cs) * cs;
+            this.y0 = ((source % w) / cs) * cs;
+            this.x1 = Math.min(this.x0 + cs, this.graph.height);
+            this.y1 = Math.min(this.y0 + cs, this.graph.width);
+            Arrays.fill(this.dist, Float.POSITIVE_INFINITY);
+            this.heap.clear();
+
+            int start = toLocal(source);
+            this.dist[start] = 0f;
+            this.parent[start] = -1;
+            this.heap.update(start, 0f);
+            while (!this.heap.isEmpty()) {
+                int curr = this.heap.poll();
+                int cell = toCell(curr);
+                int edges = cell * CostModel.DIRECTIONS;
+                for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                    float edgeCost = weights[edges + d];
+                    if (edgeCost < 0) { // blocked or off the grid
+                        continue;
+                    }
+                    int next = cell + this.offsets[d];
+                    int nx = next / w;
+                    int ny = next % w;
+                    if (nx < this.x0 || nx >= this.x1 || ny < this.y0 || ny >= this.y1) { // outside the cluster
+                        continue;
+                    }
+                    int l = toLocal(next);
+                    float g = this.dist[curr] + edgeCost;
+                    if (g < this.dist[l]) {
+                        this.dist[l] = g;
+                        this.parent[l] = curr;
+                        this.heap.update(l, g);
+                    }
+                }
+            }
+        } // ends the run() method
+
+
+        /**
+         * This method will return the distance from the source of the last run to a cell.
+         * @param cell the index of the cell
+         * @return the distance, or +infinity if the cell cannot be reached inside the cluster
+         */
+        float getDistance(int cell) {
+            int x = cell / this.graph.width;
+            int y = cell % this.graph.width;
+            if (x < this.x0 || x >= this.x1 || y < this.y0 || y >= this.y1) {
+                return Float.POSITIVE_INFINITY;
+            }
+            return this.dist[toLocal(cell)];
+        } // ends the getDistance() method
+
+
+        /**
+         * This method will return the path from the source of the last run to a cell.
+         * @param cell the index of the cell, it must be reachable
+         * @return the cell indices of the path, source first
+         */
+        int[] getPath(int cell) {
+            int length = 0;
+            for (int l = toLocal(cell) ; l != -1 ; l = this.parent[l]) {
+                length++;
+            }
+            int[] path = new int[length];
+            for (int l = toLocal(cell) ; l != -1 ; l = this.parent[l]) {
+                path[--length] = toCell(l);
+            }
+            return path;
+        } // ends the getPath() method
+
+
+        /**
+         * This method will turn a cell index into an index local to the cluster of the last run.
+         * @param cell the index of the cell
+         * @return the local index
+         */
+        private int toLocal(int cell) {
+            return (cell / this.graph.width - this.x0) * this.graph.clusterSize + (cell % this.graph.width - this.y0);
+        } // ends the toLocal() method
+
+
+        /**
+         * This method will turn an index local to the cluster of the last run back into a cell index.
+         * @param local the local index
+         * @return the index of the cell
+         */
+        private int toCell(int local) {
+            return (this.x0 + local / this.graph.clusterSize) * this.graph.width + this.y0 + local % this.graph.clusterSize;
+        } // ends the toCell() method
+    } // ends the LocalSearch class
+
+} // ends the ClusterGraph class
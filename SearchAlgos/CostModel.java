@@ -0,0 +1,512 @@
+package SearchAlgos;
+
+import Grid.Grid;
+import Grid.GridListener;
+import Grid.GridSnapshot;
+import Grid.PackedGrid;
+import Grid.Terrain;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * This is the Cost Model class.
+ * The cost model compiles a grid once into the cost of every edge: 8 floats per cell, one for each move out of it.
+ * Moves into a blocked cell, out of a blocked cell or off the grid are stored as -1, so a search gets the cost of an
+ * edge (and knows if it can take it) with a single array read.
+ * The model listens to the grid and only rebuilds the edges around a cell when that cell changes.
+ * There is one model per grid, shared by all the searches on it (see CostModel.of()).
+ *
+ * A model can also be compiled for a GridSnapshot, and then it never changes (it does not listen to anything). The
+ * model of a snapshot keeps its costs in one array per row of the grid (see getWeightRows()), so that it can be made
+ * from the model of the snapshot before it, when that one is still around, by sharing the arrays of the rows that
+ * did not change and only compiling the rows around the ones that were edited in between, like the snapshots share
+ * the rows of their cells.
+ *
+ * The costs can also be had as fixed-point integers (see getFixedWeights()), in units of 1/FIXED_SCALE. The straight
+ * costs are all multiples of 1/8 so they are exact, and the diagonal costs (multiples of sqrt(2)/8) are rounded to the
+ * nearest unit, which is off by less than 1/8192 per move.
+ */
+public class CostModel implements GridListener {
+    // Global variables
+    public static final int DIRECTIONS = 8;     // number of moves out of a cell
+    public static final int FIXED_SCALE = 4096; // fixed-point units per unit of cost (a multiple of 8)
+
+    // the 8 moves around a cell, ordered row by row, so the opposite of move d is move (7 - d)
+    static final int[] DX = { -1 , -1 , -1 ,  0 ,  0 ,  1 ,  1 ,  1 };
+    static final int[] DY = { -1 ,  0 ,  1 , -1 ,  1 , -1 ,  0 ,  1 };
+
+    /**
+     * Row 0 is Cell A and Column 0 is Cell B;
+     *
+     * Use these charts to find out the gCost from Cell A to Cell B;
+     *
+     * How to read:
+     *  Column/Row 0 = normal
+     *  Column/Row 1 = hard to traverse
+     *  Column/Row 2 = blocked
+     *  Column/Row 3 = normal highway
+     *  Column/Row 4 = hard highway
+     *
+     */
+    //
+    static final float[][] HORIZONAL_VERTICAL_COST =
+    {
+			{ 1f    ,    1.5f  ,   -1f  ,   1f     ,   1.50f  },
+			{ 1.5f  ,    2f    ,   -1f  ,   1.5f   ,   2f     },
+			{ -1f   ,    -1f   ,   -1f  ,   -1f    ,   -1f    },
+			{ 1f    ,    1.50f ,   -1f  ,   0.25f  ,   0.375f },
+			{ 1.5f  ,    2f    ,   -1f  ,   0.375f ,   0.5f   }
+	};
+
+
+    static final float NormToNormDiag = (float) Math.sqrt(2.0);
+	static final float NormToHardDiag = ((float) Math.sqrt(2.0) + (float) Math.sqrt(8.0))/2;
+	static final float HardToHardDiag = (float) Math.sqrt(8.0);
+
+    static final float[][] DIAGONAL_COSTS =
+    {
+			{ NormToNormDiag   ,   NormToHardDiag   ,    -1f   ,      NormToNormDiag      ,       NormToHardDiag      },
+			{ NormToHardDiag   ,   HardToHardDiag   , 	 -1f   ,      NormToHardDiag      ,       HardToHardDiag      },
+			{     -1f          ,        -1f         ,    -1f   ,           -1f            , 		   -1f            },
+			{ NormToNormDiag   ,   NormToHardDiag   , 	 -1f   ,    NormToNormDiag/4.0f   ,     NormToHardDiag/4.0f   },
+			{ NormToHardDiag   ,   HardToHardDiag   , 	 -1f   ,    NormToHardDiag/4.0f   ,     HardToHardDiag/4.0f   }
+	};
+
+    // maps the type of a cell (Cell.getType()) to its row/column in the charts above
+    // 0 (blocked) => 2, 1 (easy) => 0, 2 (hard) => 1, 3 (easy highway) => 3, 4 (hard highway) => 4
+    private static final int[] TYPE_TO_CHART = { 2 , 0 , 1 , 3 , 4 , 2 , 2 , 2 };
+
+    // maps (dx + 1) * 3 + (dy + 1) to the move index (-1 => same cell)
+    private static final int[] DELTA_TO_DIRECTION = { 0 , 1 , 2 , 3 , -1 , 4 , 5 , 6 , 7 };
+
+    private static final Map<PackedGrid, CostModel> MODELS = new WeakHashMap<>();  // one model per grid
+    private static final Map<GridSnapshot, CostModel> SNAPSHOT_MODELS = new WeakHashMap<>();    // one model per snapshot
+
+    private final int height;       // height of the grid
+    private final int width;        // width of the grid
+    private final float[] weights;  // cost of every edge, weights[index * 8 + direction] (-1 => cannot move that way, null => snapshot)
+    private final float[][] rows;   // cost of every edge of a snapshot, rows[x][y * 8 + direction] (null => model of a grid)
+    private volatile int[] fixedWeights;    // weights in fixed-point units, built the first time they are asked for (null => not yet)
+    private volatile int[][] fixedRows;     // rows in fixed-point units, built the first time they are asked for (null => not yet)
+
+
+    /**
+     * This is the constructor of the CostModel class.
+     * It compiles all the edges of the grid and starts listening to it for changes.
+     * Both are done under the lock of the grid, so an edit is either compiled or told to the model, never lost.
+     * @param grid the packed grid to compile
+     */
+    public CostModel(PackedGrid grid) {
+        this.height = grid.getHeight();
+        this.width = grid.getWidth();
+        this.weights = new float[grid.size() * DIRECTIONS];
+        this.rows = null;
+        synchronized (grid) {
+            for (int index = 0 ; index < grid.size() ; ++index) {
+                compileCell(grid, index, this.weights, index * DIRECTIONS);
+            }
+            grid.addListener(this);
+        }
+    } // ends the CostModel() constructor
+
+
+    /**
+     * This is the constructor of the CostModel class for a snapshot, the model never changes.
+     * @param snapshot the snapshot to compile
+     */
+    public CostModel(GridSnapshot snapshot) {
+        this.height = snapshot.getHeight();
+        this.width = snapshot.getWidth();
+        this.weights = null;
+        this.rows = new float[this.height][];
+        for (int x = 0 ; x < this.height ; ++x) {
+            this.rows[x] = compileRow(snapshot, x);
+        }
+    } // ends the CostModel() constructor
+
+
+    /**
+     * This is the constructor of the CostModel class for a snapshot made from the model of an older snapshot.
+     * The rows in or next to a row that is not shared by the two snapshots are compiled again, and the arrays of the
+     * other rows are shared with the older model (the fixed-point ones too, if it has them).
+     * @param snapshot the snapshot to compile
+     * @param base the model of the older snapshot
+     * @param baseSnapshot the older snapshot
+     */
+    private CostModel(GridSnapshot snapshot, CostModel base, GridSnapshot baseSnapshot) {
+        this.height = base.height;
+        this.width = base.width;
+        this.weights = null;
+        this.rows = base.rows.clone();
+        int[][] baseFixed = base.fixedRows;
+        int[][] fixed = (baseFixed == null) ? null : baseFixed.clone();
+        boolean[] changed = new boolean[this.height];
+        for (int x = 0 ; x < this.height ; ++x) {
+            if (!snapshot.sharesRow(baseSnapshot, x)) {
+                for (int r = Math.max(0, x - 1) ; r <= Math.min(this.height - 1, x + 1) ; ++r) {
+                    changed[r] = true;
+                }
+            }
+        }
+        for (int x = 0 ; x < this.height ; ++x) {
+            if (changed[x]) {
+                this.rows[x] = compileRow(snapshot, x);
+                if (fixed != null) {
+                    fixed[x] = toFixed(this.rows[x]);
+                }
+            }
+        }
+        this.fixedRows = fixed;
+    } // ends the CostModel() constructor
+
+
+    /**
+     * This method will return the cost model of a grid, compiling it the first time it is asked for.
+     * @param grid the grid
+     * @return the shared cost model of the grid
+     */
+    public static CostModel of(Grid grid) {
+        return of(grid.getPackedGrid());
+    } // ends the of() method
+
+
+    /**
+     * This method will return the cost model of a packed grid, compiling it the first time it is asked for.
+     * @param grid the packed grid
+     * @return the shared cost model of the grid
+     */
+    public static synchronized CostModel of(PackedGrid grid) {
+        CostModel model = MODELS.get(grid);
+        if (model == null) {
+            model = new CostModel(grid);
+            MODELS.put(grid, model);
+        }
+        return model;
+    } // ends the of() method
+
+
+    /**
+     * This method will return the cost model of a snapshot, compiling it the first time it is asked for.
+     * @param snapshot the snapshot
+     * @return the shared cost model of the snapshot, it never changes
+     */
+    public static synchronized CostModel of(GridSnapshot snapshot) {
+        CostModel model = SNAPSHOT_MODELS.get(snapshot);
+        if (model == null) {
+            GridSnapshot previous = snapshot.getPrevious();
+            CostModel base = (previous == null) ? null : SNAPSHOT_MODELS.get(previous);
+            model = (base == null) ? new CostModel(snapshot) : new CostModel(snapshot, base, previous);
+            SNAPSHOT_MODELS.put(snapshot, model);
+        }
+        return model;
+    } // ends the of() method
+
+
+    /**
+     * This method will return the cost of moving out of a cell in a certain direction.
+     * @param index the index of the cell
+     * @param direction the direction of the move [0,7]
+     * @return the cost of the edge or -1 if the move is not allowed
+     */
+    public float getEdgeCost(int index, int direction) {
+        if (this.rows != null) {
+            return this.rows[index / this.width][(index % this.width) * DIRECTIONS + direction];
+        }
+        return this.weights[index * DIRECTIONS + direction];
+    } // ends the getEdgeCost() method
+
+
+    /**
+     * This method will return the cost of moving between two cells.
+     * @param from the index of the current cell
+     * @param to the index of the neighboring cell
+     * @return 0 for the same cell, the cost of the edge for a neighbor or -1 if the move is not allowed
+     */
+    public float getCost(int from, int to) {
+        int dx = to / this.width - from / this.width;
+        int dy = to % this.width - from % this.width;
+        if (dx < -1 || dx > 1 || dy < -1 || dy > 1) { // not neighbors
+            return -1f;
+        }
+        int direction = DELTA_TO_DIRECTION[(dx + 1) * 3 + (dy + 1)];
+        if (direction == -1) { // same cell
+            return 0f;
+        }
+        return getEdgeCost(from, direction);
+    } // ends the getCost() method
+
+
+    /**
+     * This method will return the compiled edge costs so the searches can read them directly.
+     * It must not be changed by the caller.
+     * @return the array of edge costs, weights[index * 8 + direction], or null for the model of a snapshot (see
+     * getWeightRows())
+     */
+    public float[] getWeights() {
+        return this.weights;
+    } // ends the getWeights() method
+
+
+    /**
+     * This method will return the compiled edge costs of the model of a snapshot, one array per row of the grid.
+     * The arrays are shared with the models of the other snapshots, so they must not be changed by the caller.
+     * @return the arrays of edge costs, rows[x][y * 8 + direction], or null for the model of a grid (see getWeights())
+     */
+    public float[][] getWeightRows() {
+        return this.rows;
+    } // ends the getWeightRows() method
+
+
+    /**
+     * This method will return the edge costs in fixed-point units (see toFixed()), building them the first time.
+     * It must not be changed by the caller.
+     * @return the array of edge costs, fixed[index * 8 + direction] (-1 => cannot move that way), or null for the
+     * model of a snapshot (see getFixedWeightRows())
+     */
+    public int[] getFixedWeights() {
+        if (this.weights == null) {
+            return null;
+        }
+        int[] fixed = this.fixedWeights;
+        if (fixed == null) {
+            synchronized (this) {
+                fixed = this.fixedWeights;
+                if (fixed == null) {
+                    fixed = new int[this.weights.length];
+                    for (int edge = 0 ; edge < fixed.length ; ++edge) {
+                        fixed[edge] = toFixed(this.weights[edge]);
+                    }
+                    this.fixedWeights = fixed;
+                }
+            }
+        }
+        return fixed;
+    } // ends the getFixedWeights() method
+
+
+    /**
+     * This method will return the edge costs of the model of a snapshot in fixed-point units, one array per row,
+     * building them the first time.
+     * They must not be changed by the caller.
+     * @return the arrays of edge costs, fixed[x][y * 8 + direction], or null for the model of a grid (see
+     * getFixedWeights())
+     */
+    public int[][] getFixedWeightRows() {
+        if (this.rows == null) {
+            return null;
+        }
+        int[][] fixed = this.fixedRows;
+        if (fixed == null) {
+            synchronized (this) {
+                fixed = this.fixedRows;
+                if (fixed == null) {
+                    fixed = new int[this.height][];
+                    for (int x = 0 ; x < this.height ; ++x) {
+                        fixed[x] = toFixed(this.rows[x]);
+                    }
+                    this.fixedRows = fixed;
+                }
+            }
+        }
+        return fixed;
+    } // ends the getFixedWeightRows() method
+
+
+    /**
+     * This method will turn a cost into fixed-point units, rounded to the nearest unit.
+     * @param cost the cost (negative => cannot move that way)
+     * @return the cost in units of 1/FIXED_SCALE, or -1 if the cost is negative
+     */
+    public static int toFixed(float cost) {
+        return (cost < 0) ? -1 : Math.round(cost * FIXED_SCALE);
+    } // ends the toFixed() method
+
+
+    /**
+     * This method will turn a row of costs into fixed-point units.
+     * @param costs the costs
+     * @return the costs in units of 1/FIXED_SCALE
+     */
+    private static int[] toFixed(float[] costs) {
+        int[] fixed = new int[costs.length];
+        for (int edge = 0 ; edge < costs.length ; ++edge) {
+            fixed[edge] = toFixed(costs[edge]);
+        }
+        return fixed;
+    } // ends the toFixed() method
+
+
+    /**
+     * This method will turn a cost in fixed-point units back into a float.
+     * @param fixed the cost in units of 1/FIXED_SCALE
+     * @return the cost
+     */
+    public static float fromFixed(int fixed) {
+        return (float) fixed / FIXED_SCALE;
+    } // ends the fromFixed() method
+
+
+    /**
+     * This method will return the index offset of every direction for this grid.
+     * @return an array of 8 offsets (dx * width + dy)
+     */
+    public int[] getOffsets() {
+        int[] offsets = new int[DIRECTIONS];
+        for (int d = 0 ; d < DIRECTIONS ; ++d) {
+            offsets[d] = DX[d] * this.width + DY[d];
+        }
+        return offsets;
+    } // ends the getOffsets() method
+
+
+    /**
+     * This method will check if a direction is a diagonal move.
+     * @param direction the direction [0,7]
+     * @return true if the move is diagonal and false otherwise
+     */
+    public static boolean isDiagonal(int direction) {
+        return DX[direction] != 0 && DY[direction] != 0;
+    } // ends the isDiagonal() method
+
+
+    /**
+     * This method will find the direction of a move between two neighboring cells.
+     * @param dx the change in x, -1, 0 or 1
+     * @param dy the change in y, -1, 0 or 1
+     * @return the direction [0,7]
+     */
+    public static int directionOf(int dx, int dy) {
+        int direction = (dx < -1 || dx > 1 || dy < -1 || dy > 1) ? -1 : DELTA_TO_DIRECTION[(dx + 1) * 3 + (dy + 1)];
+        if (direction == -1) {
+            throw new IllegalArgumentException("cells are not neighbors: " + dx + "," + dy);
+        }
+        return direction;
+    } // ends the directionOf() method
+
+
+    /**
+     * This method is used to get the gCost between two cell types that are horizontal or verticle from each other.
+     * @param typeFrom the type of the current cell
+     * @param typeTo the type of the neighboring cell
+     * @return the gCost
+     */
+    public static float costHorVert(int typeFrom, int typeTo) {
+        return HORIZONAL_VERTICAL_COST[TYPE_TO_CHART[typeFrom]][TYPE_TO_CHART[typeTo]];
+    } // ends the costHorVert() method
+
+
+    /**
+     * This method is used to get the gCost between two cell types that are diagonal from each other.
+     * @param typeFrom the type of the current cell
+     * @param typeTo the type of the neighboring cell
+     * @return the gCost
+     */
+    public static float costDiag(int typeFrom, int typeTo) {
+        return DIAGONAL_COSTS[TYPE_TO_CHART[typeFrom]][TYPE_TO_CHART[typeTo]];
+    } // ends the costDiag() method
+
+
+    /**
+     * This method is called by the grid when a cell changes and rebuilds the edges going in and out of that cell.
+     * @param grid the packed grid that changed
+     * @param index the index of the cell that changed
+     */
+    @Override
+    public void cellChanged(PackedGrid grid, int index) {
+        compileCell(grid, index);
+        int x = index / this.width;
+        int y = index % this.width;
+        for (int d = 0 ; d < DIRECTIONS ; ++d) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (nx >= 0 && nx < this.height && ny >= 0 && ny < this.width) {
+                int neighbor = nx * this.width + ny;
+                int back = (DIRECTIONS - 1) - d;    // the move from the neighbor back to this cell
+                setEdge(neighbor * DIRECTIONS + back, edgeCost(grid.getType(neighbor), grid.getType(index), back));
+            }
+        }
+    } // ends the cellChanged() method
+
+
+    /**
+     * This method will compile the 8 edges that go out of a cell of the grid, in the fixed-point table too if it has
+     * been built.
+     * @param grid the packed grid
+     * @param index the index of the cell
+     */
+    private void compileCell(PackedGrid grid, int index) {
+        compileCell(grid, index, this.weights, index * DIRECTIONS);
+        int[] fixed = this.fixedWeights;
+        if (fixed != null) {
+            for (int d = 0 ; d < DIRECTIONS ; ++d) {
+                fixed[index * DIRECTIONS + d] = toFixed(this.weights[index * DIRECTIONS + d]);
+            }
+        }
+    } // ends the compileCell() method
+
+
+    /**
+     * This method will compile the edges that go out of every cell of a row of a snapshot.
+     * @param snapshot the snapshot
+     * @param x the row
+     * @return the edge costs of the row, row[y * 8 + direction]
+     */
+    private float[] compileRow(GridSnapshot snapshot, int x) {
+        float[] row = new float[this.width * DIRECTIONS];
+        for (int y = 0 ; y < this.width ; ++y) {
+            compileCell(snapshot, x * this.width + y, row, y * DIRECTIONS);
+        }
+        return row;
+    } // ends the compileRow() method
+
+
+    /**
+     * This method will compile the 8 edges that go out of a cell.
+     * @param grid the terrain of the grid
+     * @param index the index of the cell
+     * @param edges the array to write the costs to
+     * @param offset where the cost of the first edge goes
+     */
+    private void compileCell(Terrain grid, int index, float[] edges, int offset) {
+        int x = index / this.width;
+        int y = index % this.width;
+        int type = grid.getType(index);
+        for (int d = 0 ; d < DIRECTIONS ; ++d) {
+            int nx = x + DX[d];
+            int ny = y + DY[d];
+            if (nx >= 0 && nx < this.height && ny >= 0 && ny < this.width) {
+                edges[offset + d] = edgeCost(type, grid.getType(nx * this.width + ny), d);
+            } else {
+                edges[offset + d] = -1f; // off the grid
+            }
+        }
+    } // ends the compileCell() method
+
+
+    /**
+     * This method will set the cost of one edge, in the fixed-point table too if it has been built.
+     * @param edge the edge (index * 8 + direction)
+     * @param cost the cost of the edge or -1 if it is blocked
+     */
+    private void setEdge(int edge, float cost) {
+        this.weights[edge] = cost;
+        int[] fixed = this.fixedWeights;
+        if (fixed != null) {
+            fixed[edge] = toFixed(cost);
+        }
+    } // ends the setEdge() method
+
+
+    /**
+     * This method will get the cost of one edge from the charts.
+     * @param typeFrom the type of the current cell
+     * @param typeTo the type of the neighboring cell
+     * @param direction the direction of the move
+     * @return the cost of the edge or -1 if it is blocked
+     */
+    static float edgeCost(int typeFrom, int typeTo, int direction) {
+        return isDiagonal(direction) ? costDiag(typeFrom, typeTo) : costHorVert(typeFrom, typeTo);
+    } // ends the edgeCost() method
+
+} // ends the CostModel class
@@ -0,0 +1,351 @@
+package SearchAlgos;
+
+import Grid.Cell;
+import Grid.Grid;
+import Grid.GridListener;
+import Grid.PackedGrid;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This is the D* Lite Search Class.
+ * This is an incremental planner: it searches backward from the goal and keeps its costs between runs, so when cells
+ * of the grid change (Cell.changeType()) or the agent moves along the path, replan() only repairs the cells whose
+ * cost is no longer consistent instead of searching the whole grid again.
+ *
+ * Every cell has a g value (cost to the goal found so far) and an rhs value (one-step lookahead, the best
+ * edge cost + g over its neighbors). A cell is inconsistent when the two differ, and only those are on the fringe,
+ * ordered by the key [min(g, rhs) + h(start, cell) + km ; min(g, rhs)].
+ *
+ * The planner listens to the grid, so every changed cell is reported to it automatically, the changes are kept
+ * until the next replan(). Call detach() when the planner is not needed anymore.
+ * The heuristic is the octile distance using the cheapest straight and diagonal moves (the highway costs), since
+ * it has to be measured from the start, which moves.
+ */
+public class DStarLiteSearch extends AbstractSearch implements GridListener {
+
+    // Global variables
+    static final float MIN_STRAIGHT = CostModel.HORIZONAL_VERTICAL_COST[3][3];   // cheapest horizontal/vertical move
+    static final float MIN_DIAGONAL = CostModel.DIAGONAL_COSTS[3][3];            // cheapest diagonal move
+
+    PackedGrid packed;          // grid the planner listens to
+    float[] g;                  // cost to the goal of every cell found so far
+    float[] rhs;                // one-step lookahead cost of every cell
+    IndexedHeap open;           // the inconsistent cells, ordered by [k1 ; k2]
+    int[] offsets;              // index offset of each of the 8 moves
+    CellBitmap touched;         // cells whose g or rhs has been set
+    float km;                   // key modifier, how much the heuristic has shrunk since the first run
+    int startIndex;             // current position of the agent
+    int lastStart;              // position of the agent at the last replan
+    int targetIndex;            // goal
+    boolean initialized;        // true once run() has built the first plan
+
+    private int[] changed;          // cells reported as changed since the last replan
+    private int changedCount;       // number of entries used in changed
+    private final CellBitmap pending;   // same cells as changed, so a cell is only kept once
+
+
+    /**
+     * This is the constructor of the DStarLiteSearch class.
+     * @param grid the current grid
+     */
+    public DStarLiteSearch(Grid grid) {
+        super(grid);
+        this.packed = grid.getPackedGrid();
+        int size = height * width;
+        this.g = new float[size];
+        this.rhs = new float[size];
+        this.open = new IndexedHeap(size);
+        this.touched = new CellBitmap(height, width);
+        this.pending = new CellBitmap(height, width);
+        this.changed = new int[16];
+        this.offsets = this.costs.getOffsets();
+        this.startIndex = start[0][0] * width + start[0][1];
+        this.targetIndex = end[0][0] * width + end[0][1];
+        this.packed.addListener(this);
+    } // ends the DStarLiteSearch() constructor
+
+
+    /**
+     * This method will get the heuristic between two cells.
+     * @param a the index of the first cell
+     * @param b the index of the second cell
+     * @return the octile distance between them using the cheapest moves
+     */
+    private float heuristic(int a, int b) {
+        int dx = Math.abs(a / width - b / width);
+        int dy = Math.abs(a % width - b % width);
+        int diag = Math.min(dx, dy);
+        return MIN_DIAGONAL * diag + MIN_STRAIGHT * (Math.max(dx, dy) - diag);
+    } // ends the heuristic() method
+
+
+    /**
+     * This method will plan from scratch, forgetting anything from earlier runs.
+     * The SearchContext is not used, the planner keeps its own state between runs.
+     * @param ctx not used
+     */
+    @Override
+    public void run(SearchContext ctx) {
+        run();
+    } // ends the run() method
+
+
+    /**
+     * This method will plan from scratch, forgetting anything from earlier runs.
+     */
+    @Override
+    public void run() {
+        Arrays.fill(g, Float.POSITIVE_INFINITY);
+        Arrays.fill(rhs, Float.POSITIVE_INFINITY);
+        open.clear();
+        touched.clearAll();
+        takeChanges();
+        km = 0f;
+        lastStart = startIndex;
+
+        rhs[targetIndex] = 0f;
+        touched.set(targetIndex);
+        open.update(targetIndex, heuristic(startIndex, targetIndex), 0f);
+        initialized = true;
+
+        computeShortestPath();
+        report("Number of Nodes Looked Through: " + nodesExpanded);
+    } // ends the run() method
+
+
+    /**
+     * This method will update the plan after cells have changed or the agent has moved.
+     * Only the cells around the changes are looked at again.
+     * Nothing has to be reported by hand for cells changed through the grid, the planner is listening to it.
+     */
+    public void replan() {
+        if (!initialized) {
+            run();
+            return;
+        }
+        exploredCells = null;
+        km += heuristic(lastStart, startIndex);
+        lastStart = startIndex;
+
+        for (int c : takeChanges()) {
+            // the edges in and out of the cell changed, so the cell and all its neighbors need a new rhs
+            int x = c / width;
+            int y = c % width;
+            updateVertex(c);
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                int nx = x + CostModel.DX[d];
+                int ny = y + CostModel.DY[d];
+                if (nx >= 0 && nx < height && ny >= 0 && ny < width) {
+                    updateVertex(c + offsets[d]);
+                }
+            }
+        }
+
+        computeShortestPath();
+        report("Number of Nodes Looked Through: " + nodesExpanded);
+    } // ends the replan() method
+
+
+    /**
+     * This method will change the start and the goal, the next run() plans from scratch.
+     * @param startX the x-coordinate of the start cell
+     * @param startY the y-coordinate of the start cell
+     * @param endX the x-coordinate of the end cell
+     * @param endY the y-coordinate of the end cell
+     */
+    @Override
+    public void setStartAndEnd(int startX, int startY, int endX, int endY) {
+        super.setStartAndEnd(startX, startY, endX, endY);
+        startIndex = startX * width + startY;
+        targetIndex = endX * width + endY;
+        initialized = false;
+        path = null;
+    } // ends the setStartAndEnd() method
+
+
+    /**
+     * This method will move the agent, the plan is updated on the next replan().
+     * @param x the x-coordinate of the new position
+     * @param y the y-coordinate of the new position
+     */
+    public void moveStart(int x, int y) {
+        startIndex = x * width + y;
+        start[0][0] = x;
+        start[0][1] = y;
+        path = null;
+    } // ends the moveStart() method
+
+
+    /**
+     * This method will report a changed cell to the planner.
+     * It is called by the grid for every cell that changes.
+     * @param grid the packed grid that changed
+     * @param index the index of the cell that changed
+     */
+    @Override
+    public synchronized void cellChanged(PackedGrid grid, int index) {
+        if (pending.get(index)) {
+            return;
+        }
+        pending.set(index);
+        if (changedCount == changed.length) {
+            changed = Arrays.copyOf(changed, changedCount * 2);
+        }
+        changed[changedCount++] = index;
+    } // ends the cellChanged() method
+
+
+    /**
+     * This method will return the reported changes and forget them.
+     * @return the indices of the cells that changed since the last call
+     */
+    private synchronized int[] takeChanges() {
+        int[] cells = Arrays.copyOf(changed, changedCount);
+        for (int c : cells) {
+            pending.clear(c);
+        }
+        changedCount = 0;
+        return cells;
+    } // ends the takeChanges() method
+
+
+    /**
+     * This method will stop the planner from listening to the grid.
+     */
+    public void detach() {
+        packed.removeListener(this);
+    } // ends the detach() method
+
+
+    /**
+     * This method will recompute the rhs of a cell and put it on (or take it off) the fringe.
+     * @param u the index of the cell
+     */
+    private void updateVertex(int u) {
+        if (u != targetIndex) {
+            float best = Float.POSITIVE_INFINITY;
+            int edges = u * CostModel.DIRECTIONS;
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                float edgeCost = weights[edges + d];
+                if (edgeCost >= 0) {
+                    best = Math.min(best, edgeCost + g[u + offsets[d]]);
+                }
+            }
+            rhs[u] = best;
+            touched.set(u);
+        }
+        if (g[u] != rhs[u]) {
+            float m = Math.min(g[u], rhs[u]);
+            open.update(u, m + heuristic(startIndex, u) + km, m);
+        } else {
+            open.remove(u);
+        }
+    } // ends the updateVertex() method
+
+
+    /**
+     * This method will fix inconsistent cells until the cost of the start is known.
+     */
+    private void computeShortestPath() {
+        nodesExpanded = 0;
+        path = null;
+        while (!open.isEmpty()) {
+            float startMin = Math.min(g[startIndex], rhs[startIndex]);
+            float startK1 = startMin + km; // h(start, start) = 0
+            float topK1 = open.peekKey();
+            float topK2 = open.peekTie();
+            boolean topBeforeStart = topK1 < startK1 || (topK1 == startK1 && topK2 < startMin);
+            if (!topBeforeStart && rhs[startIndex] == g[startIndex]) {
+                break;
+            }
+            nodesExpanded++;
+
+            int u = open.peek();
+            float m = Math.min(g[u], rhs[u]);
+            float newK1 = m + heuristic(startIndex, u) + km;
+            if (topK1 < newK1) { // the key is out of date because the start has moved
+                open.update(u, newK1, m);
+                continue;
+            }
+            open.poll();
+
+            int edges = u * CostModel.DIRECTIONS;
+            if (g[u] > rhs[u]) {
+                g[u] = rhs[u];
+            } else {
+                g[u] = Float.POSITIVE_INFINITY;
+                updateVertex(u);
+            }
+            // every cell that can move into u has it as a successor
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                if (weights[edges + d] >= 0) {
+                    updateVertex(u + offsets[d]);
+                }
+            }
+        }
+
+        if (g[startIndex] != Float.POSITIVE_INFINITY || rhs[startIndex] != Float.POSITIVE_INFINITY) {
+            path = extractPath();
+        } else {
+            report("NO PATH FOUND");
+        }
+    } // ends the computeShortestPath() method
+
+
+    /**
+     * This method will build the path by always moving to the neighbor with the smallest edge cost + g.
+     * @return the path from the start to the goal, or null if it cannot be followed
+     */
+    private List<Cell> extractPath() {
+        int[] cells = new int[64];
+        int curr = startIndex;
+        cells[0] = curr;
+        int steps = 0;
+        while (curr != targetIndex) {
+            int next = -1;
+            float best = Float.POSITIVE_INFINITY;
+            int edges = curr * CostModel.DIRECTIONS;
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                float edgeCost = weights[edges + d];
+                if (edgeCost >= 0 && edgeCost + g[curr + offsets[d]] < best) {
+                    best = edgeCost + g[curr + offsets[d]];
+                    next = curr + offsets[d];
+                }
+            }
+            if (next == -1 || ++steps > height * width) {
+                return null;
+            }
+            curr = next;
+            if (steps == cells.length) {
+                cells = Arrays.copyOf(cells, cells.length * 2);
+            }
+            cells[steps] = curr;
+        }
+        return new Path(source, Arrays.copyOf(cells, steps + 1));
+    } // ends the extractPath() method
+
+
+    /**
+     * This method will return the cost from the start to the goal according to the plan.
+     * @return the cost, or +infinity if there is no path
+     */
+    public float getPlanCost() {
+        return rhs[startIndex];
+    } // ends the getPlanCost() method
+
+
+    /**
+     * This method will return a bitmap of all the Cells whose costs have been computed by the planner.
+     * @return the bitmap of explored cells
+     */
+    @Override
+    public CellBitmap getExploredCells() {
+        if (exploredCells == null) {
+            exploredCells = new CellBitmap(touched);
+        }
+        return exploredCells;
+    } // ends the getExploredCells() method
+
+} // ends the DStarLiteSearch class
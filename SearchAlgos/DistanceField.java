@@ -0,0 +1,214 @@
+package SearchAlgos;
+
+import Grid.Grid;
+import Grid.PackedGrid;
+
+import java.util.Arrays;
+
+/**
+ * This is the Distance Field class.
+ * It holds the cost of the best path from every cell of the grid to one target cell, and the direction of the first
+ * move of that path (the next hop), in two primitive arrays.
+ * It is built once with a Dijkstra search from the target over the reversed edges of the CostModel, after which the
+ * best path from any cell to the target is found by following the next hops, in O(path length) and with no search.
+ *
+ * A field is only valid for the version of the grid it was built from, see isStale(). A field whose grid changed
+ * while it was being built read a mix of versions, so it is not valid for any of them and its version is RACED.
+ */
+public class DistanceField {
+    // Global variables
+    public static final byte NO_HOP = -1;   // next hop of the target and of the cells that cannot reach it
+    public static final long RACED = -1L;   // version of a field whose grid changed while it was being built
+
+    private final PackedGrid grid;      // the grid the field was built from
+    private final long version;         // version of the grid when the field was built
+    private final int width;            // width of the grid
+    private final int target;           // index of the target cell
+    private final float[] distances;    // cost of the best path from every cell to the target (+infinity => unreachable)
+    private final byte[] nextHop;       // direction of the first move from every cell towards the target (NO_HOP => none)
+    private final int[] offsets;        // index offset of each direction
+
+
+    /**
+     * This is the constructor of the DistanceField class, it runs the search right away.
+     * @param grid the grid
+     * @param targetX the x-coordinate of the target cell
+     * @param targetY the y-coordinate of the target cell
+     */
+    public DistanceField(Grid grid, int targetX, int targetY) {
+        this(grid.getPackedGrid(), targetX * grid.getWidth() + targetY);
+    } // ends the DistanceField() constructor
+
+
+    /**
+     * This is the constructor of the DistanceField class, it runs the search right away.
+     * @param grid the packed grid
+     * @param target the index of the target cell
+     */
+    public DistanceField(PackedGrid grid, int target) {
+        this.grid = grid;
+        long before = grid.getSettledVersion();     // the edge costs of the CostModel are up to date with it
+        this.width = grid.getWidth();
+        this.target = target;
+        this.distances = new float[grid.size()];
+        this.nextHop = new byte[grid.size()];
+
+        CostModel costs = CostModel.of(grid);
+        this.offsets = costs.getOffsets();
+        build(costs.getWeights());
+        this.version = (grid.getVersion() == before) ? before : RACED;
+    } // ends the DistanceField() constructor
+
+
+    /**
+     * This method runs Dijkstra from the target over the reversed edges.
+     * The cost of the move from a neighbor into the current cell is used, and the next hop of the neighbor is the
+     * direction of that move.
+     * @param weights the compiled edge costs (weights[index * 8 + direction])
+     */
+    private void build(float[] weights) {
+        Arrays.fill(this.distances, Float.POSITIVE_INFINITY);
+        Arrays.fill(this.nextHop, NO_HOP);
+        IndexedHeap heap = new IndexedHeap(this.distances.length);
+        this.distances[this.target] = 0f;
+        heap.update(this.target, 0f);
+        while (!heap.isEmpty()) {
+            int curr = heap.poll();
+            int edges = curr * CostModel.DIRECTIONS;
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                if (weights[edges + d] < 0) { // blocked or off the grid
+                    continue;
+                }
+                int next = curr + this.offsets[d];
+                int back = (CostModel.DIRECTIONS - 1) - d;     // the move from next to curr
+                float g = this.distances[curr] + weights[next * CostModel.DIRECTIONS + back];
+                if (g < this.distances[next]) {
+                    this.distances[next] = g;
+                    this.nextHop[next] = (byte) back;
+                    heap.update(next, g);
+                }
+            }
+        }
+    } // ends the build() method
+
+
+    /**
+     * This method will return the path from a cell to the target by following the next hops.
+     * @param start the index of the starting cell
+     * @return the cell indices of the path (start first, target last), or null if the target cannot be reached
+     */
+    public int[] getPath(int start) {
+        if (this.distances[start] == Float.POSITIVE_INFINITY) {
+            return null;
+        }
+        int length = 1;
+        for (int ptr = start ; ptr != this.target ; ptr += this.offsets[this.nextHop[ptr]]) {
+            length++;
+        }
+        int[] path = new int[length];
+        int ptr = start;
+        for (int i = 0 ; i < length ; ++i) {
+            path[i] = ptr;
+            if (ptr != this.target) {
+                ptr += this.offsets[this.nextHop[ptr]];
+            }
+        }
+        return path;
+    } // ends the getPath() method
+
+
+    /**
+     * This method will return the cost of the best path from a cell to the target.
+     * @param index the index of the cell
+     * @return the cost, or +infinity if the target cannot be reached
+     */
+    public float getDistance(int index) {
+        return this.distances[index];
+    } // ends the getDistance() method
+
+
+    /**
+     * This method will return the cost of the best path from a cell to the target.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the cost, or +infinity if the target cannot be reached
+     */
+    public float getDistance(int x, int y) {
+        return this.distances[x * this.width + y];
+    } // ends the getDistance() method
+
+
+    /**
+     * This method will return the direction of the first move from a cell towards the target.
+     * @param index the index of the cell
+     * @return the direction [0,7] (see CostModel), or NO_HOP for the target and the cells that cannot reach it
+     */
+    public int getNextHop(int index) {
+        return this.nextHop[index];
+    } // ends the getNextHop() method
+
+
+    /**
+     * This method will check if a cell can reach the target.
+     * @param index the index of the cell
+     * @return true if there is a path and false otherwise
+     */
+    public boolean isReachable(int index) {
+        return this.distances[index] != Float.POSITIVE_INFINITY;
+    } // ends the isReachable() method
+
+
+    /**
+     * This method will check if the grid has changed since the field was built (or while it was being built).
+     * @return true if the field is out of date and false otherwise
+     */
+    public boolean isStale() {
+        return this.grid.getVersion() != this.version;
+    } // ends the isStale() method
+
+
+    /**
+     * This method will return the distance of every cell, it must not be changed by the caller.
+     * @return the distances (+infinity => unreachable)
+     */
+    public float[] getDistances() {
+        return this.distances;
+    } // ends the getDistances() method
+
+
+    /**
+     * This method will return the index of the target cell.
+     * @return the index of the target
+     */
+    public int getTarget() {
+        return this.target;
+    } // ends the getTarget() method
+
+
+    /**
+     * This method will return the grid the field was built from.
+     * @return the packed grid
+     */
+    public PackedGrid getGrid() {
+        return this.grid;
+    } // ends the getGrid() method
+
+
+    /**
+     * This method will return the version of the grid the field was built from.
+     * @return the version, or RACED if the grid changed while the field was being built
+     */
+    public long getVersion() {
+        return this.version;
+    } // ends the getVersion() method
+
+
+    /**
+     * This method will return about how much memory the field uses.
+     * @return the size of the two arrays in bytes
+     */
+    public long getSizeInBytes() {
+        return (long) this.distances.length * (Float.BYTES + 1);
+    } // ends the getSizeInBytes() method
+
+} // ends the DistanceField class
@@ -0,0 +1,310 @@
+package SearchAlgos;
+
+import Grid.Grid;
+import Grid.GridListener;
+import Grid.PackedGrid;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This is the Distance Field Cache class.
+ * It keeps the DistanceFields of the targets that are asked for the most, so a query to a hot target is answered by
+ * following the next hops of its field with no search at all. The fields are kept under a byte budget, and the field
+ * that is evicted to make room is either the least recently used one (LRU) or the least often used one (LFU).
+ *
+ * A field is only valid for the version of the grid it was built from, so the cache listens to its grid and drops every
+ * field as soon as a cell changes (Cell.changeType() and PackedGrid.setType() both go through the grid).
+ *
+ * ex. DistanceFieldCache cache = new DistanceFieldCache(grid, 64L << 20, DistanceFieldCache.Policy.LRU);
+ *     int[] cells = cache.get(target).getPath(start);
+ */
+public class DistanceFieldCache implements GridListener {
+
+    /**
+     * This is the Policy enum, which field is evicted when the cache is over its budget.
+     */
+    public enum Policy {
+        LRU,    // the field that has gone the longest without being asked for
+        LFU     // the field that has been asked for the fewest times since it was built
+    } // ends the Policy enum
+
+
+    // Global variables
+    public static final long DEFAULT_BUDGET = 64L << 20;   // byte budget used by DistanceFieldCache(Grid), 64 MB
+
+    private final PackedGrid grid;      // the grid the fields are built from
+    private final long budget;          // most bytes the fields may use together
+    private final Policy policy;        // which field to evict
+    private final LinkedHashMap<Integer, Entry> entries;   // target index => field, oldest access first
+
+    private long bytes;         // bytes used by the fields in the cache
+    private long hits;          // number of get() calls answered from the cache
+    private long misses;        // number of get() calls that had to build a field
+    private long evictions;     // number of fields dropped to stay under the budget
+    private long invalidations; // number of times the cache was cleared because the grid changed
+
+
+    /**
+     * This is the Entry class, a field and how many times it was asked for.
+     */
+    private static class Entry {
+        final DistanceField field;
+        long uses;
+
+        Entry(DistanceField field) {
+            this.field = field;
+        } // ends the Entry() constructor
+    } // ends the Entry class
+
+
+    /**
+     * This is the constructor of the DistanceFieldCache class with the default budget and LRU eviction.
+     * @param grid the grid
+     */
+    public DistanceFieldCache(Grid grid) {
+        this(grid.getPackedGrid(), DEFAULT_BUDGET, Policy.LRU);
+    } // ends the DistanceFieldCache() constructor
+
+
+    /**
+     * This is the constructor of the DistanceFieldCache class.
+     * @param grid the packed grid
+     * @param budget the most bytes the fields may use together, at least one field is always kept
+     * @param policy which field to evict when the cache is over its budget
+     */
+    public DistanceFieldCache(PackedGrid grid, long budget, Policy policy) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("budget must not be negative: " + budget);
+        }
+        this.grid = grid;
+        this.budget = budget;
+        this.policy = policy;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // access order, for LRU
+        grid.addListener(this);
+    } // ends the DistanceFieldCache() constructor
+
+
+    /**
+     * This method will return the distance field of a target, building it (and evicting others) if it is not cached.
+     * The field is built outside the lock of the cache, so a cold target does not hold up the hits on other targets
+     * or the edits of the grid. It is only put in the cache if the grid has not changed while it was being built,
+     * otherwise it is handed back anyway with the version DistanceField.RACED, so it is stale for every version.
+     * @param target the index of the target cell
+     * @return the distance field, built from the current version of the grid
+     */
+    public DistanceField get(int target) {
+        synchronized (this) {
+            Entry entry = this.entries.get(target);
+            if (entry != null && entry.field.getVersion() == this.grid.getVersion()) {
+                this.hits++;
+                entry.uses++;
+                return entry.field;
+            }
+            this.misses++;
+            if (entry != null) { // built from an older version, should not happen since the listener clears the cache
+                remove(target);
+            }
+        }
+
+        DistanceField field = new DistanceField(this.grid, target);
+
+        synchronized (this) {
+            if (field.getVersion() != this.grid.getVersion()) {   // the grid changed while the field was being built
+                return field;
+            }
+            Entry entry = this.entries.get(target);
+            if (entry != null && entry.field.getVersion() == field.getVersion()) {   // another thread built it first
+                entry.uses++;
+                return entry.field;
+            }
+            if (entry != null) {
+                remove(target);
+            }
+            entry = new Entry(field);
+            entry.uses = 1;
+            this.entries.put(target, entry);
+            this.bytes += field.getSizeInBytes();
+            evict(target);
+            return field;
+        }
+    } // ends the get() method
+
+
+    /**
+     * This method will return the distance field of a target, building it if it is not cached.
+     * @param x the x-coordinate of the target cell
+     * @param y the y-coordinate of the target cell
+     * @return the distance field
+     */
+    public DistanceField get(int x, int y) {
+        return get(this.grid.getIndex(x, y));
+    } // ends the get() method
+
+
+    /**
+     * This method will return the distance field of a target only if it is already cached, it does not count as a use.
+     * @param target the index of the target cell
+     * @return the distance field, or null if it is not cached
+     */
+    public synchronized DistanceField peek(int target) {
+        Entry entry = this.entries.get(target);
+        return (entry == null) ? null : entry.field;
+    } // ends the peek() method
+
+
+    /**
+     * This method will drop fields until the cache is back under its budget.
+     * @param keep the target that was just added, it is never dropped
+     */
+    private void evict(int keep) {
+        while (this.bytes > this.budget && this.entries.size() > 1) {
+            int victim = -1;
+            if (this.policy == Policy.LRU) {
+                Iterator<Integer> it = this.entries.keySet().iterator(); // least recently used first
+                victim = it.next();
+                if (victim == keep) {
+                    victim = it.next();
+                }
+            } else {
+                long fewest = Long.MAX_VALUE;
+                for (Map.Entry<Integer, Entry> e : this.entries.entrySet()) {
+                    if (e.getKey() != keep && e.getValue().uses < fewest) {
+                        fewest = e.getValue().uses;
+                        victim = e.getKey();
+                    }
+                }
+            }
+            remove(victim);
+            this.evictions++;
+        }
+    } // ends the evict() method
+
+
+    /**
+     * This method will drop the field of a target.
+     * @param target the index of the target cell
+     */
+    private void remove(int target) {
+        Entry entry = this.entries.remove(target);
+        if (entry != null) {
+            this.bytes -= entry.field.getSizeInBytes();
+        }
+    } // ends the remove() method
+
+
+    /**
+     * This method will drop every field.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.bytes = 0;
+    } // ends the clear() method
+
+
+    /**
+     * This method is called by the grid when a cell changes, every field is out of date so they are all dropped.
+     * @param grid the packed grid that changed
+     * @param index the index of the cell that changed
+     */
+    @Override
+    public synchronized void cellChanged(PackedGrid grid, int index) {
+        if (!this.entries.isEmpty()) {
+            clear();
+            this.invalidations++;
+        }
+    } // ends the cellChanged() method
+
+
+    /**
+     * This method will stop the cache from listening to its grid, it should be called once the cache is not needed.
+     */
+    public synchronized void detach() {
+        this.grid.removeListener(this);
+        clear();
+    } // ends the detach() method
+
+
+    /**
+     * This method will return the number of fields in the cache.
+     * @return the number of fields
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    } // ends the size() method
+
+
+    /**
+     * This method will return how many bytes the fields in the cache use.
+     * @return the bytes used
+     */
+    public synchronized long getBytes() {
+        return this.bytes;
+    } // ends the getBytes() method
+
+
+    /**
+     * This method will return the byte budget of the cache.
+     * @return the budget
+     */
+    public long getBudget() {
+        return this.budget;
+    } // ends the getBudget() method
+
+
+    /**
+     * This method will return the eviction policy of the cache.
+     * @return the policy
+     */
+    public Policy getPolicy() {
+        return this.policy;
+    } // ends the getPolicy() method
+
+
+    /**
+     * This method will return the number of get() calls answered from the cache.
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    } // ends the getHits() method
+
+
+    /**
+     * This method will return the number of get() calls that had to build a field.
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    } // ends the getMisses() method
+
+
+    /**
+     * This method will return the number of fields dropped to stay under the budget.
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    } // ends the getEvictions() method
+
+
+    /**
+     * This method will return the number of times the cache was cleared because the grid changed.
+     * @return the number of invalidations
+     */
+    public synchronized long getInvalidations() {
+        return this.invalidations;
+    } // ends the getInvalidations() method
+
+
+    /**
+     * This method will return the fraction of get() calls answered from the cache.
+     * @return the hit rate [0,1], 0 if get() was never called
+     */
+    public synchronized double getHitRate() {
+        long total = this.hits + this.misses;
+        return (total == 0) ? 0.0 : (double) this.hits / total;
+    } // ends the getHitRate() method
+
+} // ends the DistanceFieldCache class
@@ -0,0 +1,55 @@
+package SearchAlgos;
+
+/**
+ * This is the Fixed Point Queue interface.
+ * It is a priority queue of cell indices ordered by an integer key (a cost in the fixed-point units of the CostModel),
+ * that keeps track of which cells are in it so a key can be changed in place.
+ * Since the keys are integers, two cells with the same cost always have the same key, there is no float drift.
+ */
+public interface FixedPointQueue {
+
+    /**
+     * This method will add a cell to the queue or change its key if it is already there.
+     * @param index the cell index
+     * @param key the key of the cell (not negative)
+     */
+    void update(int index, int key);
+
+    /**
+     * This method will remove and return the cell with the smallest key.
+     * @return the cell index
+     */
+    int poll();
+
+    /**
+     * This method will check if a cell is in the queue.
+     * @param index the cell index
+     * @return true if the cell is in the queue and false otherwise
+     */
+    boolean contains(int index);
+
+    /**
+     * This method will return the key of a cell in the queue.
+     * @param index the cell index
+     * @return the key, only valid while the cell is in the queue
+     */
+    int getKey(int index);
+
+    /**
+     * This method will return the number of cells in the queue.
+     * @return the size of the queue
+     */
+    int size();
+
+    /**
+     * This method will check if the queue is empty.
+     * @return true if there are no cells in the queue and false otherwise
+     */
+    boolean isEmpty();
+
+    /**
+     * This method will remove every cell from the queue.
+     */
+    void clear();
+
+} // ends the FixedPointQueue interface
@@ -0,0 +1,244 @@
+package SearchAlgos;
+
+import Grid.Grid;
+import Heuristic.Chebyshev;
+import Heuristic.Heuristic;
+
+/**
+ * This is the Focal Search Class, a bounded-suboptimal search like Weighted A* (Explicit Estimation Search).
+ * Weighted A* makes the heuristic bigger everywhere, so on the highways, where a step is much cheaper than the
+ * heuristic thinks, it keeps going back to cells near the start. Focal search keeps the normal A* fringe (OPEN, by
+ * fCost) to know the bound, and picks the cells to expand with a second estimate of the distance to the goal (the
+ * number of moves left by default, which does not care about the terrain).
+ *
+ * Both the heuristic and the distance are corrected while searching with their average one-step error (how much they
+ * go up from a cell to its best child, over the cost of the step), which gives a corrected fCost and distance that are
+ * not admissible but are closer to the truth. FOCAL holds the cells whose corrected fCost is at most weight times the
+ * smallest corrected fCost, by corrected distance. Every expansion takes the first cell of FOCAL, or else the cell with
+ * the smallest corrected fCost, or else the cell with the smallest fCost, whichever is first to have an fCost of at
+ * most weight times the smallest fCost. Since the goal is only expanded the same way, the path costs at most weight
+ * times the optimal cost (the heuristic has to be admissible for the bound to hold). Cells reached again with a smaller
+ * gCost after they were expanded are expanded again.
+ *
+ * The cells of OPEN that are not in FOCAL wait in a heap by corrected fCost, and are moved to FOCAL when the smallest
+ * corrected fCost goes up. Focal search always uses the float edge costs, setFixedPoint() does not change it.
+ */
+public class FocalSearch extends AbstractSearch {
+
+    // Global variables
+    Grid grid;
+    Heuristic h;            // admissible heuristic, gives the fCost of the cells and the bound
+    Heuristic distance;     // second estimate of the distance to the goal, picks the cell to expand out of FOCAL
+    float weight;           // the path costs at most this many times the optimal cost
+    IndexedHeap openHat;    // cells of OPEN by corrected fCost
+    IndexedHeap focal;      // cells of OPEN close enough to the smallest corrected fCost, by corrected distance
+    IndexedHeap waiting;    // cells of OPEN that are not in FOCAL, by corrected fCost
+    float[] distances;      // distance to the goal of every reached cell
+    float[] dHat;           // corrected distance to the goal of every cell on OPEN
+    float errorH;           // sum of the one-step errors of the heuristic
+    float errorD;           // sum of the one-step errors of the distance
+    int errors;             // number of one-step errors in the sums
+
+    /**
+     * This is the constructor of the FocalSearch class, it picks the cells out of FOCAL by the number of moves left.
+     * @param grid the current grid
+     * @param h the current heuristic to use, it should be admissible
+     * @param weight the path costs at most this many times the optimal cost (at least 1)
+     */
+    public FocalSearch(Grid grid, Heuristic h, float weight) {
+        this(grid, h, new Chebyshev(grid), weight);
+    } // ends the FocalSearch() constructor
+
+
+    /**
+     * This is the constructor of the FocalSearch class.
+     * @param grid the current grid
+     * @param h the current heuristic to use, it should be admissible
+     * @param distance the estimate of the distance to the goal used to pick the cells out of FOCAL, it does not have to
+     * be admissible
+     * @param weight the path costs at most this many times the optimal cost (at least 1)
+     */
+    public FocalSearch(Grid grid, Heuristic h, Heuristic distance, float weight) {
+        super(grid);
+        if (weight < 1f) {
+            throw new IllegalArgumentException("weight must be at least 1: " + weight);
+        }
+        this.h = h;
+        this.distance = distance;
+        this.weight = weight;
+    } // ends the FocalSearch() constructor
+
+
+    @Override
+    public float getHCost(int x, int y) {
+        return h.getHeuristic(x, y);
+    } // ends the getHCost() method
+
+
+    @Override
+    String cacheKey() {
+        return baseCacheKey() + cacheKeyOf(h) + cacheKeyOf(distance) + "/" + weight;
+    } // ends the cacheKey() method
+
+
+    /**
+     * This method runs the focal search using a given SearchContext.
+     * The fringe of the context is OPEN, the other lists are kept by this search.
+     * @param ctx the context to hold the state of this query, it will be reset first
+     */
+    @Override
+    public void run(SearchContext ctx) {
+        pinSnapshot();
+        this.context = ctx;
+        this.exploredCells = null;
+        this.status = null;
+        this.partialPath = null;
+        ctx.reset();
+        int size = height * width;
+        if (focal == null || dHat.length != size) {
+            openHat = new IndexedHeap(size);
+            focal = new IndexedHeap(size);
+            waiting = new IndexedHeap(size);
+            distances = new float[size];
+            dHat = new float[size];
+        } else {
+            openHat.clear();
+            focal.clear();
+            waiting.clear();
+        }
+        errorH = 0f;
+        errorD = 0f;
+        errors = 0;
+
+        int startIndex = start[0][0] * width + start[0][1];
+        int targetIndex = end[0][0] * width + end[0][1];
+        int[] offsets = ctx.offsets;
+
+        addToFringe(startIndex, -1, 0f, getHCost(start[0][0], start[0][1]));
+        distances[startIndex] = distance.getHeuristic(start[0][0], start[0][1]);
+        generated(startIndex);
+        nodesExpanded = 0;
+        int best = startIndex;  // expanded cell with the smallest hCost, the end of the best partial path
+        while (!ctx.fringe.isEmpty()) {
+            SearchStatus stop = budget.check(nodesExpanded);
+            if (stop != null) {
+                stopEarly(stop, startIndex, best);
+                return;
+            }
+            int curr = select(ctx);
+            nodesExpanded++;
+            ctx.fringe.remove(curr);
+            openHat.remove(curr);
+            if (!focal.remove(curr)) {
+                waiting.remove(curr);
+            }
+            ctx.close(curr);
+            if (ctx.hCost[curr] < ctx.hCost[best]) {
+                best = curr;
+            }
+
+            // the goal is only picked when its cost is at most weight times the smallest fCost
+            if (curr == targetIndex) {
+                status = SearchStatus.FOUND;
+                path = getShortestPath(startIndex, targetIndex);
+                report("Number of Nodes Looked Through: " + nodesExpanded);
+                return;
+            }
+
+            float[] edgeCosts = edgesOf(curr);
+            int edges = edgeOffset(curr);
+            int bestChild = -1;     // child with the smallest edge cost + hCost, gives the one-step errors
+            float bestChildF = Float.POSITIVE_INFINITY;
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                float edgeCost = edgeCosts[edges + d];
+                if (edgeCost < 0) { // blocked or off the grid
+                    continue;
+                }
+                int c = curr + offsets[d];
+                float g = ctx.gCost[curr] + edgeCost;
+                float hCost;
+                if (ctx.isGenerated(c)) {
+                    hCost = ctx.hCost[c];
+                } else {
+                    hCost = getHCost(c / width, c % width);
+                    distances[c] = distance.getHeuristic(c / width, c % width);
+                }
+                if (edgeCost + hCost < bestChildF) {
+                    bestChildF = edgeCost + hCost;
+                    bestChild = c;
+                }
+                if (ctx.isGenerated(c) && g >= ctx.gCost[c]) {
+                    continue;
+                }
+                ctx.closed.clear(c);    // if it was expanded before with a bigger gCost, it has to be expanded again
+                addToFringe(c, curr, g, hCost);
+                generated(c);
+            }
+            if (bestChild != -1) {
+                errorH += Math.max(0f, bestChildF - ctx.hCost[curr]);
+                errorD += Math.max(0f, 1f + distances[bestChild] - distances[curr]);
+                errors++;
+            }
+        } // ends the while loop
+
+        report("NO PATH FOUND");
+        status = SearchStatus.EXHAUSTED;
+        path = null;
+    } // ends the run() method
+
+
+    /**
+     * This method will pick the cell to expand next, the way Explicit Estimation Search does.
+     * It takes the cell of FOCAL that looks closest to the goal if its fCost is within the bound, else the cell with the
+     * smallest corrected fCost if that one is, else the cell with the smallest fCost (which raises the bound).
+     * @param ctx the context of the query
+     * @return the index of the cell
+     */
+    private int select(SearchContext ctx) {
+        float limit = weight * openHat.peekKey();
+        while (!waiting.isEmpty() && waiting.peekKey() <= limit) {
+            float fHat = waiting.peekKey();
+            int c = waiting.poll();
+            focal.update(c, dHat[c], fHat);
+        }
+        float bound = weight * ctx.fringe.peekKey();
+        int c = focal.peek();
+        if (c != -1 && ctx.fringe.getKey(c) <= bound) {
+            return c;
+        }
+        c = openHat.peek();
+        if (ctx.fringe.getKey(c) <= bound) {
+            return c;
+        }
+        return ctx.fringe.peek();
+    } // ends the select() method
+
+
+    /**
+     * This method will put a cell that was just added to OPEN (or got a smaller gCost) in the other lists.
+     * The corrected estimates use the average one-step errors of the heuristic and the distance so far.
+     * @param c the index of the cell
+     */
+    private void generated(int c) {
+        float avgH = (errors == 0) ? 0f : errorH / errors;
+        float avgD = (errors == 0) ? 0f : Math.min(0.99f, errorD / errors);
+        float g = context.gCost[c];
+        dHat[c] = distances[c] / (1f - avgD);
+        float fHat = g + context.hCost[c] + dHat[c] * avgH;
+        openHat.update(c, fHat);
+        if (focal.contains(c)) {
+            focal.update(c, dHat[c], fHat);
+        } else {
+            waiting.update(c, fHat);
+        }
+    } // ends the generated() method
+
+
+    /**
+     * This method will return the weight of the search.
+     * @return the path costs at most this many times the optimal cost
+     */
+    public float getWeight() {
+        return this.weight;
+    } // ends the getWeight() method
+} // ends the FocalSearch class
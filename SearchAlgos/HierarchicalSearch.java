@@ -0,0 +1,292 @@
+package SearchAlgos;
+
+import Grid.Cell;
+import Grid.Grid;
+import Heuristic.Heuristic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * This is the Hierarchical Search Class (HPA*).
+ * Instead of searching the cells of the grid, it runs A* on the ClusterGraph of the grid: the start and the goal are
+ * linked to the nodes of their clusters with a small search that stays inside the cluster, and the rest of the
+ * search only goes through the transition nodes. The result is an abstract path of waypoints, and the cells between
+ * two waypoints are only found when that segment is asked for (refineSegment()), or when the whole path is (getPath()).
+ *
+ * The paths are not always optimal, since they have to go through the transition cells, but the search does not
+ * touch every cell between the start and the goal.
+ * The move costs are symmetric (the cost charts are the same both ways), so the search inside the goal cluster is
+ * run from the goal.
+ */
+public class HierarchicalSearch extends AbstractSearch {
+
+    // Global variables
+    ClusterGraph graph;                     // abstract graph of the grid
+    Heuristic h;                            // heuristic towards the end cell (null => no heuristic)
+    ClusterGraph.LocalSearch startLocal;    // search from the start inside its cluster
+    ClusterGraph.LocalSearch goalLocal;     // search from the goal inside its cluster
+    ClusterGraph.LocalSearch refineLocal;   // search used to refine the segments
+    int[] abstractPath;                     // cell index of every waypoint of the last run (null => no path)
+
+
+    /**
+     * This is the constructor of the HierarchicalSearch class, using the shared cluster graph of the grid.
+     * @param grid the current grid
+     * @param h the heuristic to use on the abstract graph (null => none), it should be admissible
+     */
+    public HierarchicalSearch(Grid grid, Heuristic h) {
+        this(grid, ClusterGraph.of(grid), h);
+    } // ends the HierarchicalSearch() constructor
+
+
+    /**
+     * This is the constructor of the HierarchicalSearch class with a given cluster graph.
+     * @param grid the current grid
+     * @param graph the cluster graph of the grid
+     * @param h the heuristic to use on the abstract graph (null => none), it should be admissible
+     */
+    public HierarchicalSearch(Grid grid, ClusterGraph graph, Heuristic h) {
+        super(grid);
+        this.graph = graph;
+        this.h = h;
+        this.startLocal = new ClusterGraph.LocalSearch(graph);
+        this.goalLocal = new ClusterGraph.LocalSearch(graph);
+        this.refineLocal = new ClusterGraph.LocalSearch(graph);
+    } // ends the HierarchicalSearch() constructor
+
+
+    @Override
+    public float getHCost(int x, int y) {
+        return (h == null) ? 0f : h.getHeuristic(x, y);
+    } // ends the getHCost() method
+
+
+    @Override
+    String cacheKey() {
+        return baseCacheKey() + cacheKeyOf(h) + "/" + graph.clusterSize;
+    } // ends the cacheKey() method
+
+
+    /**
+     * This method runs A* on the abstract graph using a given SearchContext.
+     * Only the nodes of the cluster graph (and the start and goal) are ever put in the context.
+     * The graph is shared by every search on the grid and an edit of the grid rebuilds parts of it on the next refresh(),
+     * so the lock of the graph is held from the refresh to the end of the search: another search cannot rebuild the
+     * clusters while this one reads them.
+     * @param ctx the context to hold the state of this query, it will be reset first
+     */
+    @Override
+    public void run(SearchContext ctx) {
+        this.context = ctx;
+        this.exploredCells = null;
+        this.path = null;
+        this.partialPath = null;
+        this.abstractPath = null;
+        ctx.reset();
+        nodesExpanded = 0;
+
+        synchronized (graph) {
+            graph.refresh();
+            if (searchGraph(ctx)) {
+                this.status = SearchStatus.FOUND;
+                report("Number of Nodes Looked Through: " + nodesExpanded);
+            } else {
+                this.status = SearchStatus.EXHAUSTED;
+                report("NO PATH FOUND");
+            }
+        }
+    } // ends the run() method
+
+
+    /**
+     * This method runs A* on the abstract graph, the caller holds the lock of the graph.
+     * @param ctx the context of the query, already reset
+     * @return true if the goal was reached (the abstract path is set) and false otherwise
+     */
+    private boolean searchGraph(SearchContext ctx) {
+        int startIndex = start[0][0] * width + start[0][1];
+        int targetIndex = end[0][0] * width + end[0][1];
+        int startCluster = graph.getClusterOf(startIndex);
+        int targetCluster = graph.getClusterOf(targetIndex);
+        startLocal.run(startIndex);
+        goalLocal.run(targetIndex);
+
+        ctx.open(startIndex, -1, 0f, getHCost(start[0][0], start[0][1]));
+        while (ctx.fringe.size() > 0) {
+            nodesExpanded++;
+            int curr = ctx.fringe.poll();
+            ctx.close(curr);
+
+            if (curr == targetIndex) {
+                buildAbstractPath(targetIndex);
+                return true;
+            }
+
+            int cluster = graph.getClusterOf(curr);
+            ClusterGraph.Cluster nodes = graph.getCluster(cluster);
+            int slot = graph.getNodeSlot(curr);
+            int n = nodes.nodes.length;
+            if (curr == startIndex) {
+                // the start is linked to every node of its cluster (and to the goal if it is in there too)
+                for (int j = 0 ; j < n ; ++j) {
+                    relax(ctx, curr, nodes.nodes[j], startLocal.getDistance(nodes.nodes[j]));
+                }
+                if (startCluster == targetCluster) {
+                    relax(ctx, curr, targetIndex, startLocal.getDistance(targetIndex));
+                }
+            } else if (slot != -1) {
+                // intra edges to the other nodes of the cluster
+                for (int j = 0 ; j < n ; ++j) {
+                    relax(ctx, curr, nodes.nodes[j], nodes.distances[slot * n + j]);
+                }
+                if (cluster == targetCluster) {
+                    relax(ctx, curr, targetIndex, goalLocal.getDistance(curr));
+                }
+            }
+            if (slot != -1) {
+                // inter edges across the borders
+                for (int p = nodes.partnerStart[slot] ; p < nodes.partnerStart[slot + 1] ; ++p) {
+                    relax(ctx, curr, nodes.partners[p], costs.getCost(curr, nodes.partners[p]));
+                }
+            }
+        } // ends the while loop
+        return false;
+    } // ends the searchGraph() method
+
+
+    /**
+     * This method will relax an edge of the abstract graph.
+     * @param ctx the context of the query
+     * @param curr the index of the cell being expanded
+     * @param next the index of the cell at the other end of the edge
+     * @param edgeCost the cost of the edge (+infinity or negative => no edge)
+     */
+    private void relax(SearchContext ctx, int curr, int next, float edgeCost) {
+        if (edgeCost < 0 || edgeCost == Float.POSITIVE_INFINITY || next == curr || ctx.isClosed(next)) {
+            return;
+        }
+        float g = ctx.gCost[curr] + edgeCost;
+        if (!ctx.isGenerated(next)) {
+            ctx.open(next, curr, g, getHCost(next / width, next % width));
+        } else if (g < ctx.gCost[next]) {
+            ctx.open(next, curr, g, ctx.hCost[next]); // decrease-key, the hCost of the cell does not change
+        }
+    } // ends the relax() method
+
+
+    /**
+     * This method will follow the parents from the goal to build the list of waypoints.
+     * @param target the index of the goal
+     */
+    private void buildAbstractPath(int target) {
+        int length = 0;
+        for (int ptr = target ; ptr != -1 ; ptr = context.getParent(ptr)) {
+            length++;
+        }
+        abstractPath = new int[length];
+        for (int ptr = target ; ptr != -1 ; ptr = context.getParent(ptr)) {
+            abstractPath[--length] = ptr;
+        }
+    } // ends the buildAbstractPath() method
+
+
+    /**
+     * This method will return the waypoints of the abstract path found by the last run.
+     * @return the waypoints (start and goal included), or null if no path was found
+     */
+    public List<Cell> getAbstractPath() {
+        if (abstractPath == null) {
+            return null;
+        }
+        List<Cell> waypoints = new ArrayList<>(abstractPath.length);
+        for (int index : abstractPath) {
+            waypoints.add(getCell(index));
+        }
+        return waypoints;
+    } // ends the getAbstractPath() method
+
+
+    /**
+     * This method will return the cost of the abstract path found by the last run, which is also the cost of the refined path.
+     * @return the cost, or -1 if no path was found
+     */
+    public float getAbstractCost() {
+        return (abstractPath == null) ? -1f : context.getGCost(abstractPath[abstractPath.length - 1]);
+    } // ends the getAbstractCost() method
+
+
+    /**
+     * This method will return the number of segments (pairs of waypoints) in the abstract path.
+     * @return the number of segments, 0 if no path was found
+     */
+    public int getSegmentCount() {
+        return (abstractPath == null) ? 0 : abstractPath.length - 1;
+    } // ends the getSegmentCount() method
+
+
+    /**
+     * This method will find the cells of one segment of the abstract path.
+     * A segment is either the move across a border or the best path between two cells of the same cluster.
+     * @param segment the number of the segment [0, getSegmentCount())
+     * @return the cells of the segment, both waypoints included
+     */
+    public List<Cell> refineSegment(int segment) {
+        int from = abstractPath[segment];
+        int to = abstractPath[segment + 1];
+        List<Cell> cells = new ArrayList<>();
+        if (graph.getClusterOf(from) != graph.getClusterOf(to)) { // a transition, the two cells are neighbors
+            cells.add(getCell(from));
+            cells.add(getCell(to));
+            return cells;
+        }
+        refineLocal.run(from);
+        for (int index : refineLocal.getPath(to)) {
+            cells.add(getCell(index));
+        }
+        return cells;
+    } // ends the refineSegment() method
+
+
+    /**
+     * This method will return the full path, refining every segment of the abstract path the first time it is asked for.
+     * @return the path, or null if no path was found
+     */
+    @Override
+    public List<Cell> getPath() {
+        if (path == null && abstractPath != null) {
+            int[] full = new int[64];
+            full[0] = abstractPath[0];
+            int length = 1;
+            for (int s = 0 ; s < getSegmentCount() ; ++s) {
+                List<Cell> cells = refineSegment(s);
+                for (int i = 1 ; i < cells.size() ; ++i) { // the first cell is the end of the last segment
+                    if (length == full.length) {
+                        full = Arrays.copyOf(full, full.length * 2);
+                    }
+                    full[length++] = getIndex(cells.get(i));
+                }
+            }
+            path = new Path(source, Arrays.copyOf(full, length));
+        }
+        return path;
+    } // ends the getPath() method
+
+
+    @Override
+    public float getPathCost() {
+        getPath();
+        return super.getPathCost();
+    } // ends the getPathCost() method
+
+
+    /**
+     * This method will return the cluster graph the search runs on.
+     * @return the cluster graph
+     */
+    public ClusterGraph getGraph() {
+        return this.graph;
+    } // ends the getGraph() method
+
+} // ends the HierarchicalSearch class
@@ -0,0 +1,295 @@
+package SearchAlgos;
+
+import java.util.Arrays;
+
+/**
+ * This is the Indexed Heap class.
+ * This is a 4-ary min-heap of cell indices (x * width + y) ordered by a float key.
+ * It keeps the position of every index inside the heap so that membership is O(1)
+ * and a key can be changed in O(log n) without scanning the whole fringe.
+ * Each index can also have a second key (the tie) that is only compared when two keys are equal,
+ * for searches like D* Lite that order their cells by a pair of keys. It is 0 unless it is given.
+ */
+public class IndexedHeap {
+    // Global variables
+    private static final int ARITY = 4;     // number of children per node (4 keeps the tree shallow and the children on one cache line)
+
+    private final int[] heap;               // the heap itself, holds the cell indices
+    private final int[] position;           // position of every cell index inside the heap (-1 => not in the heap)
+    private final float[] keys;             // key (fCost) of every cell index
+    private final float[] ties;             // second key of every cell index, only used when the keys are equal
+    private int size;                       // number of cells currently in the heap
+
+
+    /**
+     * This is the constructor of the IndexedHeap class.
+     * @param capacity the total number of cell indices that can be stored (usually height * width)
+     */
+    public IndexedHeap(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new float[capacity];
+        this.ties = new float[capacity];
+        this.size = 0;
+        Arrays.fill(this.position, -1);
+    } // ends the IndexedHeap() constructor
+
+
+    /**
+     * This method will return the number of cells in the heap.
+     * @return the size of the heap
+     */
+    public int size() {
+        return this.size;
+    } // ends the size() method
+
+
+    /**
+     * This method will check if the heap is empty.
+     * @return true if there are no cells in the heap and false otherwise
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    } // ends the isEmpty() method
+
+
+    /**
+     * This method will check if a cell index is in the heap in O(1).
+     * @param index the cell index
+     * @return true if the cell index is in the heap and false otherwise
+     */
+    public boolean contains(int index) {
+        return this.position[index] != -1;
+    } // ends the contains() method
+
+
+    /**
+     * This method will return the current key of a cell index in the heap.
+     * @param index the cell index
+     * @return the key of the cell index (only valid when the index is in the heap)
+     */
+    public float getKey(int index) {
+        return this.keys[index];
+    } // ends the getKey() method
+
+
+    /**
+     * This method will return the current second key of a cell index in the heap.
+     * @param index the cell index
+     * @return the second key of the cell index (only valid when the index is in the heap)
+     */
+    public float getTie(int index) {
+        return this.ties[index];
+    } // ends the getTie() method
+
+
+    /**
+     * This method will return the cell index with the smallest key without removing it.
+     * @return the cell index at the top of the heap or -1 if the heap is empty
+     */
+    public int peek() {
+        return (this.size == 0) ? -1 : this.heap[0];
+    } // ends the peek() method
+
+
+    /**
+     * This method will return the smallest key in the heap.
+     * @return the smallest key or Float.POSITIVE_INFINITY if the heap is empty
+     */
+    public float peekKey() {
+        return (this.size == 0) ? Float.POSITIVE_INFINITY : this.keys[this.heap[0]];
+    } // ends the peekKey() method
+
+
+    /**
+     * This method will return the second key of the cell index at the top of the heap.
+     * @return the second key or Float.POSITIVE_INFINITY if the heap is empty
+     */
+    public float peekTie() {
+        return (this.size == 0) ? Float.POSITIVE_INFINITY : this.ties[this.heap[0]];
+    } // ends the peekTie() method
+
+
+    /**
+     * This method will add a new cell index to the heap or change the key of one already in it.
+     * The key is allowed to go up or down.
+     * @param index the cell index
+     * @param key the new key of the cell index
+     */
+    public void update(int index, float key) {
+        update(index, key, 0f);
+    } // ends the update() method
+
+
+    /**
+     * This method will add a new cell index to the heap or change the keys of one already in it.
+     * The cells are ordered by key first and by tie when the keys are equal.
+     * @param index the cell index
+     * @param key the new key of the cell index
+     * @param tie the new second key of the cell index
+     */
+    public void update(int index, float key, float tie) {
+        int pos = this.position[index];
+        if (pos == -1) { // new cell, put it at the bottom and let it rise
+            this.keys[index] = key;
+            this.ties[index] = tie;
+            this.heap[this.size] = index;
+            this.position[index] = this.size;
+            siftUp(this.size++);
+        } else {
+            float old = this.keys[index];
+            float oldTie = this.ties[index];
+            this.keys[index] = key;
+            this.ties[index] = tie;
+            if (key < old || (key == old && tie < oldTie)) {
+                siftUp(pos);
+            } else {
+                siftDown(pos);
+            }
+        }
+    } // ends the update() method
+
+
+    /**
+     * This method will lower the key of a cell index that is already in the heap.
+     * Nothing is done if the new key is not smaller than the current one.
+     * @param index the cell index
+     * @param key the new (smaller) key
+     */
+    public void decreaseKey(int index, float key) {
+        if (key < this.keys[index]) {
+            this.keys[index] = key;
+            this.ties[index] = 0f;
+            siftUp(this.position[index]);
+        }
+    } // ends the decreaseKey() method
+
+
+    /**
+     * This method will remove and return the cell index with the smallest key.
+     * @return the cell index that was removed or -1 if the heap is empty
+     */
+    public int poll() {
+        if (this.size == 0) {
+            return -1;
+        }
+        int top = this.heap[0];
+        removeAt(0);
+        return top;
+    } // ends the poll() method
+
+
+    /**
+     * This method will remove a cell index from the heap if it is in it.
+     * @param index the cell index to remove
+     * @return true if the cell index was removed and false if it was not in the heap
+     */
+    public boolean remove(int index) {
+        int pos = this.position[index];
+        if (pos == -1) {
+            return false;
+        }
+        removeAt(pos);
+        return true;
+    } // ends the remove() method
+
+
+    /**
+     * This method will empty the heap. It only touches the cells that are in the heap.
+     */
+    public void clear() {
+        for (int i = 0 ; i < this.size ; ++i) {
+            this.position[this.heap[i]] = -1;
+        }
+        this.size = 0;
+    } // ends the clear() method
+
+
+    /**
+     * This method will remove the cell index at a specific position of the heap.
+     * @param pos the position in the heap
+     */
+    private void removeAt(int pos) {
+        int removed = this.heap[pos];
+        this.position[removed] = -1;
+        --this.size;
+        if (pos == this.size) { // last one, nothing to fix
+            return;
+        }
+        int last = this.heap[this.size];
+        this.heap[pos] = last;
+        this.position[last] = pos;
+        if (less(last, removed)) {
+            siftUp(pos);
+        } else {
+            siftDown(pos);
+        }
+    } // ends the removeAt() method
+
+
+    /**
+     * This method will move the cell index at a position up until its parent is not bigger.
+     * @param pos the position in the heap
+     */
+    private void siftUp(int pos) {
+        int index = this.heap[pos];
+        while (pos > 0) {
+            int parentPos = (pos - 1) / ARITY;
+            int parent = this.heap[parentPos];
+            if (!less(index, parent)) {
+                break;
+            }
+            this.heap[pos] = parent;
+            this.position[parent] = pos;
+            pos = parentPos;
+        }
+        this.heap[pos] = index;
+        this.position[index] = pos;
+    } // ends the siftUp() method
+
+
+    /**
+     * This method will move the cell index at a position down until none of its children are smaller.
+     * @param pos the position in the heap
+     */
+    private void siftDown(int pos) {
+        int index = this.heap[pos];
+        while (true) {
+            int firstChild = pos * ARITY + 1;
+            if (firstChild >= this.size) {
+                break;
+            }
+            // find the smallest of the children
+            int lastChild = Math.min(firstChild + ARITY, this.size);
+            int best = firstChild;
+            for (int c = firstChild + 1 ; c < lastChild ; ++c) {
+                if (less(this.heap[c], this.heap[best])) {
+                    best = c;
+                }
+            }
+            if (!less(this.heap[best], index)) {
+                break;
+            }
+            int child = this.heap[best];
+            this.heap[pos] = child;
+            this.position[child] = pos;
+            pos = best;
+        }
+        this.heap[pos] = index;
+        this.position[index] = pos;
+    } // ends the siftDown() method
+
+
+    /**
+     * This method will check if a cell index comes before another one in the heap.
+     * @param a the first cell index
+     * @param b the second cell index
+     * @return true if the key of a is smaller, or the keys are equal and the tie of a is smaller
+     */
+    private boolean less(int a, int b) {
+        float ka = this.keys[a];
+        float kb = this.keys[b];
+        return ka < kb || (ka == kb && this.ties[a] < this.ties[b]);
+    } // ends the less() method
+
+} // ends the IndexedHeap class
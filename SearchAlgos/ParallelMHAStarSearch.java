@@ -0,0 +1,458 @@
+package SearchAlgos;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import Grid.*;
+import Heuristic.*;
+
+/**
+ * This is the Parallel Multi-Heuristic A* Search Class.
+ * This is the shared version of the SequentialAStarSearch (Shared MHA*) where the anchor search and each of the
+ * inadmissible searches run on their own thread.
+ *
+ * All the searches share one gCost and parent per cell, so a better path found by any of them is seen by all.
+ * The gCosts are kept in an atomic array and every update (gCost and parent together) is done under one of a set of
+ * striped locks. Each search keeps its own fringe and is told about the cells whose gCost went down through its inbox.
+ * A cell is expanded at most once by the anchor and at most once by all the inadmissible searches together
+ * (the shared inadmissible closed set is a lock-free bitmap).
+ *
+ * An inadmissible search only expands a cell when its key is within w2 times the smallest key of the anchor, and only
+ * the anchor decides when to stop: once every update has reached its fringe and the gCost of the goal is at most
+ * w2 times its smallest key. With an admissible anchor heuristic the path costs at most w1 * w2 times the optimal one.
+ */
+public class ParallelMHAStarSearch {
+    // Global variables
+    private static final int STRIPES = 64;      // number of locks the cells are spread over (power of 2)
+    private static final long IDLE_NANOS = 20000L;  // how long an inadmissible search sleeps when it has nothing to expand
+
+    Grid source;                  // main grid to conduct searches on, only used to hand out Cells for the results
+    CostModel costs;              // compiled edge costs of the grid, shared by every search on it
+    float[] weights;              // costs.getWeights(), read directly by the search (weights[index * 8 + direction])
+    int[] offsets;                // index offset of each of the 8 moves
+    int height;                   // height of the grid
+    int width;                    // width of the grid, used to turn (x,y) into a cell index
+    float w1;                     // w1(≥ 1.0) is used to inflate the heuristic values for each of the search procedures, similar to Weighted-A
+    float w2;                     // w2(≥ 1.0) is used as a factor to prioritize the inadmissible search processes over the anchor, admissible one
+
+    Heuristic[] hArray;           // the heuristics, index 0 is the admissible anchor
+    List<Cell> path;              // final path from start to goal in the grid
+    int cStart;                   // index of the start cell
+    int cTarget;                  // index of the target cell
+    boolean verbose = true;       // print the number of nodes looked through after every run
+
+    // state shared by all the threads during a run
+    private AtomicIntegerArray gCost;       // float bits of the gCost of every cell (+infinity => not reached)
+    private int[] parent;                   // parent of every cell, only written under the stripe lock of the cell
+    private AtomicLongArray closedInad;     // cells expanded by one of the inadmissible searches
+    private Inbox[] inboxes;                // cells whose gCost went down, one inbox per search
+    private final Object[] stripes;         // locks for the gCost/parent updates
+    private final AtomicInteger anchorPending = new AtomicInteger();   // updates that have not reached the anchor yet
+    private final AtomicInteger expanded = new AtomicInteger();        // number of cells expanded by all the searches
+    private volatile float anchorMinKey;    // smallest key of the anchor fringe, published for the other threads
+    private volatile boolean done;          // set by the anchor when the search is over
+    private volatile boolean paused;        // set by the anchor while it checks if it can stop, the others do not expand
+
+
+    /**
+     * This is the constructor of the Parallel MHA* Search with the default heuristics.
+     * The anchor is the (Euclidean Distance / 4), which is admissible on this grid, and the four others are inadmissible.
+     * @param grid the current grid to run the search on
+     * @param weight1 the weight to inflate the h-values of the heuristics
+     * @param weight2 the weight to use as a factor in prioritizing the inadmissible over the admissible heuristic
+     */
+    public ParallelMHAStarSearch(Grid grid, float weight1, float weight2) {
+        this(grid, weight1, weight2, new Heuristic[] {
+            new EuclideanDistanceByFour(grid),
+            new ManhattanDistance(grid),
+            new ManhattanDistanceByFour(grid),
+            new Chebyshev(grid),
+            new EuclideanDistance(grid)
+        });
+    } // ends the ParallelMHAStarSearch() constructor
+
+
+    /**
+     * This is the constructor of the Parallel MHA* Search with given heuristics.
+     * @param grid the current grid to run the search on
+     * @param weight1 the weight to inflate the h-values of the heuristics
+     * @param weight2 the weight to use as a factor in prioritizing the inadmissible over the admissible heuristic
+     * @param heuristics the heuristics, the first one is the anchor and must be admissible, each of the others gets a thread
+     */
+    public ParallelMHAStarSearch(Grid grid, float weight1, float weight2, Heuristic[] heuristics) {
+        this.source = grid;
+        this.costs = CostModel.of(grid);
+        this.weights = this.costs.getWeights();
+        this.offsets = this.costs.getOffsets();
+        this.height = grid.getHeight();
+        this.width = grid.getWidth();
+        this.w1 = weight1;
+        this.w2 = weight2;
+        this.hArray = heuristics.clone();
+        this.cStart = grid.getStartCell()[0][0] * width + grid.getStartCell()[0][1];
+        this.cTarget = grid.getEndCell()[0][0] * width + grid.getEndCell()[0][1];
+        this.stripes = new Object[STRIPES];
+        for (int i = 0 ; i < STRIPES ; ++i) {
+            this.stripes[i] = new Object();
+        }
+    } // ends the ParallelMHAStarSearch() constructor
+
+
+    /**
+     * This method will run the main algorithm to find the path from start to goal.
+     * The inadmissible searches run on their own threads and the anchor runs on the calling thread.
+     */
+    public void run() {
+        int size = height * width;
+        gCost = new AtomicIntegerArray(size);
+        int inf = Float.floatToIntBits(Float.POSITIVE_INFINITY);
+        for (int i = 0 ; i < size ; ++i) {
+            gCost.set(i, inf);
+        }
+        parent = new int[size];
+        Arrays.fill(parent, -1);
+        closedInad = new AtomicLongArray((size + 63) >>> 6);
+        inboxes = new Inbox[hArray.length];
+        for (int i = 0 ; i < hArray.length ; ++i) {
+            inboxes[i] = new Inbox();
+        }
+        anchorPending.set(0);
+        expanded.set(0);
+        anchorMinKey = Float.POSITIVE_INFINITY;
+        done = false;
+        paused = false;
+        path = null;
+
+        gCost.set(cStart, Float.floatToIntBits(0f));
+        for (Inbox inbox : inboxes) {
+            inbox.add(cStart);
+        }
+        anchorPending.incrementAndGet();
+
+        Thread[] threads = new Thread[hArray.length - 1];
+        for (int i = 1 ; i < hArray.length ; ++i) {
+            final int which = i;
+            threads[i - 1] = new Thread(() -> runInadmissible(which), "mha-" + i);
+            threads[i - 1].start();
+        }
+        boolean found;
+        try {
+            found = runAnchor();
+        } finally {
+            done = true;
+            for (Thread t : threads) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        if (found) {
+            path = pathFound();
+            report("Number of Nodes Looked Through: " + expanded.get());
+        }
+    } // ends the run() method
+
+
+    /**
+     * This method runs the anchor search, it is also the one that decides when to stop.
+     * @return true if a path was found and false otherwise
+     */
+    private boolean runAnchor() {
+        IndexedHeap fringe = new IndexedHeap(height * width);
+        CellBitmap closed = new CellBitmap(height, width);
+        Heuristic h = hArray[0];
+        int[] drained = new int[64];
+        int[] improved = new int[CostModel.DIRECTIONS];    // buffer of expand(), one per thread
+        while (true) {
+            // put every cell whose gCost went down on the fringe (unless the anchor already expanded it)
+            drained = inboxes[0].drain(drained);
+            int count = inboxes[0].lastCount;
+            for (int k = 0 ; k < count ; ++k) {
+                int c = drained[k];
+                if (!closed.get(c)) {
+                    fringe.update(c, getG(c) + w1 * h.getHeuristic(c / width, c % width));
+                }
+            }
+            anchorPending.addAndGet(-count);
+
+            float minKey = fringe.peekKey();
+            anchorMinKey = minKey;
+            float goal = getG(cTarget);
+            if ((goal < Float.POSITIVE_INFINITY && goal <= w2 * minKey) || fringe.isEmpty()) {
+                if (anchorPending.get() == 0) {
+                    // every update has reached the fringe, so the bound holds for the current smallest key
+                    return goal < Float.POSITIVE_INFINITY;
+                }
+                // stop the other searches until the updates in flight have been drained, then check again
+                paused = true;
+                Thread.yield();
+                continue;
+            }
+            paused = false;
+
+            int s = fringe.poll();
+            closed.set(s);
+            expand(s, improved);
+        }
+    } // ends the runAnchor() method
+
+
+    /**
+     * This method runs one of the inadmissible searches until the anchor says the search is over.
+     * @param which the index of the heuristic
+     */
+    private void runInadmissible(int which) {
+        IndexedHeap fringe = new IndexedHeap(height * width);
+        Heuristic h = hArray[which];
+        Heuristic anchor = hArray[0];
+        int[] drained = new int[64];
+        int[] improved = new int[CostModel.DIRECTIONS];    // buffer of expand(), one per thread
+        while (!done) {
+            drained = inboxes[which].drain(drained);
+            int count = inboxes[which].lastCount;
+            for (int k = 0 ; k < count ; ++k) {
+                int c = drained[k];
+                if (isClosedInad(c)) {
+                    continue;
+                }
+                int x = c / width;
+                int y = c % width;
+                float g = getG(c);
+                float key = g + w1 * h.getHeuristic(x, y);
+                // only cells that this search would rank within w2 of the anchor are worth looking at
+                if (key <= w2 * (g + w1 * anchor.getHeuristic(x, y))) {
+                    fringe.update(c, key);
+                }
+            }
+
+            if (paused || fringe.isEmpty() || fringe.peekKey() > w2 * anchorMinKey) {
+                LockSupport.parkNanos(IDLE_NANOS); // nothing to do that is within the bound for now
+                continue;
+            }
+            int s = fringe.poll();
+            if (setClosedInad(s)) { // another inadmissible search already expanded it
+                continue;
+            }
+            expand(s, improved);
+        }
+    } // ends the runInadmissible() method
+
+
+    /**
+     * This method will expand a cell: lower the gCost of its neighbors where it can and tell every search about them.
+     * @param s the index of the cell
+     * @param improved buffer for the neighbors whose gCost went down, owned by the calling thread
+     */
+    private void expand(int s, int[] improved) {
+        expanded.incrementAndGet();
+        float gs = getG(s);
+        int edges = s * CostModel.DIRECTIONS;
+        int count = 0;
+        for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+            float edgeCost = weights[edges + d];
+            if (edgeCost < 0) { // blocked or off the grid
+                continue;
+            }
+            int c = s + offsets[d];
+            float g = gs + edgeCost;
+            synchronized (stripes[c & (STRIPES - 1)]) {
+                if (g < getG(c)) {
+                    // count the update before it is visible, so the anchor cannot stop before it sees it
+                    anchorPending.incrementAndGet();
+                    gCost.set(c, Float.floatToIntBits(g));
+                    parent[c] = s;
+                    improved[count++] = c;
+                }
+            }
+        }
+        if (count > 0) {
+            for (Inbox inbox : inboxes) {
+                inbox.add(improved, count);
+            }
+        }
+    } // ends the expand() method
+
+
+    /**
+     * This method will turn the message printed after every run on or off.
+     * @param verbose true to print the message and false otherwise
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    } // ends the setVerbose() method
+
+
+    /**
+     * This method will print a message about the last run, if the search is verbose.
+     * @param message the message
+     */
+    void report(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    } // ends the report() method
+
+
+    /**
+     * This method will return the shared gCost of a cell.
+     * @param index the index of the cell
+     * @return the gCost (+infinity => not reached)
+     */
+    private float getG(int index) {
+        return Float.intBitsToFloat(gCost.get(index));
+    } // ends the getG() method
+
+
+    /**
+     * This method will check if a cell has been expanded by one of the inadmissible searches.
+     * @param index the index of the cell
+     * @return true if it has been expanded and false otherwise
+     */
+    private boolean isClosedInad(int index) {
+        return (closedInad.get(index >>> 6) & (1L << index)) != 0;
+    } // ends the isClosedInad() method
+
+
+    /**
+     * This method will mark a cell as expanded by the inadmissible searches.
+     * @param index the index of the cell
+     * @return true if it was already marked and false if this call marked it
+     */
+    private boolean setClosedInad(int index) {
+        int w = index >>> 6;
+        long bit = 1L << index;
+        while (true) {
+            long old = closedInad.get(w);
+            if ((old & bit) != 0) {
+                return true;
+            }
+            if (closedInad.compareAndSet(w, old, old | bit)) {
+                return false;
+            }
+        }
+    } // ends the setClosedInad() method
+
+
+    /**
+     * This method will build the path from start to end by following the shared parents.
+     * @return the path from start to end
+     */
+    private List<Cell> pathFound() {
+        // will go backwards in the path to start whose parent would be -1
+        return Path.fromParents(source, parent, cTarget);
+    } // ends the pathFound() method
+
+
+    /**
+     * This method will return the path from start to finish.
+     * @return the list path (could be null if a path was never found)
+     */
+    public List<Cell> getPath() {
+        return path;
+    } // ends the getPath() method
+
+
+    /**
+     * This method will return a bitmap of all the Cells that have been reached by any of the searches.
+     * @return the bitmap of explored cells
+     */
+    public CellBitmap getExploredCells() {
+        CellBitmap explored = new CellBitmap(height, width);
+        if (gCost != null) {
+            for (int i = 0 ; i < gCost.length() ; ++i) {
+                if (getG(i) < Float.POSITIVE_INFINITY) {
+                    explored.set(i);
+                }
+            }
+        }
+        return explored;
+    } // ends the getExploredCells() method
+
+
+    /**
+     * This method will return the number of cells expanded by all the searches in the last run.
+     * @return the number of nodes expanded
+     */
+    public int getNodesExpanded() {
+        return expanded.get();
+    } // ends the getNodesExpanded() method
+
+
+    /**
+     * This method will get the Cell that matches an index.
+     * @param index the index of the cell
+     * @return the cell at that index
+     */
+    public Cell getCell(int index) {
+        return this.source.getCell(index / width, index % width);
+    } // ends the getCell() method
+
+
+    /**
+     * This method will return the total cost of the shortest path obtained by the algorithm.
+     * @return the total cost of the path
+     */
+    public float getPathCost() {
+        if (path == null) {
+            return -1f;
+        }
+        if (path instanceof Path) { // worked out when the path was made
+            return ((Path) path).getCost();
+        }
+        float totalCost = 0f;
+        Cell cur = path.get(0);
+        for (Cell next : path) {
+            totalCost += costs.getCost(cur.getX() * width + cur.getY(), next.getX() * width + next.getY());
+            cur = next;
+        }
+        return totalCost;
+    } // ends the getPathCost() method
+
+
+
+    /**
+     * This is the Inbox class, a list of cell indices that many threads add to and one thread drains.
+     */
+    private static final class Inbox {
+        private int[] cells = new int[64];  // cells added since the last drain
+        private int size;                   // number of cells in the inbox
+        int lastCount;                      // number of cells returned by the last drain (only read by the owner)
+
+        synchronized void add(int cell) {
+            if (size == cells.length) {
+                cells = Arrays.copyOf(cells, size * 2);
+            }
+            cells[size++] = cell;
+        }
+
+        synchronized void add(int[] batch, int count) {
+            if (size + count > cells.length) {
+                cells = Arrays.copyOf(cells, Math.max(cells.length * 2, size + count));
+            }
+            System.arraycopy(batch, 0, cells, size, count);
+            size += count;
+        }
+
+        /**
+         * This method will take every cell out of the inbox.
+         * @param into the array to copy the cells to, a bigger one is returned if it is too small
+         * @return the array holding the cells, the number of cells is in lastCount
+         */
+        synchronized int[] drain(int[] into) {
+            if (into.length < size) {
+                into = new int[cells.length];
+            }
+            System.arraycopy(cells, 0, into, 0, size);
+            lastCount = size;
+            size = 0;
+            return into;
+        }
+    } // ends the Inbox class
+
+} // ends the ParallelMHAStarSearch class
@@ -0,0 +1,212 @@
+package SearchAlgos;
+
+import Grid.Cell;
+import Grid.Grid;
+
+import java.util.AbstractList;
+import java.util.RandomAccess;
+
+/**
+ * This is the Path class.
+ * It is the path found by a search, stored as the index of every cell on it (start first, goal last) instead of a
+ * list of Cells. The cost of the path is worked out once when it is made, and a bitmap of its cells is built the first
+ * time it is asked if it contains a cell, so contains() is a single bit check instead of a walk down the path.
+ *
+ * It is also a read-only List of Cells (the Cells are taken from the grid when they are asked for), so the callers
+ * that use the path as a List<Cell> do not have to change.
+ */
+public class Path extends AbstractList<Cell> implements RandomAccess {
+    // Global variables
+    private final Grid source;      // grid the cells are on, only used to hand out Cells
+    private final int height;       // height of the grid
+    private final int width;        // width of the grid
+    private final int[] cells;      // index of every cell of the path, start first
+    private final float cost;       // total cost of the moves along the path
+    private CellBitmap members;     // the cells of the path, built the first time contains() is called
+
+
+    /**
+     * This is the constructor of the Path class, the cost is worked out from the CostModel of the grid.
+     * @param grid the grid the path is on
+     * @param cells the index of every cell of the path (start first), it is kept and must not be changed afterwards
+     */
+    public Path(Grid grid, int[] cells) {
+        this(grid, cells, CostModel.of(grid));
+    } // ends the Path() constructor
+
+
+    /**
+     * This is the constructor of the Path class, the cost is worked out from a given CostModel (like the model of the
+     * snapshot the search ran on).
+     * @param grid the grid the path is on
+     * @param cells the index of every cell of the path (start first), it is kept and must not be changed afterwards
+     * @param costs the edge costs to add up
+     */
+    public Path(Grid grid, int[] cells, CostModel costs) {
+        this.source = grid;
+        this.height = grid.getHeight();
+        this.width = grid.getWidth();
+        this.cells = cells;
+        float total = 0f;
+        for (int i = 1 ; i < cells.length ; ++i) {
+            total += costs.getCost(cells[i - 1], cells[i]);
+        }
+        this.cost = total;
+    } // ends the Path() constructor
+
+
+    /**
+     * This method will build a path by following the parents of a search back from the goal.
+     * @param grid the grid the path is on
+     * @param ctx the context of the search
+     * @param target the index of the goal
+     * @return the path from the start (the cell with no parent) to the goal
+     */
+    static Path fromParents(Grid grid, SearchContext ctx, int target) {
+        return fromParents(grid, ctx.parent, target, CostModel.of(grid));
+    } // ends the fromParents() method
+
+
+    /**
+     * This method will build a path by following a parent array back from the goal.
+     * @param grid the grid the path is on
+     * @param parent the parent of every cell (-1 => no parent)
+     * @param target the index of the goal
+     * @return the path from the start (the cell with no parent) to the goal
+     */
+    static Path fromParents(Grid grid, int[] parent, int target) {
+        return fromParents(grid, parent, target, CostModel.of(grid));
+    } // ends the fromParents() method
+
+
+    /**
+     * This method will build a path by following a parent array back from the goal.
+     * @param grid the grid the path is on
+     * @param parent the parent of every cell (-1 => no parent)
+     * @param target the index of the goal
+     * @param costs the edge costs to add up
+     * @return the path from the start (the cell with no parent) to the goal
+     */
+    static Path fromParents(Grid grid, int[] parent, int target, CostModel costs) {
+        int length = 0;
+        for (int ptr = target ; ptr != -1 ; ptr = parent[ptr]) {
+            length++;
+        }
+        int[] cells = new int[length];
+        for (int ptr = target ; ptr != -1 ; ptr = parent[ptr]) {
+            cells[--length] = ptr;
+        }
+        return new Path(grid, cells, costs);
+    } // ends the fromParents() method
+
+
+    /**
+     * This method will return a cell of the path.
+     * @param i the position on the path (0 => start)
+     * @return the Cell
+     */
+    @Override
+    public Cell get(int i) {
+        int index = this.cells[i];
+        return this.source.getCell(index / this.width, index % this.width);
+    } // ends the get() method
+
+
+    /**
+     * This method will return the number of cells on the path, the start and goal included.
+     * @return the number of cells
+     */
+    @Override
+    public int size() {
+        return this.cells.length;
+    } // ends the size() method
+
+
+    /**
+     * This method will check if a cell is on the path.
+     * @param o the cell
+     * @return true if the cell is on the path and false otherwise
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof Cell)) {
+            return false;
+        }
+        Cell cell = (Cell) o;
+        if (cell.getX() < 0 || cell.getX() >= this.height || cell.getY() < 0 || cell.getY() >= this.width) {
+            return false;
+        }
+        return contains(cell.getX() * this.width + cell.getY());
+    } // ends the contains() method
+
+
+    /**
+     * This method will check if a cell index is on the path.
+     * @param index the index of the cell
+     * @return true if the cell is on the path and false otherwise
+     */
+    public boolean contains(int index) {
+        return getMembers().get(index);
+    } // ends the contains() method
+
+
+    /**
+     * This method will return the bitmap of the cells on the path, it must not be changed by the caller.
+     * @return the bitmap
+     */
+    public CellBitmap getMembers() {
+        CellBitmap bits = this.members;
+        if (bits == null) {
+            bits = new CellBitmap(this.height, this.width);
+            for (int index : this.cells) {
+                bits.set(index);
+            }
+            this.members = bits;
+        }
+        return bits;
+    } // ends the getMembers() method
+
+
+    /**
+     * This method will return the total cost of the path.
+     * @return the cost
+     */
+    public float getCost() {
+        return this.cost;
+    } // ends the getCost() method
+
+
+    /**
+     * This method will return the index of a cell of the path.
+     * @param i the position on the path (0 => start)
+     * @return the index of the cell (x * width + y)
+     */
+    public int getIndex(int i) {
+        return this.cells[i];
+    } // ends the getIndex() method
+
+
+    /**
+     * This method will return the index of every cell of the path.
+     * @return a copy of the indices, start first
+     */
+    public int[] toIndexArray() {
+        return this.cells.clone();
+    } // ends the toIndexArray() method
+
+
+    /**
+     * This method will return the path as the direction of every move (see CostModel), one byte per step.
+     * @return the directions, one less than the number of cells
+     */
+    public byte[] getSteps() {
+        byte[] steps = new byte[Math.max(0, this.cells.length - 1)];
+        for (int i = 0 ; i < steps.length ; ++i) {
+            int dx = this.cells[i + 1] / this.width - this.cells[i] / this.width;
+            int dy = this.cells[i + 1] % this.width - this.cells[i] % this.width;
+            steps[i] = (byte) CostModel.directionOf(dx, dy);
+        }
+        return steps;
+    } // ends the getSteps() method
+
+} // ends the Path class
@@ -0,0 +1,462 @@
+package SearchAlgos;
+
+import Grid.Cell;
+import Grid.Grid;
+import Grid.GridListener;
+import Grid.PackedGrid;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This is the Path Cache class.
+ * It sits in front of the searches of one grid and remembers the answer of every query it has run, keyed by the
+ * start, the goal and every setting of the search that can change its path (see AbstractSearch.cacheKey(): the
+ * algorithm, its heuristics, its weight and the fixed-point mode), so a repeated query is answered without a search.
+ * A search whose settings are not known (like D* Lite, whose start moves with the agent) is run but never cached.
+ * The paths are stored as the start cell plus one byte per step (the direction of the move), and the least recently
+ * used ones are dropped once the cache is over its byte budget.
+ *
+ * The answers are checked against the version of the grid: when a cell changes only the paths that the edit can affect
+ * are dropped, which are
+ *  - the paths that go through the cell (the cost of the moves into and out of it changed),
+ *  - if the edit made a move into or out of the cell cheaper (or opened it), the paths that could now be beaten by a
+ *    path through the cell (the cheapest possible path from the start to the goal through the cell is cheaper than the
+ *    cached one) and the queries that had no path.
+ * Every other cached path still has the same cost and no better path can have appeared, so it is kept.
+ *
+ * ex. PathCache cache = new PathCache(grid);
+ *     cache.run(new AStarSearch(grid, new EuclideanDistanceByFour(grid)));
+ */
+public class PathCache implements GridListener {
+    // Global variables
+    public static final long DEFAULT_BUDGET = 16L << 20;    // byte budget used by PathCache(Grid), 16 MB
+    static final int ENTRY_OVERHEAD = 64;                   // bytes counted for every entry on top of its steps
+
+    private final Grid source;          // the grid the searches run on
+    private final PackedGrid grid;      // the packed grid, listened to for changes
+    private final int width;            // width of the grid
+    private final long budget;          // most bytes the entries may use together
+    private final LinkedHashMap<Key, Answer> entries;   // query => answer, least recently used first
+    private final byte[] types;         // type of every cell as of the last edit, to tell if an edit made a move cheaper
+
+    private long version;       // version of the grid the cached answers are valid for
+    private long bytes;         // bytes used by the entries
+    private long hits;          // number of queries answered from the cache
+    private long misses;        // number of queries that had to be searched
+    private long evictions;     // number of entries dropped to stay under the budget
+    private long invalidations; // number of entries dropped because of an edit
+
+
+    /**
+     * This is the Key class, what makes two queries the same.
+     */
+    static final class Key {
+        final int start;            // index of the start cell
+        final int goal;             // index of the goal cell
+        final String search;        // settings of the search (see AbstractSearch.cacheKey())
+
+        Key(int start, int goal, String search) {
+            this.start = start;
+            this.goal = goal;
+            this.search = search;
+        } // ends the Key() constructor
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return start == k.start && goal == k.goal && search.equals(k.search);
+        } // ends the equals() method
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(start, goal, search);
+        } // ends the hashCode() method
+    } // ends the Key class
+
+
+    /**
+     * This is the Answer class, what one query found.
+     */
+    private static final class Answer {
+        final byte[] steps;     // direction of every move from the start (null => no path)
+        final float cost;       // cost of the path (-1 => no path)
+        final int minX, maxX, minY, maxY;   // bounding box of the path, to skip the walk for most edits
+
+        Answer(byte[] steps, float cost, int minX, int maxX, int minY, int maxY) {
+            this.steps = steps;
+            this.cost = cost;
+            this.minX = minX;
+            this.maxX = maxX;
+            this.minY = minY;
+            this.maxY = maxY;
+        } // ends the Answer() constructor
+
+        long size() {
+            return ENTRY_OVERHEAD + ((steps == null) ? 0 : steps.length);
+        } // ends the size() method
+    } // ends the Answer class
+
+
+    /**
+     * This is the constructor of the PathCache class with the default budget.
+     * @param grid the grid
+     */
+    public PathCache(Grid grid) {
+        this(grid, DEFAULT_BUDGET);
+    } // ends the PathCache() constructor
+
+
+    /**
+     * This is the constructor of the PathCache class.
+     * @param grid the grid
+     * @param budget the most bytes the cached paths may use together
+     */
+    public PathCache(Grid grid, long budget) {
+        if (budget < 0) {
+            throw new IllegalArgumentException("budget must not be negative: " + budget);
+        }
+        this.source = grid;
+        this.grid = grid.getPackedGrid();
+        this.width = grid.getWidth();
+        this.budget = budget;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true); // access order, for LRU
+        this.types = new byte[this.grid.size()];
+        for (int index = 0 ; index < this.types.length ; ++index) {
+            this.types[index] = (byte) this.grid.getType(index);
+        }
+        this.version = this.grid.getVersion();
+        this.grid.addListener(this);
+    } // ends the PathCache() constructor
+
+
+    /**
+     * This method will answer the query of a search from the cache, or run the search and cache its answer.
+     * On a hit the path of the search is set as if it had run, with no cell expanded or explored.
+     * @param search the search, with its start and end already set (it must be on the grid of the cache)
+     * @return true if the query was answered from the cache and false if the search was run
+     */
+    public boolean run(AbstractSearch search) {
+        return run(search, null);
+    } // ends the run() method
+
+
+    /**
+     * This method will answer the query of a search from the cache, or run the search with a given context and cache
+     * its answer. A run that was stopped by its budget or cancelled is not cached, since its answer is not complete.
+     * @param search the search, with its start and end already set (it must be on the grid of the cache)
+     * @param ctx the context to run the search with (null => the context of the search)
+     * @return true if the query was answered from the cache and false if the search was run
+     */
+    public boolean run(AbstractSearch search, SearchContext ctx) {
+        int start = search.start[0][0] * width + search.start[0][1];
+        int goal = search.end[0][0] * width + search.end[0][1];
+        String settings = search.cacheKey();
+        if (settings == null) { // cannot be told apart from the same search set up differently
+            if (ctx == null) {
+                search.run();
+            } else {
+                search.run(ctx);
+            }
+            return false;
+        }
+        Key key = new Key(start, goal, settings);
+
+        Answer entry;
+        synchronized (this) {
+            entry = (this.version == this.grid.getVersion()) ? this.entries.get(key) : null;
+            if (entry != null) {
+                this.hits++;
+            } else {
+                this.misses++;
+            }
+        }
+        if (entry != null) {
+            search.context = null;
+            search.exploredCells = new CellBitmap(search.height, search.width);
+            search.nodesExpanded = 0;
+            search.status = null;
+            search.partialPath = null;
+            search.path = decode(start, entry.steps);
+            search.report((search.path == null) ? "NO PATH FOUND" : "Number of Nodes Looked Through: 0");
+            return true;
+        }
+
+        long before = this.grid.getVersion();
+        if (ctx == null) {
+            search.run();
+        } else {
+            search.run(ctx);
+        }
+        SearchStatus status = search.status;
+        if (status == null || status == SearchStatus.FOUND || status == SearchStatus.EXHAUSTED) { // not stopped early
+            put(key, before, search.getPath(), (search.getPath() == null) ? -1f : search.getPathCost());
+        }
+        return false;
+    } // ends the run() method
+
+
+    /**
+     * This method will cache the answer to a query, unless the grid changed while the search was running.
+     * @param key the query
+     * @param version the version of the grid the search ran on
+     * @param path the path that was found (null => no path)
+     * @param cost the cost of the path
+     */
+    private synchronized void put(Key key, long version, List<Cell> path, float cost) {
+        if (version != this.grid.getVersion() || version != this.version) {
+            return;
+        }
+        Answer entry = encode(path, cost);
+        Answer old = this.entries.put(key, entry);
+        if (old != null) {
+            this.bytes -= old.size();
+        }
+        this.bytes += entry.size();
+        Iterator<Answer> it = this.entries.values().iterator();
+        while (this.bytes > this.budget && it.hasNext()) {
+            Answer victim = it.next();
+            it.remove();
+            this.bytes -= victim.size();
+            this.evictions++;
+        }
+    } // ends the put() method
+
+
+    /**
+     * This method will turn a path into the steps between its cells.
+     * @param path the path (null => no path)
+     * @param cost the cost of the path
+     * @return the entry
+     */
+    private Answer encode(List<Cell> path, float cost) {
+        if (path == null) {
+            return new Answer(null, -1f, 0, -1, 0, -1);
+        }
+        byte[] steps = new byte[path.size() - 1];
+        int minX = Integer.MAX_VALUE, maxX = Integer.MIN_VALUE, minY = Integer.MAX_VALUE, maxY = Integer.MIN_VALUE;
+        Cell prev = null;
+        int i = 0;
+        for (Cell cell : path) {
+            minX = Math.min(minX, cell.getX());
+            maxX = Math.max(maxX, cell.getX());
+            minY = Math.min(minY, cell.getY());
+            maxY = Math.max(maxY, cell.getY());
+            if (prev != null) {
+                steps[i++] = (byte) CostModel.directionOf(cell.getX() - prev.getX(), cell.getY() - prev.getY());
+            }
+            prev = cell;
+        }
+        return new Answer(steps, cost, minX, maxX, minY, maxY);
+    } // ends the encode() method
+
+
+    /**
+     * This method will turn the steps of a cached path back into its cells.
+     * @param start the index of the start cell
+     * @param steps the direction of every move (null => no path)
+     * @return the path, or null if there is none
+     */
+    private List<Cell> decode(int start, byte[] steps) {
+        if (steps == null) {
+            return null;
+        }
+        int[] cells = new int[steps.length + 1];
+        cells[0] = start;
+        int x = start / width;
+        int y = start % width;
+        for (int i = 0 ; i < steps.length ; ++i) {
+            x += CostModel.DX[steps[i]];
+            y += CostModel.DY[steps[i]];
+            cells[i + 1] = x * width + y;
+        }
+        return new Path(this.source, cells);
+    } // ends the decode() method
+
+
+    /**
+     * This method will get the cheapest possible cost between two cells, taking the cheapest move every step.
+     * @param a the index of the first cell
+     * @param b the index of the second cell
+     * @return the lower bound on the cost
+     */
+    private float lowerBound(int a, int b) {
+        int dx = Math.abs(a / width - b / width);
+        int dy = Math.abs(a % width - b % width);
+        int diag = Math.min(dx, dy);
+        return DStarLiteSearch.MIN_DIAGONAL * diag + DStarLiteSearch.MIN_STRAIGHT * (Math.max(dx, dy) - diag);
+    } // ends the lowerBound() method
+
+
+    /**
+     * This method will check if a cached path goes through a cell.
+     * @param start the index of the start cell
+     * @param entry the cached path
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return true if the path goes through the cell and false otherwise
+     */
+    private boolean crosses(int start, Answer entry, int x, int y) {
+        if (x < entry.minX || x > entry.maxX || y < entry.minY || y > entry.maxY) {
+            return false;
+        }
+        int px = start / width;
+        int py = start % width;
+        if (px == x && py == y) {
+            return true;
+        }
+        for (byte d : entry.steps) {
+            px += CostModel.DX[d];
+            py += CostModel.DY[d];
+            if (px == x && py == y) {
+                return true;
+            }
+        }
+        return false;
+    } // ends the crosses() method
+
+
+    /**
+     * This method will check if a change of type made any move into or out of a cell cheaper, or allowed a move that
+     * was not allowed before. The cost charts are symmetric, so only the moves out of the cell are checked.
+     * @param index the index of the cell
+     * @param oldType the type of the cell before the edit
+     * @param newType the type of the cell after the edit
+     * @return true if a path through the cell may now be cheaper and false otherwise
+     */
+    private boolean madeCheaper(int index, int oldType, int newType) {
+        if (oldType == newType) { // only the highway direction changed, which the costs do not use
+            return false;
+        }
+        int x = index / width;
+        int y = index % width;
+        for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+            int nx = x + CostModel.DX[d];
+            int ny = y + CostModel.DY[d];
+            if (!this.grid.isValidCell(nx, ny)) {
+                continue;
+            }
+            int neighbor = this.grid.getType(nx, ny);
+            float before = CostModel.isDiagonal(d) ? CostModel.costDiag(oldType, neighbor) : CostModel.costHorVert(oldType, neighbor);
+            float after = CostModel.isDiagonal(d) ? CostModel.costDiag(newType, neighbor) : CostModel.costHorVert(newType, neighbor);
+            if (after >= 0 && (before < 0 || after < before)) {
+                return true;
+            }
+        }
+        return false;
+    } // ends the madeCheaper() method
+
+
+    /**
+     * This method is called by the grid when a cell changes, it drops the cached answers the edit can affect.
+     * @param grid the packed grid that changed
+     * @param index the index of the cell that changed
+     */
+    @Override
+    public synchronized void cellChanged(PackedGrid grid, int index) {
+        int x = index / width;
+        int y = index % width;
+        int oldType = this.types[index];
+        int newType = grid.getType(index);
+        this.types[index] = (byte) newType;
+        boolean cheaper = madeCheaper(index, oldType, newType);
+        Iterator<Map.Entry<Key, Answer>> it = this.entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, Answer> e = it.next();
+            Key key = e.getKey();
+            Answer entry = e.getValue();
+            boolean stale;
+            if (entry.steps == null) {
+                stale = cheaper;
+            } else {
+                stale = (cheaper && lowerBound(key.start, index) + lowerBound(index, key.goal) < entry.cost)
+                        || crosses(key.start, entry, x, y);
+            }
+            if (stale) {
+                it.remove();
+                this.bytes -= entry.size();
+                this.invalidations++;
+            }
+        }
+        this.version = grid.getVersion();
+    } // ends the cellChanged() method
+
+
+    /**
+     * This method will drop every cached answer.
+     */
+    public synchronized void clear() {
+        this.entries.clear();
+        this.bytes = 0;
+    } // ends the clear() method
+
+
+    /**
+     * This method will stop the cache from listening to its grid, it should be called once the cache is not needed.
+     */
+    public synchronized void detach() {
+        this.grid.removeListener(this);
+        clear();
+    } // ends the detach() method
+
+
+    /**
+     * This method will return the number of cached answers.
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    } // ends the size() method
+
+
+    /**
+     * This method will return how many bytes the cached answers use.
+     * @return the bytes used
+     */
+    public synchronized long getBytes() {
+        return this.bytes;
+    } // ends the getBytes() method
+
+
+    /**
+     * This method will return the number of queries answered from the cache.
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    } // ends the getHits() method
+
+
+    /**
+     * This method will return the number of queries that had to be searched.
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    } // ends the getMisses() method
+
+
+    /**
+     * This method will return the number of answers dropped to stay under the budget.
+     * @return the number of evictions
+     */
+    public synchronized long getEvictions() {
+        return this.evictions;
+    } // ends the getEvictions() method
+
+
+    /**
+     * This method will return the number of answers dropped because of an edit.
+     * @return the number of invalidations
+     */
+    public synchronized long getInvalidations() {
+        return this.invalidations;
+    } // ends the getInvalidations() method
+
+} // ends the PathCache class
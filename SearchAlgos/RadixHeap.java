@@ -0,0 +1,181 @@
+package SearchAlgos;
+
+import java.util.Arrays;
+
+/**
+ * This is the Radix Heap class.
+ * This is a monotone priority queue of cell indices with integer keys: a key may never be smaller than the last key
+ * taken out, which is always true for Dijkstra (Uniform-Cost Search) since the edge costs are not negative.
+ * A cell is kept in bucket i when the highest bit in which its key differs from the last key taken out is bit i - 1
+ * (bucket 0 holds the cells whose key is the last key). When bucket 0 runs out, the first bucket that is not empty is
+ * split over the lower buckets around its smallest key, and every cell can only move down 32 times, so the operations
+ * are O(1) amortized (O(log C) for keys up to C) instead of O(log n) for a heap.
+ * The buckets are doubly linked lists through arrays indexed by the cell index, so a key is changed in O(1).
+ */
+public class RadixHeap implements FixedPointQueue {
+    // Global variables
+    private static final int BUCKETS = 33;  // one for the last key and one for every bit of an int key
+    private static final int NONE = -1;     // end of a list / not in the heap
+
+    private final int[] heads;      // first cell of each bucket (NONE => empty)
+    private final int[] next;       // next cell in the bucket of every cell
+    private final int[] prev;       // previous cell in the bucket of every cell (NONE => first)
+    private final int[] keys;       // key of every cell
+    private final byte[] bucket;    // bucket of every cell (NONE => not in the heap)
+    private int last;               // last key taken out, no key may be smaller
+    private int size;               // number of cells in the heap
+
+
+    /**
+     * This is the constructor of the RadixHeap class.
+     * @param capacity the total number of cell indices that can be stored (usually height * width)
+     */
+    public RadixHeap(int capacity) {
+        this.heads = new int[BUCKETS];
+        this.next = new int[capacity];
+        this.prev = new int[capacity];
+        this.keys = new int[capacity];
+        this.bucket = new byte[capacity];
+        Arrays.fill(this.heads, NONE);
+        Arrays.fill(this.bucket, (byte) NONE);
+    } // ends the RadixHeap() constructor
+
+
+    /**
+     * This method will add a cell to the heap or change its key if it is already there.
+     * @param index the cell index
+     * @param key the key of the cell, it must not be smaller than the last key taken out
+     */
+    @Override
+    public void update(int index, int key) {
+        if (key < this.last) {
+            throw new IllegalArgumentException("key " + key + " is below the last key taken out " + this.last);
+        }
+        if (this.bucket[index] != NONE) {
+            unlink(index);
+        } else {
+            this.size++;
+        }
+        this.keys[index] = key;
+        link(index, bucketOf(key));
+    } // ends the update() method
+
+
+    /**
+     * This method will remove and return the cell with the smallest key.
+     * @return the cell index
+     */
+    @Override
+    public int poll() {
+        if (this.heads[0] == NONE) {
+            // find the first bucket that is not empty and spread it over the lower buckets around its smallest key
+            int b = 1;
+            while (this.heads[b] == NONE) {
+                b++;
+            }
+            int min = Integer.MAX_VALUE;
+            for (int ptr = this.heads[b] ; ptr != NONE ; ptr = this.next[ptr]) {
+                min = Math.min(min, this.keys[ptr]);
+            }
+            this.last = min;
+            int ptr = this.heads[b];
+            this.heads[b] = NONE;
+            while (ptr != NONE) {
+                int following = this.next[ptr];
+                link(ptr, bucketOf(this.keys[ptr]));
+                ptr = following;
+            }
+        }
+        int index = this.heads[0];
+        unlink(index);
+        this.bucket[index] = NONE;
+        this.size--;
+        return index;
+    } // ends the poll() method
+
+
+    /**
+     * This method will find the bucket of a key.
+     * @param key the key
+     * @return the bucket [0,32]
+     */
+    private int bucketOf(int key) {
+        return (key == this.last) ? 0 : 32 - Integer.numberOfLeadingZeros(key ^ this.last);
+    } // ends the bucketOf() method
+
+
+    /**
+     * This method will put a cell at the front of a bucket.
+     * @param index the cell index
+     * @param b the bucket
+     */
+    private void link(int index, int b) {
+        int head = this.heads[b];
+        this.next[index] = head;
+        this.prev[index] = NONE;
+        if (head != NONE) {
+            this.prev[head] = index;
+        }
+        this.heads[b] = index;
+        this.bucket[index] = (byte) b;
+    } // ends the link() method
+
+
+    /**
+     * This method will take a cell out of its bucket.
+     * @param index the cell index
+     */
+    private void unlink(int index) {
+        int before = this.prev[index];
+        int after = this.next[index];
+        if (before != NONE) {
+            this.next[before] = after;
+        } else {
+            this.heads[this.bucket[index]] = after;
+        }
+        if (after != NONE) {
+            this.prev[after] = before;
+        }
+    } // ends the unlink() method
+
+
+    @Override
+    public boolean contains(int index) {
+        return this.bucket[index] != NONE;
+    } // ends the contains() method
+
+
+    @Override
+    public int getKey(int index) {
+        return this.keys[index];
+    } // ends the getKey() method
+
+
+    @Override
+    public int size() {
+        return this.size;
+    } // ends the size() method
+
+
+    @Override
+    public boolean isEmpty() {
+        return this.size == 0;
+    } // ends the isEmpty() method
+
+
+    /**
+     * This method will remove every cell from the heap and let the keys start from 0 again.
+     */
+    @Override
+    public void clear() {
+        for (int b = 0 ; b < BUCKETS ; ++b) {
+            for (int ptr = this.heads[b] ; ptr != NONE ; ptr = this.next[ptr]) {
+                this.bucket[ptr] = NONE;
+            }
+            this.heads[b] = NONE;
+        }
+        this.last = 0;
+        this.size = 0;
+    } // ends the clear() method
+
+} // ends the RadixHeap class
@@ -0,0 +1,115 @@
+package SearchAlgos;
+
+/**
+ * This is the Search Budget class.
+ * It puts a limit on how long a search may run: a number of expanded cells, a wall-clock deadline and a cancellation
+ * token, any of which can be left out. The searches call check() once per expanded cell; the expansion count is
+ * checked every time, and the clock and the token only every CHECK_INTERVAL expansions so the check stays cheap.
+ *
+ * ex. search.run(SearchBudget.ofMillis(5));
+ */
+public class SearchBudget {
+    // Global variables
+    public static final SearchBudget UNLIMITED = new SearchBudget(Integer.MAX_VALUE, Long.MAX_VALUE, null);
+    static final int CHECK_INTERVAL = 256;      // expansions between two looks at the clock and the token (a power of 2)
+
+    private final int maxExpansions;            // most cells the search may expand (Integer.MAX_VALUE => no limit)
+    private final long deadline;                // System.nanoTime() at which the search must stop (Long.MAX_VALUE => none)
+    private final CancellationToken token;      // token that stops the search when it is cancelled (null => none)
+
+
+    /**
+     * This is the constructor of the SearchBudget class.
+     * @param maxExpansions the most cells the search may expand (Integer.MAX_VALUE => no limit)
+     * @param deadline the System.nanoTime() at which the search must stop (Long.MAX_VALUE => no deadline)
+     * @param token the token that stops the search when it is cancelled (null => none)
+     */
+    public SearchBudget(int maxExpansions, long deadline, CancellationToken token) {
+        if (maxExpansions < 0) {
+            throw new IllegalArgumentException("maxExpansions must not be negative: " + maxExpansions);
+        }
+        this.maxExpansions = maxExpansions;
+        this.deadline = deadline;
+        this.token = token;
+    } // ends the SearchBudget() constructor
+
+
+    /**
+     * This method will make a budget that only limits the number of expanded cells.
+     * @param maxExpansions the most cells the search may expand
+     * @return the budget
+     */
+    public static SearchBudget ofExpansions(int maxExpansions) {
+        return new SearchBudget(maxExpansions, Long.MAX_VALUE, null);
+    } // ends the ofExpansions() method
+
+
+    /**
+     * This method will make a budget that only limits the time, starting now.
+     * @param millis the most milliseconds the search may run
+     * @return the budget
+     */
+    public static SearchBudget ofMillis(long millis) {
+        return new SearchBudget(Integer.MAX_VALUE, System.nanoTime() + millis * 1_000_000L, null);
+    } // ends the ofMillis() method
+
+
+    /**
+     * This method will make a budget that only stops the search when a token is cancelled.
+     * @param token the cancellation token
+     * @return the budget
+     */
+    public static SearchBudget of(CancellationToken token) {
+        return new SearchBudget(Integer.MAX_VALUE, Long.MAX_VALUE, token);
+    } // ends the of() method
+
+
+    /**
+     * This method will check if a search has to stop.
+     * @param expanded the number of cells the search has expanded so far
+     * @return null if the search can go on, or the status it has to stop with
+     */
+    public SearchStatus check(int expanded) {
+        if (expanded >= this.maxExpansions) {
+            return SearchStatus.BUDGET_EXCEEDED;
+        }
+        if ((expanded & (CHECK_INTERVAL - 1)) != 0) {
+            return null;
+        }
+        if (this.token != null && this.token.isCancelled()) {
+            return SearchStatus.CANCELLED;
+        }
+        if (this.deadline != Long.MAX_VALUE && System.nanoTime() - this.deadline >= 0) {
+            return SearchStatus.BUDGET_EXCEEDED;
+        }
+        return null;
+    } // ends the check() method
+
+
+    /**
+     * This method will return the most cells the search may expand.
+     * @return the limit (Integer.MAX_VALUE => no limit)
+     */
+    public int getMaxExpansions() {
+        return this.maxExpansions;
+    } // ends the getMaxExpansions() method
+
+
+    /**
+     * This method will return the deadline of the search.
+     * @return the System.nanoTime() at which the search must stop (Long.MAX_VALUE => no deadline)
+     */
+    public long getDeadline() {
+        return this.deadline;
+    } // ends the getDeadline() method
+
+
+    /**
+     * This method will return the cancellation token of the search.
+     * @return the token (null => none)
+     */
+    public CancellationToken getToken() {
+        return this.token;
+    } // ends the getToken() method
+
+} // ends the SearchBudget class
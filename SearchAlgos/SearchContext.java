@@ -0,0 +1,271 @@
+package SearchAlgos;
+
+import Grid.Grid;
+
+/**
+ * This is the Search Context class.
+ * A search context holds all the state of one query (gCost, hCost, parent, explored and closed bitmaps and the fringe)
+ * in primitive arrays indexed by cell index (x * width + y).
+ * Because of this the Grid and its Cells are only read during a search, and several searches can run on the
+ * same Grid at the same time as long as each one uses its own context.
+ * A context is not thread-safe by itself, it must only be used by one search at a time.
+ */
+public class SearchContext {
+    // Global variables
+    final int height;           // height of the grid this context was made for
+    final int width;            // width of the grid this context was made for
+
+    final float[] gCost;        // distance from the starting cell to each cell
+    final float[] hCost;        // distance from each cell to the end/goal cell
+    final int[] parent;         // index of the parent of each cell (-1 => no parent)
+    final CellBitmap explored;  // cells that have been put on the fringe in this query, the costs of a cell are only valid if it is in here
+    final CellBitmap closed;    // cells that have been taken off the fringe and expanded
+
+    final IndexedHeap fringe;   // heap that holds the indices of the cells to be looked at
+
+    int[] fixedGCost;           // gCost of each cell in fixed-point units, made the first time a fixed-point search uses the context
+    RadixHeap radixHeap;        // fringe of the fixed-point Uniform-Cost Search (null => not used yet)
+    BucketQueue bucketQueue;    // fringe of the fixed-point A* searches (null => not used yet)
+
+    final int[] offsets;        // index offset of each of the 8 moves of the CostModel (DX * width + DY)
+
+
+    /**
+     * This is the constructor of the SearchContext class.
+     * @param height the height of the grid
+     * @param width the width of the grid
+     */
+    public SearchContext(int height, int width) {
+        this.height = height;
+        this.width = width;
+        int size = height * width;
+        this.gCost = new float[size];
+        this.hCost = new float[size];
+        this.parent = new int[size];
+        this.explored = new CellBitmap(height, width);
+        this.closed = new CellBitmap(height, width);
+        this.fringe = new IndexedHeap(size);
+
+        this.offsets = new int[8];
+        for (int d = 0 ; d < 8 ; ++d) {
+            this.offsets[d] = CostModel.DX[d] * width + CostModel.DY[d];
+        }
+    } // ends the SearchContext() constructor
+
+
+    /**
+     * This is the constructor of the SearchContext class that sizes itself from a grid.
+     * @param grid the grid that will be searched
+     */
+    public SearchContext(Grid grid) {
+        this(grid.getHeight(), grid.getWidth());
+    } // ends the SearchContext() constructor
+
+
+    /**
+     * This method will clear the context so it can be used for a new query.
+     * Only the fringe and the two bitmaps are cleared, the cost arrays are only read for explored cells.
+     */
+    public void reset() {
+        this.fringe.clear();
+        if (this.radixHeap != null) {
+            this.radixHeap.clear();
+        }
+        if (this.bucketQueue != null) {
+            this.bucketQueue.clear();
+        }
+        this.explored.clearAll();
+        this.closed.clearAll();
+    } // ends the reset() method
+
+
+    /**
+     * This method will check if the context can be used for a grid of a certain size.
+     * @param height the height of the grid
+     * @param width the width of the grid
+     * @return true if the context matches the size of the grid and false otherwise
+     */
+    public boolean fits(int height, int width) {
+        return this.height == height && this.width == width;
+    } // ends the fits() method
+
+
+    /**
+     * This method will return the index of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the index of the cell (x * width + y)
+     */
+    public int getIndex(int x, int y) {
+        return x * this.width + y;
+    } // ends the getIndex() method
+
+
+    /**
+     * This method will add a cell to the fringe or update it if it is already there.
+     * @param index the index of the cell
+     * @param parentIndex the index of the parent of the cell (-1 => no parent)
+     * @param g the gCost of the cell
+     * @param h the hCost of the cell
+     */
+    public void open(int index, int parentIndex, float g, float h) {
+        this.explored.set(index);
+        this.gCost[index] = g;
+        this.hCost[index] = h;
+        this.parent[index] = parentIndex;
+        this.fringe.update(index, g + h);
+    } // ends the open() method
+
+
+    /**
+     * This method will set the state of a cell reached by a fixed-point search, the fringe is kept by the search.
+     * The float gCost is set as well so the context reads the same as after a normal search.
+     * @param index the index of the cell
+     * @param parentIndex the index of the parent of the cell (-1 => no parent)
+     * @param g the gCost of the cell in fixed-point units
+     * @param h the hCost of the cell
+     */
+    public void openFixed(int index, int parentIndex, int g, float h) {
+        this.explored.set(index);
+        this.fixedGCost[index] = g;
+        this.gCost[index] = CostModel.fromFixed(g);
+        this.hCost[index] = h;
+        this.parent[index] = parentIndex;
+    } // ends the openFixed() method
+
+
+    /**
+     * This method will mark a cell as expanded (closed).
+     * @param index the index of the cell
+     */
+    public void close(int index) {
+        this.closed.set(index);
+    } // ends the close() method
+
+
+    /**
+     * This method will check if a cell has been reached (put on the fringe) in this query.
+     * @param index the index of the cell
+     * @return true if the cell has been reached and false otherwise
+     */
+    public boolean isGenerated(int index) {
+        return this.explored.get(index);
+    } // ends the isGenerated() method
+
+
+    /**
+     * This method will check if a cell has been expanded in this query.
+     * @param index the index of the cell
+     * @return true if the cell has been expanded and false otherwise
+     */
+    public boolean isClosed(int index) {
+        return this.closed.get(index);
+    } // ends the isClosed() method
+
+
+    /**
+     * This method will check if a cell is on the fringe.
+     * @param index the index of the cell
+     * @return true if the cell is on the fringe and false otherwise
+     */
+    public boolean inFringe(int index) {
+        return this.fringe.contains(index);
+    } // ends the inFringe() method
+
+
+    /**
+     * This method will return the gCost of a cell.
+     * @param index the index of the cell
+     * @return the gCost, or Float.POSITIVE_INFINITY if the cell has not been reached
+     */
+    public float getGCost(int index) {
+        return this.explored.get(index) ? this.gCost[index] : Float.POSITIVE_INFINITY;
+    } // ends the getGCost() method
+
+
+    /**
+     * This method will return the hCost of a cell.
+     * @param index the index of the cell
+     * @return the hCost, or 0 if the cell has not been reached
+     */
+    public float getHCost(int index) {
+        return this.explored.get(index) ? this.hCost[index] : 0f;
+    } // ends the getHCost() method
+
+
+    /**
+     * This method will return the parent of a cell.
+     * @param index the index of the cell
+     * @return the index of the parent, or -1 if the cell has no parent or has not been reached
+     */
+    public int getParent(int index) {
+        return this.explored.get(index) ? this.parent[index] : -1;
+    } // ends the getParent() method
+
+
+    /**
+     * This method will return the bitmap of the cells that have been reached in this query.
+     * It is the live bitmap of the context, so it changes on the next reset().
+     * @return the explored bitmap
+     */
+    public CellBitmap getExplored() {
+        return this.explored;
+    } // ends the getExplored() method
+
+
+    /**
+     * This method will return the bitmap of the cells that have been expanded in this query.
+     * It is the live bitmap of the context, so it changes on the next reset().
+     * @return the closed bitmap
+     */
+    public CellBitmap getClosed() {
+        return this.closed;
+    } // ends the getClosed() method
+
+
+    /**
+     * This method will return the fixed-point gCost array, making it the first time.
+     * Like gCost, an entry is only valid for the cells that have been reached.
+     * @return the gCost of every cell in fixed-point units
+     */
+    public int[] getFixedGCosts() {
+        if (this.fixedGCost == null) {
+            this.fixedGCost = new int[this.height * this.width];
+        }
+        return this.fixedGCost;
+    } // ends the getFixedGCosts() method
+
+
+    /**
+     * This method will return the radix heap used as the fringe of the fixed-point Uniform-Cost Search, making it the first time.
+     * @return the radix heap
+     */
+    public RadixHeap getRadixHeap() {
+        if (this.radixHeap == null) {
+            this.radixHeap = new RadixHeap(this.height * this.width);
+        }
+        return this.radixHeap;
+    } // ends the getRadixHeap() method
+
+
+    /**
+     * This method will return the bucket queue used as the fringe of the fixed-point A* searches, making it the first time.
+     * @return the bucket queue
+     */
+    public BucketQueue getBucketQueue() {
+        if (this.bucketQueue == null) {
+            this.bucketQueue = new BucketQueue(this.height * this.width);
+        }
+        return this.bucketQueue;
+    } // ends the getBucketQueue() method
+
+
+    /**
+     * This method will return the fringe of the context.
+     * @return the fringe
+     */
+    public IndexedHeap getFringe() {
+        return this.fringe;
+    } // ends the getFringe() method
+
+} // ends the SearchContext class
@@ -0,0 +1,88 @@
+package SearchAlgos;
+
+import Grid.Cell;
+
+import java.util.List;
+
+/**
+ * This is the Search Result class, how a search ended and what it found.
+ * When the search was stopped by its budget or cancelled, the path is the best partial path: the path from the start
+ * to the expanded cell with the smallest hCost (the one that looked the closest to the goal).
+ */
+public class SearchResult {
+    // Global variables
+    private final SearchStatus status;      // how the search ended
+    private final List<Cell> path;          // the path to the goal, or the best partial path (null => none)
+    private final float cost;               // cost of the path (-1 => no path)
+    private final int nodesExpanded;        // number of cells taken off the fringe
+
+
+    /**
+     * This is the constructor of the SearchResult class.
+     * @param status how the search ended
+     * @param path the path to the goal, or the best partial path (null => none)
+     * @param cost the cost of the path (-1 => no path)
+     * @param nodesExpanded the number of cells taken off the fringe
+     */
+    public SearchResult(SearchStatus status, List<Cell> path, float cost, int nodesExpanded) {
+        this.status = status;
+        this.path = path;
+        this.cost = cost;
+        this.nodesExpanded = nodesExpanded;
+    } // ends the SearchResult() constructor
+
+
+    /**
+     * This method will return how the search ended.
+     * @return the status
+     */
+    public SearchStatus getStatus() {
+        return this.status;
+    } // ends the getStatus() method
+
+
+    /**
+     * This method will check if a path to the goal was found.
+     * @return true if the status is FOUND and false otherwise
+     */
+    public boolean isFound() {
+        return this.status == SearchStatus.FOUND;
+    } // ends the isFound() method
+
+
+    /**
+     * This method will return the path to the goal, or the best partial path if the search was stopped early.
+     * @return the path, or null if there is none
+     */
+    public List<Cell> getPath() {
+        return this.path;
+    } // ends the getPath() method
+
+
+    /**
+     * This method will check if the path only goes part of the way to the goal.
+     * @return true if the search was stopped early and has a partial path, false otherwise
+     */
+    public boolean isPartial() {
+        return this.path != null && this.status != SearchStatus.FOUND;
+    } // ends the isPartial() method
+
+
+    /**
+     * This method will return the cost of the path.
+     * @return the cost, or -1 if there is no path
+     */
+    public float getCost() {
+        return this.cost;
+    } // ends the getCost() method
+
+
+    /**
+     * This method will return the number of cells the search expanded.
+     * @return the number of nodes expanded
+     */
+    public int getNodesExpanded() {
+        return this.nodesExpanded;
+    } // ends the getNodesExpanded() method
+
+} // ends the SearchResult class
@@ -0,0 +1,11 @@
+package SearchAlgos;
+
+/**
+ * This is the Search Status enum, how a search ended.
+ */
+public enum SearchStatus {
+    FOUND,              // a path to the goal was found
+    EXHAUSTED,          // every reachable cell was looked at and there is no path to the goal
+    BUDGET_EXCEEDED,    // the search ran out of expansions or time before it was done
+    CANCELLED           // the cancellation token of the search was cancelled before it was done
+} // ends the SearchStatus enum
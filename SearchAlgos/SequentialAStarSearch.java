@@ -1,12 +1,6 @@
 package SearchAlgos;
 
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.PriorityQueue;
 import java.util.Set;
 
 import Grid.*;
@@ -18,21 +12,31 @@ import Heuristic.*;
  */
 public class SequentialAStarSearch {
     // Global variables
-    Cell[][] grid;                // main grid to conduct searches on
+    Grid source;                  // main grid to conduct searches on, only used to hand out Cells for the results
+    CostModel costs;              // compiled edge costs of the grid, shared by every search on it
+    float[] weights;              // costs.getWeights(), read directly by the search (weights[index * 8 + direction])
+    int height;                   // height of the grid
+    int width;                    // width of the grid, used to turn (x,y) into a cell index
     float w1;                     // w1(≥ 1.0) is used to inflate the heuristic values for each of the search procedures, similar to Weighted-A
     float w2;                     // w2(≥ 1.0) is used as a factor to prioritize the inadmissible search processes over the anchor, admissible one
     
     Heuristic[] hArray;                             // array to hold all the heuristics
     List<Cell> path;                                // final path from start to goal in the grid
-    HashMap<Cell, Cell[]> mapOfAllExploredCells;    // a map of all the explored nodes and each of the ways it was explored 
-    ArrayList<PriorityQueue<Cell>> allFringes;      // list of all the fringes for each of the heuristics
+    SearchContext[] contexts;                       // per-query state (costs, parents, fringe) for each of the heuristics
 
-    Cell cStart;        // start cell
-    Cell cTarget;       // target cell
+    int cStart;         // index of the start cell
+    int cTarget;        // index of the target cell
     int[][] start;      // start Cell location
     int[][] end;        // target Cell location
-    
-    //public int index;
+
+    SearchBudget budget = SearchBudget.UNLIMITED;   // limits on the expansions, time and cancellation of every run
+    SearchStatus status;        // how the last run ended (null => not run yet)
+    List<Cell> partialPath;     // best partial path of the last run, when it was stopped early (null => none)
+    int nodesExpanded;          // number of nodes looked through by the last run
+    boolean verbose = true;     // print the number of nodes looked through (or why the run stopped) after every run
+    int best;                   // expanded cell with the smallest anchor hCost, the end of the best partial path
+    float bestH;                // anchor hCost of that cell
+    int bestFringe;             // fringe that expanded that cell, its parents lead back to the start
 
 
 
@@ -43,7 +47,11 @@ public class SequentialAStarSearch {
      * @param wieght2 the weight to use as a factor in prioritizing the inadmissible over the admissible heuristic
      */
     public SequentialAStarSearch(Grid curGrid , float weight1 , float wieght2) {
-        this.grid = curGrid.getGrid();
+        this.source = curGrid;
+        this.costs = CostModel.of(curGrid);
+        this.weights = this.costs.getWeights();
+        this.height = curGrid.getHeight();
+        this.width = curGrid.getWidth();
         this.w1 = weight1;
         this.w2 = wieght2;
         
@@ -54,14 +62,17 @@ public class SequentialAStarSearch {
 		hArray[3] = new EuclideanDistance(curGrid);
         hArray[4] = new EuclideanDistanceByFour(curGrid);
 
-        this.start = curGrid.startCell; 
-        this.end = curGrid.endCell;
+        // copy the start and end so a later setStartAndEnd() on the shared grid does not change this query
+        this.start = new int[][] {{curGrid.startCell[0][0], curGrid.startCell[0][1]}}; 
+        this.end = new int[][] {{curGrid.endCell[0][0], curGrid.endCell[0][1]}};
 
-        this.cStart = grid[start[0][0]][start[0][1]];
-        this.cTarget = grid[end[0][0]][end[0][1]];
+        this.cStart = start[0][0] * width + start[0][1];
+        this.cTarget = end[0][0] * width + end[0][1];
 
-        this.mapOfAllExploredCells = new HashMap<Cell, Cell[]>();
-		this.allFringes = new ArrayList<PriorityQueue<Cell>>(5);
+        this.contexts = new SearchContext[5];
+        for (int i = 0 ; i < 5 ; ++i) {
+            this.contexts[i] = new SearchContext(height, width);
+        }
       
     } // ends the SequentialAStarSearch() constructor
 
@@ -73,79 +84,201 @@ public class SequentialAStarSearch {
      * This method will run the main algorithm to find the path from start to goal.
      */
     public void run() {
-        // first set up the array of fringe priority queues
+        status = null;
+        partialPath = null;
+        best = cStart;
+        bestH = hArray[0].getHeuristic(start[0][0], start[0][1]);
+        bestFringe = 0;
+        // first set up the fringes, the target is left out and counts as having a gCost of infinity until it is reached
         for (int i = 0 ; i < 5 ; ++i) {
-            allFringes.add(new PriorityQueue<Cell>( new Comparator<Cell>() {
-				public int compare(Cell first, Cell second) {
-					return Float.compare(first.getfCost(), second.getfCost());
-				}
-			}));
-			addCellToFringe(cStart, null, getGCost(cStart, cStart), getHCost(cStart, i), i);
-			addCellToFringe(cTarget, null, Integer.MAX_VALUE, 0, i); // use the Intger.MAX_VALUE as infinity for the purpose of this algorithm
+            contexts[i].reset();
+			addCellToFringe(cStart, -1, getGCost(cStart, cStart), getHCost(cStart, i), i);
         } // ends the for loop
+        int targetIndex = cTarget;
 
         /*
             For this algorithm, it is assumed that the heurisitc used in index 0 (the first one) is admissible
             and will be the anchor for the whole process.
         */
-        PriorityQueue<Cell> admissibleFringe = allFringes.get(0);
         float admissCost, otherFringeCost;
         int numNodesSearched = 0; // just to count the number of nodes that were visited
         // this will be the main check for the algorithm : minimum cost must be less than infinity ( A.K.A. Integer.MAX_VALUE)
-        while ((admissCost = getTotalFCost(admissibleFringe.peek()))  < Integer.MAX_VALUE) {
+        while ((admissCost = getMinFCost(0))  < Integer.MAX_VALUE) {
             //numNodesSearched++;
             // must go through all the other fringes in order to find one that has a lower fCost that the anchor (admissible one)
             for (int i = 1 ; i < 5 ; ++i) {
+                SearchStatus stop = budget.check(numNodesSearched);
+                if (stop != null) {
+                    nodesExpanded = numNodesSearched;
+                    status = stop;
+                    path = null;
+                    partialPath = pathFound(bestFringe, best);
+                    report(stop + " after " + numNodesSearched + " nodes");
+                    return;
+                }
                 numNodesSearched++;
-                PriorityQueue<Cell> curFringe = allFringes.get(i);
-                otherFringeCost = getTotalFCost(curFringe.peek());
+                otherFringeCost = getMinFCost(i);
                 // here we check to see if this other fringe is getting us a better fCost that the admissible one 
                 // (use w2 weight to help prioritize other firnge)
                 if (otherFringeCost <= w2*admissCost) {
-                    float goalGCost = mapOfAllExploredCells.get(cTarget)[i].getgCost(); // get the gCost of the target cell
+                    float goalGCost = contexts[i].getGCost(targetIndex); // get the gCost of the target cell
                     if (goalGCost <= otherFringeCost) {
                         if (goalGCost < Integer.MAX_VALUE) {
                             // path was found, the target gCost was changed and the current fringe cell had a higher value
                             path = pathFound(i);
-                            System.out.println("Number of Nodes Looked Through: " + numNodesSearched);
+                            nodesExpanded = numNodesSearched;
+                            status = SearchStatus.FOUND;
+                            report("Number of Nodes Looked Through: " + numNodesSearched);
                             return;
                         }
                     } else {
-                        exploreNeighbors(curFringe.poll(),i);
+                        expand(i);
                     }
                 } else {
-                    float goalGCost = mapOfAllExploredCells.get(cTarget)[0].getgCost(); // get the gCost of the target cell using admissible heuristic
+                    float goalGCost = contexts[0].getGCost(targetIndex); // get the gCost of the target cell using admissible heuristic
                     if (goalGCost <= admissCost) {
                         if (admissCost < Integer.MAX_VALUE) {
                             path = pathFound(0);
-                            System.out.println("Number of Nodes Looked Through: " + numNodesSearched);
+                            nodesExpanded = numNodesSearched;
+                            status = SearchStatus.FOUND;
+                            report("Number of Nodes Looked Through: " + numNodesSearched);
                             return;
                         }
                     } else {
-                        exploreNeighbors(admissibleFringe.poll(),0);
+                        expand(0);
                     }
                 }
             } // ends for loop
         } // ends the while loop
         // algorithm did not find path
+        nodesExpanded = numNodesSearched;
+        status = SearchStatus.EXHAUSTED;
         path = null;
     } // ends the run() method
 
 
+    /**
+     * This method will take the best cell off a fringe and expand it, keeping track of the cell closest to the goal.
+     * @param whichFringe the fringe to take the cell from
+     */
+    private void expand(int whichFringe) {
+        int cur = contexts[whichFringe].fringe.poll();
+        float h = hArray[0].getHeuristic(cur / width, cur % width);
+        if (h < bestH) {
+            bestH = h;
+            best = cur;
+            bestFringe = whichFringe;
+        }
+        exploreNeighbors(cur, whichFringe);
+    } // ends the expand() method
+
+
+    /**
+     * This method runs the search with a budget and returns how it ended.
+     * The budget is only used for this run, the budget set before (see setBudget()) is put back afterwards, since a
+     * deadline of SearchBudget.ofMillis() would otherwise stop every later run at once.
+     * @param budget the limits of the run
+     * @return the result of the run
+     */
+    public SearchResult run(SearchBudget budget) {
+        SearchBudget previous = this.budget;
+        setBudget(budget);
+        try {
+            run();
+        } finally {
+            this.budget = previous;
+        }
+        return getResult();
+    } // ends the run() method
+
+
+    /**
+     * This method will turn the messages printed after every run on or off.
+     * @param verbose true to print the messages and false otherwise
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    } // ends the setVerbose() method
+
+
+    /**
+     * This method will print a message about the last run, if the search is verbose.
+     * @param message the message
+     */
+    void report(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    } // ends the report() method
+
+
+    /**
+     * This method will set the limits on the expansions, time and cancellation of every run.
+     * @param budget the budget (null => no limits)
+     */
+    public void setBudget(SearchBudget budget) {
+        this.budget = (budget == null) ? SearchBudget.UNLIMITED : budget;
+    } // ends the setBudget() method
+
+
+    /**
+     * This method will return how the last run ended.
+     * @return the status (null if the search has not been run)
+     */
+    public SearchStatus getStatus() {
+        return status;
+    } // ends the getStatus() method
+
+
+    /**
+     * This method will return the best partial path of the last run, if it was stopped by its budget.
+     * It goes from the start to the expanded cell with the smallest hCost of the anchor heuristic.
+     * @return the partial path, or null if the run was not stopped early
+     */
+    public List<Cell> getPartialPath() {
+        return partialPath;
+    } // ends the getPartialPath() method
+
+
+    /**
+     * This method will return the number of nodes looked through by the last run.
+     * @return the number of nodes expanded
+     */
+    public int getNodesExpanded() {
+        return nodesExpanded;
+    } // ends the getNodesExpanded() method
+
+
+    /**
+     * This method will return the result of the last run.
+     * @return the status, the path (or best partial path), its cost and the number of nodes expanded
+     */
+    public SearchResult getResult() {
+        List<Cell> found = (path != null) ? path : partialPath;
+        float cost = (found instanceof Path) ? ((Path) found).getCost() : -1f;
+        return new SearchResult(status, found, cost, nodesExpanded);
+    } // ends the getResult() method
+
+
     /**
      * This method will build the path taken by the algorithm from start to end.
      * @param fringe the fringe where the goal was found
-     * @return a linked list path from start to end
+     * @return the path from start to end
      */
     public List<Cell> pathFound(int fringe) {
-        List<Cell> finalPath = new LinkedList<>();
-        Cell ptr = mapOfAllExploredCells.get(cTarget)[fringe];
-		while(ptr != null) { // will go backwards in the path to start whose parent would be null
-            Cell temp = ptr.parent;
-            finalPath.add(0,ptr);
-			ptr = temp;
-		}
-		return finalPath;
+        return pathFound(fringe, cTarget);
+    } // ends the pathFound() method
+
+
+    /**
+     * This method will build the path taken by the algorithm from start to a cell.
+     * @param fringe the fringe whose parents to follow
+     * @param cell the index of the last cell of the path
+     * @return the path from start to the cell
+     */
+    private List<Cell> pathFound(int fringe, int cell) {
+        // will go backwards in the path to start whose parent would be -1
+        return Path.fromParents(source, contexts[fringe], cell);
     } // ends the pathFound() method
 
 
@@ -159,48 +292,50 @@ public class SequentialAStarSearch {
 
 
     /**
-     * This method will return a map of all the Cells that have been explored by the algorithm.
-     * @return the map of explored cells
+     * This method will return a bitmap of all the Cells that have been explored by any of the heuristics.
+     * @return the bitmap of explored cells
      */
-    public HashMap<Cell, Cell[]> getExploredCells() {
-        return mapOfAllExploredCells;
+    public CellBitmap getExploredCells() {
+        CellBitmap explored = new CellBitmap(height, width);
+        for (SearchContext ctx : contexts) {
+            explored.or(ctx.getExplored());
+        }
+        return explored;
     } // ends the getExploredCells() method
 
 
+    /**
+     * This method will return a Set of all the Cells that have been explored by any of the heuristics.
+     * This is only here for older callers, getExploredCells() is much cheaper to check.
+     * @return the set of explored cells
+     */
+    public Set<Cell> getExploredCellSet() {
+        return getExploredCells().asSet(source);
+    } // ends the getExploredCellSet() method
+
+
+    /**
+     * This method will return the SearchContext that holds the costs found with a specific heuristic.
+     * @param whichHeuristic the index of the heuristic (0 is the admissible anchor)
+     * @return the context of that heuristic
+     */
+    public SearchContext getContext(int whichHeuristic) {
+        return contexts[whichHeuristic];
+    } // ends the getContext() method
+
+
     /**
      * This method will be used in order to add Cells into the correct fringe.
-     * @param cur the current cell to add
-     * @param parent the parent of the cell
+     * @param cur the index of the current cell to add
+     * @param parent the index of the parent of the cell (-1 => no parent)
      * @param gCost the gCost of the current cell to add
      * @param hCost the hCost of the current cell to add
      * @param whichFringe the specific fringe to add the current cell to
      */
-    public void addCellToFringe(Cell cur, Cell parent , float gCost , float hCost , int whichFringe) {
-        PriorityQueue<Cell> correctFringe = allFringes.get(whichFringe);
-        
+    public void addCellToFringe(int cur, int parent , float gCost , float hCost , int whichFringe) {
         // if the cell is already in the fringe, this is most likely an newer update with another set of costs
-        // so out with the old and in with the new
-        if (isCellInFringe(cur, whichFringe)) {
-            allFringes.get(whichFringe).remove(cur);
-        }
-
-        cur.setgCost(gCost);
-        cur.sethCost(hCost);
-        cur.visited = true;
-        cur.parent = parent;
-        cur.index = whichFringe;
-
-        // my new changes ......
-        grid[cur.getX()][cur.getY()].setgCost(cur.getgCost());
-        grid[cur.getX()][cur.getY()].sethCost(cur.gethCost());
-        grid[cur.getX()][cur.getY()].setfCost(cur.getgCost() + cur.gethCost());
-        grid[cur.getX()][cur.getY()].visited = true;
-        grid[cur.getX()][cur.getY()].parent = cur.parent;
-        grid[cur.getX()][cur.getY()].index = whichFringe;
-
-        correctFringe.add(cur);
-        insertCellIntoMap(cur, whichFringe);
-
+        // so the heap just moves it to its new place
+        contexts[whichFringe].open(cur, parent, gCost, hCost);
     } // ends the addCellToFringe() method
 
 
@@ -212,223 +347,90 @@ public class SequentialAStarSearch {
      * @return true if the cell is found in the fringe and false otherwise
      */
     public boolean isCellInFringe(Cell cell, int whichFringe) {
-        Cell[] specificCellGroup = mapOfAllExploredCells.get(cell);
-        if (specificCellGroup != null && specificCellGroup[whichFringe] != null) {
-            return true;
-        } else {
-            return false;
-        }
+        return contexts[whichFringe].inFringe(getIndex(cell));
 	} // ends the isCellInFringe() method
 
 
+    /**
+     * This method will get the index of a Cell, which is the key used by the fringes.
+     * @param c the cell
+     * @return the index of the cell (x * width + y)
+     */
+    public int getIndex(Cell c) {
+        return c.getX() * width + c.getY();
+    } // ends the getIndex() method
 
 
     /**
-     * This method will add a cell into the Map of all the visited cell in the correct index that matches the fringe that cell belongs to.
-     * @param cell the cell to add
-     * @param whichFringe the specifc fringe that the cell belongs to
+     * This method will get the Cell that matches an index from the fringes.
+     * @param index the index of the cell
+     * @return the cell at that index
      */
-    public void insertCellIntoMap(Cell cell , int whichFringe) {
-        /*
-            The way the map works:
-            - every cell key has a value that is an array of cells (5 of them to be exact)
-            - each index in that array represents the heuristic it belongs to
-            - at the end, the heurisitc that finds the goal will be traced by using these indices in the array in the map
-        */
-        Cell[] curCellHeuVersions = mapOfAllExploredCells.get(cell);
-        if (curCellHeuVersions == null) { // current cell's first visit
-            createPlaceForCellOnMap(cell);
-            curCellHeuVersions = mapOfAllExploredCells.get(cell);
-        }
-        curCellHeuVersions[whichFringe] = cell;
-    } // ends the insertCellIntoMap()
-
+    public Cell getCell(int index) {
+        return this.source.getCell(index / width, index % width);
+    } // ends the getCell() method
 
 
     /**
-     * This method will create a new entry/place for the cell on the explored map.
-     * @param cell the cell to make place on the map for
+     * This method will get the smallest fCost of a specific fringe.
+     * @param whichFringe the specific fringe to look into
+     * @return the fCost of the head of the fringe, or Integer.MAX_VALUE (infinity) if the fringe is empty
      */
-    public void createPlaceForCellOnMap(Cell cell) {
-        // create array to use as value for the key (cell)
-        Cell[] cellArr = new Cell[6]; 
-        for (int i = 0 ; i < 5 ; ++i) {
-            Cell temp = new Cell(cell.getX(),cell.getY(),cell.getType(),cell.getHighwayDir());
-            temp.setgCost(Integer.MAX_VALUE); // use the Intger.MAX_VALUE as infinity for the purpose of this algorithm
-            temp.sethCost(0);
-            cellArr[i] = temp;
+    public float getMinFCost(int whichFringe) {
+        IndexedHeap fringe = contexts[whichFringe].fringe;
+        if (fringe.isEmpty()) {
+            return Integer.MAX_VALUE;
         }
-        mapOfAllExploredCells.put(cell, cellArr);
-    } // ends the createPlaceForCellOnMap() method
+        return getTotalFCost(fringe.peek(), whichFringe);
+    } // ends the getMinFCost() method
 
 
 
        /**
-     * Row 0 is Cell A and Column 0 is Cell B;
-     * 
-     * Use these charts to find out the gCost from Cell A to Cell B;
-     * 
-     * How to read:
-     *  Column/Row 0 = normal
-     *  Column/Row 1 = hard to traverse
-     *  Column/Row 2 = blocked
-     *  Column/Row 3 = normal highway
-     *  Column/Row 4 = hard highway
-     *  
-     */
-    // 
-    final float[][] HORIZONAL_VERTICAL_COST = 
-    {
-			{ 1f    ,    1.5f  ,   -1f  ,   1f     ,   1.50f  },
-			{ 1.5f  ,    2f    ,   -1f  ,   1.5f   ,   2f     },
-			{ -1f   ,    -1f   ,   -1f  ,   -1f    ,   -1f    },
-			{ 1f    ,    1.50f ,   -1f  ,   0.25f  ,   0.375f },
-			{ 1.5f  ,    2f    ,   -1f  ,   0.375f ,   0.5f   }
-	};
-    
-    
-    final float NormToNormDiag = (float) Math.sqrt(2.0);
-	final float NormToHardDiag = ((float) Math.sqrt(2.0) + (float) Math.sqrt(8.0))/2;
-	final float HardToHardDiag = (float) Math.sqrt(8.0);
-	
-    final float[][] DIAGONAL_COSTS = 
-    {
-			{ NormToNormDiag   ,   NormToHardDiag   ,    -1f   ,      NormToNormDiag      ,       NormToHardDiag      },
-			{ NormToHardDiag   ,   HardToHardDiag   , 	 -1f   ,      NormToHardDiag      ,       HardToHardDiag      },
-			{     -1f          ,        -1f         ,    -1f   ,           -1f            , 		   -1f            },
-			{ NormToNormDiag   ,   NormToHardDiag   , 	 -1f   ,    NormToNormDiag/4.0f   ,     NormToHardDiag/4.0f   },
-			{ NormToHardDiag   ,   HardToHardDiag   , 	 -1f   ,    NormToHardDiag/4.0f   ,     HardToHardDiag/4.0f   }
-	};
-
-
-
-    /**
      * This method will be used in order to get the gCost of the current Cell its neighbor
      * @param cur the current cell
      * @param next the neighboring cell
      * @return the gCost between the two cells
      */
     public float getGCost(Cell cur , Cell next) {
-        if ((cur.getX() == next.getX()) && (cur.getY() == next.getY())) { // same cell
-            return 0f;
-        } else if (((cur.getX() == next.getX()) && (Math.abs(cur.getY() - next.getY()) == 1)) 
-        || ((Math.abs(cur.getX() - next.getX()) == 1) && (cur.getY() == next.getY()))) { // horizontal or vertical neighbor
-            return costHorVert(cur, next);
-        } else if ((Math.abs(cur.getX() - next.getX()) == 1) && (Math.abs(cur.getY() - next.getY()) == 1)) { // diagonal neighbor
-            return costDiag(cur, next);
-        } else {
-            return -1f;
-        }
+        return getGCost(getIndex(cur), getIndex(next));
     } // ends the getGCost() method
 
 
-
-
-    /**
-     * This method is used to get the gCost from two neighboring Cells that are horizontal or verticle from each other.
-     * @param from the current cell
-     * @param to the neighboring cell
-     * @return the gCost
-     */
-    public float costHorVert(Cell from, Cell to) {
-        int type_from = from.getType();
-        int type_to = to.getType();
-
-        // need to get the type of the cell and match the gCost chart type
-        // this idea to make a chart was an after throught that came in order to optimize and not use code to calculate all the costs at every iteration
-
-        if (type_from == 0) { // blocked
-            type_from = 2;
-        } else if (type_from == 1) { // easy
-            type_from = 0;
-        } else if (type_from == 2) { // hard
-            type_from = 1;
-        } else if (type_from == 3) { // easy highway
-            type_from = 3;
-        } else { // hard highway
-            type_from = 4;
-        }
-
-        if (type_to == 0) { // blocked
-            type_to = 2;
-        } else if (type_to == 1) { // easy
-            type_to = 0;
-        } else if (type_to == 2) { // hard
-            type_to = 1;
-        } else if (type_to == 3) { // easy highway
-            type_to = 3;
-        } else { // hard highway
-            type_to = 4;
-        }
-
-        return HORIZONAL_VERTICAL_COST[type_from][type_to];
-    } // ends the costHorVert() method
-
-
-
-
     /**
-     * This method is used in order to get the gCost between two neighboring cells that are diagonal from each other.
-     * @param from the current cell
-     * @param to the neighboring cell
-     * @return the gCost
+     * This method will be used in order to get the gCost between two neighboring cells using their indices.
+     * @param cur the index of the current cell
+     * @param next the index of the neighboring cell
+     * @return the gCost between the two cells
      */
-    public float costDiag(Cell from, Cell to) {
-        int type_from = from.getType();
-        int type_to = to.getType();
-
-        // need to get the type of the cell and match the gCost chart type
-        // this idea to make a chart was an after throught that came in order to optimize and not use code to calculate all the costs at every iteration
-
-        if (type_from == 0) { // blocked
-            type_from = 2;
-        } else if (type_from == 1) { // easy
-            type_from = 0;
-        } else if (type_from == 2) { // hard
-            type_from = 1;
-        } else if (type_from == 3) { // easy highway
-            type_from = 3;
-        } else { // hard highway
-            type_from = 4;
-        }
-
-        if (type_to == 0) { // blocked
-            type_to = 2;
-        } else if (type_to == 1) { // easy
-            type_to = 0;
-        } else if (type_to == 2) { // hard
-            type_to = 1;
-        } else if (type_to == 3) { // easy highway
-            type_to = 3;
-        } else { // hard highway
-            type_to = 4;
-        }
-
-        return DIAGONAL_COSTS[type_from][type_to];
-    }// ends the costDiag() method 
+    public float getGCost(int cur , int next) {
+        return costs.getCost(cur, next);
+    } // ends the getGCost() method
 
 
 
     /**
      * This method is used to find the HCost for a specific Cell.
-     * @param cell the cell that will be used in order to find the hCost
+     * @param index the index of the cell that will be used in order to find the hCost
      * @param whichHeuristic the specifc index number that represents which heurisitc to use to obtain the hCost
      * @return the hCost
      */
-    public float getHCost(Cell cell , int whichHeurisitc) {
+    public float getHCost(int index , int whichHeurisitc) {
         // for this algorithm, use the w1 weight in order to inflate the heuristic values for each of the search procedures, similar to Weighted-A
-        return w1*hArray[whichHeurisitc].getHeuristic(cell);
+        return w1*hArray[whichHeurisitc].getHeuristic(index / width, index % width);
     } // ends the getHCost() method
 
 
 
     /**
      * This method will get the total fCost of a given cell.
-     * @param cell the cell to find the fCost of
+     * @param index the index of the cell to find the fCost of
+     * @param whichFringe the fringe the cell belongs to
      * @return the fCost of the cell
      */
-    public float getTotalFCost(Cell cell) {
-        return cell.getgCost() + w1*cell.gethCost(); // remember to use w1 weight for inflation
+    public float getTotalFCost(int index , int whichFringe) {
+        SearchContext ctx = contexts[whichFringe];
+        return ctx.getGCost(index) + w1*ctx.getHCost(index); // remember to use w1 weight for inflation
     } // ends the getTotalFCost() method
 
 
@@ -436,30 +438,25 @@ public class SequentialAStarSearch {
 
     /**
      * This method will explore all the neighbors of the current node and add some to the fringe
-     * @param cur the current cell
+     * @param cur the index of the current cell
      * @param whichFringe the fringe the cell belongs to
      */
-    public void exploreNeighbors(Cell cur , int whichFringe) {
-        List<Cell> neighbors = getNeighbors(cur);
-        cur.hasBeenExplored = true;
-
-        for (Cell n : neighbors) {
-            if (n.getType() == 0) {
+    public void exploreNeighbors(int cur , int whichFringe) {
+        SearchContext ctx = contexts[whichFringe];
+        int[] offsets = ctx.offsets;
+        int edges = cur * CostModel.DIRECTIONS;
+        ctx.close(cur);
+
+        for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+            float edgeCost = weights[edges + d];
+            if (edgeCost < 0) { // blocked or off the grid
                 continue;
             }
 
-            if (mapOfAllExploredCells.get(n) == null) {
-                createPlaceForCellOnMap(n); // add new cell to the map
-            }
-
-            n = mapOfAllExploredCells.get(n)[whichFringe];
-            float totalGCost = cur.getgCost() + getGCost(cur, n);
-            if (totalGCost < n.getgCost()) {
-                n.setgCost(totalGCost);
-                if (!n.hasBeenExplored) {
-                    addCellToFringe(n, cur, totalGCost, getHCost(n, whichFringe), whichFringe);
-                }
-                //addCellToFringe(n, cur, totalGCost, getHCost(n, whichFringe), whichFringe); // MY VERSION
+            int n = cur + offsets[d];
+            float totalGCost = ctx.gCost[cur] + edgeCost;
+            if (totalGCost < ctx.getGCost(n) && !ctx.isClosed(n)) {
+                addCellToFringe(n, cur, totalGCost, getHCost(n, whichFringe), whichFringe);
             }
         }
     } // ends the exploreNeighbors() method
@@ -467,31 +464,6 @@ public class SequentialAStarSearch {
 
 
 
-    /**
-     * This method will get the neighbors of the current cell.
-     * @param c is the current cell
-     * @return a list of all the neighbors of the current cell
-     */
-    public List<Cell> getNeighbors(Cell c){
-    	List<Cell> neighbors = new LinkedList<>();
-    	Set<Cell> set = new HashSet<>();    // use thid for O(1) search
-    	for(int i = -1; i <= 1; i++){
-    		for(int j = -1; j <= 1; j++){
-    			if(i == 0 && j == 0)
-    				continue;
-    			int x = c.getX() + i;
-    			int y = c.getY() + j;
-    			
-    			if(x >= 0 && x < grid.length && y >= 0 && y < grid[0].length && !set.contains(this.grid[x][y])) {
-                    neighbors.add(this.grid[x][y]);
-    				set.add(this.grid[x][y]);
-    			}
-    		}
-    	}
-    	return neighbors;
-    } // ends the getNeighbors() method
-
-
     /**
      * This method will return the total cost of the shortest path obtained by the algorithm.
      * @return the total cost of the path
@@ -500,6 +472,9 @@ public class SequentialAStarSearch {
         if (path == null) {
             return -1f;
         }
+        if (path instanceof Path) { // worked out when the path was made
+            return ((Path) path).getCost();
+        }
         float totalCost = 0f;
         Cell cur = path.get(0);
         for (Cell next : path) {
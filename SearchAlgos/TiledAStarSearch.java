@@ -0,0 +1,486 @@
+package SearchAlgos;
+
+import Grid.Cell;
+import Grid.TiledGrid;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This is the Tiled A* Search Class, A* (or Weighted A*) over a TiledGrid.
+ * The other searches keep a cost for every edge of the grid (CostModel) and a SearchContext with arrays for every
+ * cell, which a map that does not fit in the heap cannot have. This search reads the types of the cells from the tiles
+ * as it reaches them (so only the tiles around the search are paged in) and works out the cost of each move from the
+ * charts of the CostModel, and it only keeps state for the cells it reaches: they are numbered in the order they are
+ * reached, and an open-addressing hash table maps a cell to its number.
+ *
+ * The heuristic is the octile distance with the cheapest straight and diagonal moves (both on a highway), which is
+ * admissible and consistent, times the weight of the search.
+ */
+public class TiledAStarSearch {
+
+    // Global variables
+    private static final long EMPTY = -1L;  // key of an empty slot of the hash table
+
+    TiledGrid grid;             // the grid, the tiles are paged in while searching
+    float weight;               // weight of the heuristic (1 => A*, the path is optimal)
+    int[][] start;              // start Cell
+    int[][] end;                // end Cell
+    List<Cell> path;            // shortest path (null => none)
+    float pathCost = -1f;       // cost of the path (-1 => none)
+    int nodesExpanded;          // number of cells taken off the fringe by the last run
+    boolean verbose = true;     // print the number of nodes looked through (and NO PATH FOUND) after every run
+    SearchBudget budget = SearchBudget.UNLIMITED;   // limits on the expansions, time and cancellation of every run
+    SearchStatus status;        // how the last run ended (null => not run yet)
+    List<Cell> partialPath;     // best partial path of the last run, when it was stopped early (null => none)
+
+    // state of the cells reached by the last run, by the number they were given when they were reached
+    long[] cellOf;              // cell index (x * width + y) of every number
+    float[] gCost;              // gCost of every number
+    float[] fCost;              // fCost of every number, the key of the fringe
+    int[] parent;               // number of the parent (-1 => start)
+    int[] heapPos;              // place in the fringe (-1 => not on the fringe)
+    int nodes;                  // number of cells reached
+
+    // hash table from cell index to number
+    long[] keys;                // cell index in every slot (EMPTY => empty slot)
+    int[] values;               // number in every slot
+
+    // the fringe, a binary heap of numbers by fCost
+    int[] heap;
+    int heapSize;
+
+
+    /**
+     * This is the constructor of the TiledAStarSearch class, the start and end are the ones stored in the grid.
+     * @param grid the tiled grid
+     * @param weight the weight of the heuristic (1 => A*)
+     */
+    public TiledAStarSearch(TiledGrid grid, float weight) {
+        if (weight < 1f) {
+            throw new IllegalArgumentException("weight must be at least 1: " + weight);
+        }
+        this.grid = grid;
+        this.weight = weight;
+        this.start = new int[][] {{grid.getStartCell()[0][0], grid.getStartCell()[0][1]}};
+        this.end = new int[][] {{grid.getEndCell()[0][0], grid.getEndCell()[0][1]}};
+        this.cellOf = new long[1024];
+        this.gCost = new float[1024];
+        this.fCost = new float[1024];
+        this.parent = new int[1024];
+        this.heapPos = new int[1024];
+        this.heap = new int[1024];
+        this.keys = new long[2048];
+        this.values = new int[2048];
+    } // ends the TiledAStarSearch() constructor
+
+
+    /**
+     * This method will get the heuristic of a cell.
+     * @param x the x-coordinate of the cell
+     * @param y the y-coordinate of the cell
+     * @return the octile distance to the end cell using the cheapest moves, times the weight
+     */
+    public float getHCost(int x, int y) {
+        int dx = Math.abs(x - end[0][0]);
+        int dy = Math.abs(y - end[0][1]);
+        int diag = Math.min(dx, dy);
+        return weight * (DStarLiteSearch.MIN_DIAGONAL * diag + DStarLiteSearch.MIN_STRAIGHT * (Math.max(dx, dy) - diag));
+    } // ends the getHCost() method
+
+
+    /**
+     * The main method that runs the search.
+     */
+    public void run() {
+        this.status = null;
+        this.partialPath = null;
+        this.path = null;
+        this.pathCost = -1f;
+        this.nodes = 0;
+        this.heapSize = 0;
+        Arrays.fill(this.keys, EMPTY);
+
+        int width = grid.getWidth();
+        long target = (long) end[0][0] * width + end[0][1];
+        int startNode = reach((long) start[0][0] * width + start[0][1], -1, 0f, getHCost(start[0][0], start[0][1]));
+        push(startNode);
+        nodesExpanded = 0;
+        int best = startNode;   // expanded cell with the smallest hCost, the end of the best partial path
+        while (heapSize > 0) {
+            SearchStatus stop = budget.check(nodesExpanded);
+            if (stop != null) {
+                status = stop;
+                partialPath = pathTo(best);
+                report(stop + " after " + nodesExpanded + " nodes");
+                return;
+            }
+            nodesExpanded++;
+            int curr = pop();
+            if (fCost[curr] - gCost[curr] < fCost[best] - gCost[best]) {
+                best = curr;
+            }
+
+            // check if it is the goal Cell
+            if (cellOf[curr] == target) {
+                status = SearchStatus.FOUND;
+                pathCost = gCost[curr];
+                path = pathTo(curr);
+                report("Number of Nodes Looked Through: " + nodesExpanded);
+                return;
+            }
+
+            int x = (int) (cellOf[curr] / width);
+            int y = (int) (cellOf[curr] % width);
+            int type = grid.getType(x, y);
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                int nx = x + CostModel.DX[d];
+                int ny = y + CostModel.DY[d];
+                if (!grid.isValidCell(nx, ny)) {
+                    continue;
+                }
+                float edgeCost = CostModel.edgeCost(type, grid.getType(nx, ny), d);
+                if (edgeCost < 0) { // blocked
+                    continue;
+                }
+                float g = gCost[curr] + edgeCost;
+                long c = (long) nx * width + ny;
+                int node = find(c);
+                if (node == -1) { // not reached yet
+                    push(reach(c, curr, g, g + getHCost(nx, ny)));
+                } else if (heapPos[node] != -1 && g < gCost[node]) { // on the fringe, but this is a cheaper way
+                    fCost[node] += g - gCost[node];
+                    gCost[node] = g;
+                    parent[node] = curr;
+                    siftUp(heapPos[node]);
+                }
+            }
+        } // ends the while loop
+
+        report("NO PATH FOUND");
+        status = SearchStatus.EXHAUSTED;
+    } // ends the run() method
+
+
+    /**
+     * This method runs the search with a budget and returns how it ended.
+     * The budget is only used for this run, the budget set before (see setBudget()) is put back afterwards, since a
+     * deadline of SearchBudget.ofMillis() would otherwise stop every later run at once.
+     * @param budget the limits of the run
+     * @return the result of the run
+     */
+    public SearchResult run(SearchBudget budget) {
+        SearchBudget previous = this.budget;
+        setBudget(budget);
+        try {
+            run();
+        } finally {
+            this.budget = previous;
+        }
+        return getResult();
+    } // ends the run() method
+
+
+    /**
+     * This method will give a number to a cell that was just reached.
+     * @param cell the index of the cell
+     * @param parentNode the number of its parent (-1 => start)
+     * @param g the gCost of the cell
+     * @param f the fCost of the cell
+     * @return the number of the cell
+     */
+    private int reach(long cell, int parentNode, float g, float f) {
+        if (nodes == cellOf.length) {
+            int size = nodes * 2;
+            cellOf = Arrays.copyOf(cellOf, size);
+            gCost = Arrays.copyOf(gCost, size);
+            fCost = Arrays.copyOf(fCost, size);
+            parent = Arrays.copyOf(parent, size);
+            heapPos = Arrays.copyOf(heapPos, size);
+            heap = Arrays.copyOf(heap, size);
+        }
+        if (2 * (nodes + 1) > keys.length) {
+            rehash(keys.length * 2);
+        }
+        int node = nodes++;
+        cellOf[node] = cell;
+        gCost[node] = g;
+        fCost[node] = f;
+        parent[node] = parentNode;
+        heapPos[node] = -1;
+        int slot = slotOf(cell);
+        keys[slot] = cell;
+        values[slot] = node;
+        return node;
+    } // ends the reach() method
+
+
+    /**
+     * This method will find the number of a cell.
+     * @param cell the index of the cell
+     * @return the number of the cell, or -1 if it has not been reached
+     */
+    private int find(long cell) {
+        int slot = slotOf(cell);
+        return (keys[slot] == EMPTY) ? -1 : values[slot];
+    } // ends the find() method
+
+
+    /**
+     * This method will find the slot of the hash table that holds a cell, or the empty slot where it would go.
+     * @param cell the index of the cell
+     * @return the slot
+     */
+    private int slotOf(long cell) {
+        int mask = keys.length - 1;
+        long h = cell * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h >>> 40) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != cell) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    } // ends the slotOf() method
+
+
+    /**
+     * This method will make the hash table bigger.
+     * @param size the new number of slots (a power of 2)
+     */
+    private void rehash(int size) {
+        keys = new long[size];
+        values = new int[size];
+        Arrays.fill(keys, EMPTY);
+        for (int node = 0 ; node < nodes ; ++node) {
+            int slot = slotOf(cellOf[node]);
+            keys[slot] = cellOf[node];
+            values[slot] = node;
+        }
+    } // ends the rehash() method
+
+
+    /**
+     * This method will add a cell to the fringe.
+     * @param node the number of the cell
+     */
+    private void push(int node) {
+        heap[heapSize] = node;
+        heapPos[node] = heapSize;
+        siftUp(heapSize++);
+    } // ends the push() method
+
+
+    /**
+     * This method will take the cell with the smallest fCost off the fringe.
+     * @return the number of the cell
+     */
+    private int pop() {
+        int top = heap[0];
+        heapPos[top] = -1;
+        int lastNode = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = lastNode;
+            heapPos[lastNode] = 0;
+            siftDown(0);
+        }
+        return top;
+    } // ends the pop() method
+
+
+    /**
+     * This method will move a cell up the fringe until its parent is not bigger.
+     * @param pos the place of the cell in the heap
+     */
+    private void siftUp(int pos) {
+        int node = heap[pos];
+        float key = fCost[node];
+        while (pos > 0) {
+            int up = (pos - 1) >>> 1;
+            if (fCost[heap[up]] <= key) {
+                break;
+            }
+            heap[pos] = heap[up];
+            heapPos[heap[pos]] = pos;
+            pos = up;
+        }
+        heap[pos] = node;
+        heapPos[node] = pos;
+    } // ends the siftUp() method
+
+
+    /**
+     * This method will move a cell down the fringe until its children are not smaller.
+     * @param pos the place of the cell in the heap
+     */
+    private void siftDown(int pos) {
+        int node = heap[pos];
+        float key = fCost[node];
+        while (true) {
+            int child = 2 * pos + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && fCost[heap[child + 1]] < fCost[heap[child]]) {
+                child++;
+            }
+            if (fCost[heap[child]] >= key) {
+                break;
+            }
+            heap[pos] = heap[child];
+            heapPos[heap[pos]] = pos;
+            pos = child;
+        }
+        heap[pos] = node;
+        heapPos[node] = pos;
+    } // ends the siftDown() method
+
+
+    /**
+     * This method will build the path from the start to a cell by following the parents.
+     * The Cells are standalone copies with the type and highway of the cell, they are not views on the tiles.
+     * @param node the number of the last cell of the path
+     * @return the path
+     */
+    private List<Cell> pathTo(int node) {
+        int width = grid.getWidth();
+        List<Cell> cells = new ArrayList<>();
+        for (int n = node ; n != -1 ; n = parent[n]) {
+            int x = (int) (cellOf[n] / width);
+            int y = (int) (cellOf[n] % width);
+            cells.add(new Cell(x, y, grid.getType(x, y), grid.getHighwayDir(x, y)));
+        }
+        Collections.reverse(cells);
+        return cells;
+    } // ends the pathTo() method
+
+
+    /**
+     * This method will change the start and end of the search.
+     * @param startX the x-coordinate of the start cell
+     * @param startY the y-coordinate of the start cell
+     * @param endX the x-coordinate of the end cell
+     * @param endY the y-coordinate of the end cell
+     */
+    public void setStartAndEnd(int startX, int startY, int endX, int endY) {
+        this.start[0][0] = startX;
+        this.start[0][1] = startY;
+        this.end[0][0] = endX;
+        this.end[0][1] = endY;
+    } // ends the setStartAndEnd() method
+
+
+    /**
+     * This method will set the limits on the expansions, time and cancellation of every run.
+     * @param budget the budget (null => no limits)
+     */
+    public void setBudget(SearchBudget budget) {
+        this.budget = (budget == null) ? SearchBudget.UNLIMITED : budget;
+    } // ends the setBudget() method
+
+
+    /**
+     * This method will turn the messages printed after every run on or off.
+     * @param verbose true to print the messages and false otherwise
+     */
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    } // ends the setVerbose() method
+
+
+    /**
+     * This method will print a message about the last run, if the search is verbose.
+     * @param message the message
+     */
+    void report(String message) {
+        if (verbose) {
+            System.out.println(message);
+        }
+    } // ends the report() method
+
+
+    /**
+     * This method will return the path.
+     * @return the path, or null if there is none
+     */
+    public List<Cell> getPath() {
+        return this.path;
+    } // ends the getPath() method
+
+
+    /**
+     * This method will return the total cost of the path.
+     * @return the cost of the path, or -1 if there is none
+     */
+    public float getPathCost() {
+        return this.pathCost;
+    } // ends the getPathCost() method
+
+
+    /**
+     * This method will return the number of cells that were expanded by the last run.
+     * @return the number of nodes expanded
+     */
+    public int getNodesExpanded() {
+        return this.nodesExpanded;
+    } // ends the getNodesExpanded() method
+
+
+    /**
+     * This method will return the number of cells reached by the last run, which is what its state is kept for.
+     * @return the number of cells reached
+     */
+    public int getNodesReached() {
+        return this.nodes;
+    } // ends the getNodesReached() method
+
+
+    /**
+     * This method will return how the last run ended.
+     * @return the status (null if the search has not been run)
+     */
+    public SearchStatus getStatus() {
+        return this.status;
+    } // ends the getStatus() method
+
+
+    /**
+     * This method will return the best partial path of the last run, if it was stopped by its budget.
+     * @return the partial path, or null if the run was not stopped early
+     */
+    public List<Cell> getPartialPath() {
+        return this.partialPath;
+    } // ends the getPartialPath() method
+
+
+    /**
+     * This method will return the result of the last run.
+     * @return the status, the path (or best partial path), its cost and the number of nodes expanded
+     */
+    public SearchResult getResult() {
+        if (path != null) {
+            return new SearchResult(status, path, pathCost, nodesExpanded);
+        }
+        float cost = -1f;
+        if (partialPath != null) {
+            cost = 0f;
+            for (int i = 1 ; i < partialPath.size() ; ++i) {
+                Cell a = partialPath.get(i - 1);
+                Cell b = partialPath.get(i);
+                int d = CostModel.directionOf(b.getX() - a.getX(), b.getY() - a.getY());
+                cost += CostModel.edgeCost(a.getType(), b.getType(), d);
+            }
+        }
+        return new SearchResult(status, partialPath, cost, nodesExpanded);
+    } // ends the getResult() method
+
+
+    /**
+     * This method will return the tiled grid of the search, with its tile counters.
+     * @return the grid
+     */
+    public TiledGrid getGrid() {
+        return this.grid;
+    } // ends the getGrid() method
+
+} // ends the TiledAStarSearch class
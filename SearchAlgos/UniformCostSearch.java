@@ -3,17 +3,119 @@ package SearchAlgos;
 import Heuristic.Heuristic;
 import Grid.Grid;
 
+
 /**
  * This is the Uniform Cost Search Class.
+ * It can also build a DistanceField for its end cell (see computeDistanceField()), after which every run() to that
+ * end cell just follows the next hops of the field instead of searching, until the grid changes.
+ * With a DistanceFieldCache the field of the end cell is taken from (or built into) the cache on every run.
  */
 public class UniformCostSearch extends AbstractSearch {
     Grid grid;
     Heuristic h;
+    DistanceField field;    // all-to-one distances to the end cell (null => search every time)
+    DistanceFieldCache cache;   // where to get the field of the end cell from (null => only use field)
 
     /**
-     * This is the constructor of the Uniform Cost Search class. 
+     * This is the constructor of the Uniform Cost Search class.
      */
     public UniformCostSearch(Grid grid) {
         super(grid);
     }
-}
\ No newline at end of file
+
+
+    @Override
+    String cacheKey() {
+        return baseCacheKey();     // the distance field only changes how the best path is found
+    } // ends the cacheKey() method
+
+
+    /**
+     * This method will compute the distance field of the end cell and use it for the next runs.
+     * It costs one full search of the grid (no early exit), so it only pays off when many starts share the same end.
+     * @return the distance field
+     */
+    public DistanceField computeDistanceField() {
+        this.field = new DistanceField(this.source.getPackedGrid(), end[0][0] * width + end[0][1]);
+        return this.field;
+    } // ends the computeDistanceField() method
+
+
+    /**
+     * This method will set the distance field to use, it is only used while its target is the end cell and the grid
+     * has not changed since it was built.
+     * @param field the distance field (null => always search)
+     */
+    public void setDistanceField(DistanceField field) {
+        this.field = field;
+    } // ends the setDistanceField() method
+
+
+    /**
+     * This method will return the distance field used by this search.
+     * @return the distance field, or null if there is none
+     */
+    public DistanceField getDistanceField() {
+        return this.field;
+    } // ends the getDistanceField() method
+
+
+    /**
+     * This method will set the cache the distance field of the end cell is taken from on every run.
+     * @param cache the cache, it must be for the same grid (null => no cache)
+     */
+    public void setDistanceFieldCache(DistanceFieldCache cache) {
+        this.cache = cache;
+    } // ends the setDistanceFieldCache() method
+
+
+    /**
+     * This method will return the fringe used by the fixed-point search, a radix heap since without a heuristic the
+     * keys taken out never go down.
+     * @param ctx the context of the query
+     * @return the fringe, already cleared
+     */
+    @Override
+    FixedPointQueue fixedPointQueue(SearchContext ctx) {
+        return ctx.getRadixHeap();
+    } // ends the fixedPointQueue() method
+
+
+    /**
+     * This method will follow the distance field when it can be used, and run the normal search otherwise.
+     * No cell is expanded or explored when the field is used.
+     * @param ctx the context to hold the state of this query, it will be reset first
+     */
+    @Override
+    public void run(SearchContext ctx) {
+        pinSnapshot();
+        int targetIndex = end[0][0] * width + end[0][1];
+        if (cache != null) {
+            field = cache.get(targetIndex);
+        }
+        // with snapshot isolation the field has to be built from the version the snapshot holds (a field that raced with
+        // an edit has the version DistanceField.RACED, which no snapshot has)
+        boolean stale = (field == null) || ((snapshot != null) ? field.getVersion() != snapshot.getVersion() : field.isStale());
+        if (stale || field.getTarget() != targetIndex) {
+            runPinned(ctx);     // the snapshot is already pinned for this run
+            return;
+        }
+
+        this.context = ctx;
+        this.exploredCells = null;
+        this.partialPath = null;
+        ctx.reset();
+        nodesExpanded = 0;
+
+        int[] cells = field.getPath(start[0][0] * width + start[0][1]);
+        if (cells == null) {
+            report("NO PATH FOUND");
+            this.status = SearchStatus.EXHAUSTED;
+            this.path = null;
+            return;
+        }
+        this.status = SearchStatus.FOUND;
+        this.path = new Path(source, cells, costs);
+        report("Number of Nodes Looked Through: " + nodesExpanded);
+    } // ends the run() method
+}
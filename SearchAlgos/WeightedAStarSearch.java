@@ -1,16 +1,41 @@
 package SearchAlgos;
 
 import Heuristic.Heuristic;
-import Grid.Grid;
 import Grid.Cell;
+import Grid.Grid;
+
+import java.util.Arrays;
+import java.util.List;
 
 /**
  * This is the Weighted A* Search Class.
+ * Besides the normal run() with one weight, it has an anytime mode (runAnytime(), ARA*): it finds a first path quickly
+ * with the weight of the search, then keeps lowering the weight and improving the path, reusing the work of the
+ * earlier passes, until the weight reaches 1 (the path is optimal) or the deadline is reached.
  */
 public class WeightedAStarSearch extends AbstractSearch {
     Grid grid;
     Heuristic h;
     float weight;
+    float bound = -1f;  // the last anytime path costs at most this many times the optimal cost (-1 => no anytime path)
+    int[] incons;       // the INCONS list of the anytime mode, cells whose gCost went down after they were expanded
+    int inconsSize;     // number of cells in the INCONS list
+    CellBitmap inIncons;    // the cells in the INCONS list
+
+    /**
+     * This is the Anytime Listener interface, it is told about every better path the anytime mode finds.
+     */
+    public interface AnytimeListener {
+
+        /**
+         * This method is called every time the anytime mode finds a better path.
+         * @param path the path
+         * @param cost the cost of the path
+         * @param bound the path costs at most bound times the optimal cost
+         */
+        void pathImproved(List<Cell> path, float cost, float bound);
+
+    } // ends the AnytimeListener interface
 
     /**
      * This is the constructor of the WeightedAStarSearch class
@@ -25,7 +50,171 @@ public class WeightedAStarSearch extends AbstractSearch {
     }
 
     @Override
-	public float getHCost(Cell cell) {
-        return h.getHeuristic(cell) * weight;
+	public float getHCost(int x, int y) {
+        return h.getHeuristic(x, y) * weight;
     } // ends the getHCost() method
+
+
+    @Override
+    String cacheKey() {
+        return baseCacheKey() + cacheKeyOf(h) + "/" + weight;
+    } // ends the cacheKey() method
+
+
+    /**
+     * This method runs Anytime Repairing A* (ARA*), starting with the weight of this search.
+     * Every pass is a weighted A* that stops as soon as the goal is the best cell on the fringe. The cells whose gCost
+     * goes down after they were expanded are kept on the side (the INCONS list) and put back on the fringe for the
+     * next pass, with a lower weight, so a pass only redoes the part of the search that the lower weight changes.
+     * After every pass the path is published to the listener with its suboptimality bound, which is the smaller of the
+     * weight and the cost of the path over the smallest unweighted fCost left on the fringe (the heuristic has to be
+     * admissible for the bound to hold).
+     * The best path so far is what getPath() returns afterwards.
+     * @param weightStep how much the weight goes down after every pass (the last pass is always done with weight 1)
+     * @param deadline the System.nanoTime() at which to stop and keep the best path so far
+     * @param listener told about every better path (null => nobody is told)
+     */
+    public void runAnytime(float weightStep, long deadline, AnytimeListener listener) {
+        if (weightStep <= 0) {
+            throw new IllegalArgumentException("weightStep must be positive: " + weightStep);
+        }
+        if (this.context == null) {
+            this.context = new SearchContext(this.height, this.width);
+        }
+        pinSnapshot();
+        SearchContext ctx = this.context;
+        this.exploredCells = null;
+        ctx.reset();
+        this.path = null;
+        this.bound = -1f;
+        nodesExpanded = 0;
+
+        int startIndex = start[0][0] * width + start[0][1];
+        int targetIndex = end[0][0] * width + end[0][1];
+        this.incons = new int[64];
+        this.inIncons = new CellBitmap(height, width);
+        this.inconsSize = 0;
+        int[] open = new int[64];       // buffer used to take the fringe apart between the passes
+
+        float eps = Math.max(1f, this.weight);
+        ctx.explored.set(startIndex);
+        ctx.gCost[startIndex] = 0f;
+        ctx.hCost[startIndex] = h.getHeuristic(start[0][0], start[0][1]);
+        ctx.parent[startIndex] = -1;
+        ctx.fringe.update(startIndex, eps * ctx.hCost[startIndex]);
+
+        while (true) {
+            boolean finished = improvePath(ctx, targetIndex, eps, deadline);
+
+            // take the fringe apart, it gets new keys for the next pass and gives the bound of this one
+            int openSize = 0;
+            while (!ctx.fringe.isEmpty()) {
+                if (openSize == open.length) {
+                    open = Arrays.copyOf(open, open.length * 2);
+                }
+                open[openSize++] = ctx.fringe.poll();
+            }
+            float minF = Float.POSITIVE_INFINITY;
+            for (int i = 0 ; i < openSize ; ++i) {
+                minF = Math.min(minF, ctx.gCost[open[i]] + ctx.hCost[open[i]]);
+            }
+            for (int i = 0 ; i < inconsSize ; ++i) {
+                minF = Math.min(minF, ctx.gCost[incons[i]] + ctx.hCost[incons[i]]);
+            }
+
+            if (finished && ctx.isGenerated(targetIndex)) {
+                float cost = ctx.gCost[targetIndex];
+                // cost <= minF also covers an empty fringe (minF is infinite) and a start that is the goal (0 / 0)
+                float passBound = (cost <= minF) ? 1f : Math.max(1f, Math.min(eps, cost / minF));
+                if (this.path == null || passBound < this.bound || cost < getPathCost()) {
+                    this.path = getShortestPath(startIndex, targetIndex);
+                    this.bound = passBound;
+                    if (listener != null) {
+                        listener.pathImproved(this.path, getPathCost(), this.bound);
+                    }
+                }
+            }
+            // stop at the deadline, once the path is optimal, or when the goal cannot be reached at all
+            if (!finished || eps <= 1f || !ctx.isGenerated(targetIndex) || System.nanoTime() - deadline >= 0) {
+                break;
+            }
+
+            // lower the weight, put the INCONS cells back on the fringe and forget which cells were expanded
+            eps = Math.max(1f, eps - weightStep);
+            for (int i = 0 ; i < openSize ; ++i) {
+                ctx.fringe.update(open[i], ctx.gCost[open[i]] + eps * ctx.hCost[open[i]]);
+            }
+            for (int i = 0 ; i < inconsSize ; ++i) {
+                ctx.fringe.update(incons[i], ctx.gCost[incons[i]] + eps * ctx.hCost[incons[i]]);
+                inIncons.clear(incons[i]);
+            }
+            inconsSize = 0;
+            ctx.closed.clearAll();
+        }
+
+        report((this.path == null) ? "NO PATH FOUND" : "Number of Nodes Looked Through: " + nodesExpanded + " (bound " + this.bound + ")");
+    } // ends the runAnytime() method
+
+
+    /**
+     * This method runs one pass of ARA*: weighted A* until the goal is the best cell on the fringe.
+     * @param ctx the context of the search
+     * @param targetIndex the index of the goal
+     * @param eps the weight of this pass
+     * @param deadline the System.nanoTime() at which to stop
+     * @return true if the pass finished and false if the deadline was reached first
+     */
+    private boolean improvePath(SearchContext ctx, int targetIndex, float eps, long deadline) {
+        int[] offsets = ctx.offsets;
+        boolean finished = true;
+        while (!ctx.fringe.isEmpty()
+                && !(ctx.isGenerated(targetIndex) && ctx.gCost[targetIndex] <= ctx.fringe.peekKey())) {
+            if ((nodesExpanded & 255) == 0 && System.nanoTime() - deadline >= 0) {
+                finished = false;
+                break;
+            }
+            nodesExpanded++;
+            int curr = ctx.fringe.poll();
+            ctx.close(curr);
+
+            float[] edgeCosts = edgesOf(curr);
+            int edges = edgeOffset(curr);
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                float edgeCost = edgeCosts[edges + d];
+                if (edgeCost < 0) { // blocked or off the grid
+                    continue;
+                }
+                int c = curr + offsets[d];
+                float g = ctx.gCost[curr] + edgeCost;
+                if (ctx.isGenerated(c) && g >= ctx.gCost[c]) {
+                    continue;
+                }
+                if (!ctx.isGenerated(c)) {
+                    ctx.explored.set(c);
+                    ctx.hCost[c] = h.getHeuristic(c / width, c % width);
+                }
+                ctx.gCost[c] = g;
+                ctx.parent[c] = curr;
+                if (!ctx.isClosed(c)) {
+                    ctx.fringe.update(c, g + eps * ctx.hCost[c]);
+                } else if (!inIncons.get(c)) {
+                    if (inconsSize == incons.length) {
+                        incons = Arrays.copyOf(incons, incons.length * 2);
+                    }
+                    incons[inconsSize++] = c;
+                    inIncons.set(c);
+                }
+            }
+        } // ends the while loop
+        return finished;
+    } // ends the improvePath() method
+
+
+    /**
+     * This method will return the suboptimality bound of the last path found by runAnytime().
+     * @return the path costs at most this many times the optimal cost, or -1 if there is no anytime path
+     */
+    public float getBound() {
+        return this.bound;
+    } // ends the getBound() method
 }
@@ -0,0 +1,23 @@
+package Tests;
+
+/**
+ * This is the All Tests class, it runs every test of the project and prints how many checks passed.
+ *
+ * ex. java Tests.AllTests
+ */
+public class AllTests {
+
+    public static void main(String[] args) {
+        SearchCostTest.run();
+        BoundedSearchTest.run();
+        SearchBudgetTest.run();
+        PathCacheTest.run();
+        GridFileTest.run();
+        PackedGridTest.run();
+        TiledGridTest.run();
+        HierarchicalSearchTest.run();
+        SnapshotTest.run();
+        Check.report();
+    } // ends the main() method
+
+} // ends the AllTests class
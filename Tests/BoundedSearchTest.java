@@ -0,0 +1,154 @@
+package Tests;
+
+import java.util.List;
+
+import Grid.Cell;
+import Grid.Grid;
+import Heuristic.EuclideanDistanceByFour;
+import SearchAlgos.FocalSearch;
+import SearchAlgos.ParallelMHAStarSearch;
+import SearchAlgos.UniformCostSearch;
+import SearchAlgos.WeightedAStarSearch;
+
+/**
+ * This is the Bounded Search Test class, it checks that the searches that trade the best path for speed never find a
+ * path that costs more than their bound allows, on the test map and on some generated maps.
+ */
+public class BoundedSearchTest {
+    // Global variables
+    private static final int GENERATED_GRIDS = 3;       // number of generated maps to search
+    private static final float ANYTIME_WEIGHT = 3f;     // first weight of the anytime searches
+    private static final float ANYTIME_STEP = 0.5f;     // how much the anytime searches lower the weight every pass
+    private static final float[] FOCAL_WEIGHTS = {1f, 1.25f, 1.5f, 2f, 3f};     // weights of the focal searches
+    private static final float[][] MHA_WEIGHTS = {{1f, 1f}, {1.25f, 2f}, {2f, 1.5f}};    // w1 and w2 of the MHA* searches
+
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        Grid grid = Check.loadTestGrid();
+        boundedCosts(grid, Check.TEST_GRID_COST, "the test map");
+        anytimeDeadline(grid);
+        anytimeSameCell();
+
+        for (int i = 0 ; i < GENERATED_GRIDS ; ++i) {
+            Grid generated = Check.generateGrid();
+            UniformCostSearch ucs = new UniformCostSearch(generated);
+            ucs.setVerbose(false);
+            ucs.run();
+            boundedCosts(generated, ucs.getPathCost(), "generated map " + i);
+        }
+    } // ends the run() method
+
+
+    /**
+     * This method will check that every bounded search of a grid stays within its bound.
+     * @param grid the grid to search
+     * @param optimal the cost of the best path
+     * @param name the name of the grid
+     */
+    static void boundedCosts(Grid grid, float optimal, String name) {
+        anytimeBounds(grid, optimal, name);
+        focalBounds(grid, optimal, name);
+        parallelBounds(grid, optimal, name);
+    } // ends the boundedCosts() method
+
+
+    /**
+     * This method will check that focal search finds a path that costs at most its weight times the best cost.
+     * @param grid the grid to search
+     * @param optimal the cost of the best path
+     * @param name the name of the grid
+     */
+    static void focalBounds(Grid grid, float optimal, String name) {
+        for (float weight : FOCAL_WEIGHTS) {
+            FocalSearch focal = new FocalSearch(grid, new EuclideanDistanceByFour(grid), weight);
+            focal.setVerbose(false);
+            focal.run();
+            float cost = focal.getPathCost();
+            Check.that(cost >= optimal - Check.COST_EPSILON && cost <= weight * optimal + Check.COST_EPSILON,
+                    "FocalSearch with weight " + weight + " on " + name + " costs " + cost + ", the best is " + optimal);
+        }
+    } // ends the focalBounds() method
+
+
+    /**
+     * This method will check that Parallel MHA* finds a path that costs at most w1 times w2 times the best cost.
+     * @param grid the grid to search
+     * @param optimal the cost of the best path
+     * @param name the name of the grid
+     */
+    static void parallelBounds(Grid grid, float optimal, String name) {
+        for (float[] weights : MHA_WEIGHTS) {
+            ParallelMHAStarSearch mha = new ParallelMHAStarSearch(grid, weights[0], weights[1]);
+            mha.setVerbose(false);
+            mha.run();
+            float cost = mha.getPathCost();
+            float bound = weights[0] * weights[1];
+            Check.that(cost >= optimal - Check.COST_EPSILON && cost <= bound * optimal + Check.COST_EPSILON,
+                    "ParallelMHAStarSearch with weights " + weights[0] + " and " + weights[1] + " on " + name
+                    + " costs " + cost + ", the best is " + optimal);
+        }
+    } // ends the parallelBounds() method
+
+
+    /**
+     * This method will check that every path ARA* publishes costs at most its bound times the best cost, that the
+     * bounds never go up, and that the last path is the best one.
+     * @param grid the grid to search
+     * @param optimal the cost of the best path
+     * @param name the name of the grid
+     */
+    static void anytimeBounds(Grid grid, float optimal, String name) {
+        WeightedAStarSearch anytime = new WeightedAStarSearch(grid, new EuclideanDistanceByFour(grid), ANYTIME_WEIGHT);
+        anytime.setVerbose(false);
+        int[] published = new int[1];
+        boolean[] within = {true};
+        float[] lastBound = {Float.POSITIVE_INFINITY};
+        anytime.runAnytime(ANYTIME_STEP, System.nanoTime() + 60_000_000_000L, (List<Cell> path, float cost, float bound) -> {
+            published[0]++;
+            within[0] &= bound >= 1f && bound <= ANYTIME_WEIGHT && bound <= lastBound[0]
+                    && cost <= bound * optimal + Check.COST_EPSILON;
+            lastBound[0] = bound;
+        });
+        Check.that(published[0] > 0, "ARA* publishes a path on " + name);
+        Check.that(within[0], "every path ARA* publishes is within its bound on " + name);
+        Check.that(anytime.getBound() == 1f, "the last bound of ARA* is 1 on " + name);
+        Check.sameCost(optimal, anytime.getPathCost(), "the last path of ARA* on " + name);
+    } // ends the anytimeBounds() method
+
+
+    /**
+     * This method will check that ARA* stops at its deadline, even before it has a path.
+     * @param grid the grid to search
+     */
+    static void anytimeDeadline(Grid grid) {
+        WeightedAStarSearch anytime = new WeightedAStarSearch(grid, new EuclideanDistanceByFour(grid), ANYTIME_WEIGHT);
+        anytime.setVerbose(false);
+        int[] published = new int[1];
+        anytime.runAnytime(ANYTIME_STEP, System.nanoTime(), (path, cost, bound) -> published[0]++);
+        Check.that(anytime.getNodesExpanded() == 0, "ARA* past its deadline expands nothing");
+        Check.that(published[0] == 0 && anytime.getBound() == -1f, "ARA* past its deadline publishes no path");
+    } // ends the anytimeDeadline() method
+
+
+    /**
+     * This method will check that ARA* on a map whose start is its end publishes the empty path as optimal.
+     */
+    static void anytimeSameCell() {
+        Grid grid = new Grid();
+        grid.generateEntireGrid();      // no setStartAndEnd(), the start and the end are both the first cell
+        WeightedAStarSearch anytime = new WeightedAStarSearch(grid, new EuclideanDistanceByFour(grid), ANYTIME_WEIGHT);
+        anytime.setVerbose(false);
+        anytime.runAnytime(ANYTIME_STEP, System.nanoTime() + 60_000_000_000L, null);
+        Check.that(anytime.getBound() == 1f, "ARA* from a cell to itself has a bound of 1 (was " + anytime.getBound() + ")");
+    } // ends the anytimeSameCell() method
+
+} // ends the BoundedSearchTest class
@@ -0,0 +1,92 @@
+package Tests;
+
+import java.io.File;
+
+import Grid.Grid;
+
+/**
+ * This is the Check class, it has the small helpers the tests use to check their results and count the failures.
+ * The tests are plain programs (there is no test framework in the project), they are run from the project folder
+ * so they can load testGridSave.txt.
+ *
+ * ex. java Tests.AllTests
+ */
+public class Check {
+    // Global variables
+    public static final String TEST_GRID = "testGridSave.txt";     // map the tests search on
+    public static final float TEST_GRID_COST = 127.824135f;        // optimal cost of the test map (see SearchCostTest)
+    public static final float COST_EPSILON = 1e-3f;                // most two path costs may differ and still be equal
+
+    private static int passed;      // number of checks that passed
+    private static int failed;      // number of checks that failed
+
+
+    /**
+     * This method will check that a condition holds, printing the name of the check if it does not.
+     * @param condition the condition
+     * @param name what is being checked
+     */
+    public static void that(boolean condition, String name) {
+        if (condition) {
+            passed++;
+        } else {
+            failed++;
+            System.out.println("FAILED: " + name);
+        }
+    } // ends the that() method
+
+
+    /**
+     * This method will check that two path costs are the same.
+     * @param expected the expected cost
+     * @param actual the cost that was found
+     * @param name what is being checked
+     */
+    public static void sameCost(float expected, float actual, String name) {
+        that(Math.abs(expected - actual) <= COST_EPSILON, name + " (expected " + expected + " but was " + actual + ")");
+    } // ends the sameCost() method
+
+
+    /**
+     * This method will load the map the tests search on.
+     * @return the grid, with its start and end cells
+     */
+    public static Grid loadTestGrid() {
+        Grid grid = new Grid();
+        grid.importGrid(new File(TEST_GRID));
+        return grid;
+    } // ends the loadTestGrid() method
+
+
+    /**
+     * This method will generate a new map to search, with start and end cells far enough apart.
+     * @return the grid
+     */
+    public static Grid generateGrid() {
+        Grid grid = new Grid();
+        grid.generateEntireGrid();
+        grid.setStartAndEnd();
+        return grid;
+    } // ends the generateGrid() method
+
+
+    /**
+     * This method will return the number of checks that failed so far.
+     * @return the number of failures
+     */
+    public static int getFailed() {
+        return failed;
+    } // ends the getFailed() method
+
+
+    /**
+     * This method will print how many checks passed and failed, and end the program with an error if any failed.
+     */
+    public static void report() {
+        System.out.println(passed + " checks passed, " + failed + " failed");
+        if (failed > 0) {
+            System.exit(1);
+        }
+    } // ends the report() method
+
+} // ends the Check class
@@ -0,0 +1,108 @@
+package Tests;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+
+import Grid.Grid;
+import Grid.PackedGrid;
+import Heuristic.ManhattanDistanceByFour;
+import SearchAlgos.AStarSearch;
+
+/**
+ * This is the Grid File Test class, it checks that a grid saved to a file is imported back the same.
+ */
+public class GridFileTest {
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        Grid grid = Check.loadTestGrid();
+        float cost = costOf(grid);
+        try {
+            File file = File.createTempFile("grid", ".bin");
+            file.deleteOnExit();
+
+            // binary file into a grid of another size, then into one of the same size
+            grid.saveBinaryGrid(file);
+            Grid read = new Grid();
+            read.importBinaryGrid(file);
+            sameGrid(grid, read, "a binary grid");
+            PackedGrid before = read.getPackedGrid();
+            read.importBinaryGrid(file);
+            Check.that(read.getPackedGrid() == before, "a binary grid of the same size is read into the same packed grid");
+            sameGrid(grid, read, "a binary grid read again");
+            Check.sameCost(cost, costOf(read), "a search on a binary grid");
+
+            // compressed file
+            grid.saveCompressedGrid(file);
+            read = new Grid();
+            read.importBinaryGrid(file);
+            sameGrid(grid, read, "a compressed grid");
+            Check.sameCost(cost, costOf(read), "a search on a compressed grid");
+
+            // text file with no hard centers, saving it again writes the same file
+            File text = File.createTempFile("grid", ".txt");
+            text.deleteOnExit();
+            try (PrintWriter writer = new PrintWriter(text, "UTF-8")) {
+                writer.println("0,0");
+                writer.println("2,3");
+                writer.println("1112");
+                writer.println("1a01");
+                writer.println("12b1");
+            }
+            read = new Grid();
+            read.importGrid(text);
+            File saved = File.createTempFile("grid", ".txt");
+            saved.deleteOnExit();
+            read.saveGrid(saved);
+            Check.that(Files.readAllLines(text.toPath()).equals(Files.readAllLines(saved.toPath())),
+                    "a text grid with no hard centers is saved back the same");
+        } catch (IOException e) {
+            Check.that(false, "the temporary files can be made: " + e.getMessage());
+        }
+    } // ends the run() method
+
+
+    /**
+     * This method will check that two grids have the same cells, start and end.
+     * @param expected the grid that was saved
+     * @param actual the grid that was imported
+     * @param name what is being checked
+     */
+    static void sameGrid(Grid expected, Grid actual, String name) {
+        PackedGrid a = expected.getPackedGrid();
+        PackedGrid b = actual.getPackedGrid();
+        boolean same = a.getHeight() == b.getHeight() && a.getWidth() == b.getWidth();
+        for (int i = 0 ; same && i < a.size() ; ++i) {
+            same = a.getCode(i) == b.getCode(i);
+        }
+        Check.that(same, name + " has the same cells");
+        Check.that(expected.getStartCell()[0][0] == actual.getStartCell()[0][0]
+                && expected.getStartCell()[0][1] == actual.getStartCell()[0][1]
+                && expected.getEndCell()[0][0] == actual.getEndCell()[0][0]
+                && expected.getEndCell()[0][1] == actual.getEndCell()[0][1], name + " has the same start and end");
+    } // ends the sameGrid() method
+
+
+    /**
+     * This method will find the cost of the path between the start and end of a grid.
+     * @param grid the grid
+     * @return the cost of the path
+     */
+    static float costOf(Grid grid) {
+        AStarSearch search = new AStarSearch(grid, new ManhattanDistanceByFour(grid));
+        search.setVerbose(false);
+        search.run();
+        return search.getPathCost();
+    } // ends the costOf() method
+
+} // ends the GridFileTest class
@@ -0,0 +1,103 @@
+package Tests;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import Grid.Grid;
+import Grid.PackedGrid;
+import Heuristic.EuclideanDistanceByFour;
+import SearchAlgos.HierarchicalSearch;
+import SearchAlgos.SearchStatus;
+
+/**
+ * This is the Hierarchical Search Test class, it checks that HPA* ends with the right status, that its refined path
+ * costs what the abstract search said, and that searches sharing the cluster graph of a grid that is being edited
+ * never read a graph that is being rebuilt.
+ */
+public class HierarchicalSearchTest {
+    // Global variables
+    private static final int SEARCHERS = 4;     // number of threads searching the shared graph at once
+    private static final int RUNS = 40;         // number of searches made by each of them
+
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        Grid grid = Check.loadTestGrid();
+        HierarchicalSearch search = new HierarchicalSearch(grid, new EuclideanDistanceByFour(grid));
+        search.setVerbose(false);
+        search.run();
+        Check.that(search.getStatus() == SearchStatus.FOUND, "HPA* on the test map ends as found");
+        Check.sameCost(search.getAbstractCost(), search.getPathCost(), "the refined HPA* path on the test map");
+        Check.that(search.getPathCost() >= Check.TEST_GRID_COST - Check.COST_EPSILON,
+                "HPA* on the test map costs no less than the best path");
+
+        Check.that(sharedWhileEdited(), "HPA* searches sharing the graph of a grid being edited all finish");
+    } // ends the run() method
+
+
+    /**
+     * This method will run hierarchical searches on many threads, all on the shared cluster graph of a grid that
+     * another thread keeps editing.
+     * @return true if every search ended as found or exhausted and false if one of them failed
+     */
+    static boolean sharedWhileEdited() {
+        Grid grid = Check.loadTestGrid();
+        PackedGrid cells = grid.getPackedGrid();
+        int[][] start = grid.getStartCell();
+        int[][] end = grid.getEndCell();
+        AtomicBoolean done = new AtomicBoolean();
+        AtomicInteger failed = new AtomicInteger();
+        Thread editor = new Thread(() -> {
+            Random random = new Random(5);
+            while (!done.get()) {
+                int x = random.nextInt(grid.getHeight());
+                int y = random.nextInt(grid.getWidth());
+                if ((x != start[0][0] || y != start[0][1]) && (x != end[0][0] || y != end[0][1]) && !cells.hasHighway(x, y)) {
+                    cells.setType(x, y, 1 + random.nextInt(2) - ((random.nextInt(8) == 0) ? 1 : 0));
+                }
+            }
+        });
+        Thread[] searchers = new Thread[SEARCHERS];
+        for (int t = 0 ; t < searchers.length ; ++t) {
+            searchers[t] = new Thread(() -> {
+                HierarchicalSearch search = new HierarchicalSearch(grid, new EuclideanDistanceByFour(grid));
+                search.setVerbose(false);
+                for (int i = 0 ; i < RUNS ; ++i) {
+                    try {
+                        search.run();
+                        if (search.getStatus() != SearchStatus.FOUND && search.getStatus() != SearchStatus.EXHAUSTED) {
+                            failed.incrementAndGet();
+                        }
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        editor.start();
+        for (Thread searcher : searchers) {
+            searcher.start();
+        }
+        try {
+            for (Thread searcher : searchers) {
+                searcher.join();
+            }
+            done.set(true);
+            editor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        done.set(true);
+        return failed.get() == 0;
+    } // ends the sharedWhileEdited() method
+
+} // ends the HierarchicalSearchTest class
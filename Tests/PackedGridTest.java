@@ -0,0 +1,99 @@
+package Tests;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import Grid.Grid;
+import Grid.PackedGrid;
+import Grid.TerrainCodec;
+
+/**
+ * This is the Packed Grid Test class, it checks the 4 bit codes of the cells and that the Terrain Codec gives back
+ * the cells it was given.
+ */
+public class PackedGridTest {
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        // every type and direction has its own code
+        boolean codes = true;
+        for (int type = 0 ; type <= 4 ; ++type) {
+            for (int dir = 0 ; dir <= 4 ; ++dir) {
+                int code = PackedGrid.codeOf(type, dir);
+                int keptDir = (type == 3 || type == 4) ? dir : 0;
+                codes &= code < PackedGrid.CODES && PackedGrid.typeOf(code) == type
+                        && PackedGrid.highwayDirOf(code) == keptDir;
+            }
+        }
+        Check.that(codes, "the codes keep the type and the direction of a highway");
+
+        // a direction on a cell that is not a highway is dropped quietly
+        PackedGrid grid = new PackedGrid(3, 5);
+        grid.setType(1, 1, 2);
+        grid.setHighwayDir(1, 1, 3);
+        Check.that(grid.getType(1, 1) == 2 && grid.getHighwayDir(grid.getIndex(1, 1)) == 0, "a cell that is not a highway has no direction");
+        grid.setType(1, 1, 4);
+        grid.setHighwayDir(1, 1, 3);
+        Check.that(grid.getType(1, 1) == 4 && grid.getHighwayDir(grid.getIndex(1, 1)) == 3, "a highway cell keeps its direction");
+        grid.setType(1, 1, 1);
+        Check.that(grid.getHighwayDir(grid.getIndex(1, 1)) == 0, "a highway cell that changes type loses its direction");
+
+        // the codec gives back the map, and a random grid (odd width, mostly RAW rows)
+        sameAfterCodec(Check.loadTestGrid().getPackedGrid(), "the test map");
+        Random random = new Random(7);
+        PackedGrid noise = new PackedGrid(9, 33);
+        for (int i = 0 ; i < noise.size() ; ++i) {
+            noise.setType(i, random.nextInt(5));
+            noise.setHighwayDir(i, random.nextInt(5));
+        }
+        sameAfterCodec(noise, "a random grid");
+        Grid generated = new Grid(40, 61);
+        generated.generateEntireGrid();
+        sameAfterCodec(generated.getPackedGrid(), "a generated grid");
+
+        boolean rejected = false;
+        try {
+            TerrainCodec.decode(ByteBuffer.wrap(new byte[] {TerrainCodec.RUNS, 0x10}), 1, 40);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        Check.that(rejected, "a truncated compressed grid is rejected");
+    } // ends the run() method
+
+
+    /**
+     * This method will check that a grid is the same after it is encoded and decoded.
+     * @param grid the grid
+     * @param name what is being checked
+     */
+    static void sameAfterCodec(PackedGrid grid, String name) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            TerrainCodec.encode(grid, out);
+        } catch (IOException e) {
+            Check.that(false, name + " can be encoded: " + e.getMessage());
+            return;
+        }
+        byte[] bytes = out.toByteArray();
+        ByteBuffer src = ByteBuffer.wrap(bytes);
+        PackedGrid read = TerrainCodec.decode(src, grid.getHeight(), grid.getWidth());
+        boolean same = true;
+        for (int i = 0 ; same && i < grid.size() ; ++i) {
+            same = grid.getCode(i) == read.getCode(i);
+        }
+        Check.that(same, name + " has the same cells after the codec");
+        Check.that(!src.hasRemaining(), name + " is read to the end of its bytes");
+        Check.that(bytes.length <= grid.getHeight() * (1 + (grid.getWidth() + 1) / 2), name + " is no bigger than RAW rows");
+    } // ends the sameAfterCodec() method
+
+} // ends the PackedGridTest class
@@ -0,0 +1,106 @@
+package Tests;
+
+import java.util.List;
+
+import Grid.Cell;
+import Grid.Grid;
+import Heuristic.EuclideanDistanceByFour;
+import Heuristic.ManhattanDistanceByFour;
+import SearchAlgos.AStarSearch;
+import SearchAlgos.BidirectionalAStarSearch;
+import SearchAlgos.DStarLiteSearch;
+import SearchAlgos.FocalSearch;
+import SearchAlgos.PathCache;
+import SearchAlgos.SearchBudget;
+import SearchAlgos.SearchStatus;
+
+/**
+ * This is the Path Cache Test class, it checks that cached answers are the same as a search and are dropped when
+ * an edit of the grid can change them.
+ */
+public class PathCacheTest {
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        Grid grid = Check.loadTestGrid();
+        PathCache cache = new PathCache(grid);
+        AStarSearch search = new AStarSearch(grid, new ManhattanDistanceByFour(grid));
+        search.setVerbose(false);
+
+        // a search stopped by its budget is not cached
+        search.setBudget(SearchBudget.ofExpansions(50));
+        Check.that(!cache.run(search), "the first query is a miss");
+        Check.that(search.getStatus() == SearchStatus.BUDGET_EXCEEDED, "the budget of the search is used");
+        Check.that(cache.size() == 0, "a search stopped by its budget is not cached");
+
+        // a hit looks like a finished run, not like the stopped one before it
+        search.setBudget(SearchBudget.UNLIMITED);
+        Check.that(!cache.run(search), "a query that was not cached is a miss");
+        float cost = search.getPathCost();
+        search.setBudget(SearchBudget.ofExpansions(50));
+        search.run();
+        search.setBudget(SearchBudget.UNLIMITED);
+        Check.that(cache.run(search), "the same query again is a hit");
+        Check.that(search.getStatus() == SearchStatus.FOUND, "a hit sets the status of the search");
+        Check.that(search.getPartialPath() == null, "a hit clears the partial path of the search");
+        Check.sameCost(cost, search.getPathCost(), "a hit has the cost of the search");
+
+        // blocking a cell of the path drops the answer, and the next answer goes around it
+        List<Cell> path = search.getPath();
+        Cell middle = path.get(path.size() / 2);
+        grid.getPackedGrid().setType(middle.getX(), middle.getY(), 0);
+        Check.that(cache.size() == 0, "blocking a cell of a cached path drops it");
+        Check.that(!cache.run(search), "the query after the edit is a miss");
+        Check.that(!search.getPath().contains(middle), "the new path does not go through the blocked cell");
+        AStarSearch fresh = new AStarSearch(grid, new ManhattanDistanceByFour(grid));
+        fresh.setVerbose(false);
+        fresh.run();
+        Check.sameCost(fresh.getPathCost(), search.getPathCost(), "the new answer has the cost of a fresh search");
+        cache.detach();
+
+        // searches set up differently never share an answer
+        grid = Check.loadTestGrid();
+        cache = new PathCache(grid);
+        FocalSearch loose = new FocalSearch(grid, new EuclideanDistanceByFour(grid), 3f);
+        FocalSearch exact = new FocalSearch(grid, new EuclideanDistanceByFour(grid), 1f);
+        loose.setVerbose(false);
+        exact.setVerbose(false);
+        cache.run(loose);
+        Check.that(!cache.run(exact), "a focal search with another weight is a miss");
+        Check.sameCost(Check.TEST_GRID_COST, exact.getPathCost(), "a focal search with a weight of 1 is optimal");
+        AStarSearch floats = new AStarSearch(grid, new ManhattanDistanceByFour(grid));
+        AStarSearch fixed = new AStarSearch(grid, new ManhattanDistanceByFour(grid));
+        floats.setVerbose(false);
+        fixed.setVerbose(false);
+        fixed.setFixedPoint(true);
+        cache.run(floats);
+        Check.that(!cache.run(fixed), "a fixed-point search is a miss for a float one");
+        BidirectionalAStarSearch plain = new BidirectionalAStarSearch(grid);
+        int[][] start = grid.getStartCell();
+        BidirectionalAStarSearch guided = new BidirectionalAStarSearch(grid, new EuclideanDistanceByFour(grid),
+                new EuclideanDistanceByFour(grid, start[0][0], start[0][1]));
+        plain.setVerbose(false);
+        guided.setVerbose(false);
+        cache.run(plain);
+        Check.that(!cache.run(guided), "a bidirectional search with other heuristics is a miss");
+        BidirectionalAStarSearch same = new BidirectionalAStarSearch(grid);
+        same.setVerbose(false);
+        Check.that(cache.run(same), "a bidirectional search set up the same way is a hit");
+        DStarLiteSearch planner = new DStarLiteSearch(grid);
+        planner.setVerbose(false);
+        int size = cache.size();
+        Check.that(!cache.run(planner) && !cache.run(planner), "a search with unknown settings is never a hit");
+        Check.that(cache.size() == size, "a search with unknown settings is not cached");
+        planner.detach();
+        cache.detach();
+    } // ends the run() method
+
+} // ends the PathCacheTest class
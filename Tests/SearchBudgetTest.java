@@ -0,0 +1,86 @@
+package Tests;
+
+import Grid.Grid;
+import Heuristic.ManhattanDistanceByFour;
+import SearchAlgos.AStarSearch;
+import SearchAlgos.CancellationToken;
+import SearchAlgos.SearchBudget;
+import SearchAlgos.SearchResult;
+import SearchAlgos.SearchStatus;
+import SearchAlgos.SequentialAStarSearch;
+import SearchAlgos.UniformCostSearch;
+
+/**
+ * This is the Search Budget Test class, it checks how a search ends when it is given a budget or cancelled.
+ */
+public class SearchBudgetTest {
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        Grid grid = Check.loadTestGrid();
+        AStarSearch search = new AStarSearch(grid, new ManhattanDistanceByFour(grid));
+        search.setVerbose(false);
+        search.run();
+        float cost = search.getPathCost();
+
+        SearchResult result = search.run(SearchBudget.ofExpansions(500));
+        Check.that(result.getStatus() == SearchStatus.BUDGET_EXCEEDED, "a search over its expansions is stopped");
+        Check.that(result.getNodesExpanded() <= 500, "a stopped search expands no more than its budget");
+        Check.that(result.isPartial() && result.getPath() != null, "a stopped search keeps a partial path");
+        Check.that(search.getPath() == null, "a stopped search has no path");
+
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        result = search.run(SearchBudget.of(token));
+        Check.that(result.getStatus() == SearchStatus.CANCELLED, "a cancelled search ends as cancelled");
+
+        // the budget of run(SearchBudget) is only for that run
+        search.run(SearchBudget.ofMillis(0));
+        search.run();
+        Check.that(search.getStatus() == SearchStatus.FOUND, "a plain run after a budgeted run is not stopped");
+        Check.sameCost(cost, search.getPathCost(), "a plain run after a budgeted run finds the same path");
+
+        result = search.run(SearchBudget.UNLIMITED);
+        Check.that(result.getStatus() == SearchStatus.FOUND && !result.isPartial(), "an unlimited search finds the goal");
+        Check.sameCost(cost, result.getCost(), "an unlimited search finds the same path");
+
+        // a budget set with setBudget() is kept, and put back after run(SearchBudget)
+        UniformCostSearch ucs = new UniformCostSearch(grid);
+        ucs.setVerbose(false);
+        ucs.setBudget(SearchBudget.ofExpansions(10));
+        ucs.run(SearchBudget.UNLIMITED);
+        Check.that(ucs.getStatus() == SearchStatus.FOUND, "run(SearchBudget) uses its own budget");
+        ucs.run();
+        Check.that(ucs.getStatus() == SearchStatus.BUDGET_EXCEEDED, "run(SearchBudget) puts back the budget set before");
+
+        // Uniform-Cost Search has no hCost, its partial path goes to the expanded cell furthest from the start
+        result = ucs.run(SearchBudget.ofExpansions(2000));
+        Check.that(result.getStatus() == SearchStatus.BUDGET_EXCEEDED, "a stopped Uniform-Cost Search is stopped");
+        Check.that(result.getPath().size() > 1, "a stopped Uniform-Cost Search has a partial path past the start");
+        Check.that(result.getCost() > 0, "the partial path of Uniform-Cost Search has a cost");
+
+        // Sequential A* keeps its budget the same way
+        SequentialAStarSearch sequential = new SequentialAStarSearch(grid, 1.25f, 2f);
+        sequential.setVerbose(false);
+        sequential.run();
+        float sequentialCost = sequential.getPathCost();
+        result = sequential.run(SearchBudget.of(token));
+        Check.that(result.getStatus() == SearchStatus.CANCELLED, "a cancelled Sequential A* ends as cancelled");
+        result = sequential.run(SearchBudget.ofExpansions(300));
+        Check.that(result.getStatus() == SearchStatus.BUDGET_EXCEEDED && result.isPartial(),
+                "a stopped Sequential A* keeps a partial path");
+        sequential.run(SearchBudget.ofMillis(0));
+        sequential.run();
+        Check.that(sequential.getStatus() == SearchStatus.FOUND, "a plain Sequential A* run after a budgeted run is not stopped");
+        Check.sameCost(sequentialCost, sequential.getPathCost(), "a plain Sequential A* run after a budgeted run finds the same path");
+    } // ends the run() method
+
+} // ends the SearchBudgetTest class
@@ -0,0 +1,146 @@
+package Tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import Grid.Grid;
+import Heuristic.EuclideanDistanceByFour;
+import Heuristic.LandmarkHeuristic;
+import Heuristic.ManhattanDistanceByFour;
+import SearchAlgos.AStarSearch;
+import SearchAlgos.AbstractSearch;
+import SearchAlgos.BidirectionalAStarSearch;
+import SearchAlgos.DStarLiteSearch;
+import SearchAlgos.DistanceFieldCache;
+import SearchAlgos.UniformCostSearch;
+
+/**
+ * This is the Search Cost Test class, it checks that every search that finds the best path finds a path of the same
+ * cost as Uniform-Cost Search, on the test map and on some generated maps.
+ * The cost of the test map is the optimal one, 127.824135. Before the fringe could lower the gCost of the cells on it
+ * (user-001) a cell was never reached again with a cheaper path, so Uniform-Cost Search found 132.92 and A* with
+ * ManhattanDistanceByFour found 131.93 on it.
+ */
+public class SearchCostTest {
+    // Global variables
+    private static final int GENERATED_GRIDS = 5;   // number of generated maps to search
+
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        Grid grid = Check.loadTestGrid();
+        sameCosts(grid, Check.TEST_GRID_COST, "the test map");
+        cachedCosts(grid, Check.TEST_GRID_COST, "the test map");
+        AStarSearch manhattan = new AStarSearch(grid, new ManhattanDistanceByFour(grid));
+        manhattan.setVerbose(false);
+        manhattan.run();
+        Check.sameCost(Check.TEST_GRID_COST, manhattan.getPathCost(), "A* with ManhattanDistanceByFour on the test map");
+
+        for (int i = 0 ; i < GENERATED_GRIDS ; ++i) {
+            Grid generated = Check.generateGrid();
+            UniformCostSearch ucs = new UniformCostSearch(generated);
+            ucs.setVerbose(false);
+            ucs.run();
+            Check.that(ucs.getPathCost() > 0, "Uniform-Cost Search finds a path on generated map " + i);
+            sameCosts(generated, ucs.getPathCost(), "generated map " + i);
+            cachedCosts(generated, ucs.getPathCost(), "generated map " + i);
+        }
+    } // ends the run() method
+
+
+    /**
+     * This method will make every search of a grid that should find the best path.
+     * The heuristics are admissible on every map (EuclideanDistanceByFour never costs more than the cheapest moves).
+     * @param grid the grid
+     * @return the searches, with their names
+     */
+    static List<Named> optimalSearches(Grid grid) {
+        List<Named> searches = new ArrayList<>();
+        searches.add(new Named("UniformCostSearch", new UniformCostSearch(grid)));
+        searches.add(new Named("AStarSearch", new AStarSearch(grid, new EuclideanDistanceByFour(grid))));
+        AStarSearch fixedPoint = new AStarSearch(grid, new EuclideanDistanceByFour(grid));
+        fixedPoint.setFixedPoint(true);
+        searches.add(new Named("AStarSearch (fixed-point)", fixedPoint));
+        searches.add(new Named("AStarSearch (landmarks)", new AStarSearch(grid, new LandmarkHeuristic(grid))));
+        searches.add(new Named("BidirectionalAStarSearch", new BidirectionalAStarSearch(grid)));
+        UniformCostSearch field = new UniformCostSearch(grid);
+        field.computeDistanceField();
+        searches.add(new Named("UniformCostSearch (distance field)", field));
+        DStarLiteSearch dStarLite = new DStarLiteSearch(grid);
+        searches.add(new Named("DStarLiteSearch", dStarLite, dStarLite::detach));
+        return searches;
+    } // ends the optimalSearches() method
+
+
+    /**
+     * This method will check that every search that finds the best path finds one of a cost.
+     * @param grid the grid to search
+     * @param cost the cost of the best path
+     * @param name the name of the grid
+     */
+    static void sameCosts(Grid grid, float cost, String name) {
+        for (Named named : optimalSearches(grid)) {
+            try {
+                named.search.setVerbose(false);
+                named.search.run();
+                Check.sameCost(cost, named.search.getPathCost(), named.name + " on " + name);
+            } finally {
+                named.release.run();
+            }
+        }
+    } // ends the sameCosts() method
+
+
+    /**
+     * This method will check that Uniform-Cost Search finds the best path with a distance field cache, once when the
+     * field is built and once when it is taken from the cache.
+     * @param grid the grid to search
+     * @param cost the cost of the best path
+     * @param name the name of the grid
+     */
+    static void cachedCosts(Grid grid, float cost, String name) {
+        DistanceFieldCache fields = new DistanceFieldCache(grid);
+        try {
+            UniformCostSearch cached = new UniformCostSearch(grid);
+            cached.setVerbose(false);
+            cached.setDistanceFieldCache(fields);
+            cached.run();
+            Check.sameCost(cost, cached.getPathCost(), "UniformCostSearch (distance field cache) on " + name);
+            cached.run();
+            Check.sameCost(cost, cached.getPathCost(), "UniformCostSearch (cached distance field) on " + name);
+            Check.that(fields.getHits() == 1, "the distance field is cached on " + name);
+        } finally {
+            fields.detach();
+        }
+    } // ends the cachedCosts() method
+
+
+    /**
+     * This is the Named class, a search with the name its checks are printed with, and what to do once it is checked
+     * (a search that listens to its grid has to stop listening, or the grid keeps it for as long as the grid lives).
+     */
+    static final class Named {
+        final String name;              // name of the search and how it is set up
+        final AbstractSearch search;    // the search
+        final Runnable release;         // run once the search is checked
+
+        Named(String name, AbstractSearch search) {
+            this(name, search, () -> { });
+        } // ends the Named() constructor
+
+        Named(String name, AbstractSearch search, Runnable release) {
+            this.name = name;
+            this.search = search;
+            this.release = release;
+        } // ends the Named() constructor
+    } // ends the Named class
+
+} // ends the SearchCostTest class
@@ -0,0 +1,239 @@
+package Tests;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import Grid.Cell;
+import Grid.Grid;
+import Grid.GridSnapshot;
+import Grid.PackedGrid;
+import Heuristic.EuclideanDistanceByFour;
+import Heuristic.ManhattanDistanceByFour;
+import SearchAlgos.AStarSearch;
+import SearchAlgos.AbstractSearch;
+import SearchAlgos.BidirectionalAStarSearch;
+import SearchAlgos.CostModel;
+import SearchAlgos.DistanceFieldCache;
+import SearchAlgos.FocalSearch;
+import SearchAlgos.UniformCostSearch;
+import SearchAlgos.WeightedAStarSearch;
+
+/**
+ * This is the Snapshot Test class, it checks that the searches on a snapshot find the same paths as on the live grid,
+ * that the cost models of the snapshots share the rows that did not change, that the cost model of the grid keeps up
+ * with edits made by many threads, and that a search on a snapshot never uses anything built from another version.
+ */
+public class SnapshotTest {
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        Grid grid = Check.loadTestGrid();
+        PackedGrid packed = grid.getPackedGrid();
+
+        // every search that can read a snapshot finds the same cost as on the live grid
+        AbstractSearch[] searches = {
+            new UniformCostSearch(grid),
+            new AStarSearch(grid, new ManhattanDistanceByFour(grid)),
+            new WeightedAStarSearch(grid, new EuclideanDistanceByFour(grid), 1.5f),
+            new FocalSearch(grid, new EuclideanDistanceByFour(grid), 1.5f),
+            new BidirectionalAStarSearch(grid),
+        };
+        for (AbstractSearch search : searches) {
+            String name = search.getClass().getSimpleName();
+            search.setVerbose(false);
+            search.run();
+            float live = search.getPathCost();
+            search.setSnapshotIsolation(true);
+            search.run();
+            Check.that(search.getSnapshot() != null, name + " reads a snapshot");
+            Check.sameCost(live, search.getPathCost(), name + " on a snapshot");
+            search.setFixedPoint(true);
+            search.run();
+            search.setFixedPoint(false);
+            Check.sameCost(live, search.getPathCost(), name + " on a snapshot with fixed-point costs");
+        }
+        AStarSearch search = new AStarSearch(grid, new ManhattanDistanceByFour(grid));
+        search.setVerbose(false);
+        search.run();
+        Check.sameCost(127.824135f, search.getPathCost(), "A* on the test map");
+
+        // the model of a later snapshot only compiles the rows around the edit again
+        GridSnapshot before = grid.snapshot();
+        CostModel beforeModel = CostModel.of(before);
+        beforeModel.getFixedWeightRows();
+        int type = packed.getType(50, 50);
+        packed.setType(50, 50, (type == 0) ? 2 : 0);
+        GridSnapshot after = grid.snapshot();
+        CostModel afterModel = CostModel.of(after);
+        boolean shared = true;
+        for (int x = 0 ; x < grid.getHeight() ; ++x) {
+            boolean near = x >= 49 && x <= 51;
+            shared &= (afterModel.getWeightRows()[x] == beforeModel.getWeightRows()[x]) != near;
+            shared &= (afterModel.getFixedWeightRows()[x] == beforeModel.getFixedWeightRows()[x]) != near;
+        }
+        Check.that(shared, "a later snapshot model shares every row but the ones around the edit");
+        Check.that(sameEdges(afterModel, new CostModel(after), grid), "a later snapshot model has the costs of the snapshot");
+        Check.that(sameEdges(beforeModel, new CostModel(before), grid), "an older snapshot model does not change");
+        packed.setType(50, 50, type);
+
+        // neighboring cells edited by many threads at once leave the model of the grid as if it was compiled again
+        CostModel model = CostModel.of(packed);
+        Thread[] writers = new Thread[4];
+        for (int t = 0 ; t < writers.length ; ++t) {
+            final int y = 20 + t;   // next to each other, so the writers change the same edges
+            writers[t] = new Thread(() -> {
+                for (int i = 0 ; i < 20000 ; ++i) {
+                    for (int x = 30 ; x < 34 ; ++x) {
+                        packed.setType(x, y, 1 + (i + x) % 2);
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            try {
+                writer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        GridSnapshot edited = grid.snapshot();
+        Check.that(sameEdges(model, new CostModel(edited), grid), "the grid model keeps up with edits from many threads");
+        Check.that(compiledWhileEdited(), "a grid model compiled while the grid is edited has every edit");
+
+        // an isolated Uniform-Cost Search with a cache of distance fields only follows a field of its own snapshot
+        Grid busy = Check.loadTestGrid();
+        PackedGrid cells = busy.getPackedGrid();
+        int[][] start = busy.getStartCell();
+        int[][] end = busy.getEndCell();
+        AtomicBoolean done = new AtomicBoolean();
+        Thread editor = new Thread(() -> {
+            Random random = new Random(3);
+            while (!done.get()) {
+                int x = random.nextInt(busy.getHeight());
+                int y = random.nextInt(busy.getWidth());
+                if ((x != start[0][0] || y != start[0][1]) && (x != end[0][0] || y != end[0][1]) && !cells.hasHighway(x, y)) {
+                    cells.setType(x, y, 1 + random.nextInt(2) - ((random.nextInt(8) == 0) ? 1 : 0));
+                }
+            }
+        });
+        editor.start();
+        DistanceFieldCache fields = new DistanceFieldCache(busy);
+        UniformCostSearch ucs = new UniformCostSearch(busy);
+        ucs.setVerbose(false);
+        ucs.setSnapshotIsolation(true);
+        ucs.setDistanceFieldCache(fields);
+        boolean consistent = true;
+        for (int i = 0 ; i < 200 && consistent ; ++i) {
+            ucs.run();
+            consistent = onSnapshot(ucs.getPath(), ucs.getPathCost(), ucs.getSnapshot(), busy.getWidth());
+        }
+        done.set(true);
+        try {
+            editor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        fields.detach();
+        Check.that(consistent, "an isolated Uniform-Cost Search only takes paths and costs of its own snapshot");
+    } // ends the run() method
+
+
+    /**
+     * This method will compile the models of some grids while another thread edits them, and check them once the
+     * edits stop.
+     * @return true if every model has the costs of its grid and false otherwise
+     */
+    static boolean compiledWhileEdited() {
+        for (int i = 0 ; i < 10 ; ++i) {
+            final int seed = i;
+            Grid grid = Check.loadTestGrid();
+            PackedGrid cells = grid.getPackedGrid();
+            AtomicBoolean started = new AtomicBoolean();
+            AtomicBoolean done = new AtomicBoolean();
+            Thread editor = new Thread(() -> {
+                Random random = new Random(seed);
+                while (!done.get()) {
+                    int x = random.nextInt(grid.getHeight());
+                    int y = random.nextInt(grid.getWidth());
+                    if (!cells.hasHighway(x, y)) {
+                        cells.setType(x, y, random.nextInt(3));
+                    }
+                    started.set(true);
+                }
+            });
+            editor.start();
+            while (!started.get()) {
+                Thread.yield();
+            }
+            CostModel model = CostModel.of(cells);
+            done.set(true);
+            try {
+                editor.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (!sameEdges(model, new CostModel(grid.snapshot()), grid)) {
+                return false;
+            }
+        }
+        return true;
+    } // ends the compiledWhileEdited() method
+
+
+    /**
+     * This method will check that a path is open on a snapshot and that its cost is the cost on the snapshot.
+     * @param path the path (null => no path)
+     * @param cost the cost the search gave for the path
+     * @param snapshot the snapshot the search read
+     * @param width the width of the grid
+     * @return true if the path could have been found on the snapshot and false otherwise
+     */
+    static boolean onSnapshot(List<Cell> path, float cost, GridSnapshot snapshot, int width) {
+        if (path == null) {
+            return true;
+        }
+        CostModel costs = new CostModel(snapshot);
+        float total = 0f;
+        for (int i = 1 ; i < path.size() ; ++i) {
+            float step = costs.getCost(path.get(i - 1).getX() * width + path.get(i - 1).getY(),
+                    path.get(i).getX() * width + path.get(i).getY());
+            if (step < 0) {
+                return false;
+            }
+            total += step;
+        }
+        return Math.abs(total - cost) <= Check.COST_EPSILON;
+    } // ends the onSnapshot() method
+
+
+    /**
+     * This method will check that two models have the same cost for every edge.
+     * @param actual the model to check
+     * @param expected the model with the right costs
+     * @param grid the grid of the models
+     * @return true if every edge has the same cost and false otherwise
+     */
+    static boolean sameEdges(CostModel actual, CostModel expected, Grid grid) {
+        int size = grid.getHeight() * grid.getWidth();
+        for (int index = 0 ; index < size ; ++index) {
+            for (int d = 0 ; d < CostModel.DIRECTIONS ; ++d) {
+                if (Float.compare(actual.getEdgeCost(index, d), expected.getEdgeCost(index, d)) != 0) {
+                    return false;
+                }
+            }
+        }
+        return Arrays.equals(actual.getOffsets(), expected.getOffsets());
+    } // ends the sameEdges() method
+
+} // ends the SnapshotTest class
@@ -0,0 +1,65 @@
+package Tests;
+
+import java.io.File;
+import java.io.IOException;
+
+import Grid.Grid;
+import Grid.PackedGrid;
+import Grid.TiledGrid;
+import SearchAlgos.SearchBudget;
+import SearchAlgos.SearchResult;
+import SearchAlgos.SearchStatus;
+import SearchAlgos.TiledAStarSearch;
+
+/**
+ * This is the Tiled Grid Test class, it checks that a grid saved as tiles reads back the same with only a few tiles
+ * in memory, and that Tiled A* finds the best path on it.
+ */
+public class TiledGridTest {
+
+    public static void main(String[] args) {
+        run();
+        Check.report();
+    } // ends the main() method
+
+
+    /**
+     * This method will run every check of the test.
+     */
+    static void run() {
+        Grid grid = Check.loadTestGrid();
+        PackedGrid packed = grid.getPackedGrid();
+        try {
+            File file = File.createTempFile("grid", ".tiles");
+            file.deleteOnExit();
+            TiledGrid.save(grid, file, 16);
+            try (TiledGrid tiles = TiledGrid.open(file, 4, false)) {
+                boolean same = tiles.getHeight() == grid.getHeight() && tiles.getWidth() == grid.getWidth();
+                for (int x = 0 ; same && x < grid.getHeight() ; ++x) {
+                    for (int y = 0 ; same && y < grid.getWidth() ; ++y) {
+                        same = tiles.getType(x, y) == packed.getType(x, y)
+                                && tiles.getHighwayDir(x, y) == packed.getHighwayDir(packed.getIndex(x, y));
+                    }
+                }
+                Check.that(same, "a tiled grid has the cells of the grid it was saved from");
+                Check.that(tiles.getResidentTiles() <= tiles.getMaxResidentTiles(), "a tiled grid keeps at most its tiles in memory");
+
+                TiledAStarSearch search = new TiledAStarSearch(tiles, 1f);
+                search.setVerbose(false);
+                search.run();
+                Check.sameCost(Check.TEST_GRID_COST, search.getPathCost(), "Tiled A* on the test map");
+
+                SearchResult result = search.run(SearchBudget.ofExpansions(50));
+                Check.that(result.getStatus() == SearchStatus.BUDGET_EXCEEDED && result.isPartial(),
+                        "a stopped Tiled A* keeps a partial path");
+                search.run(SearchBudget.ofMillis(0));
+                search.run();
+                Check.that(search.getStatus() == SearchStatus.FOUND, "a plain Tiled A* run after a budgeted run is not stopped");
+                Check.sameCost(Check.TEST_GRID_COST, search.getPathCost(), "a plain Tiled A* run after a budgeted run");
+            }
+        } catch (IOException e) {
+            Check.that(false, "the tiled grid can be saved and opened: " + e.getMessage());
+        }
+    } // ends the run() method
+
+} // ends the TiledGridTest class
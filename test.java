@@ -1,9 +1,7 @@
 
 //import java.io.File;
 //import java.util.LinkedList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
 import java.util.*;
 
 
@@ -19,15 +17,17 @@ import SearchAlgos.UniformCostSearch;
 import SearchAlgos.WeightedAStarSearch;
 import SearchAlgos.AStarSearch;
 import SearchAlgos.SequentialAStarSearch;
+import SearchAlgos.SearchContext;
+import SearchAlgos.CellBitmap;
 
 public class test {
 	
-	public static void printSequentialGrid(Grid test, List<Cell> path, HashMap<Cell, Cell[]> exploredCells) {
+	public static void printSequentialGrid(Grid test, List<Cell> path, CellBitmap exploredCells) {
         for(int i = 0; i < test.getGrid().length; i++) {
         	for(int j = 0; j < test.getGrid()[0].length; j++) {
         		if(path.contains(test.getGrid()[i][j])) {
                     System.out.print("*");
-                } else if (exploredCells.containsKey(test.getGrid()[i][j])) {
+                } else if (exploredCells.get(i, j)) {
                     System.out.print("V");
                 } else {
                     if (test.getGrid()[i][j].getType() == 3) {
@@ -54,7 +54,7 @@ public class test {
     			SequentialAStarSearch a = new SequentialAStarSearch(grid, 1.5f, 2f);
     	        a.run();
     	        List<Cell> path = a.getPath();
-    	        HashMap<Cell, Cell[]> exploredCells = a.getExploredCells();
+    	        CellBitmap exploredCells = a.getExploredCells();
     	        printSequentialGrid(grid, path, exploredCells);
     			while(true) {
     				Scanner input = new Scanner(System.in);
@@ -66,9 +66,14 @@ public class test {
 	    					break;
 	    				int row = Integer.parseInt(str.substring(0, str.indexOf(",")));
 	    				int col = Integer.parseInt(str.substring(str.indexOf(",") + 1));
-	    				System.out.println("gCost:" + exploredCells.get(grid.getGrid()[row][col])[grid.getGrid()[row][col].index].getgCost());
-	    				System.out.println("hCost:" + exploredCells.get(grid.getGrid()[row][col])[grid.getGrid()[row][col].index].gethCost());
-	    				System.out.println("fCost:" + exploredCells.get(grid.getGrid()[row][col])[grid.getGrid()[row][col].index].getfCost());
+	    				// print the costs found by every heuristic that reached the cell
+	    				for (int h = 0; h < 5; h++) {
+	    					SearchContext ctx = a.getContext(h);
+	    					int index = ctx.getIndex(row, col);
+	    					if (ctx.isGenerated(index)) {
+	    						System.out.println("Heuristic " + h + " -> gCost:" + ctx.getGCost(index) + " hCost:" + ctx.getHCost(index) + " fCost:" + (ctx.getGCost(index) + ctx.getHCost(index)));
+	    					}
+	    				}
     				}
     				catch(Exception e) {
     					System.out.println("Invalid format OR Cell is not on the path OR Cell has not been visited.\nPlease Try again.");
@@ -102,7 +107,7 @@ public class test {
         AStarSearch a = new AStarSearch(test,heu);
         a.run();
         List<Cell> path = a.getPath();
-        Set<Cell> explored = a.getExploredCells();
+        CellBitmap explored = a.getExploredCells();
         for(int i = 0; i < test.getGrid().length; i++) {
         	for(int j = 0; j < test.getGrid()[0].length; j++) {
         		if(path.contains(test.getGrid()[i][j])) {
@@ -204,13 +209,13 @@ public class test {
         SequentialAStarSearch a4 = new SequentialAStarSearch(test,1.5f, 2f);
         a4.run();
         path = a4.getPath();
-        HashMap<Cell, Cell[]> exploredCells = a4.getExploredCells();
+        CellBitmap exploredCells = a4.getExploredCells();
 
         for(int i = 0; i < test.getGrid().length; i++) {
         	for(int j = 0; j < test.getGrid()[0].length; j++) {
         		if(path.contains(test.getGrid()[i][j])) {
                     System.out.print("*");
-                } else if (exploredCells.containsKey(test.getGrid()[i][j])) {
+                } else if (exploredCells.contains(test.getGrid()[i][j])) {
                     System.out.print("V");
                 } else {
                     if (test.getGrid()[i][j].getType() == 3) {